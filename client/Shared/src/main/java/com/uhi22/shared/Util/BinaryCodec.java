@@ -0,0 +1,378 @@
+/** The BinaryCodec class encodes and decodes a User's Persons or Events in the application/x-familymap-binary format
+ *  JSON repeats every field name, and the associatedUsername, country, city and eventType of every row,
+ *  so a tree sent in this format is a fraction of the size of the same tree in JSON
+ *  The server has the same codec, so ServerProxy can decode what the server encodes
+ *
+ *  The format works as follows:
+ *      The body starts with the magic bytes FMB1, a byte denoting whether it holds Persons or Events, and the number of rows
+ *      Every string of the body is written once in a dictionary, as its length in UTF-8 bytes followed by the bytes
+ *      The rows are written a column at a time, so every column holds values of one kind
+ *      A string column holds the place of every value in the dictionary plus one, with 0 standing for null
+ *      The latitude and longitude columns hold every float in 4 bytes, and the year column holds every year as a zigzag varint
+ *      Every count, length and place is written as a varint, which takes a byte for every 7 bits the number needs
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package com.uhi22.shared.Util;
+
+import com.uhi22.shared.model.Event;
+import com.uhi22.shared.model.Person;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BinaryCodec {
+
+    /**
+     * CONTENT_TYPE is the media type of a body in this format, which a client asks for in its Accept header
+     */
+    public static final String CONTENT_TYPE = "application/x-familymap-binary";
+
+    private static final byte[] MAGIC = {'F', 'M', 'B', '1'};
+    private static final byte PERSONS = 1;
+    private static final byte EVENTS = 2;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Empty constructor
+     */
+    private BinaryCodec() {}
+
+    /**
+     * isAccepted denotes whether the given Accept header asks for this format
+     * The format is chosen when it is listed without q=0, and isn't given a lower q than application/json,
+     * so a client that doesn't ask for it, or sends no Accept header, still gets JSON
+     *
+     * @param accept contains the Accept header of the request, or null if it has none
+     * @return provides true if the response should be sent in this format
+     */
+    public static boolean isAccepted(String accept) {
+        if(accept == null) {
+            return false;
+        }
+        double binaryQuality = 0;
+        double jsonQuality = 0;
+        for(String range : accept.split(",")) {
+            String[] parameters = range.split(";");
+            String type = parameters[0].trim().toLowerCase();
+            double quality = 1;
+            for(int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim();
+                if(parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if(CONTENT_TYPE.equals(type)) {
+                binaryQuality = Math.max(binaryQuality, quality);
+            } else if("application/json".equals(type)) {
+                jsonQuality = Math.max(jsonQuality, quality);
+            }
+        }
+        return binaryQuality > 0 && binaryQuality >= jsonQuality;
+    }
+
+    /**
+     * isBinary denotes whether the given Content-Type header is this format
+     * @param contentType contains the Content-Type header of a response, or null if it has none
+     * @return provides true if the body is in this format
+     */
+    public static boolean isBinary(String contentType) {
+        return contentType != null && contentType.trim().toLowerCase().startsWith(CONTENT_TYPE);
+    }
+
+    /**
+     * encodePersons encodes the given Persons
+     * @param persons contains the Persons to encode
+     * @return provides the encoded body
+     */
+    public static byte[] encodePersons(List<Person> persons) {
+        Columns columns = new Columns();
+        for(Person person : persons) {
+            columns.string(person.getPersonID());
+        }
+        for(Person person : persons) {
+            columns.string(person.getAssociatedUsername());
+        }
+        for(Person person : persons) {
+            columns.string(person.getFirstName());
+        }
+        for(Person person : persons) {
+            columns.string(person.getLastName());
+        }
+        for(Person person : persons) {
+            columns.string(person.getGender());
+        }
+        for(Person person : persons) {
+            columns.string(person.getFatherID());
+        }
+        for(Person person : persons) {
+            columns.string(person.getMotherID());
+        }
+        for(Person person : persons) {
+            columns.string(person.getSpouseID());
+        }
+        return columns.toBody(PERSONS, persons.size());
+    }
+
+    /**
+     * encodeEvents encodes the given Events
+     * @param events contains the Events to encode
+     * @return provides the encoded body
+     */
+    public static byte[] encodeEvents(List<Event> events) {
+        Columns columns = new Columns();
+        for(Event event : events) {
+            columns.string(event.getEventID());
+        }
+        for(Event event : events) {
+            columns.string(event.getAssociatedUsername());
+        }
+        for(Event event : events) {
+            columns.string(event.getPersonID());
+        }
+        for(Event event : events) {
+            columns.floatValue(event.getLatitude());
+        }
+        for(Event event : events) {
+            columns.floatValue(event.getLongitude());
+        }
+        for(Event event : events) {
+            columns.string(event.getCountry());
+        }
+        for(Event event : events) {
+            columns.string(event.getCity());
+        }
+        for(Event event : events) {
+            columns.string(event.getEventType());
+        }
+        for(Event event : events) {
+            columns.signedVarint(event.getYear());
+        }
+        return columns.toBody(EVENTS, events.size());
+    }
+
+    /**
+     * decodePersons decodes the Persons of the given body
+     * @param body contains a body that encodePersons made
+     * @return provides the Persons in the order they were encoded
+     * @throws IOException occurs when the body isn't a whole body of Persons in this format
+     */
+    public static ArrayList<Person> decodePersons(byte[] body) throws IOException {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(body);
+            int count = readHeader(in, PERSONS);
+            String[] dictionary = readDictionary(in);
+            String[][] strings = new String[8][];
+            for(int column = 0; column < strings.length; column++) {
+                strings[column] = readStrings(in, dictionary, count);
+            }
+            checkEnd(in);
+            ArrayList<Person> persons = new ArrayList<Person>(count);
+            for(int i = 0; i < count; i++) {
+                persons.add(new Person(strings[0][i], strings[1][i], strings[2][i], strings[3][i],
+                        strings[4][i], strings[5][i], strings[6][i], strings[7][i]));
+            }
+            return persons;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("The body ends before its last Person");
+        }
+    }
+
+    /**
+     * decodeEvents decodes the Events of the given body
+     * @param body contains a body that encodeEvents made
+     * @return provides the Events in the order they were encoded
+     * @throws IOException occurs when the body isn't a whole body of Events in this format
+     */
+    public static ArrayList<Event> decodeEvents(byte[] body) throws IOException {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(body);
+            int count = readHeader(in, EVENTS);
+            String[] dictionary = readDictionary(in);
+            String[] eventIDs = readStrings(in, dictionary, count);
+            String[] usernames = readStrings(in, dictionary, count);
+            String[] personIDs = readStrings(in, dictionary, count);
+            float[] latitudes = readFloats(in, count);
+            float[] longitudes = readFloats(in, count);
+            String[] countries = readStrings(in, dictionary, count);
+            String[] cities = readStrings(in, dictionary, count);
+            String[] eventTypes = readStrings(in, dictionary, count);
+            ArrayList<Event> events = new ArrayList<Event>(count);
+            for(int i = 0; i < count; i++) {
+                Event event = new Event();
+                event.setEventID(eventIDs[i]);
+                event.setAssociatedUsername(usernames[i]);
+                event.setPersonID(personIDs[i]);
+                event.setLatitude(latitudes[i]);
+                event.setLongitude(longitudes[i]);
+                event.setCountry(countries[i]);
+                event.setCity(cities[i]);
+                event.setEventType(eventTypes[i]);
+                event.setYear(readSignedVarint(in));
+                events.add(event);
+            }
+            checkEnd(in);
+            return events;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("The body ends before its last Event");
+        }
+    }
+
+    /**
+     * Columns collects the columns of a body, along with the dictionary of the strings in them
+     */
+    private static class Columns {
+
+        private final ByteArrayOutputStream columns = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream dictionary = new ByteArrayOutputStream();
+        private final Map<String, Integer> places = new HashMap<String, Integer>();
+
+        /**
+         * string writes the place of the given string in the dictionary, adding it to the dictionary the first time it is seen
+         */
+        void string(String value) {
+            if(value == null) {
+                writeVarint(columns, 0);
+                return;
+            }
+            Integer place = places.get(value);
+            if(place == null) {
+                place = places.size() + 1;
+                places.put(value, place);
+                byte[] bytes = value.getBytes(UTF_8);
+                writeVarint(dictionary, bytes.length);
+                dictionary.write(bytes, 0, bytes.length);
+            }
+            writeVarint(columns, place);
+        }
+
+        void floatValue(float value) {
+            int bits = Float.floatToIntBits(value);
+            columns.write(bits >>> 24);
+            columns.write(bits >>> 16);
+            columns.write(bits >>> 8);
+            columns.write(bits);
+        }
+
+        void signedVarint(int value) {
+            writeVarint(columns, (value << 1) ^ (value >> 31));
+        }
+
+        /**
+         * toBody puts the header, the dictionary and the columns together
+         */
+        byte[] toBody(byte kind, int count) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream(16 + dictionary.size() + columns.size());
+            body.write(MAGIC, 0, MAGIC.length);
+            body.write(kind);
+            writeVarint(body, count);
+            writeVarint(body, places.size());
+            byte[] strings = dictionary.toByteArray();
+            body.write(strings, 0, strings.length);
+            byte[] rows = columns.toByteArray();
+            body.write(rows, 0, rows.length);
+            return body.toByteArray();
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    /**
+     * readHeader checks the magic bytes and the kind of the body, and provides the number of rows
+     */
+    private static int readHeader(ByteBuffer in, byte kind) throws IOException {
+        for(byte magic : MAGIC) {
+            if(in.get() != magic) {
+                throw new IOException("The body isn't in the " + CONTENT_TYPE + " format");
+            }
+        }
+        if(in.get() != kind) {
+            throw new IOException("The body doesn't hold " + (kind == PERSONS ? "Persons" : "Events"));
+        }
+//        Every row takes at least a byte, so a count larger than the rest of the body can't be right
+        return readCount(in);
+    }
+
+    private static String[] readDictionary(ByteBuffer in) throws IOException {
+        String[] dictionary = new String[readCount(in)];
+        for(int i = 0; i < dictionary.length; i++) {
+            int length = readCount(in);
+            dictionary[i] = new String(in.array(), in.position(), length, UTF_8);
+            in.position(in.position() + length);
+        }
+        return dictionary;
+    }
+
+    private static String[] readStrings(ByteBuffer in, String[] dictionary, int count) throws IOException {
+        String[] strings = new String[count];
+        for(int i = 0; i < count; i++) {
+            int place = readVarint(in);
+            if(place < 0 || place > dictionary.length) {
+                throw new IOException("The body refers to a string that isn't in its dictionary");
+            }
+            strings[i] = place == 0 ? null : dictionary[place - 1];
+        }
+        return strings;
+    }
+
+    private static float[] readFloats(ByteBuffer in, int count) {
+        float[] floats = new float[count];
+        for(int i = 0; i < count; i++) {
+            floats[i] = in.getFloat();
+        }
+        return floats;
+    }
+
+    /**
+     * readCount reads a count or length, which can't be larger than the rest of the body
+     */
+    private static int readCount(ByteBuffer in) throws IOException {
+        int count = readVarint(in);
+        if(count < 0 || count > in.remaining()) {
+            throw new IOException("The body is shorter than the count it holds");
+        }
+        return count;
+    }
+
+    private static int readSignedVarint(ByteBuffer in) throws IOException {
+        int value = readVarint(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int readVarint(ByteBuffer in) throws IOException {
+        int value = 0;
+        for(int shift = 0; shift < 35; shift += 7) {
+            byte next = in.get();
+            value |= (next & 0x7F) << shift;
+            if((next & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("The body holds a varint longer than 5 bytes");
+    }
+
+    private static void checkEnd(ByteBuffer in) throws IOException {
+        if(in.hasRemaining()) {
+            throw new IOException("The body goes on after its last row");
+        }
+    }
+}
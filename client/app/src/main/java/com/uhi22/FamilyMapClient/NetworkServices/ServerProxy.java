@@ -2,6 +2,7 @@
  * This class has several methods in it which allow for network interfacing with the server
  * Supported operations include registration, login, get person, get all persons, get event, get all events,
  * clear, and load
+ * All persons and all events are asked for in the application/x-familymap-binary format, which the server sends if it supports it
  *
  * This class can be used with junit for tests, as opposed to doing the asynctasks directly with the network functionality
  *
@@ -14,6 +15,7 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.uhi22.shared.Util.BinaryCodec;
 import com.uhi22.shared.Util.JsonUtil;
 import com.uhi22.shared.Requests.LoadRequest;
 import com.uhi22.shared.Requests.RegisterRequest;
@@ -28,8 +30,10 @@ import com.uhi22.shared.model.Event;
 import com.uhi22.shared.model.Person;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.URL;
@@ -37,6 +41,15 @@ import java.util.ArrayList;
 
 public class ServerProxy {
 
+    /**
+     * READ_ATTEMPTS is the number of times a read is sent while the server answers that the User's ancestors are still being generated
+     */
+    private static final int READ_ATTEMPTS = 6;
+    /**
+     * FIRST_RETRY_MILLIS is the wait before the first retry, which doubles before each retry after it
+     */
+    private static final long FIRST_RETRY_MILLIS = 250;
+
     /**
      * This method performs network functionality to support the REGISTER operation
      * host and port data is provided to reach the server
@@ -174,9 +187,7 @@ public class ServerProxy {
 //        build the Http Request
         PersonResponse response = new PersonResponse();
         URL getPersonUrl = new URL("http://" + host + ":" + port + "/person/" + personID);
-        HttpURLConnection connection = (HttpURLConnection) getPersonUrl.openConnection();
-        connection.setRequestMethod("GET");
-        connection.setRequestProperty("Authorization", authToken);
+        HttpURLConnection connection = openRead(getPersonUrl, authToken, false);
 //        Close connection and read the response
         InputStreamReader read;
         try {
@@ -237,9 +248,12 @@ public class ServerProxy {
 //        build the Http Request
         AllPersonsResponse response = new AllPersonsResponse();
         URL getPersonUrl = new URL("http://" + host + ":" + port + "/person");
-        HttpURLConnection connection = (HttpURLConnection) getPersonUrl.openConnection();
-        connection.setRequestMethod("GET");
-        connection.setRequestProperty("Authorization", authToken);
+        HttpURLConnection connection = openRead(getPersonUrl, authToken, true);
+        if(connection.getResponseCode() == HttpURLConnection.HTTP_OK && BinaryCodec.isBinary(connection.getContentType())) {
+            response.setData(BinaryCodec.decodePersons(readBytes(connection.getInputStream())));
+            response.setSuccess(true);
+            return response;
+        }
 //        Close connection and read the response
         InputStreamReader read;
         try {
@@ -289,9 +303,7 @@ public class ServerProxy {
 //        build the Http Request
         EventResponse response = new EventResponse();
         URL getEventUrl = new URL("http://" + host + ":" + port + "/event/" + eventID);
-        HttpURLConnection connection = (HttpURLConnection) getEventUrl.openConnection();
-        connection.setRequestMethod("GET");
-        connection.setRequestProperty("Authorization", authToken);
+        HttpURLConnection connection = openRead(getEventUrl, authToken, false);
 //        Close connection and read the response
         InputStreamReader read;
         try {
@@ -341,9 +353,12 @@ public class ServerProxy {
 //        build the Http Request
         AllEventsResponse response = new AllEventsResponse();
         URL getEventUrl = new URL("http://" + host + ":" + port + "/event");
-        HttpURLConnection connection = (HttpURLConnection) getEventUrl.openConnection();
-        connection.setRequestMethod("GET");
-        connection.setRequestProperty("Authorization", authToken);
+        HttpURLConnection connection = openRead(getEventUrl, authToken, true);
+        if(connection.getResponseCode() == HttpURLConnection.HTTP_OK && BinaryCodec.isBinary(connection.getContentType())) {
+            response.setData(BinaryCodec.decodeEvents(readBytes(connection.getInputStream())));
+            response.setSuccess(true);
+            return response;
+        }
 //        Close connection and read the response
         InputStreamReader read;
         try {
@@ -456,4 +471,59 @@ public class ServerProxy {
         response.setMessage(jsonObject.get("message").getAsString());
         return response;
     }
+
+    /**
+     * This method sends a GET request for a person or an event read and returns the connection once it has a response
+     * Right after registering, the server answers 503 Ancestry Generating Error until the User's ancestors are written,
+     * so the request is sent again after a wait that doubles each time, up to READ_ATTEMPTS times
+     * The person and event reads answer 503 for no other reason
+     *
+     * @param url the URL to read
+     * @param authToken the given authToken
+     * @param binary whether the binary format is asked for
+     * @return the connection holding the last response
+     * @throws IOException happens if the request couldn't be sent
+     */
+    private HttpURLConnection openRead(URL url, String authToken, boolean binary) throws IOException {
+        long wait = FIRST_RETRY_MILLIS;
+        for(int attempt = 1; ; attempt++) {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod("GET");
+            connection.setRequestProperty("Authorization", authToken);
+            if(binary) {
+//                Ask for the binary format, which is a fraction of the size of the JSON, and take JSON if the server doesn't have it
+                connection.setRequestProperty("Accept", BinaryCodec.CONTENT_TYPE + ", application/json;q=0.9");
+            }
+            if(connection.getResponseCode() != HttpURLConnection.HTTP_UNAVAILABLE || attempt == READ_ATTEMPTS) {
+                return connection;
+            }
+//            The ancestors are still being generated, so wait and ask again
+            connection.disconnect();
+            try {
+                Thread.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the ancestors to be generated");
+            }
+            wait *= 2;
+        }
+    }
+
+    /**
+     * This method reads the whole body of a response as bytes
+     *
+     * @param in the body of the response
+     * @return the bytes of the body
+     * @throws IOException happens if the body couldn't be read
+     */
+    private byte[] readBytes(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        in.close();
+        return out.toByteArray();
+    }
 }
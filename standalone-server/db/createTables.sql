@@ -18,9 +18,19 @@ IF NOT EXISTS AuthorizationTokens
 (
     TokenID TEXT PRIMARY KEY NOT NULL UNIQUE,
     AuthKey TEXT NOT NULL UNIQUE,
-    UserID TEXT NOT NULL
+    UserID TEXT NOT NULL,
+    IssuedAt INTEGER,
+    ExpiresAt INTEGER
 );
 
+CREATE INDEX
+IF NOT EXISTS AuthorizationTokensByUser ON AuthorizationTokens
+(UserID, IssuedAt);
+
+CREATE INDEX
+IF NOT EXISTS AuthorizationTokensByExpiry ON AuthorizationTokens
+(ExpiresAt);
+
 CREATE TABLE
 IF NOT EXISTS Persons
 (
@@ -49,4 +59,16 @@ IF NOT EXISTS Events
     City TEXT,
     EventType TEXT,
     Year INTEGER
-);
\ No newline at end of file
+);
+
+CREATE INDEX
+IF NOT EXISTS PersonsByUser ON Persons
+(AssociatedUserName);
+
+CREATE INDEX
+IF NOT EXISTS EventsByUser ON Events
+(AssociatedUserName);
+
+CREATE INDEX
+IF NOT EXISTS EventsByPerson ON Events
+(PersonID);
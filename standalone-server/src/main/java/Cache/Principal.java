@@ -0,0 +1,84 @@
+/** The Principal class holds everything the services need to know about the User behind an authToken
+ *  It is immutable so a single Principal can be shared by every request made with the same authToken
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Cache;
+
+public class Principal {
+
+    /**
+     * userID contains the userID of the authenticated User
+     */
+    private final String userID;
+    /**
+     * username contains the username of the authenticated User
+     */
+    private final String username;
+    /**
+     * personID contains the personID of the authenticated User's root Person, which may be null
+     */
+    private final String personID;
+    /**
+     * tokenExpiresAt contains the time the authToken behind this Principal expires, in milliseconds since the epoch
+     */
+    private final long tokenExpiresAt;
+
+    /**
+     * The constructor takes every attribute of the Principal except the expiry of its authToken, which never expires
+     * @param userID contains the userID of the authenticated User
+     * @param username contains the username of the authenticated User
+     * @param personID contains the personID of the authenticated User's root Person
+     */
+    public Principal(String userID, String username, String personID) {
+        this(userID, username, personID, Long.MAX_VALUE);
+    }
+
+    /**
+     * The constructor takes every attribute of the Principal
+     * @param userID contains the userID of the authenticated User
+     * @param username contains the username of the authenticated User
+     * @param personID contains the personID of the authenticated User's root Person
+     * @param tokenExpiresAt contains the time the authToken behind this Principal expires
+     */
+    public Principal(String userID, String username, String personID, long tokenExpiresAt) {
+        this.userID = userID;
+        this.username = username;
+        this.personID = personID;
+        this.tokenExpiresAt = tokenExpiresAt;
+    }
+
+    /**
+     * getUserID is a getter to provide the userID private variable
+     * @return provides the userID of the authenticated User
+     */
+    public String getUserID() {
+        return userID;
+    }
+
+    /**
+     * getUsername is a getter to provide the username private variable
+     * @return provides the username of the authenticated User
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * getPersonID is a getter to provide the personID private variable
+     * @return provides the personID of the authenticated User's root Person
+     */
+    public String getPersonID() {
+        return personID;
+    }
+
+    /**
+     * getTokenExpiresAt is a getter to provide the tokenExpiresAt private variable
+     * @return provides the time the authToken behind this Principal expires
+     */
+    public long getTokenExpiresAt() {
+        return tokenExpiresAt;
+    }
+}
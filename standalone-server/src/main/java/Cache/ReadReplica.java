@@ -0,0 +1,332 @@
+/** The ReadReplica class keeps a read-only in-memory copy of the SQLite database for the single Person and Event reads
+ *  It keeps /person/[personID] and /event/[eventID] from contending with the writers on the database file
+ *
+ *  The replica works as follows:
+ *      The copy is refreshed in the background through SQLite's backup API, and each new copy replaces the old one
+ *      Every write is stamped with a version after it commits, and each copy remembers the last version it is sure to hold
+ *      A read goes back to the database file whenever the replica can't vouch for its answer:
+ *          the copy is older than the maximum staleness, because a refresh failed or is running late
+ *          a /clear or /load was made after the copy was taken
+ *          the auth key isn't in the copy, since it may have been issued after the copy was taken
+ *          the requesting User wrote after the copy was taken, when read-your-writes is on
+ *      A failed refresh is logged and retried on the next interval, and the old copy is used until it gets too stale
+ *
+ *  The replica is only used with the SQLITE storage engine, and only when the familymap.replica property is true
+ *  The refresh interval, the maximum staleness and read-your-writes are read from the familymap.replica.refreshMillis,
+ *  familymap.replica.maxStalenessMillis and familymap.replica.readYourWrites properties
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Cache;
+
+import DataAccess.AuthorizedRead;
+import DataAccess.Database;
+import DataAccess.EventDao;
+import DataAccess.PersonDao;
+import DataAccess.StorageEngine;
+import Errors.DataAccessException;
+import Model.Event;
+import Model.Person;
+import Util.Config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class ReadReplica {
+
+    /**
+     * The Reader interface describes a read that is made on a connection to the replica
+     */
+    private interface Reader<T> {
+        AuthorizedRead<T> read(Connection conn) throws DataAccessException;
+    }
+
+    /**
+     * The Copy class holds one in-memory copy of the database and the last write version it is sure to hold
+     */
+    private static class Copy {
+        private final Connection conn;
+        private final long version;
+        private final long takenAt;
+        /**
+         * lock is held for reading while the copy is read, and for writing while it is closed
+         */
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private boolean closed = false;
+
+        private Copy(Connection conn, long version, long takenAt) {
+            this.conn = conn;
+            this.version = version;
+            this.takenAt = takenAt;
+        }
+
+        /**
+         * close closes the copy once every read that is using it has finished
+         */
+        private void close() {
+            lock.writeLock().lock();
+            try {
+                closed = true;
+                conn.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * instance is the ReadReplica that the services share
+     */
+    private static final ReadReplica instance = new ReadReplica();
+
+    /**
+     * executor runs the refreshes on a single daemon thread so it never keeps the server process alive
+     */
+    private ScheduledExecutorService executor;
+    /**
+     * enabled denotes whether the replica is running, and whether writes need to be stamped
+     */
+    private volatile boolean enabled = false;
+    /**
+     * current holds the newest copy of the database, or null if no copy was taken yet
+     */
+    private volatile Copy current;
+    /**
+     * writeVersion is bumped by every write after it commits
+     */
+    private final AtomicLong writeVersion = new AtomicLong();
+    /**
+     * userWrites holds the version of each username's latest write that may not be in the current copy yet
+     */
+    private final ConcurrentHashMap<String, Long> userWrites = new ConcurrentHashMap<>();
+    /**
+     * globalWrite holds the version of the latest write that affected every User, such as /clear or /load
+     */
+    private volatile long globalWrite = 0;
+
+    /**
+     * The metrics of the replica
+     */
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong primaryReads = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+
+    /**
+     * The constructor is private so that the services share a single replica
+     */
+    private ReadReplica() {}
+
+    /**
+     * getInstance provides the ReadReplica that the services share
+     * @return the shared ReadReplica
+     */
+    public static ReadReplica getInstance() {
+        return instance;
+    }
+
+    /**
+     * start takes the first copy and schedules the refreshes, which is called once when the server starts
+     * It does nothing unless the familymap.replica property is true and the SQLITE storage engine is used
+     * Calling it again while the replica is already running does nothing
+     */
+    public synchronized void start() {
+        if(executor != null || !Config.isReadReplicaEnabled() || Database.getStorageEngine() != StorageEngine.SQLITE) {
+            return;
+        }
+//        Writes are stamped from now on, so the first copy can tell which writes it may have missed
+        enabled = true;
+        tryRefresh();
+        long interval = Config.getReplicaRefreshMillis();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "read-replica");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::tryRefresh, interval, interval, TimeUnit.MILLISECONDS);
+        System.out.println("Refreshing the read replica every " + interval + " milliseconds");
+    }
+
+    /**
+     * stop cancels the refreshes and closes the current copy, so every read goes back to the database file
+     */
+    public synchronized void stop() {
+        if(executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        enabled = false;
+        Copy old = current;
+        current = null;
+        if(old != null) {
+            old.close();
+        }
+        userWrites.clear();
+    }
+
+    /**
+     * refresh takes a new copy of the database and puts it in place of the current one
+     *
+     * Remember the last write version before the copy is taken, since every write up to it has already committed
+     * Take the copy, then replace the current copy and close the old one once its reads have finished
+     * Forget the writes the new copy is sure to hold
+     *
+     * @throws DataAccessException handles errors that can take place while copying the database
+     */
+    public void refresh() throws DataAccessException {
+//        Remember the last write version before the copy is taken, since every write up to it has already committed
+        long version = writeVersion.get();
+        long takenAt = System.currentTimeMillis();
+//        Take the copy, then replace the current copy and close the old one once its reads have finished
+        Copy copy = new Copy(Database.openReplica(), version, takenAt);
+        Copy old;
+        synchronized (this) {
+            if(!enabled || (current != null && current.takenAt > takenAt)) {
+//                The replica was stopped, or a refresh that started later already finished
+                copy.close();
+                return;
+            }
+            old = current;
+            current = copy;
+        }
+        if(old != null) {
+            old.close();
+        }
+//        Forget the writes the new copy is sure to hold
+        userWrites.forEach((username, written) -> {
+            if(written <= version) {
+                userWrites.remove(username, written);
+            }
+        });
+        refreshes.incrementAndGet();
+    }
+
+    /**
+     * tryRefresh refreshes the replica, logging a failure instead of throwing it so the next refresh still runs
+     */
+    private void tryRefresh() {
+        try {
+            refresh();
+        } catch (DataAccessException e) {
+            System.out.println("Unable to refresh the read replica: " + e.getMessage());
+        }
+    }
+
+    /**
+     * recordWrite stamps a committed write made on behalf of the given username
+     * It must be called after the write commits, so a copy that doesn't hold the write never claims a later version
+     *
+     * @param username contains the username whose data was written
+     */
+    public void recordWrite(String username) {
+        if(enabled && username != null) {
+            userWrites.merge(username, writeVersion.incrementAndGet(), Math::max);
+        }
+    }
+
+    /**
+     * recordGlobalWrite stamps a committed write that affected every User, such as /clear or /load
+     * Every read goes back to the database file until the replica is refreshed
+     */
+    public void recordGlobalWrite() {
+        if(enabled) {
+            globalWrite = writeVersion.incrementAndGet();
+        }
+    }
+
+    /**
+     * getPersonForAuthKey reads the Person attached to the given personID on behalf of the given auth key from the replica
+     *
+     * @param personID is the personID that was requested
+     * @param authKey is the auth key that was sent with the request
+     * @return provides the result of the read, or null if it has to be read from the database file instead
+     * @throws DataAccessException handles errors that can take place while reading the replica
+     */
+    public AuthorizedRead<Person> getPersonForAuthKey(String personID, String authKey) throws DataAccessException {
+        return read(conn -> new PersonDao(conn).getPersonForAuthKey(personID, authKey));
+    }
+
+    /**
+     * getEventForAuthKey reads the Event attached to the given eventID on behalf of the given auth key from the replica
+     *
+     * @param eventID is the eventID that was requested
+     * @param authKey is the auth key that was sent with the request
+     * @return provides the result of the read, or null if it has to be read from the database file instead
+     * @throws DataAccessException handles errors that can take place while reading the replica
+     */
+    public AuthorizedRead<Event> getEventForAuthKey(String eventID, String authKey) throws DataAccessException {
+        return read(conn -> new EventDao(conn).getEventForAuthKey(eventID, authKey));
+    }
+
+    /**
+     * read makes the given read on the current copy, unless the replica can't vouch for its answer
+     *
+     * Go back to the database file if there is no copy, it is too stale, or a /clear or /load was made after it was taken
+     * Make the read while holding the copy, so it isn't closed underneath the read
+     * Go back to the database file if the auth key isn't in the copy, or the requesting User wrote after it was taken
+     *
+     * @return provides the result of the read, or null if it has to be read from the database file instead
+     */
+    private <T> AuthorizedRead<T> read(Reader<T> reader) throws DataAccessException {
+        Copy copy = current;
+//        Go back to the database file if there is no copy, it is too stale, or a /clear or /load was made after it was taken
+        if(copy == null || System.currentTimeMillis() - copy.takenAt > Config.getReplicaMaxStalenessMillis() ||
+                globalWrite > copy.version) {
+            primaryReads.incrementAndGet();
+            return null;
+        }
+//        Make the read while holding the copy, so it isn't closed underneath the read
+        AuthorizedRead<T> result;
+        copy.lock.readLock().lock();
+        try {
+            if(copy.closed) {
+                primaryReads.incrementAndGet();
+                return null;
+            }
+            result = reader.read(copy.conn);
+        } finally {
+            copy.lock.readLock().unlock();
+        }
+//        Go back to the database file if the auth key isn't in the copy, or the requesting User wrote after it was taken
+        if(result.getOutcome() == AuthorizedRead.Outcome.INVALID_AUTH_TOKEN || result.getRequester() == null ||
+                (Config.isReadYourWrites() && userWrites.getOrDefault(result.getRequester(), 0L) > copy.version)) {
+            primaryReads.incrementAndGet();
+            return null;
+        }
+        replicaReads.incrementAndGet();
+        return result;
+    }
+
+    /**
+     * getReplicaReads provides the number of reads that were served by the replica
+     * @return the number of reads served by the replica
+     */
+    public long getReplicaReads() {
+        return replicaReads.get();
+    }
+
+    /**
+     * getPrimaryReads provides the number of reads that had to go back to the database file
+     * @return the number of reads sent back to the database file
+     */
+    public long getPrimaryReads() {
+        return primaryReads.get();
+    }
+
+    /**
+     * getRefreshes provides the number of copies that were taken
+     * @return the number of refreshes
+     */
+    public long getRefreshes() {
+        return refreshes.get();
+    }
+}
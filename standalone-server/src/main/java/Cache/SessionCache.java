@@ -0,0 +1,319 @@
+/** The SessionCache class maps auth keys to the Principal of the User they belong to
+ *  It keeps authenticated requests from reading the AuthorizationTokens and Users tables on every call
+ *
+ *  The cache works as follows:
+ *      Login and register put the new session into the cache as soon as its authToken is committed
+ *      An auth key that isn't cached is resolved from the database once and then cached
+ *      Every session expires a fixed time after it was cached, or when its authToken expires if that is sooner,
+ *      and the oldest sessions are evicted first when the cache holds more sessions than it may
+ *      Logins that evict a User's oldest authTokens also invalidate their sessions
+ *      /clear and /load invalidate every session, and /fill invalidates the sessions of its username
+ *      A resolve that overlaps an invalidation is returned to its caller but never stored in the cache
+ *      A signed auth token is verified by SignedTokens instead of being cached
+ *
+ *  The bounds are read from the familymap.sessionCache.maxSize property (defaults to 10000 sessions)
+ *  and the familymap.sessionCache.ttlSeconds property (defaults to 3600 seconds)
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Cache;
+
+import DataAccess.Database;
+import Errors.DataAccessException;
+import Model.AuthorizationToken;
+import Model.User;
+import Util.Config;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SessionCache {
+
+    /**
+     * The Loader interface describes how an auth key is resolved when it isn't in the cache
+     */
+    public interface Loader {
+        /**
+         * load resolves the given auth key to the Principal of the User it belongs to
+         * @param authKey contains the auth key that was sent with the request
+         * @return provides the Principal, or null if the auth key doesn't belong to any User
+         * @throws DataAccessException handles errors that can take place while resolving the auth key
+         */
+        Principal load(String authKey) throws DataAccessException;
+    }
+
+    /**
+     * The Session class is a cached Principal along with the time it expires
+     * Sessions are removed from the order queue lazily, so the queue is only roughly ordered by expiry
+     */
+    private static class Session {
+        private final String authKey;
+        private final Principal principal;
+        private final long expiresAt;
+
+        private Session(String authKey, Principal principal, long expiresAt) {
+            this.authKey = authKey;
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * instance is the SessionCache that the services share, resolving auth keys from the Database
+     */
+    private static final SessionCache instance = new SessionCache(
+            Config.getInt("familymap.sessionCache.maxSize", 10000),
+            Config.getLong("familymap.sessionCache.ttlSeconds", 3600) * 1000,
+            SessionCache::loadFromDatabase);
+
+    /**
+     * sessions holds the cached sessions by auth key, and is read without any locking
+     */
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    /**
+     * order holds the cached sessions in the order they were cached, which is also the order they expire in
+     */
+    private final ConcurrentLinkedQueue<Session> order = new ConcurrentLinkedQueue<>();
+    /**
+     * writeLock guards every change to the cache so that invalidations can't be undone by a resolve that overlapped them
+     */
+    private final Object writeLock = new Object();
+    /**
+     * generation is bumped by every invalidation so that resolves which started earlier are not stored
+     */
+    private long generation = 0;
+    /**
+     * maxSize is the maximum number of sessions the cache may hold
+     */
+    private final int maxSize;
+    /**
+     * ttlMillis is the number of milliseconds a session stays cached
+     */
+    private final long ttlMillis;
+    /**
+     * loader is used to resolve the auth keys that are not in the cache
+     */
+    private final Loader loader;
+
+    /**
+     * The metrics of the cache
+     */
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * The constructor creates an empty cache
+     * @param maxSize is the maximum number of sessions the cache may hold
+     * @param ttlMillis is the number of milliseconds a session stays cached
+     * @param loader is used to resolve the auth keys that are not in the cache
+     */
+    public SessionCache(int maxSize, long ttlMillis, Loader loader) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.loader = loader;
+    }
+
+    /**
+     * getInstance provides the SessionCache that the services share
+     * @return the shared SessionCache
+     */
+    public static SessionCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * resolve provides the Principal of the User that the given auth key belongs to
+     *
+     * Verify a signed auth token in memory
+     * Return the cached Principal if there is one that hasn't expired
+     * Otherwise resolve the auth key with the loader and cache the result if the auth key is valid
+     *
+     * @param authKey contains the auth key that was sent with the request
+     * @return provides the Principal, or null if the auth key doesn't belong to any User
+     * @throws DataAccessException handles errors that can take place while resolving the auth key
+     */
+    public Principal resolve(String authKey) throws DataAccessException {
+        if(authKey == null) {
+            return null;
+        }
+        if(SignedTokens.isSigned(authKey)) {
+//            A signed auth token carries its own Principal, so it is verified without the cache or the database
+            return SignedTokens.getInstance().verify(authKey);
+        }
+        Session session = sessions.get(authKey);
+        if(session != null && session.expiresAt > System.currentTimeMillis()) {
+//            Return the cached Principal if there is one that hasn't expired
+            hits.incrementAndGet();
+            return session.principal;
+        }
+        misses.incrementAndGet();
+        long startGeneration;
+        synchronized (writeLock) {
+            startGeneration = generation;
+        }
+//        Otherwise resolve the auth key with the loader and cache the result if the auth key is valid
+        Principal principal = loader.load(authKey);
+        if(principal != null) {
+            store(authKey, principal, startGeneration);
+        }
+        return principal;
+    }
+
+    /**
+     * getGeneration provides the current generation of the cache
+     * Callers that issue a new authToken must read it before they start the transaction that stores the authToken
+     * and pass it to put, so an invalidation that happens in between can't be undone
+     *
+     * @return provides the current generation
+     */
+    public long getGeneration() {
+        synchronized (writeLock) {
+            return generation;
+        }
+    }
+
+    /**
+     * put caches the given session, which is called once a newly issued authToken has been committed
+     * @param authKey contains the auth key of the new authToken
+     * @param principal contains the Principal of the User the authToken was issued to
+     * @param startGeneration contains the generation that was read before the authToken's transaction started
+     */
+    public void put(String authKey, Principal principal, long startGeneration) {
+        store(authKey, principal, startGeneration);
+    }
+
+    /**
+     * store caches the given session unless the cache was invalidated since startGeneration,
+     * then evicts expired sessions and the oldest sessions until the cache fits its size
+     */
+    private void store(String authKey, Principal principal, long startGeneration) {
+        synchronized (writeLock) {
+            if(generation != startGeneration) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            Session session = new Session(authKey, principal, Math.min(now + ttlMillis, principal.getTokenExpiresAt()));
+            sessions.put(authKey, session);
+            order.add(session);
+            Session oldest;
+            while((oldest = order.peek()) != null && (sessions.size() > maxSize || oldest.expiresAt <= now
+                    || sessions.get(oldest.authKey) != oldest)) {
+                order.poll();
+                if(sessions.remove(oldest.authKey, oldest)) {
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * invalidateAll removes every session, which must be called after the authTokens or Users may have changed
+     */
+    public void invalidateAll() {
+        synchronized (writeLock) {
+            generation++;
+            sessions.clear();
+            order.clear();
+        }
+    }
+
+    /**
+     * invalidate removes the sessions of the given auth keys, which must be called after their authTokens were deleted
+     * @param authKeys contains the auth keys whose sessions should be removed
+     */
+    public void invalidate(Iterable<String> authKeys) {
+        synchronized (writeLock) {
+            generation++;
+            for(String authKey : authKeys) {
+                sessions.remove(authKey);
+            }
+        }
+    }
+
+    /**
+     * invalidateUsername removes every session of the given username, which must be called after its root Person changed
+     * @param username contains the username whose sessions should be removed
+     */
+    public void invalidateUsername(String username) {
+        synchronized (writeLock) {
+            generation++;
+            Iterator<Map.Entry<String, Session>> iterator = sessions.entrySet().iterator();
+            while(iterator.hasNext()) {
+                if(iterator.next().getValue().principal.getUsername().equals(username)) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * getHits is a getter to provide the number of auth keys that were resolved from the cache
+     * @return provides the count
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * getMisses is a getter to provide the number of auth keys that had to be resolved by the loader
+     * @return provides the count
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * getEvictions is a getter to provide the number of sessions that were evicted because they expired or didn't fit
+     * @return provides the count
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * getSize provides the number of sessions that are currently cached
+     * @return provides the number of cached sessions
+     */
+    public int getSize() {
+        return sessions.size();
+    }
+
+    @Override
+    public String toString() {
+        return "SessionCache{size=" + getSize() + "/" + maxSize + ", hits=" + getHits() +
+                ", misses=" + getMisses() + ", evictions=" + getEvictions() + "}";
+    }
+
+    /**
+     * loadFromDatabase resolves the given auth key from the AuthorizationTokens, Users, and Persons tables
+     * Expired authTokens don't resolve to any User
+     *
+     * @param authKey contains the auth key that was sent with the request
+     * @return provides the Principal, or null if the auth key doesn't belong to any User
+     * @throws DataAccessException handles errors that can take place while accessing the database
+     */
+    private static Principal loadFromDatabase(String authKey) throws DataAccessException {
+        Database db = new Database();
+        try {
+            db.openConnection();
+            Principal principal = null;
+            AuthorizationToken token = db.getTokenStore().getAuthToken(authKey);
+            User user = token == null ? null : db.getUserStore().getUser(token.getUserID());
+            if(user != null) {
+                principal = new Principal(token.getUserID(), user.getUsername(),
+                        db.getPersonStore().getPersonIDByUserID(token.getUserID()), token.getExpiresAt());
+            }
+            db.closeConnection(true);
+            return principal;
+        } catch (DataAccessException e) {
+            db.closeConnection(false);
+            throw e;
+        }
+    }
+}
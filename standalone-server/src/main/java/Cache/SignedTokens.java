@@ -0,0 +1,270 @@
+/** The SignedTokens class issues and verifies auth tokens that carry their own Principal
+ *  A signed auth token is never written to the AuthorizationTokens table, and verifying it never reads the database
+ *
+ *  The auth tokens work as follows:
+ *      A signed auth token is fm1.[userID].[username].[personID].[expiresAt].[epoch].[signature], with the strings in Base64
+ *      The signature is an HMAC-SHA256 of everything before it, so a token that was changed in any way doesn't verify
+ *      An auth token verifies until it expires, unless it was issued before the last revocation
+ *
+ *  The revocations work as follows:
+ *      Every auth token carries the epoch it was issued in, which is read from a clock that only moves forward
+ *      /clear and /load replace every User, so they move the clock past every auth token issued so far
+ *      An auth token whose epoch is older than the last revocation doesn't verify, so the deny list is a single number
+ *      The epoch of the last revocation is written to the familymap.token.revocationFile, and read back when the server starts,
+ *      so a server that is given its secret with familymap.token.secret doesn't forget it when it restarts,
+ *      while a server without a secret forgets every auth token it issued anyway
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Cache;
+
+import Util.Config;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SignedTokens {
+
+    /**
+     * PREFIX starts every signed auth token, which tells it apart from the auth keys that are stored
+     */
+    private static final String PREFIX = "fm1.";
+    private static final String ALGORITHM = "HmacSHA256";
+
+    /**
+     * instance is the SignedTokens that the services share, signing with the configured secret or a random one
+     */
+    private static final SignedTokens instance = new SignedTokens(secret(), Paths.get(Config.getTokenRevocationFile()));
+
+    private final SecretKeySpec key;
+    /**
+     * macs holds a Mac for every thread, since a Mac can't be shared by threads
+     */
+    private final ThreadLocal<Mac> macs;
+    /**
+     * revocations holds the file that the epoch of the last revocation is kept in, or null if it is only kept in memory
+     */
+    private final Path revocations;
+    /**
+     * clock provides the epochs of new auth tokens, starting at the current time so epochs keep growing across restarts
+     */
+    private final AtomicLong clock;
+    /**
+     * revokedBefore holds the epoch of the last revocation, and auth tokens of older epochs don't verify
+     */
+    private volatile long revokedBefore;
+
+    /**
+     * The constructor creates a SignedTokens that signs with the given secret, and keeps its revocations in memory
+     * @param secret contains the secret
+     */
+    public SignedTokens(byte[] secret) {
+        this(secret, null);
+    }
+
+    /**
+     * The constructor creates a SignedTokens that signs with the given secret, and keeps its revocations in the given file
+     * The last revocation is read back from the file, so the auth tokens it revoked stay revoked
+     *
+     * @param secret contains the secret
+     * @param revocations contains the file of the last revocation, or null to keep the revocations in memory
+     */
+    public SignedTokens(byte[] secret, Path revocations) {
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        this.revocations = revocations;
+        this.revokedBefore = readRevocation(revocations);
+        this.clock = new AtomicLong(Math.max(System.currentTimeMillis(), revokedBefore));
+    }
+
+    /**
+     * getInstance provides the SignedTokens that the services share
+     * @return the shared SignedTokens
+     */
+    public static SignedTokens getInstance() {
+        return instance;
+    }
+
+    /**
+     * isSigned denotes whether the given auth token is a signed auth token rather than a stored auth key
+     * @param authToken contains the auth token that was sent with the request
+     * @return provides true if the auth token is signed
+     */
+    public static boolean isSigned(String authToken) {
+        return authToken != null && authToken.startsWith(PREFIX);
+    }
+
+    /**
+     * getEpoch provides the epoch that auth tokens are issued in now
+     * Callers must read it before they start the transaction that reads the User, and pass it to issue,
+     * so a revocation that happens in between also revokes the new auth token
+     *
+     * @return provides the current epoch
+     */
+    public long getEpoch() {
+        return clock.get();
+    }
+
+    /**
+     * issue creates a signed auth token for the given Principal, which expires when the Principal's token does
+     * @param principal contains the Principal of the User the auth token is issued to
+     * @param epoch contains the epoch that was read before the User was read
+     * @return provides the signed auth token
+     */
+    public String issue(Principal principal, long epoch) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String body = PREFIX + encode(encoder, principal.getUserID()) + "." + encode(encoder, principal.getUsername()) + "." +
+                encode(encoder, principal.getPersonID()) + "." + principal.getTokenExpiresAt() + "." + epoch;
+        return body + "." + encoder.encodeToString(sign(body));
+    }
+
+    /**
+     * verify provides the Principal that the given signed auth token carries
+     *
+     * Split the auth token into its fields and signature
+     * Check the signature in constant time, so the comparison doesn't tell how much of a forgery was right
+     * Check that the auth token hasn't expired and wasn't issued before the last revocation
+     *
+     * @param authToken contains the signed auth token that was sent with the request
+     * @return provides the Principal, or null if the auth token isn't valid
+     */
+    public Principal verify(String authToken) {
+        if(!isSigned(authToken)) {
+            return null;
+        }
+//        Split the auth token into its fields and signature
+        int lastDot = authToken.lastIndexOf('.');
+        if(lastDot < PREFIX.length()) {
+            return null;
+        }
+        String body = authToken.substring(0, lastDot);
+        String[] fields = body.substring(PREFIX.length()).split("\\.", -1);
+        if(fields.length != 5) {
+            return null;
+        }
+        try {
+//            Check the signature in constant time, so the comparison doesn't tell how much of a forgery was right
+            byte[] signature = Base64.getUrlDecoder().decode(authToken.substring(lastDot + 1));
+            if(!MessageDigest.isEqual(signature, sign(body))) {
+                return null;
+            }
+//            Check that the auth token hasn't expired and wasn't issued before the last revocation
+            long expiresAt = Long.parseLong(fields[3]);
+            long epoch = Long.parseLong(fields[4]);
+            if(expiresAt <= System.currentTimeMillis() || epoch < revokedBefore) {
+                return null;
+            }
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            return new Principal(decode(decoder, fields[0]), decode(decoder, fields[1]), decode(decoder, fields[2]), expiresAt);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * revokeAll makes every auth token issued so far stop verifying, which must be called once every User was replaced
+     * The revocation is written to the revocation file before it is returned, so it outlasts a restart
+     */
+    public synchronized void revokeAll() {
+        long epoch = clock.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
+        revokedBefore = epoch;
+        writeRevocation(epoch);
+    }
+
+    /**
+     * readRevocation provides the epoch of the last revocation that was written to the given file,
+     * or 0 if there is no file or nothing could be read from it
+     */
+    private static long readRevocation(Path file) {
+        if(file == null || !Files.exists(file)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim());
+        } catch (IOException | NumberFormatException e) {
+            e.printStackTrace();
+            System.out.println("Unable to read the last auth token revocation from " + file);
+            return 0;
+        }
+    }
+
+    /**
+     * writeRevocation writes the given epoch to the revocation file, replacing the file in one move
+     * so a crash while writing never leaves half of an epoch behind
+     */
+    private void writeRevocation(long epoch) {
+        if(revocations == null) {
+            return;
+        }
+        try {
+            Path parent = revocations.toAbsolutePath().getParent();
+            if(parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path building = Paths.get(revocations + ".building");
+            Files.write(building, Long.toString(epoch).getBytes(StandardCharsets.UTF_8));
+            Files.move(building, revocations, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.out.println("Unable to write the auth token revocation to " + revocations);
+        }
+    }
+
+    /**
+     * encode encodes the given string in Base64, with an empty string standing for null
+     */
+    private static String encode(Base64.Encoder encoder, String value) {
+        return value == null ? "" : encoder.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * decode decodes the given Base64 string, with an empty string standing for null
+     */
+    private static String decode(Base64.Decoder decoder, String value) {
+        return value.isEmpty() ? null : new String(decoder.decode(value), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * sign provides the HMAC of the given body
+     */
+    private byte[] sign(String body) {
+        return macs.get().doFinal(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+//            Every Java runtime has HmacSHA256, so this can't happen on a supported runtime
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * secret provides the configured secret, or a random one if none was configured
+     */
+    private static byte[] secret() {
+        String configured = Config.getTokenSecret();
+        if(configured != null) {
+            return configured.getBytes(StandardCharsets.UTF_8);
+        }
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        return random;
+    }
+}
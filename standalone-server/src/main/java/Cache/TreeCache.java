@@ -0,0 +1,308 @@
+/** The TreeCache class is a read-through cache holding the Person and Event lists of the most recently read users
+ *  It keeps the /person and /event endpoints from re-querying the database and rebuilding every POJO on each call
+ *
+ *  The cache works as follows:
+ *      Entries are UserTrees keyed by username, evicted in least recently used order
+ *      The size is bounded by weight (the number of Persons plus Events held) instead of by the number of users
+ *      A burst of misses for the same username only runs one load, the other callers wait for its result
+ *      Services that write Persons or Events invalidate the affected username, or everything for /clear and /load
+ *      A load that started before an invalidation is returned to its callers but never stored in the cache
+ *
+ *  The maximum weight is read from the familymap.treeCache.maxWeight property, which defaults to 200000 rows
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Cache;
+
+import DataAccess.Database;
+import Errors.DataAccessException;
+import Util.Config;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TreeCache {
+
+    /**
+     * The Loader interface describes how a UserTree is read when it isn't in the cache
+     */
+    public interface Loader {
+        /**
+         * load reads every Person and Event associated with the given username
+         * @param username contains the username whose tree should be read
+         * @return provides the UserTree for the given username
+         * @throws DataAccessException handles errors that can take place while reading the tree
+         */
+        UserTree load(String username) throws DataAccessException;
+    }
+
+    /**
+     * instance is the TreeCache that the services share, reading from the Database
+     */
+    private static final TreeCache instance = new TreeCache(
+            Config.getLong("familymap.treeCache.maxWeight", 200000), TreeCache::loadFromDatabase);
+
+    /**
+     * entries holds the cached trees in access order, so the first entry is always the least recently used
+     * Every access to it and to totalWeight is guarded by synchronizing on entries
+     */
+    private final LinkedHashMap<String, UserTree> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * inFlight holds the running load of each username that missed the cache
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<UserTree>> inFlight = new ConcurrentHashMap<>();
+    /**
+     * generation is bumped by every invalidation so that loads which started earlier are not stored
+     */
+    private long generation = 0;
+    /**
+     * totalWeight is the sum of the weights of every cached tree
+     */
+    private long totalWeight = 0;
+    /**
+     * maxWeight is the maximum number of rows the cache may hold
+     */
+    private final long maxWeight;
+    /**
+     * loader is used to read the trees that are not in the cache
+     */
+    private final Loader loader;
+
+    /**
+     * The metrics of the cache
+     */
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * The constructor creates an empty cache
+     * @param maxWeight is the maximum number of rows the cache may hold
+     * @param loader is used to read the trees that are not in the cache
+     */
+    public TreeCache(long maxWeight, Loader loader) {
+        this.maxWeight = maxWeight;
+        this.loader = loader;
+    }
+
+    /**
+     * getInstance provides the TreeCache that the services share
+     * @return the shared TreeCache
+     */
+    public static TreeCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * getTree provides the UserTree for the given username, loading it if it isn't cached yet
+     *
+     * Return the cached tree if there is one
+     * If another caller is already loading this username, wait for its result instead of loading it again
+     * Otherwise load the tree and store it, unless the cache was invalidated while it was being loaded
+     *
+     * @param username contains the username whose tree is requested
+     * @return provides the UserTree for the given username
+     * @throws DataAccessException handles errors that can take place while loading the tree
+     */
+    public UserTree getTree(String username) throws DataAccessException {
+        long startGeneration;
+        synchronized (entries) {
+            UserTree tree = entries.get(username);
+            if(tree != null) {
+//                Return the cached tree if there is one
+                hits.incrementAndGet();
+                System.out.println("Tree cache hit for " + username);
+                return tree;
+            }
+            startGeneration = generation;
+        }
+        misses.incrementAndGet();
+        System.out.println("Tree cache miss for " + username);
+        CompletableFuture<UserTree> load = new CompletableFuture<>();
+        CompletableFuture<UserTree> running = inFlight.putIfAbsent(username, load);
+        if(running != null) {
+//            If another caller is already loading this username, wait for its result instead of loading it again
+            return await(running);
+        }
+        try {
+//            Otherwise load the tree and store it, unless the cache was invalidated while it was being loaded
+            loads.incrementAndGet();
+            UserTree tree = loader.load(username);
+            store(username, tree, startGeneration);
+            load.complete(tree);
+            return tree;
+        } catch (DataAccessException | RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(username, load);
+        }
+    }
+
+    /**
+     * await waits for a load that was started by another caller and provides its result
+     */
+    private static UserTree await(CompletableFuture<UserTree> load) throws DataAccessException {
+        try {
+            return load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Interrupted while waiting for the tree to load");
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof DataAccessException) {
+                throw new DataAccessException(e.getCause().getMessage());
+            }
+            throw new DataAccessException("Error encountered while loading the tree: " + e.getCause());
+        }
+    }
+
+    /**
+     * store adds the given tree to the cache and evicts the least recently used trees until the cache fits its weight
+     * Trees that were loaded before the latest invalidation, or that are heavier than the whole cache, are not stored
+     */
+    private void store(String username, UserTree tree, long startGeneration) {
+        synchronized (entries) {
+            if(generation != startGeneration || tree.getWeight() > maxWeight) {
+                return;
+            }
+            UserTree old = entries.put(username, tree);
+            if(old != null) {
+                totalWeight -= old.getWeight();
+            }
+            totalWeight += tree.getWeight();
+            Iterator<Map.Entry<String, UserTree>> iterator = entries.entrySet().iterator();
+            while(totalWeight > maxWeight && iterator.hasNext()) {
+                Map.Entry<String, UserTree> eldest = iterator.next();
+                totalWeight -= eldest.getValue().getWeight();
+                iterator.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * invalidate removes the tree of the given username, which must be called after the username's Persons or Events change
+     * @param username contains the username whose tree changed
+     */
+    public void invalidate(String username) {
+        synchronized (entries) {
+            generation++;
+            UserTree old = entries.remove(username);
+            if(old != null) {
+                totalWeight -= old.getWeight();
+            }
+        }
+        inFlight.remove(username);
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * invalidateAll removes every tree, which must be called after a change that can touch any username
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+            totalWeight = 0;
+        }
+        inFlight.clear();
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * getHits is a getter to provide the number of lookups that were answered from the cache
+     * @return provides the count
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * getMisses is a getter to provide the number of lookups that were not answered from the cache
+     * @return provides the count
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * getLoads is a getter to provide the number of trees that were read from the database
+     * @return provides the count
+     */
+    public long getLoads() {
+        return loads.get();
+    }
+
+    /**
+     * getEvictions is a getter to provide the number of trees that were evicted to keep the cache within its weight
+     * @return provides the count
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * getInvalidations is a getter to provide the number of invalidations that were made by writing services
+     * @return provides the count
+     */
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    /**
+     * getWeight provides the number of rows that are currently cached
+     * @return provides the sum of the weights of every cached tree
+     */
+    public long getWeight() {
+        synchronized (entries) {
+            return totalWeight;
+        }
+    }
+
+    /**
+     * getSize provides the number of usernames that are currently cached
+     * @return provides the number of cached trees
+     */
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TreeCache{size=" + getSize() + ", weight=" + getWeight() + "/" + maxWeight +
+                ", hits=" + getHits() + ", misses=" + getMisses() + ", loads=" + getLoads() +
+                ", evictions=" + getEvictions() + ", invalidations=" + getInvalidations() + "}";
+    }
+
+    /**
+     * loadFromDatabase reads the Persons and Events of the given username in a single transaction
+     * so the two lists are always consistent with each other
+     *
+     * @param username contains the username whose tree should be read
+     * @return provides the UserTree for the given username
+     * @throws DataAccessException handles errors that can take place while accessing the database
+     */
+    private static UserTree loadFromDatabase(String username) throws DataAccessException {
+        Database db = new Database();
+        try {
+            db.openConnection();
+            UserTree tree = new UserTree(db.getPersonStore().getPersons(username), db.getEventStore().getEvents(username));
+            db.closeConnection(true);
+            return tree;
+        } catch (DataAccessException e) {
+            db.closeConnection(false);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/** The UserTree class holds a snapshot of every Person and Event that is associated with one username
+ *  Both lists are immutable so a single UserTree can be shared by every request that reads the same user's tree
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Cache;
+
+import Model.Event;
+import Model.Person;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class UserTree {
+
+    /**
+     * persons contains every Person associated with the username
+     */
+    private final List<Person> persons;
+    /**
+     * events contains every Event associated with the username
+     */
+    private final List<Event> events;
+
+    /**
+     * The constructor takes a copy of the given lists and makes them immutable
+     * @param persons contains every Person associated with the username
+     * @param events contains every Event associated with the username
+     */
+    public UserTree(List<Person> persons, List<Event> events) {
+        this.persons = Collections.unmodifiableList(new ArrayList<>(persons));
+        this.events = Collections.unmodifiableList(new ArrayList<>(events));
+    }
+
+    /**
+     * getPersons is a getter to provide the immutable list of Persons
+     * @return provides every Person associated with the username
+     */
+    public List<Person> getPersons() {
+        return persons;
+    }
+
+    /**
+     * getEvents is a getter to provide the immutable list of Events
+     * @return provides every Event associated with the username
+     */
+    public List<Event> getEvents() {
+        return events;
+    }
+
+    /**
+     * getWeight provides the number of rows this tree holds, which is what the TreeCache uses to bound its size
+     * @return provides the number of Persons plus the number of Events, and at least 1
+     */
+    public int getWeight() {
+        return Math.max(1, persons.size() + events.size());
+    }
+}
@@ -12,35 +12,44 @@ package DataAccess;
 
 import Errors.DataAccessException;
 import Model.AuthorizationToken;
+import Util.Config;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
-public class AuthTokenDao {
+public class AuthTokenDao implements TokenStore {
 
     /**
      * The Connection denotes the connection to the database that was initiated by the calling method
      */
-    private static Connection conn;
+    private Connection conn;
+    /**
+     *  lastConn holds the connection of the most recently created AuthTokenDao
+     *  The static insertAuthToken method runs against it so callers that use it without an instance keep working
+     */
+    private static Connection lastConn;
 
     /**
      * The constructor takes the Database Connection that was passed by the calling method and makes it available within this class
      * @param conn the given connection to the database instance
      */
     public AuthTokenDao(Connection conn) {
-        AuthTokenDao.conn = conn;
+        this.conn = conn;
+        AuthTokenDao.lastConn = conn;
     }
 
     /**
      * getUserID provides the UserID that is attached to the given authToken
      * A SQL String is created which is:
-     * "SELECT * FROM AuthorizationTokens WHERE AuthKey = ?;"
+     * "SELECT UserID FROM AuthorizationTokens WHERE AuthKey = ? AND ExpiresAt > ?;"
      * This SQL String is used to create a prepared statement to prevent SQL Injection
-     * The method attaches the UserID to the prepared statement and executes the query
+     * The method attaches the authToken and the current time to the prepared statement and executes the query
      * If something was returned from the SQL query, return the UserID that was found
-     * If nothing was returned in the SQL query, return null
+     * If nothing was returned in the SQL query (including when the authToken expired), return null
      *
      * If any of the above failed, print the error and throw a new DataAccessException
      *
@@ -48,22 +57,51 @@ public class AuthTokenDao {
      * @return provides the UserID that is attached to the given authToken
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
+    @Override
     public String getUserID(String authToken) throws DataAccessException {
         System.out.println("Getting userID from authToken: " + authToken + " . . . ");
-        String sql = "SELECT * FROM AuthorizationTokens WHERE AuthKey = ?;";
+        AuthorizationToken token = getAuthToken(authToken);
+        return token == null ? null : token.getUserID();
+    }
+
+    /**
+     * getAuthToken provides the authToken with the given auth key if it hasn't expired
+     * A SQL String is created which is:
+     * "SELECT * FROM AuthorizationTokens WHERE AuthKey = ? AND ExpiresAt > ?;"
+     * This SQL String is used to create a prepared statement to prevent SQL Injection
+     * The method attaches the auth key and the current time to the prepared statement and executes the query
+     * If something was returned from the SQL query, fill in the information for the AuthorizationToken POJO and return it
+     * If nothing was returned in the SQL query, return null
+     *
+     * If any of the above failed, print the error and throw a new DataAccessException
+     *
+     * @param authKey is the auth key that was passed by the calling method
+     * @return provides the authToken, or null if there is none or it has expired
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    @Override
+    public AuthorizationToken getAuthToken(String authKey) throws DataAccessException {
+        String sql = "SELECT * FROM AuthorizationTokens WHERE AuthKey = ? AND ExpiresAt > ?;";
 //        This SQL String is used to create a prepared statement to prevent SQL Injection
-        try(PreparedStatement stmt = conn.prepareStatement(sql)) {
-//            The method attaches the UserID to the prepared statement and executes the query
-            stmt.setString(1, authToken);
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+//            The method attaches the auth key and the current time to the prepared statement and executes the query
+            stmt.setString(1, authKey);
+            stmt.setLong(2, System.currentTimeMillis());
             ResultSet rs = stmt.executeQuery();
             if(rs.next()) {
-//                If something was returned from the SQL query, return the UserID that was found
-                return rs.getString("UserID");
+//                If something was returned from the SQL query, fill in the information for the AuthorizationToken POJO and return it
+                AuthorizationToken token = new AuthorizationToken();
+                token.setAuthKey(rs.getString("AuthKey"));
+                token.setUserID(rs.getString("UserID"));
+                token.setIssuedAt(rs.getLong("IssuedAt"));
+                token.setExpiresAt(rs.getLong("ExpiresAt"));
+                rs.close();
+                return token;
             }
         } catch (SQLException e) {
 //            If any of the above failed, print the error and throw a new DataAccessException
             e.printStackTrace();
-            throw new DataAccessException("Error encountered while getting the User ID from the Auth Token");
+            throw new DataAccessException("Error encountered while getting the AuthToken from the database");
         }
 //        If nothing was returned in the SQL query, return null
         return null;
@@ -72,9 +110,10 @@ public class AuthTokenDao {
     /**
      * insertAuthToken inserts a row into the AuthorizationTokens table containing the UserID and the authToken
      * A SQL String is created which is:
-     * "INSERT INTO AuthorizationTokens (TokenID, AuthKey, UserID) VALUES (?,?,?);"
+     * "INSERT INTO AuthorizationTokens (TokenID, AuthKey, UserID, IssuedAt, ExpiresAt) VALUES (?,?,?,?,?);"
      * This SQL String is used to create a prepared statement to prevent SQL Injection
-     * The method attaches the tokenID, authKey, and userID to the prepared statement and executes it
+     * If the authToken hasn't been issued yet, it is issued now with the configured lifetime
+     * The method attaches the tokenID, authKey, userID, and issue and expiry times to the prepared statement and executes it
      *
      * If any of the above failed, print the error and throw a new DataAccessException
      *
@@ -84,15 +123,45 @@ public class AuthTokenDao {
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
     public static String insertAuthToken(String id, AuthorizationToken token) throws DataAccessException{
+        return insertAuthToken(lastConn, id, token);
+    }
+
+    /**
+     * addAuthToken inserts the given authToken using this AuthTokenDao's own connection
+     *
+     * @param id is the TokenID that was passed by the calling method
+     * @param token is the authToken that was passed by the calling method
+     * @return provides the authToken's AuthKey back to the calling method
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    @Override
+    public String addAuthToken(String id, AuthorizationToken token) throws DataAccessException {
+        return insertAuthToken(conn, id, token);
+    }
+
+    /**
+     * insertAuthToken runs the insert described above on the given connection
+     *
+     * @param conn is the connection the insert should run on
+     * @param id is the TokenID that was passed by the calling method
+     * @param token is the authToken that was passed by the calling method
+     * @return provides the authToken's AuthKey back to the calling method
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    private static String insertAuthToken(Connection conn, String id, AuthorizationToken token) throws DataAccessException {
         System.out.println("Inserting " + id + " to the AuthorizationTokens table . . . ");
-        String sql = "INSERT INTO AuthorizationTokens (TokenID, AuthKey, UserID) " +
-                "VALUES (?,?,?);";
+        String sql = "INSERT INTO AuthorizationTokens (TokenID, AuthKey, UserID, IssuedAt, ExpiresAt) " +
+                "VALUES (?,?,?,?,?);";
+//        If the authToken hasn't been issued yet, it is issued now with the configured lifetime
+        issue(token);
 //        This SQL String is used to create a prepared statement to prevent SQL Injection
         try(PreparedStatement stmt = conn.prepareStatement(sql)) {
-//            The method attaches the tokenID, authKey, and userID to the prepared statement and executes it
+//            The method attaches the tokenID, authKey, userID, and issue and expiry times to the prepared statement and executes it
             stmt.setString(1, id);
             stmt.setString(2,token.getAuthKey());
             stmt.setString(3,token.getUserID());
+            stmt.setLong(4,token.getIssuedAt());
+            stmt.setLong(5,token.getExpiresAt());
             stmt.executeUpdate();
         } catch (SQLException e) {
 //            If any of the above failed, print the error and throw a new DataAccessException
@@ -103,6 +172,21 @@ public class AuthTokenDao {
         return token.getAuthKey();
     }
 
+    /**
+     * issue sets the issue time of the given authToken to now and its expiry time to the end of the configured lifetime,
+     * unless they were already set by the calling method
+     *
+     * @param token is the authToken that is about to be stored
+     */
+    static void issue(AuthorizationToken token) {
+        if(token.getIssuedAt() <= 0) {
+            token.setIssuedAt(System.currentTimeMillis());
+        }
+        if(token.getExpiresAt() <= 0) {
+            token.setExpiresAt(token.getIssuedAt() + Config.getTokenLifetimeMillis());
+        }
+    }
+
     /**
      * clearAuthTokens clears all rows from the Authorization table
      * A SQL String is created which is:
@@ -112,6 +196,7 @@ public class AuthTokenDao {
      * If an error occurs, it is printed and a DataAccessException is thrown
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
+    @Override
     public void clearAuthTokens() throws DataAccessException {
         System.out.println("Clearing the authTokens table . . . ");
         String sql = "DELETE FROM AuthorizationTokens;";
@@ -125,4 +210,89 @@ public class AuthTokenDao {
             throw new DataAccessException("Error encountered while clearing AuthToken table");
         }
     }
+
+    /**
+     * evictOldestTokens deletes the oldest authTokens of the given User until only the given number of them are left
+     * A SQL String is created which is:
+     * "SELECT AuthKey FROM AuthorizationTokens WHERE UserID = ? ORDER BY IssuedAt DESC, rowid DESC LIMIT -1 OFFSET ?;"
+     * This SQL String is used to create a prepared statement to prevent SQL Injection
+     * The method attaches the userID and the number of authTokens to keep to the prepared statement and executes the query
+     * Every auth key that was returned is deleted with a second prepared statement
+     * The UserID/IssuedAt index keeps both statements from scanning the whole table
+     *
+     * If any of the above failed, print the error and throw a new DataAccessException
+     *
+     * @param userID is the userID whose authTokens should be limited
+     * @param keep is the number of the newest authTokens that should be kept
+     * @return provides the auth keys of the deleted authTokens
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    @Override
+    public List<String> evictOldestTokens(String userID, int keep) throws DataAccessException {
+        System.out.println("Limiting userID: " + userID + " to " + keep + " authTokens . . . ");
+        String sql = "SELECT AuthKey FROM AuthorizationTokens WHERE UserID = ? " +
+                "ORDER BY IssuedAt DESC, rowid DESC LIMIT -1 OFFSET ?;";
+        List<String> evicted = new ArrayList<String>();
+//        This SQL String is used to create a prepared statement to prevent SQL Injection
+        try(PreparedStatement stmt = conn.prepareStatement(sql)) {
+//            The method attaches the userID and the number of authTokens to keep to the prepared statement and executes the query
+            stmt.setString(1, userID);
+            stmt.setInt(2, keep);
+            ResultSet rs = stmt.executeQuery();
+            while(rs.next()) {
+                evicted.add(rs.getString("AuthKey"));
+            }
+            rs.close();
+        } catch (SQLException e) {
+//            If any of the above failed, print the error and throw a new DataAccessException
+            e.printStackTrace();
+            throw new DataAccessException("Error encountered while finding the oldest AuthTokens");
+        }
+//        Every auth key that was returned is deleted with a second prepared statement
+        try(PreparedStatement stmt = conn.prepareStatement("DELETE FROM AuthorizationTokens WHERE AuthKey = ?;")) {
+            for(String authKey : evicted) {
+                stmt.setString(1, authKey);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } catch (SQLException e) {
+//            If any of the above failed, print the error and throw a new DataAccessException
+            e.printStackTrace();
+            throw new DataAccessException("Error encountered while deleting the oldest AuthTokens");
+        }
+        return evicted;
+    }
+
+    /**
+     * deleteExpiredTokens deletes at most the given number of authTokens that expired at or before the given time
+     * A SQL String is created which is:
+     * "DELETE FROM AuthorizationTokens WHERE rowid IN
+     *  (SELECT rowid FROM AuthorizationTokens WHERE ExpiresAt <= ? LIMIT ?);"
+     * This SQL String is used to create a prepared statement to prevent SQL Injection
+     * The method attaches the time and the limit to the prepared statement and executes it
+     * The ExpiresAt index keeps the statement from scanning the whole table
+     *
+     * If any of the above failed, print the error and throw a new DataAccessException
+     *
+     * @param now is the current time in milliseconds since the epoch
+     * @param limit is the maximum number of authTokens to delete
+     * @return provides the number of deleted authTokens
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    @Override
+    public int deleteExpiredTokens(long now, int limit) throws DataAccessException {
+        String sql = "DELETE FROM AuthorizationTokens WHERE rowid IN " +
+                "(SELECT rowid FROM AuthorizationTokens WHERE ExpiresAt <= ? LIMIT ?);";
+//        This SQL String is used to create a prepared statement to prevent SQL Injection
+        try(PreparedStatement stmt = conn.prepareStatement(sql)) {
+//            The method attaches the time and the limit to the prepared statement and executes it
+            stmt.setLong(1, now);
+            stmt.setInt(2, limit);
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+//            If any of the above failed, print the error and throw a new DataAccessException
+            e.printStackTrace();
+            throw new DataAccessException("Error encountered while deleting expired AuthTokens");
+        }
+    }
 }
@@ -0,0 +1,106 @@
+/** The AuthorizedRead class holds the result of reading a single row on behalf of an auth key
+ *  The auth key check, the row lookup, and the ownership check are made by one query,
+ *  and the outcome tells the calling service which of them failed so it can return the matching error
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package DataAccess;
+
+public class AuthorizedRead<T> {
+
+    /**
+     * The Outcome enum lists every result an authorized read can have, in the order they are checked
+     */
+    public enum Outcome {
+        INVALID_AUTH_TOKEN, // the auth key doesn't belong to any User or has expired
+        NOT_FOUND, // no row has the requested ID
+        NOT_OWNED, // the row belongs to a different User than the auth key
+        FOUND // the row belongs to the User of the auth key
+    }
+
+    /**
+     * outcome contains the result of the read
+     */
+    private final Outcome outcome;
+    /**
+     * row contains the row that was read, which is only set when the outcome is FOUND
+     */
+    private final T row;
+    /**
+     * requester contains the username of the auth key's User, or null if it is unknown or the auth key is invalid
+     */
+    private final String requester;
+
+    /**
+     * The constructor is private so that reads are only created with the factory methods below
+     */
+    private AuthorizedRead(Outcome outcome, T row, String requester) {
+        this.outcome = outcome;
+        this.row = row;
+        this.requester = requester;
+    }
+
+    /**
+     * found creates the result of a read that found a row belonging to the User of the auth key
+     * @param row contains the row that was read
+     * @return provides the result
+     */
+    public static <T> AuthorizedRead<T> found(T row) {
+        return new AuthorizedRead<T>(Outcome.FOUND, row, null);
+    }
+
+    /**
+     * found creates the result of a read that found a row belonging to the User of the auth key
+     * @param row contains the row that was read
+     * @param requester contains the username of the auth key's User
+     * @return provides the result
+     */
+    public static <T> AuthorizedRead<T> found(T row, String requester) {
+        return new AuthorizedRead<T>(Outcome.FOUND, row, requester);
+    }
+
+    /**
+     * denied creates the result of a read that didn't provide a row
+     * @param outcome contains the reason no row was provided
+     * @return provides the result
+     */
+    public static <T> AuthorizedRead<T> denied(Outcome outcome) {
+        return new AuthorizedRead<T>(outcome, null, null);
+    }
+
+    /**
+     * denied creates the result of a read that didn't provide a row, even though the auth key was valid
+     * @param outcome contains the reason no row was provided
+     * @param requester contains the username of the auth key's User
+     * @return provides the result
+     */
+    public static <T> AuthorizedRead<T> denied(Outcome outcome, String requester) {
+        return new AuthorizedRead<T>(outcome, null, requester);
+    }
+
+    /**
+     * getOutcome is a getter to provide the outcome private variable
+     * @return provides the result of the read
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * getRow is a getter to provide the row private variable
+     * @return provides the row that was read, or null if the outcome isn't FOUND
+     */
+    public T getRow() {
+        return row;
+    }
+
+    /**
+     * getRequester is a getter to provide the requester private variable
+     * @return provides the username of the auth key's User, or null if it is unknown or the auth key is invalid
+     */
+    public String getRequester() {
+        return requester;
+    }
+}
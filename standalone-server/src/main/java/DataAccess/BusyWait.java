@@ -0,0 +1,62 @@
+/** The BusyWait class decides how a SQLite connection waits for a lock that another connection holds
+ *  The driver's own wait sleeps a whole second at a time, so a read that meets a commit on another thread
+ *  waited a second for a lock that was held for a few milliseconds
+ *
+ *  The wait works as follows:
+ *      The first tries are a millisecond apart, and later ones are up to 10 milliseconds apart
+ *      After 3 seconds of waiting the connection gives up, which fails its statement as the driver's wait would have
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package DataAccess;
+
+import org.sqlite.BusyHandler;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+class BusyWait extends BusyHandler {
+
+    /**
+     * TIMEOUT_MILLIS is how long a connection waits for a lock before it gives up
+     */
+    private static final long TIMEOUT_MILLIS = 3000;
+
+    /**
+     * started holds when the connection began waiting for the lock it is waiting for now
+     */
+    private long started;
+
+    /**
+     * install makes the given connection wait for locks with a new BusyWait
+     * @param conn contains the newly opened connection
+     * @throws SQLException occurs when the driver refuses the handler
+     */
+    static void install(Connection conn) throws SQLException {
+        BusyHandler.setHandler(conn, new BusyWait());
+    }
+
+    /**
+     * callback is called every time the lock was still held
+     * @param tries is the number of times it was already called while waiting for this lock
+     * @return provides 1 to try again, or 0 to give up
+     */
+    @Override
+    protected int callback(int tries) {
+        long now = System.currentTimeMillis();
+        if(tries == 0) {
+            started = now;
+        } else if(now - started > TIMEOUT_MILLIS) {
+            return 0;
+        }
+        try {
+            Thread.sleep(Math.min(10, 1 + tries / 10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+        return 1;
+    }
+}
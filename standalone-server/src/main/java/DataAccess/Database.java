@@ -4,6 +4,15 @@
  *      Define database access/resources
  *      Close connections with the database
  *
+ *  The storage engine is selected once at startup with setStorageEngine
+ *  When the MEMORY engine is selected, a MemoryTransaction takes the place of the SQLite connection
+ *  When the SHARDED engine is selected, a ShardedTransaction takes the place of the SQLite connection
+ *  The services get their stores from getUserStore, getPersonStore, getEventStore, and getTokenStore
+ *  so they work the same way with either engine
+ *
+ *  The SQLite engine's file can be replaced as a whole by replaceLiveFile, which /load and /clear use through Snapshot
+ *  While a replacement is waiting, no new connection is opened, and the file is only moved once every open connection has closed
+ *
  * @author Cody Uhi
  * @version 1.0.0
  */
@@ -11,18 +20,84 @@
 package DataAccess;
 
 import Errors.DataAccessException;
+import Util.Config;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
 public class Database {
 
+    /**
+     * engine denotes the storage engine that every Database instance uses, SQLite unless chosen otherwise at startup
+     */
+    private static volatile StorageEngine engine = StorageEngine.SQLITE;
+
     /**
      * The connection denotes the connection to the SQLite database
      */
     private Connection conn;
+    /**
+     * memoryTransaction denotes the open transaction against the MemoryStorage when the MEMORY engine is used
+     */
+    private MemoryTransaction memoryTransaction;
+    /**
+     * shardedTransaction denotes the open transaction against the shards when the SHARDED engine is used
+     */
+    private ShardedTransaction shardedTransaction;
+    /**
+     * migrated denotes whether the SQLite database file has already been brought up to date by this process
+     */
+    private static volatile boolean migrated = false;
+
+    /**
+     * LIVE_FILE contains the path of the SQLite database file that the SQLITE engine serves from
+     */
+    static final String LIVE_FILE = "db/familymap.sqlite";
+    /**
+     * swapLock guards openConnections and swapping, and is notified whenever either of them changes
+     */
+    private static final Object swapLock = new Object();
+    /**
+     * openConnections counts the SQLite connections to the live file that are currently open
+     */
+    private static int openConnections = 0;
+    /**
+     * swapping denotes whether a replacement of the live file is waiting for the open connections to close
+     */
+    private static boolean swapping = false;
+    /**
+     * counted denotes whether this Database's open connection is included in openConnections
+     */
+    private boolean counted = false;
+
+    /**
+     * setStorageEngine selects the storage engine that every Database instance will use
+     * This should only be called at startup, before any connection is opened
+     *
+     * @param storageEngine is the storage engine to use
+     */
+    public static void setStorageEngine(StorageEngine storageEngine) {
+        System.out.println("Using the " + storageEngine + " storage engine");
+        engine = storageEngine;
+    }
+
+    /**
+     * getStorageEngine provides the storage engine that every Database instance uses
+     *
+     * @return the selected storage engine
+     */
+    public static StorageEngine getStorageEngine() {
+        return engine;
+    }
 
     /**
      * openConnection opens and returns a connection to the database that is found in the SQLite file
@@ -34,27 +109,125 @@ public class Database {
      *
      * If all the above worked properly, the newly established connection is returned to the calling method
      *
-     * @return the successfully established connection to the database
+     * When the MEMORY engine is used, a new MemoryTransaction is started instead and null is returned
+     * When the SHARDED engine is used, a new ShardedTransaction is started instead and null is returned
+     *
+     * @return the successfully established connection to the database, or null for the MEMORY and SHARDED engines
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
     public Connection openConnection() throws DataAccessException {
+        if(engine == StorageEngine.MEMORY) {
+//            When the MEMORY engine is used, a new MemoryTransaction is started instead and null is returned
+            System.out.println("Opening a new transaction on the in-memory storage . . . ");
+            memoryTransaction = MemoryStorage.getInstance().begin();
+            return null;
+        }
+        if(engine == StorageEngine.SHARDED) {
+//            When the SHARDED engine is used, a new ShardedTransaction is started instead and null is returned
+            System.out.println("Opening a new transaction on the shards . . . ");
+            shardedTransaction = new ShardedTransaction();
+            return null;
+        }
         System.out.println("Opening a new connection to the SQLite database . . . ");
+//        Wait for any replacement of the database file to finish, so the connection is opened on the new file
+        enterConnection();
         try {
 //            The database file's path is provided and a connection is assigned to it
-            final String CONNECTION_URL = "jdbc:sqlite:db/familymap.sqlite";
+            final String CONNECTION_URL = "jdbc:sqlite:" + LIVE_FILE;
             conn = DriverManager.getConnection(CONNECTION_URL);
+//            Logins and background jobs write on threads of their own, so a lock held by one of them is waited for in short steps
+            BusyWait.install(conn);
+//            The first connection of the process brings an older database file up to date
+            if(!migrated) {
+                migrate(conn);
+            }
 //            The auto-commit property of the connection is set to false to support fail-safe defaults design principles
             conn.setAutoCommit(false);
 
         } catch (SQLException e) {
 //            If any of the above failed, print the error and throw a new DataAccessException
             e.printStackTrace();
+            closeQuietly();
             throw new DataAccessException("Unable to Open Database Connection");
         }
 //        If all the above worked properly, the newly established connection is returned to the calling method
         return conn;
     }
 
+    /**
+     * migrate brings a database file that was created before auth tokens expired up to date
+     * It only runs once per process, and does nothing if the AuthorizationTokens table doesn't exist yet
+     *
+     * Add the IssuedAt and ExpiresAt columns to the AuthorizationTokens table if they are missing
+     * Existing auth tokens are treated as issued now, so they expire one configured lifetime after the upgrade
+     * Create the indexes used to find a User's oldest auth tokens and the expired auth tokens,
+     * and the indexes used to find a User's Persons and Events
+     *
+     * @param conn is the newly opened connection, still in auto-commit mode
+     * @throws SQLException handles errors that can take place during interaction with the SQLite DB
+     */
+    private static synchronized void migrate(Connection conn) throws SQLException {
+        if(migrated) {
+            return;
+        }
+        boolean hasTable = false;
+        boolean hasIssuedAt = false;
+        boolean hasExpiresAt = false;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA table_info(AuthorizationTokens);")) {
+            while(rs.next()) {
+                hasTable = true;
+                hasIssuedAt |= "IssuedAt".equalsIgnoreCase(rs.getString("name"));
+                hasExpiresAt |= "ExpiresAt".equalsIgnoreCase(rs.getString("name"));
+            }
+        }
+        if(hasTable) {
+            try (Statement stmt = conn.createStatement()) {
+//                Add the IssuedAt and ExpiresAt columns to the AuthorizationTokens table if they are missing
+                if(!hasIssuedAt) {
+                    System.out.println("Adding the IssuedAt column to the AuthorizationTokens table . . . ");
+                    stmt.executeUpdate("ALTER TABLE AuthorizationTokens ADD COLUMN IssuedAt INTEGER;");
+                }
+                if(!hasExpiresAt) {
+                    System.out.println("Adding the ExpiresAt column to the AuthorizationTokens table . . . ");
+                    stmt.executeUpdate("ALTER TABLE AuthorizationTokens ADD COLUMN ExpiresAt INTEGER;");
+                }
+//                Create the indexes used to find a User's oldest auth tokens and the expired auth tokens,
+//                and the indexes used to find a User's Persons and Events
+                stmt.executeUpdate(INDEXES);
+            }
+//            Existing auth tokens are treated as issued now, so they expire one configured lifetime after the upgrade
+            long now = System.currentTimeMillis();
+            try (PreparedStatement stmt = conn.prepareStatement("UPDATE AuthorizationTokens " +
+                    "SET IssuedAt = ?, ExpiresAt = ? WHERE IssuedAt IS NULL OR ExpiresAt IS NULL;")) {
+                stmt.setLong(1, now);
+                stmt.setLong(2, now + Config.getTokenLifetimeMillis());
+                stmt.executeUpdate();
+            }
+        }
+        migrated = true;
+    }
+
+    /**
+     * TOKEN_INDEXES creates the indexes of the AuthorizationTokens table
+     */
+    private static final String TOKEN_INDEXES =
+            "CREATE INDEX IF NOT EXISTS AuthorizationTokensByUser ON AuthorizationTokens (UserID, IssuedAt);" +
+            "CREATE INDEX IF NOT EXISTS AuthorizationTokensByExpiry ON AuthorizationTokens (ExpiresAt);";
+
+    /**
+     * INDEXES creates every index of the Users, AuthorizationTokens, Persons, and Events tables
+     * It is kept apart from TABLES so that a bulk load can create the indexes after the rows are in
+     * The indexes of a User's Persons and Events also hold their IDs, so an export can read them a page at a time in order,
+     * and they replace the PersonsByUser and EventsByUser indexes of older database files
+     */
+    static final String INDEXES = TOKEN_INDEXES +
+            "DROP INDEX IF EXISTS PersonsByUser;" +
+            "DROP INDEX IF EXISTS EventsByUser;" +
+            "CREATE INDEX IF NOT EXISTS PersonsByUserAndID ON Persons (AssociatedUserName, PersonID);" +
+            "CREATE INDEX IF NOT EXISTS EventsByUserAndID ON Events (AssociatedUserName, EventID);" +
+            "CREATE INDEX IF NOT EXISTS EventsByPerson ON Events (PersonID);";
+
     /**
      * getConnection is a getter method which provides the private connection for this class
      *
@@ -65,7 +238,7 @@ public class Database {
      */
     public Connection getConnection() throws DataAccessException {
         System.out.println("Getting connection to the database . . . ");
-        if(conn == null) {
+        if(!isOpen()) {
 //            If the connection has not yet been defined, open a new connection to the database and return that
             return openConnection();
         } else {
@@ -87,6 +260,25 @@ public class Database {
      */
     public void closeConnection(boolean commit) throws DataAccessException {
         System.out.println("Closing connection to the database with a " + commit + " commit value . . . ");
+        if(engine == StorageEngine.MEMORY) {
+            if(memoryTransaction != null) {
+                if(commit) {
+                    memoryTransaction.commit();
+                } else {
+                    memoryTransaction.rollback();
+                }
+                memoryTransaction = null;
+            }
+            return;
+        }
+        if(engine == StorageEngine.SHARDED) {
+            if(shardedTransaction != null) {
+                ShardedTransaction txn = shardedTransaction;
+                shardedTransaction = null;
+                txn.close(commit);
+            }
+            return;
+        }
         try {
 //            If the commit is desired, commit changes.  If not, roll the changes back
             if(commit) {
@@ -94,14 +286,146 @@ public class Database {
             } else {
                 conn.rollback();
             }
-//            Close the connection to the database and nullify the connection variable
-            conn.close();
-            conn = null;
         } catch (SQLException e) {
 //            If anything failed above, print the error and throw a new DataAccessException
             e.printStackTrace();
+            closeQuietly();
             throw new DataAccessException("Unable to Close Connection");
         }
+//        Close the connection to the database and nullify the connection variable
+        closeQuietly();
+    }
+
+    /**
+     * closeQuietly closes the SQLite connection if there is one, and lets a waiting replacement of the file know
+     */
+    private void closeQuietly() {
+        try {
+            if(conn != null) {
+                conn.close();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            conn = null;
+            leaveConnection();
+        }
+    }
+
+    /**
+     * enterConnection waits until no replacement of the live file is in progress and counts a new open connection
+     * @throws DataAccessException occurs if the thread is interrupted while waiting
+     */
+    private void enterConnection() throws DataAccessException {
+        synchronized (swapLock) {
+            if(counted) {
+                return;
+            }
+            try {
+                while(swapping) {
+                    swapLock.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DataAccessException("Interrupted while waiting for the database file to be replaced");
+            }
+            openConnections++;
+            counted = true;
+        }
+    }
+
+    /**
+     * leaveConnection stops counting this Database's connection, waking a replacement that waits for it
+     */
+    private void leaveConnection() {
+        synchronized (swapLock) {
+            if(counted) {
+                counted = false;
+                openConnections--;
+                swapLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * openReplica copies the live SQLite database file into a new in-memory database and provides the connection to it
+     *
+     * The copy is made by SQLite's online backup API, which reads a consistent snapshot of the file
+     * The copy is made read-only, since nothing should ever be written to it
+     *
+     * @return provides the connection to the in-memory copy, in auto-commit mode
+     * @throws DataAccessException handles SQLExceptions that can take place while copying the file
+     */
+    public static Connection openReplica() throws DataAccessException {
+        Connection replica = null;
+        try {
+            replica = DriverManager.getConnection("jdbc:sqlite::memory:");
+            try (Statement stmt = replica.createStatement()) {
+//                The copy is made by SQLite's online backup API, which reads a consistent snapshot of the file
+                stmt.executeUpdate("restore from " + LIVE_FILE);
+//                The copy is made read-only, since nothing should ever be written to it
+                stmt.execute("PRAGMA query_only = 1;");
+            }
+            return replica;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            try {
+                if(replica != null) {
+                    replica.close();
+                }
+            } catch (SQLException closeError) {
+                closeError.printStackTrace();
+            }
+            throw new DataAccessException("Unable to copy the database into the read replica");
+        }
+    }
+
+    /**
+     * replaceLiveFile atomically puts the given SQLite file in place of the live database file
+     *
+     * Stop new connections from being opened
+     * Wait for every open connection to close, for at most familymap.swap.drainSeconds seconds (defaults to 30)
+     * Move the replacement over the live file in a single rename, so a connection only ever sees the old file or the new one
+     * Let new connections be opened again, even if the replacement failed
+     *
+     * @param replacement contains the path of the complete replacement file, which must be in the same directory
+     * @throws DataAccessException occurs if the open connections didn't close in time or the file couldn't be moved
+     */
+    static void replaceLiveFile(Path replacement) throws DataAccessException {
+        long deadline = System.currentTimeMillis() + Config.getSwapDrainMillis();
+        synchronized (swapLock) {
+            try {
+//                Stop new connections from being opened
+                while(swapping) {
+                    swapLock.wait();
+                }
+                swapping = true;
+//                Wait for every open connection to close, for at most familymap.swap.drainSeconds seconds
+                System.out.println("Waiting for " + openConnections + " open connections before replacing the database file . . . ");
+                long remaining;
+                while(openConnections > 0 && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                    swapLock.wait(remaining);
+                }
+                if(openConnections > 0) {
+                    throw new DataAccessException("Timed out waiting for " + openConnections +
+                            " open connections before replacing the database file");
+                }
+//                Move the replacement over the live file in a single rename
+                Files.move(replacement, Paths.get(LIVE_FILE), StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+                System.out.println("The database file was replaced!");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DataAccessException("Interrupted while waiting to replace the database file");
+            } catch (IOException e) {
+                e.printStackTrace();
+                throw new DataAccessException("Unable to replace the database file");
+            } finally {
+//                Let new connections be opened again, even if the replacement failed
+                swapping = false;
+                swapLock.notifyAll();
+            }
+        }
     }
 
     /**
@@ -115,49 +439,15 @@ public class Database {
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
     public void createTables() throws DataAccessException {
+        if(engine != StorageEngine.SQLITE) {
+//            The in-memory storage has no tables to create, and the shards create their tables when they are first opened
+            return;
+        }
         System.out.println("Creating tables for the SQLite database . . . ");
         try (Statement stmt = conn.createStatement()) {
 //            Create a Users table, an AuthorizationTokens table, a Persons table, and an Events table
-            String sql = "CREATE TABLE IF NOT EXISTS Users" +
-                    "(" +
-                    "UserID TEXT PRIMARY KEY UNIQUE, " +
-                    "UserName TEXT NOT NULL UNIQUE, " +
-                    "PassWord TEXT NOT NULL, " +
-                    "Email TEXT NOT NULL UNIQUE, " +
-                    "FirstName TEXT NOT NULL, " +
-                    "LastName TEXT NOT NULL, " +
-                    "Gender TEXT CHECK(Gender IN ('f','m')) NOT NULL," +
-                    "PersonID TEXT NOT NULL UNIQUE);" +
-
-                    "CREATE TABLE IF NOT EXISTS AuthorizationTokens" +
-                    "(" +
-                    "TokenID TEXT PRIMARY KEY UNIQUE, " +
-                    "AuthKey TEXT NOT NULL UNIQUE, " +
-                    "UserID TEXT NOT NULL);" +
-
-                    "CREATE TABLE IF NOT EXISTS Persons" +
-                    "(" +
-                    "PersonID TEXT PRIMARY KEY UNIQUE, " +
-                    "AssociatedUserName TEXT, " +
-                    "FirstName TEXT NOT NULL, " +
-                    "LastName TEXT NOT NULL, " +
-                    "Gender TEXT CHECK(Gender IN ('f', 'm')) NOT NULL, " +
-                    "FatherID TEXT, " +
-                    "MotherID TEXT, " +
-                    "SpouseID TEXT);" +
-
-                    "CREATE TABLE IF NOT EXISTS Events" +
-                    "(" +
-                    "EventID TEXT PRIMARY KEY UNIQUE, " +
-                    "AssociatedUserName TEXT, " +
-                    "Latitude NUMBER, " +
-                    "Longitude NUMBER, " +
-                    "Country TEXT, " +
-                    "City TEXT, " +
-                    "EventType TEXT, " +
-                    "Year INTEGER);";
 //            Execute the update on the SQLite database
-            stmt.executeUpdate(sql);
+            stmt.executeUpdate(CREATE_TABLES);
         } catch (SQLException e) {
 //            If anything failed above, print the error and throw a new DataAccessException
             e.printStackTrace();
@@ -165,6 +455,58 @@ public class Database {
         }
     }
 
+    /**
+     * TABLES creates the Users, AuthorizationTokens, Persons, and Events tables without any of their indexes
+     */
+    static final String TABLES = "CREATE TABLE IF NOT EXISTS Users" +
+            "(" +
+            "UserID TEXT PRIMARY KEY UNIQUE, " +
+            "UserName TEXT NOT NULL UNIQUE, " +
+            "PassWord TEXT NOT NULL, " +
+            "Email TEXT NOT NULL UNIQUE, " +
+            "FirstName TEXT NOT NULL, " +
+            "LastName TEXT NOT NULL, " +
+            "Gender TEXT CHECK(Gender IN ('f','m')) NOT NULL," +
+            "PersonID TEXT NOT NULL UNIQUE);" +
+
+            "CREATE TABLE IF NOT EXISTS AuthorizationTokens" +
+            "(" +
+            "TokenID TEXT PRIMARY KEY UNIQUE, " +
+            "AuthKey TEXT NOT NULL UNIQUE, " +
+            "UserID TEXT NOT NULL, " +
+            "IssuedAt INTEGER, " +
+            "ExpiresAt INTEGER);" +
+
+            "CREATE TABLE IF NOT EXISTS Persons" +
+            "(" +
+            "PersonID TEXT PRIMARY KEY UNIQUE, " +
+            "AssociatedUserName TEXT, " +
+            "FirstName TEXT NOT NULL, " +
+            "LastName TEXT NOT NULL, " +
+            "Gender TEXT CHECK(Gender IN ('f', 'm')) NOT NULL, " +
+            "FatherID TEXT, " +
+            "MotherID TEXT, " +
+            "SpouseID TEXT, " +
+            "AssociatedUserID TEXT);" +
+
+            "CREATE TABLE IF NOT EXISTS Events" +
+            "(" +
+            "EventID TEXT PRIMARY KEY UNIQUE, " +
+            "PersonID TEXT NOT NULL, " +
+            "AssociatedUserName TEXT, " +
+            "Latitude NUMBER, " +
+            "Longitude NUMBER, " +
+            "Country TEXT, " +
+            "City TEXT, " +
+            "EventType TEXT, " +
+            "Year INTEGER);";
+
+    /**
+     * CREATE_TABLES creates the Users, AuthorizationTokens, Persons, and Events tables along with their indexes
+     * It matches db/createTables.sql and is also used to create every shard of the SHARDED engine
+     */
+    static final String CREATE_TABLES = TABLES + INDEXES;
+
     /**
      * clearTables clears all contents from all the tables in the SQLite database.  This maintains the tables' existence,
      * but all rows that were contained in them are deleted
@@ -177,6 +519,13 @@ public class Database {
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
     public void clearTables() throws DataAccessException {
+        if(engine != StorageEngine.SQLITE) {
+            getUserStore().clearUsers();
+            getPersonStore().clearPersons();
+            getEventStore().clearEvents();
+            getTokenStore().clearAuthTokens();
+            return;
+        }
         try(Statement stmt = conn.createStatement()) {
 //            Delete all from the Users table, the Persons table, the Events table, and the AuthorizationTokens table
             String sql = "DELETE FROM Users; " +
@@ -191,4 +540,94 @@ public class Database {
             throw new DataAccessException("SQL Error occured while clearing tables");
         }
     }
+
+    /**
+     * isOpen denotes whether this Database currently has an open connection or transaction for the selected engine
+     */
+    private boolean isOpen() {
+        if(engine == StorageEngine.MEMORY) {
+            return memoryTransaction != null;
+        }
+        return engine == StorageEngine.SHARDED ? shardedTransaction != null : conn != null;
+    }
+
+    /**
+     * getUserStore provides the UserStore of the selected storage engine, bound to this Database's open connection
+     * If no connection is open yet, one is opened first
+     *
+     * @return the UserStore for the selected storage engine
+     * @throws DataAccessException handles errors that can take place while opening the connection
+     */
+    public UserStore getUserStore() throws DataAccessException {
+        if(!isOpen()) {
+            openConnection();
+        }
+        if(engine == StorageEngine.MEMORY) {
+            return new MemoryUserStore(memoryTransaction);
+        }
+        if(engine == StorageEngine.SHARDED) {
+            return new ShardedUserStore(shardedTransaction);
+        }
+        return new UserDao(conn);
+    }
+
+    /**
+     * getPersonStore provides the PersonStore of the selected storage engine, bound to this Database's open connection
+     * If no connection is open yet, one is opened first
+     *
+     * @return the PersonStore for the selected storage engine
+     * @throws DataAccessException handles errors that can take place while opening the connection
+     */
+    public PersonStore getPersonStore() throws DataAccessException {
+        if(!isOpen()) {
+            openConnection();
+        }
+        if(engine == StorageEngine.MEMORY) {
+            return new MemoryPersonStore(memoryTransaction);
+        }
+        if(engine == StorageEngine.SHARDED) {
+            return new ShardedPersonStore(shardedTransaction);
+        }
+        return new PersonDao(conn);
+    }
+
+    /**
+     * getEventStore provides the EventStore of the selected storage engine, bound to this Database's open connection
+     * If no connection is open yet, one is opened first
+     *
+     * @return the EventStore for the selected storage engine
+     * @throws DataAccessException handles errors that can take place while opening the connection
+     */
+    public EventStore getEventStore() throws DataAccessException {
+        if(!isOpen()) {
+            openConnection();
+        }
+        if(engine == StorageEngine.MEMORY) {
+            return new MemoryEventStore(memoryTransaction);
+        }
+        if(engine == StorageEngine.SHARDED) {
+            return new ShardedEventStore(shardedTransaction);
+        }
+        return new EventDao(conn);
+    }
+
+    /**
+     * getTokenStore provides the TokenStore of the selected storage engine, bound to this Database's open connection
+     * If no connection is open yet, one is opened first
+     *
+     * @return the TokenStore for the selected storage engine
+     * @throws DataAccessException handles errors that can take place while opening the connection
+     */
+    public TokenStore getTokenStore() throws DataAccessException {
+        if(!isOpen()) {
+            openConnection();
+        }
+        if(engine == StorageEngine.MEMORY) {
+            return new MemoryTokenStore(memoryTransaction);
+        }
+        if(engine == StorageEngine.SHARDED) {
+            return new ShardedTokenStore(shardedTransaction);
+        }
+        return new AuthTokenDao(conn);
+    }
 }
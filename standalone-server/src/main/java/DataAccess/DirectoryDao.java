@@ -0,0 +1,241 @@
+/** The DirectoryDao class is used to access the global directory of the SHARDED storage engine
+ *  The directory is a small SQLite database that knows which username every userID and auth key belongs to,
+ *  so that operations which aren't given a username can still be routed to the shard that owns them
+ *  It also enforces the UNIQUE constraints on usernames, emails and userIDs across every shard
+ *
+ *  The DirectoryDao class contains methods that perform the following:
+ *      Create the UserDirectory and TokenDirectory tables
+ *      Add and look up users and auth keys
+ *      Delete expired auth keys and clear either table
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package DataAccess;
+
+import Errors.DataAccessException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+public class DirectoryDao {
+
+    /**
+     * CREATE_TABLES creates the UserDirectory and TokenDirectory tables along with their indexes
+     */
+    static final String CREATE_TABLES = "CREATE TABLE IF NOT EXISTS UserDirectory" +
+            "(" +
+            "UserName TEXT PRIMARY KEY NOT NULL, " +
+            "UserID TEXT NOT NULL UNIQUE, " +
+            "Email TEXT NOT NULL UNIQUE);" +
+
+            "CREATE TABLE IF NOT EXISTS TokenDirectory" +
+            "(" +
+            "AuthKey TEXT PRIMARY KEY NOT NULL, " +
+            "UserName TEXT, " +
+            "ExpiresAt INTEGER NOT NULL);" +
+            "CREATE INDEX IF NOT EXISTS TokenDirectoryByExpiry ON TokenDirectory (ExpiresAt);";
+
+    /**
+     *  The Connection denotes the connection to the directory database that was opened by the calling method
+     */
+    private final Connection conn;
+
+    /**
+     * The constructor takes the connection to the directory database and makes it available within this class
+     * @param conn the given connection to the directory database
+     */
+    public DirectoryDao(Connection conn) {
+        this.conn = conn;
+    }
+
+    /**
+     * addUser records which username a new User has, which also reserves the username, userID and email
+     * A SQL String is created which is:
+     * "INSERT INTO UserDirectory (UserName, UserID, Email) VALUES (?,?,?);"
+     * This SQL String is used to create a prepared statement to prevent SQL Injection
+     * The method attaches the username, userID and email to the prepared statement and executes it
+     *
+     * If any of the above failed, print the error and throw a new DataAccessException
+     *
+     * @param username contains the username of the new User
+     * @param userID contains the userID of the new User
+     * @param email contains the email of the new User
+     * @throws DataAccessException handles SQLExceptions, including when the username, userID or email is already taken
+     */
+    public void addUser(String username, String userID, String email) throws DataAccessException {
+        String sql = "INSERT INTO UserDirectory (UserName, UserID, Email) VALUES (?,?,?);";
+//        This SQL String is used to create a prepared statement to prevent SQL Injection
+        try(PreparedStatement stmt = conn.prepareStatement(sql)) {
+//            The method attaches the username, userID and email to the prepared statement and executes it
+            stmt.setString(1, username);
+            stmt.setString(2, userID);
+            stmt.setString(3, email);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+//            If any of the above failed, print the error and throw a new DataAccessException
+            e.printStackTrace();
+            throw new DataAccessException("Error encountered while adding the User to the shard directory");
+        }
+    }
+
+    /**
+     * getUsername provides the username of the User with the given userID
+     * A SQL String is created which is:
+     * "SELECT UserName FROM UserDirectory WHERE UserID = ?;"
+     *
+     * @param userID contains the userID to look up
+     * @return provides the username, or null if no User has the given userID
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    public String getUsername(String userID) throws DataAccessException {
+        return queryString("SELECT UserName FROM UserDirectory WHERE UserID = ?;", userID);
+    }
+
+    /**
+     * addToken records which username a new auth key belongs to
+     * A SQL String is created which is:
+     * "INSERT INTO TokenDirectory (AuthKey, UserName, ExpiresAt) VALUES (?,?,?);"
+     * This SQL String is used to create a prepared statement to prevent SQL Injection
+     * The method attaches the auth key, username and expiry time to the prepared statement and executes it
+     *
+     * If any of the above failed, print the error and throw a new DataAccessException
+     *
+     * @param authKey contains the auth key of the new authToken
+     * @param username contains the username the authToken belongs to, which is null if its User doesn't exist
+     * @param expiresAt contains the time the authToken expires, after which its entry may be swept
+     * @throws DataAccessException handles SQLExceptions, including when the auth key is already taken
+     */
+    public void addToken(String authKey, String username, long expiresAt) throws DataAccessException {
+        String sql = "INSERT INTO TokenDirectory (AuthKey, UserName, ExpiresAt) VALUES (?,?,?);";
+//        This SQL String is used to create a prepared statement to prevent SQL Injection
+        try(PreparedStatement stmt = conn.prepareStatement(sql)) {
+//            The method attaches the auth key, username and expiry time to the prepared statement and executes it
+            stmt.setString(1, authKey);
+            stmt.setString(2, username);
+            stmt.setLong(3, expiresAt);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+//            If any of the above failed, print the error and throw a new DataAccessException
+            e.printStackTrace();
+            throw new DataAccessException("Error encountered while adding the AuthToken to the shard directory");
+        }
+    }
+
+    /**
+     * getTokenUsername provides the username that the given auth key belongs to
+     * A SQL String is created which is:
+     * "SELECT UserName FROM TokenDirectory WHERE AuthKey = ?;"
+     *
+     * @param authKey contains the auth key to look up
+     * @return provides the username, or null if the auth key is unknown or belongs to no User
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    public String getTokenUsername(String authKey) throws DataAccessException {
+        return queryString("SELECT UserName FROM TokenDirectory WHERE AuthKey = ?;", authKey);
+    }
+
+    /**
+     * hasToken denotes whether the given auth key is in the directory
+     *
+     * @param authKey contains the auth key to look up
+     * @return provides true if the auth key is in the directory
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    public boolean hasToken(String authKey) throws DataAccessException {
+        return queryString("SELECT AuthKey FROM TokenDirectory WHERE AuthKey = ?;", authKey) != null;
+    }
+
+    /**
+     * deleteTokens deletes the given auth keys from the directory
+     * A SQL String is created which is:
+     * "DELETE FROM TokenDirectory WHERE AuthKey = ?;"
+     * The prepared statement is executed once for every auth key as a batch
+     *
+     * @param authKeys contains the auth keys to delete
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    public void deleteTokens(List<String> authKeys) throws DataAccessException {
+        try(PreparedStatement stmt = conn.prepareStatement("DELETE FROM TokenDirectory WHERE AuthKey = ?;")) {
+            for(String authKey : authKeys) {
+                stmt.setString(1, authKey);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new DataAccessException("Error encountered while deleting AuthTokens from the shard directory");
+        }
+    }
+
+    /**
+     * deleteExpiredTokens deletes at most the given number of auth keys that expired at or before the given time
+     * A SQL String is created which is:
+     * "DELETE FROM TokenDirectory WHERE rowid IN (SELECT rowid FROM TokenDirectory WHERE ExpiresAt <= ? LIMIT ?);"
+     *
+     * @param now is the current time in milliseconds since the epoch
+     * @param limit is the maximum number of auth keys to delete
+     * @return provides the number of deleted auth keys
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    public int deleteExpiredTokens(long now, int limit) throws DataAccessException {
+        String sql = "DELETE FROM TokenDirectory WHERE rowid IN " +
+                "(SELECT rowid FROM TokenDirectory WHERE ExpiresAt <= ? LIMIT ?);";
+        try(PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, now);
+            stmt.setInt(2, limit);
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new DataAccessException("Error encountered while deleting expired AuthTokens from the shard directory");
+        }
+    }
+
+    /**
+     * clearUsers deletes every User from the directory
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    public void clearUsers() throws DataAccessException {
+        execute("DELETE FROM UserDirectory;");
+    }
+
+    /**
+     * clearTokens deletes every auth key from the directory
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    public void clearTokens() throws DataAccessException {
+        execute("DELETE FROM TokenDirectory;");
+    }
+
+    /**
+     * queryString runs the given single-parameter query and provides the first column of its first row, or null
+     */
+    private String queryString(String sql, String parameter) throws DataAccessException {
+        try(PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, parameter);
+            try(ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new DataAccessException("Error encountered while reading the shard directory");
+        }
+    }
+
+    /**
+     * execute runs the given statement, which has no parameters
+     */
+    private void execute(String sql) throws DataAccessException {
+        try(Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new DataAccessException("Error encountered while clearing the shard directory");
+        }
+    }
+}
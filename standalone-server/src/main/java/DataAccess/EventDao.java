@@ -16,19 +16,19 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 
-public class EventDao {
+public class EventDao implements EventStore {
 
     /**
      *  The Connection denotes the connection to the database that was initiated by the calling method
      */
-    private static Connection conn;
+    private Connection conn;
 
     /**
      * The constructor takes the Database Connection that was passed by the calling method and makes it available within this class
      * @param conn the given connection to the database instance
      */
     public EventDao(Connection conn) {
-        EventDao.conn = conn;
+        this.conn = conn;
     }
 
     /**
@@ -46,6 +46,7 @@ public class EventDao {
      * @return provides the Event POJO that is attached to the given eventID
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
+    @Override
     public Event getEvent(String eventID) throws DataAccessException {
         System.out.println("Getting the Event POJO for the EventID: " + eventID + " . . . ");
         String sql = "SELECT * FROM Events WHERE EventID = ?;";
@@ -78,6 +79,73 @@ public class EventDao {
         return null;
     }
 
+    /**
+     * getEventForAuthKey reads the Event attached to the given eventID on behalf of the given auth key
+     * A SQL String is created which is:
+     * "SELECT Users.UserName AS RequesterName, Events.* FROM AuthorizationTokens
+     *  JOIN Users ON Users.UserID = AuthorizationTokens.UserID
+     *  LEFT JOIN Events ON Events.EventID = ?
+     *  WHERE AuthorizationTokens.AuthKey = ? AND AuthorizationTokens.ExpiresAt > ?;"
+     * This SQL String is used to create a prepared statement to prevent SQL Injection
+     * The method attaches the eventID, the auth key, and the current time to the prepared statement and executes the query
+     * If nothing was returned from the SQL query, the auth key doesn't belong to any User
+     * If the returned row has no EventID, the Event doesn't exist
+     * If the Event's username isn't the auth key's username, the Event belongs to a different User
+     * Otherwise fill in the information for the Event POJO and return it
+     *
+     * If any of the above failed, print the error and throw a new DataAccessException
+     *
+     * @param eventID is the eventID that was passed by the calling method
+     * @param authKey is the auth key that was sent with the request
+     * @return provides the Event if it belongs to the auth key's User, otherwise the reason it wasn't provided
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    @Override
+    public AuthorizedRead<Event> getEventForAuthKey(String eventID, String authKey) throws DataAccessException {
+        System.out.println("Getting the Event POJO for the EventID: " + eventID + " on behalf of an authToken . . . ");
+        String sql = "SELECT Users.UserName AS RequesterName, Events.* FROM AuthorizationTokens " +
+                "JOIN Users ON Users.UserID = AuthorizationTokens.UserID " +
+                "LEFT JOIN Events ON Events.EventID = ? " +
+                "WHERE AuthorizationTokens.AuthKey = ? AND AuthorizationTokens.ExpiresAt > ?;";
+//        This SQL String is used to create a prepared statement to prevent SQL Injection
+        try(PreparedStatement stmt = conn.prepareStatement(sql)) {
+//            The method attaches the eventID, the auth key, and the current time to the prepared statement and executes the query
+            stmt.setString(1,eventID);
+            stmt.setString(2,authKey);
+            stmt.setLong(3,System.currentTimeMillis());
+            try(ResultSet rs = stmt.executeQuery()) {
+                if(!rs.next()) {
+//                    If nothing was returned from the SQL query, the auth key doesn't belong to any User
+                    return AuthorizedRead.denied(AuthorizedRead.Outcome.INVALID_AUTH_TOKEN);
+                }
+                if(rs.getString("EventID") == null) {
+//                    If the returned row has no EventID, the Event doesn't exist
+                    return AuthorizedRead.denied(AuthorizedRead.Outcome.NOT_FOUND, rs.getString("RequesterName"));
+                }
+                if(!rs.getString("RequesterName").equals(rs.getString("AssociatedUserName"))) {
+//                    If the Event's username isn't the auth key's username, the Event belongs to a different User
+                    return AuthorizedRead.denied(AuthorizedRead.Outcome.NOT_OWNED, rs.getString("RequesterName"));
+                }
+//                Otherwise fill in the information for the Event POJO and return it
+                Event event = new Event();
+                event.setEventID(rs.getString("EventID"));
+                event.setAssociatedUsername(rs.getString("AssociatedUserName"));
+                event.setPersonID(rs.getString("PersonID"));
+                event.setLatitude(rs.getFloat("Latitude"));
+                event.setLongitude(rs.getFloat("Longitude"));
+                event.setCountry(rs.getString("country"));
+                event.setCity(rs.getString("city"));
+                event.setEventType(rs.getString("EventType"));
+                event.setYear(rs.getInt("year"));
+                return AuthorizedRead.found(event, rs.getString("RequesterName"));
+            }
+        } catch (SQLException e) {
+//            If any of the above failed, print the error and throw a new DataAccessException
+            e.printStackTrace();
+            throw new DataAccessException("Error encountered while getting event");
+        }
+    }
+
     /**
      * getEvents provides all the events that are attached to a User based on a given username
      * A SQL String is created which is:
@@ -95,6 +163,7 @@ public class EventDao {
      * @return provides an ArrayList of Event POJOs associated with the given username
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
+    @Override
     public ArrayList<Event> getEvents(String username) throws DataAccessException {
         System.out.println("Getting all events associated with " + username + " . . . ");
         String sql = "SELECT * FROM Events WHERE AssociatedUsername = ?;";
@@ -130,6 +199,58 @@ public class EventDao {
         }
     }
 
+    /**
+     * getEventsPage provides one page of the events that are attached to a User based on a given username, in order of eventID
+     * A SQL String is created which is:
+     * "SELECT * FROM Events WHERE AssociatedUsername = ? AND EventID > ? ORDER BY EventID LIMIT ?;"
+     * This SQL String is used to create a prepared statement to prevent SQL Injection
+     * The method attaches the username, the last eventID of the previous page and the limit to the prepared statement
+     *  and executes the query, which walks the EventsByUserAndID index from the previous page instead of sorting the tree
+     * The method iterates through the results of the query and adds a new Event POJO to the page for every row
+     *
+     * If any of the above failed, print the error and throw a new DataAccessException
+     *
+     * @param username is the username that was passed by the calling method
+     * @param afterID is the last eventID of the previous page, or an empty String for the first page
+     * @param limit is the most Events the page may hold
+     * @return provides an ArrayList of the Event POJOs of the page, which is empty once there are none left
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    @Override
+    public ArrayList<Event> getEventsPage(String username, String afterID, int limit) throws DataAccessException {
+        System.out.println("Getting a page of events associated with " + username + " after " + afterID + " . . . ");
+        String sql = "SELECT * FROM Events WHERE AssociatedUsername = ? AND EventID > ? ORDER BY EventID LIMIT ?;";
+//        This SQL String is used to create a prepared statement to prevent SQL Injection
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+//            The method attaches the username, the last eventID of the previous page and the limit to the prepared statement
+            stmt.setString(1, username);
+            stmt.setString(2, afterID);
+            stmt.setInt(3, limit);
+            ArrayList<Event> events = new ArrayList<Event>();
+            try (ResultSet rs = stmt.executeQuery()) {
+//                The method iterates through the results of the query and adds a new Event POJO to the page for every row
+                while(rs.next()) {
+                    Event event = new Event();
+                    event.setEventID(rs.getString("EventID"));
+                    event.setAssociatedUsername(rs.getString("AssociatedUserName"));
+                    event.setPersonID(rs.getString("PersonID"));
+                    event.setLatitude(rs.getFloat("Latitude"));
+                    event.setLongitude(rs.getFloat("Longitude"));
+                    event.setCountry(rs.getString("country"));
+                    event.setCity(rs.getString("city"));
+                    event.setEventType(rs.getString("EventType"));
+                    event.setYear(rs.getInt("year"));
+                    events.add(event);
+                }
+            }
+            return events;
+        } catch (SQLException e) {
+//            If any of the above failed, print the error and throw a new DataAccessException
+            e.printStackTrace();
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
     /**
      * insertEvent inserts a row into the Events table containing all information related to a given event
      * A SQL String is created which is:
@@ -143,6 +264,7 @@ public class EventDao {
      * @param event is the Event POJO which is to be inserted into the SQLite database
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
+    @Override
     public void insertEvent(Event event) throws DataAccessException {
         System.out.println("Inserting " + event.getEventID() + " to the Events table . . . ");
         String sql = "INSERT INTO Events (EventID, PersonID, AssociatedUserName, Latitude, Longitude, Country, City, EventType, Year) " +
@@ -150,15 +272,7 @@ public class EventDao {
 //        This SQL String is used to create a prepared statement to prevent SQL Injection
         try(PreparedStatement stmt = conn.prepareStatement(sql)) {
 //            The method attaches all Event attributes to the prepared statement and executes it
-            stmt.setString(1,event.getEventID());
-            stmt.setString(2,event.getPersonID());
-            stmt.setString(3, event.getAssociatedUsername());
-            stmt.setFloat(4, event.getLatitude());
-            stmt.setFloat(5,event.getLongitude());
-            stmt.setString(6,event.getCountry());
-            stmt.setString(7,event.getCity());
-            stmt.setString(8,event.getEventType());
-            stmt.setInt(9,event.getYear());
+            bindEvent(stmt, event);
             stmt.executeUpdate();
         } catch (SQLException e) {
 //            If any of the above failed, print the error and throw a new DataAccessException
@@ -167,6 +281,45 @@ public class EventDao {
         }
     }
 
+    /**
+     * insertEvents inserts every given Event with a single prepared statement that is executed as one batch
+     * It is used for bulk loads, where preparing the insert once per row would dominate the cost
+     *
+     * @param events contains the Event POJOs which are to be inserted into the SQLite database
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    @Override
+    public void insertEvents(Iterable<Event> events) throws DataAccessException {
+        String sql = "INSERT INTO Events (EventID, PersonID, AssociatedUserName, Latitude, Longitude, Country, City, EventType, Year) " +
+                "VALUES (?,?,?,?,?,?,?,?,?);";
+        try(PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for(Event event : events) {
+                bindEvent(stmt, event);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } catch (SQLException e) {
+//            If any of the above failed, print the error and throw a new DataAccessException
+            e.printStackTrace();
+            throw new DataAccessException("Error encountered while inserting Events into the database");
+        }
+    }
+
+    /**
+     * bindEvent attaches all Event attributes to the given insert statement
+     */
+    private static void bindEvent(PreparedStatement stmt, Event event) throws SQLException {
+        stmt.setString(1,event.getEventID());
+        stmt.setString(2,event.getPersonID());
+        stmt.setString(3, event.getAssociatedUsername());
+        stmt.setFloat(4, event.getLatitude());
+        stmt.setFloat(5,event.getLongitude());
+        stmt.setString(6,event.getCountry());
+        stmt.setString(7,event.getCity());
+        stmt.setString(8,event.getEventType());
+        stmt.setInt(9,event.getYear());
+    }
+
     /**
      * getBirthYearByPersonID gets the year from the Events row that for a birth event
      * that is associated with a given personID
@@ -186,6 +339,7 @@ public class EventDao {
      * @return provides the birth year that is associated with the given personID
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
+    @Override
     public int getBirthYearByPersonID(String personID) throws DataAccessException {
         System.out.println("Getting the birth year for personID: " + personID + " . . . ");
         String sql = "SELECT * FROM Events WHERE PersonID = ? AND EventType = \"birth\";";
@@ -218,6 +372,7 @@ public class EventDao {
      * If an error occurs, it is printed and a DataAccessException is thrown
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
+    @Override
     public void clearEvents() throws DataAccessException {
         System.out.println("Clearing the Events table . . . ");
         String sql = "DELETE FROM Events;";
@@ -245,6 +400,7 @@ public class EventDao {
      * @param personID is the personID that was passed by the calling method
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
+    @Override
     public void clearEventByUsername(String username, String personID) throws DataAccessException {
         System.out.println("Clearing the Events table of all rows associated with the username: " + username + " . . . ");
         String sql = "DELETE FROM Events WHERE AssociatedUserName = ? AND PersonID != ?;";
@@ -0,0 +1,102 @@
+/** The EventStore interface describes every operation the services perform against the Events table
+ *  It allows the services to work with Events without knowing which storage engine is holding them
+ *
+ *  The EventDao class is the SQLite implementation and the MemoryEventStore class is the in-memory implementation
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package DataAccess;
+
+import Errors.DataAccessException;
+import Model.Event;
+
+import java.util.ArrayList;
+
+public interface EventStore {
+
+    /**
+     * getEvent provides the Event POJO that is attached to the given eventID
+     *
+     * @param eventID is the eventID that was passed by the calling method
+     * @return provides the Event POJO that is attached to the given eventID, or null if there is none
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    Event getEvent(String eventID) throws DataAccessException;
+
+    /**
+     * getEventForAuthKey reads the Event attached to the given eventID on behalf of the given auth key
+     * The auth key, the Event, and whether the Event belongs to the auth key's User are all checked by a single read
+     *
+     * @param eventID is the eventID that was passed by the calling method
+     * @param authKey is the auth key that was sent with the request
+     * @return provides the Event if it belongs to the auth key's User, otherwise the reason it wasn't provided
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    AuthorizedRead<Event> getEventForAuthKey(String eventID, String authKey) throws DataAccessException;
+
+    /**
+     * getEvents provides all the events that are attached to a User based on a given username
+     *
+     * @param username is the username that was passed by the calling method
+     * @return provides an ArrayList of Event POJOs associated with the given username, which is empty if there are none
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    ArrayList<Event> getEvents(String username) throws DataAccessException;
+
+    /**
+     * getEventsPage provides one page of the events that are attached to a User based on a given username,
+     * in order of eventID, so a large tree can be read a page at a time on short transactions
+     *
+     * @param username is the username that was passed by the calling method
+     * @param afterID is the last eventID of the previous page, or an empty String for the first page
+     * @param limit is the most Events the page may hold
+     * @return provides the Events whose eventID comes after afterID, which is empty once there are none left
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    ArrayList<Event> getEventsPage(String username, String afterID, int limit) throws DataAccessException;
+
+    /**
+     * insertEvent stores the given Event
+     * The eventID must not already belong to another Event
+     *
+     * @param event is the Event POJO which is to be stored
+     * @throws DataAccessException handles errors and constraint violations that can take place while accessing the storage engine
+     */
+    void insertEvent(Event event) throws DataAccessException;
+
+    /**
+     * insertEvents stores every given Event at once, which is faster than storing them one at a time
+     * None of the eventIDs may already belong to another Event
+     *
+     * @param events contains the Event POJOs which are to be stored
+     * @throws DataAccessException handles errors and constraint violations that can take place while accessing the storage engine
+     */
+    void insertEvents(Iterable<Event> events) throws DataAccessException;
+
+    /**
+     * getBirthYearByPersonID gets the year of the birth Event that is associated with a given personID
+     *
+     * @param personID is the personID that was passed by the calling method
+     * @return provides the birth year, or the current year if the Person has no birth Event
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    int getBirthYearByPersonID(String personID) throws DataAccessException;
+
+    /**
+     * clearEvents removes every Event
+     *
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    void clearEvents() throws DataAccessException;
+
+    /**
+     * clearEventByUsername removes the Events associated with a given username, except for those of the given personID
+     *
+     * @param username is the username that was passed by the calling method
+     * @param personID is the personID whose Events should be kept
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    void clearEventByUsername(String username, String personID) throws DataAccessException;
+}
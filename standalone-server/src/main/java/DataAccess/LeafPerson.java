@@ -0,0 +1,40 @@
+/** The LeafPerson class holds a Person of a tree that has no parents yet, along with the year of its birth Event
+ *  It is what an extending fill builds the new generations on top of
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package DataAccess;
+
+import Model.Person;
+
+public class LeafPerson {
+
+    /**
+     * person contains the Person that has no fatherID or motherID
+     */
+    private final Person person;
+    /**
+     * birthYear contains the year of the Person's birth Event, or null if the Person has no birth Event
+     */
+    private final Integer birthYear;
+
+    /**
+     * The constructor creates a LeafPerson for the given Person and birth year
+     * @param person contains the Person that has no fatherID or motherID
+     * @param birthYear contains the year of the Person's birth Event, or null if there is none
+     */
+    public LeafPerson(Person person, Integer birthYear) {
+        this.person = person;
+        this.birthYear = birthYear;
+    }
+
+    public Person getPerson() {
+        return person;
+    }
+
+    public Integer getBirthYear() {
+        return birthYear;
+    }
+}
@@ -0,0 +1,96 @@
+/** The MemoryEventStore class is the in-memory implementation of the EventStore interface
+ *  It runs every operation against the MemoryTransaction that was opened by the calling Database
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package DataAccess;
+
+import Errors.DataAccessException;
+import Model.Event;
+
+import java.util.ArrayList;
+
+public class MemoryEventStore implements EventStore {
+
+    /**
+     * txn denotes the in-memory transaction that was opened by the calling method
+     */
+    private final MemoryTransaction txn;
+
+    /**
+     * The constructor takes the MemoryTransaction that was passed by the calling method and makes it available within this class
+     * @param txn the given in-memory transaction
+     */
+    public MemoryEventStore(MemoryTransaction txn) {
+        this.txn = txn;
+    }
+
+    @Override
+    public Event getEvent(String eventID) throws DataAccessException {
+        System.out.println("Getting the Event POJO for the eventID: " + eventID + " . . . ");
+        return txn.getEvent(eventID);
+    }
+
+    @Override
+    public AuthorizedRead<Event> getEventForAuthKey(String eventID, String authKey) throws DataAccessException {
+        System.out.println("Getting the Event POJO for the eventID: " + eventID + " on behalf of an authToken . . . ");
+        String username = txn.getTokenUsername(authKey);
+        if(username == null) {
+            return AuthorizedRead.denied(AuthorizedRead.Outcome.INVALID_AUTH_TOKEN);
+        }
+        Event row = txn.getEvent(eventID);
+        if(row == null) {
+            return AuthorizedRead.denied(AuthorizedRead.Outcome.NOT_FOUND);
+        }
+        if(!username.equals(row.getAssociatedUsername())) {
+            return AuthorizedRead.denied(AuthorizedRead.Outcome.NOT_OWNED);
+        }
+        return AuthorizedRead.found(row);
+    }
+
+    @Override
+    public ArrayList<Event> getEvents(String username) throws DataAccessException {
+        System.out.println("Getting all events associated with " + username + " . . . ");
+        return txn.getEvents(username);
+    }
+
+    @Override
+    public ArrayList<Event> getEventsPage(String username, String afterID, int limit) throws DataAccessException {
+        System.out.println("Getting a page of events associated with " + username + " after " + afterID + " . . . ");
+        return txn.getEventsPage(username, afterID, limit);
+    }
+
+    @Override
+    public void insertEvent(Event event) throws DataAccessException {
+        System.out.println("Inserting " + event.getEventID() + " to the Events table . . . ");
+        txn.insertEvent(event);
+    }
+
+    @Override
+    public void insertEvents(Iterable<Event> events) throws DataAccessException {
+        System.out.println("Inserting a batch of Events to the Events table . . . ");
+        for(Event event : events) {
+            txn.insertEvent(event);
+        }
+    }
+
+    @Override
+    public int getBirthYearByPersonID(String personID) throws DataAccessException {
+        System.out.println("Getting the birth year of personID: " + personID + " . . . ");
+        return txn.getBirthYearByPersonID(personID);
+    }
+
+    @Override
+    public void clearEvents() throws DataAccessException {
+        System.out.println("Clearing the Events table . . . ");
+        txn.clearEvents();
+    }
+
+    @Override
+    public void clearEventByUsername(String username, String personID) throws DataAccessException {
+        System.out.println("Clearing the Events table of all rows associated with username: " + username + " . . . ");
+        txn.clearEventByUsername(username, personID);
+    }
+}
@@ -0,0 +1,131 @@
+/** The MemoryPersonStore class is the in-memory implementation of the PersonStore interface
+ *  It runs every operation against the MemoryTransaction that was opened by the calling Database
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package DataAccess;
+
+import Errors.DataAccessException;
+import Model.Person;
+
+import java.util.ArrayList;
+
+public class MemoryPersonStore implements PersonStore {
+
+    /**
+     * txn denotes the in-memory transaction that was opened by the calling method
+     */
+    private final MemoryTransaction txn;
+
+    /**
+     * The constructor takes the MemoryTransaction that was passed by the calling method and makes it available within this class
+     * @param txn the given in-memory transaction
+     */
+    public MemoryPersonStore(MemoryTransaction txn) {
+        this.txn = txn;
+    }
+
+    @Override
+    public Person getPerson(String personID) throws DataAccessException {
+        System.out.println("Getting the Person POJO for the personID: " + personID + " . . . ");
+        return txn.getPerson(personID);
+    }
+
+    @Override
+    public AuthorizedRead<Person> getPersonForAuthKey(String personID, String authKey) throws DataAccessException {
+        System.out.println("Getting the Person POJO for the personID: " + personID + " on behalf of an authToken . . . ");
+        String username = txn.getTokenUsername(authKey);
+        if(username == null) {
+            return AuthorizedRead.denied(AuthorizedRead.Outcome.INVALID_AUTH_TOKEN);
+        }
+        Person row = txn.getPerson(personID);
+        if(row == null) {
+            return AuthorizedRead.denied(AuthorizedRead.Outcome.NOT_FOUND);
+        }
+        if(!username.equals(row.getAssociatedUsername())) {
+            return AuthorizedRead.denied(AuthorizedRead.Outcome.NOT_OWNED);
+        }
+        return AuthorizedRead.found(row);
+    }
+
+    @Override
+    public ArrayList<Person> getPersons(String username) throws DataAccessException {
+        System.out.println("Getting all persons associated with " + username + " . . . ");
+        return txn.getPersons(username);
+    }
+
+    @Override
+    public ArrayList<Person> getPersonsPage(String username, String afterID, int limit) throws DataAccessException {
+        System.out.println("Getting a page of persons associated with " + username + " after " + afterID + " . . . ");
+        return txn.getPersonsPage(username, afterID, limit);
+    }
+
+    @Override
+    public void addPerson(Person person) throws DataAccessException {
+        System.out.println("Inserting " + person.getPersonID() + " to the Persons table . . . ");
+        txn.insertPerson(person);
+    }
+
+    @Override
+    public void addPersons(Iterable<Person> persons) throws DataAccessException {
+        System.out.println("Inserting a batch of Persons to the Persons table . . . ");
+        for(Person person : persons) {
+            txn.insertPerson(person);
+        }
+    }
+
+    @Override
+    public void clearPersons() throws DataAccessException {
+        System.out.println("Clearing the Persons table . . . ");
+        txn.clearPersons();
+    }
+
+    @Override
+    public void clearPersonByUsername(String username, boolean overwrite) throws DataAccessException {
+        System.out.println("Clearing the Persons table of all rows associated with username: " + username + " . . . ");
+        txn.clearPersonByUsername(username, overwrite);
+    }
+
+    @Override
+    public String getPersonIDByUserID(String userID) throws DataAccessException {
+        System.out.println("Getting the personID associated with userID: " + userID + " . . . ");
+        return txn.getPersonIDByUserID(userID);
+    }
+
+    @Override
+    public String getRootPersonIDByUsername(String username) throws DataAccessException {
+        System.out.println("Getting the root personID associated with username: " + username + " . . . ");
+        return txn.getRootPersonIDByUsername(username);
+    }
+
+    @Override
+    public void attachUserID(String userID, String username) throws DataAccessException {
+        System.out.println("Attaching userID: " + userID + " to username: " +
+                username + " in the Persons table . . . ");
+        txn.attachUserID(userID, username);
+    }
+
+    @Override
+    public ArrayList<LeafPerson> getLeafPersons(String username) throws DataAccessException {
+        System.out.println("Getting the leaf persons associated with " + username + " . . . ");
+        return txn.getLeafPersons(username);
+    }
+
+    @Override
+    public void setParents(Iterable<Person> persons) throws DataAccessException {
+        System.out.println("Setting the parents of a batch of Persons in the Persons table . . . ");
+        for(Person person : persons) {
+            txn.setParents(person.getPersonID(), person.getFatherID(), person.getMotherID());
+        }
+    }
+
+    @Override
+    public void setSpouses(Iterable<Person> persons) throws DataAccessException {
+        System.out.println("Setting the spouses of a batch of Persons in the Persons table . . . ");
+        for(Person person : persons) {
+            txn.setSpouse(person.getPersonID(), person.getSpouseID());
+        }
+    }
+}
@@ -0,0 +1,366 @@
+/** The MemoryStorage class holds all Users, Persons, Events and AuthorizationTokens in memory
+ *  It is used instead of the SQLite database when the MEMORY storage engine is selected at startup
+ *
+ *  The committed data is kept in concurrent maps along with the same unique indexes that the SQLite schema enforces
+ *  Each username also has a secondary index holding an immutable list of its Persons and Events
+ *  Those lists are copied and replaced (never changed in place) when a commit touches them,
+ *  so readers always get a consistent snapshot of a user's tree without copying anything
+ *
+ *  Changes are made through MemoryTransaction instances, which behave like the SQLite transactions the services already use:
+ *      Only one transaction may write at a time, just like SQLite's single writer lock
+ *      A transaction sees its own uncommitted changes, and nobody else does
+ *      Committing publishes every change at once, rolling back throws every change away
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package DataAccess;
+
+import Model.AuthorizationToken;
+import Model.Event;
+import Model.Person;
+import Model.User;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class MemoryStorage {
+
+    /**
+     * instance is the single MemoryStorage that every in-memory transaction works against
+     */
+    private static final MemoryStorage instance = new MemoryStorage();
+
+    /**
+     * The committed rows of each table, keyed by their primary key (auth key for the tokens)
+     */
+    final ConcurrentHashMap<String, User> users = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<String, Person> persons = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<String, Event> events = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<String, AuthorizationToken> tokens = new ConcurrentHashMap<>();
+
+    /**
+     * The unique indexes which mirror the UNIQUE constraints of the SQLite schema
+     */
+    final ConcurrentHashMap<String, String> userIDsByUsername = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<String, String> userIDsByEmail = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<String, String> userIDsByPersonID = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<String, String> tokenKeysByTokenID = new ConcurrentHashMap<>();
+    /**
+     * tokenIDsByKey is the reverse of tokenKeysByTokenID, used to remove a deleted authToken from it
+     */
+    final ConcurrentHashMap<String, String> tokenIDsByKey = new ConcurrentHashMap<>();
+    /**
+     * tokenKeysByUserID mirrors the UserID index of the AuthorizationTokens table, used to find a User's authTokens without a scan
+     */
+    final ConcurrentHashMap<String, Set<String>> tokenKeysByUserID = new ConcurrentHashMap<>();
+
+    /**
+     * attachedUserIDs mirrors the AssociatedUserID column of the Persons table (personID -> userID)
+     */
+    final ConcurrentHashMap<String, String> attachedUserIDs = new ConcurrentHashMap<>();
+    /**
+     * rootPersonIDsByUserID is the reverse of attachedUserIDs, used to find a User's root Person without a scan
+     */
+    final ConcurrentHashMap<String, String> rootPersonIDsByUserID = new ConcurrentHashMap<>();
+
+    /**
+     * The secondary indexes, each holding an immutable list that is replaced whenever a commit changes it
+     */
+    final ConcurrentHashMap<String, List<Person>> personsByUsername = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<String, List<Event>> eventsByUsername = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<String, List<Event>> eventsByPersonID = new ConcurrentHashMap<>();
+
+    /**
+     * writerLock is held by a transaction from its first change until it commits or rolls back
+     */
+    private final ReentrantLock writerLock = new ReentrantLock();
+    /**
+     * publishLock lets readers run concurrently while keeping them from seeing half of a commit
+     */
+    private final ReentrantReadWriteLock publishLock = new ReentrantReadWriteLock();
+
+    /**
+     * Empty constructor, use getInstance to access the shared storage
+     */
+    private MemoryStorage() {}
+
+    /**
+     * getInstance provides the MemoryStorage that every in-memory transaction works against
+     * @return the shared MemoryStorage
+     */
+    public static MemoryStorage getInstance() {
+        return instance;
+    }
+
+    /**
+     * begin starts a new transaction against this storage
+     * @return the new transaction
+     */
+    public MemoryTransaction begin() {
+        return new MemoryTransaction(this);
+    }
+
+    /**
+     * lockWriter blocks until the calling transaction is the only one allowed to make changes
+     */
+    void lockWriter() {
+        writerLock.lock();
+    }
+
+    /**
+     * unlockWriter allows the next transaction to start making changes
+     */
+    void unlockWriter() {
+        writerLock.unlock();
+    }
+
+    /**
+     * beginRead must be called before reading committed data so the read can't overlap a commit
+     */
+    void beginRead() {
+        publishLock.readLock().lock();
+    }
+
+    /**
+     * endRead must be called once the committed data has been read
+     */
+    void endRead() {
+        publishLock.readLock().unlock();
+    }
+
+    /**
+     * apply publishes all changes of the given transaction at once
+     *
+     * Apply the table clears first, then the deleted rows, then the attached userIDs and inserted rows
+     * Rebuild the immutable secondary index lists for every username and personID that was touched
+     *
+     * @param txn is the transaction whose changes should be published
+     */
+    void apply(MemoryTransaction txn) {
+        publishLock.writeLock().lock();
+        try {
+//            Apply the table clears first, then the deleted rows, then the attached userIDs and inserted rows
+            if(txn.usersCleared) {
+                users.clear();
+                userIDsByUsername.clear();
+                userIDsByEmail.clear();
+                userIDsByPersonID.clear();
+            }
+            if(txn.personsCleared) {
+                persons.clear();
+                attachedUserIDs.clear();
+                rootPersonIDsByUserID.clear();
+                personsByUsername.clear();
+            }
+            if(txn.eventsCleared) {
+                events.clear();
+                eventsByUsername.clear();
+                eventsByPersonID.clear();
+            }
+            if(txn.tokensCleared) {
+                tokens.clear();
+                tokenKeysByTokenID.clear();
+                tokenIDsByKey.clear();
+                tokenKeysByUserID.clear();
+            }
+            for(String authKey : txn.deletedTokenKeys) {
+                AuthorizationToken removed = tokens.remove(authKey);
+                String tokenID = tokenIDsByKey.remove(authKey);
+                if(tokenID != null) {
+                    tokenKeysByTokenID.remove(tokenID, authKey);
+                }
+                if(removed != null) {
+                    Set<String> userTokenKeys = tokenKeysByUserID.get(removed.getUserID());
+                    if(userTokenKeys != null) {
+                        userTokenKeys.remove(authKey);
+                        if(userTokenKeys.isEmpty()) {
+                            tokenKeysByUserID.remove(removed.getUserID(), userTokenKeys);
+                        }
+                    }
+                }
+            }
+//            The lists of every username and personID that lost a row are copied once without the deleted rows,
+//            instead of removing each deleted row from them one at a time
+            Map<String, List<Person>> changedPersonLists = new HashMap<>();
+            Map<String, List<Event>> changedEventLists = new HashMap<>();
+            Map<String, List<Event>> changedPersonEventLists = new HashMap<>();
+            for(String personID : txn.deletedPersonIDs) {
+                Person removed = persons.remove(personID);
+                String attachedUserID = attachedUserIDs.remove(personID);
+                if(attachedUserID != null) {
+                    rootPersonIDsByUserID.remove(attachedUserID, personID);
+                }
+                if(removed != null && removed.getAssociatedUsername() != null) {
+                    editablePersons(changedPersonLists, removed.getAssociatedUsername(), txn.deletedPersonIDs);
+                }
+            }
+            for(String eventID : txn.deletedEventIDs) {
+                Event removed = events.remove(eventID);
+                if(removed != null) {
+                    if(removed.getAssociatedUsername() != null) {
+                        editableEvents(changedEventLists, eventsByUsername, removed.getAssociatedUsername(), txn.deletedEventIDs);
+                    }
+                    editableEvents(changedPersonEventLists, eventsByPersonID, removed.getPersonID(), txn.deletedEventIDs);
+                }
+            }
+            for(User user : txn.insertedUsers.values()) {
+                users.put(user.getUserID(), user);
+                userIDsByUsername.put(user.getUsername(), user.getUserID());
+                userIDsByEmail.put(user.getEmail(), user.getUserID());
+                userIDsByPersonID.put(user.getPersonID(), user.getUserID());
+            }
+            for(Person person : txn.insertedPersons.values()) {
+                persons.put(person.getPersonID(), person);
+                if(person.getAssociatedUsername() != null) {
+                    editablePersons(changedPersonLists, person.getAssociatedUsername(), txn.deletedPersonIDs).add(person);
+                }
+            }
+            for(Map.Entry<String, String> entry : txn.attachedUserIDs.entrySet()) {
+                attachedUserIDs.put(entry.getKey(), entry.getValue());
+                rootPersonIDsByUserID.put(entry.getValue(), entry.getKey());
+            }
+            for(Event event : txn.insertedEvents.values()) {
+                events.put(event.getEventID(), event);
+                if(event.getAssociatedUsername() != null) {
+                    editableEvents(changedEventLists, eventsByUsername, event.getAssociatedUsername(), txn.deletedEventIDs).add(event);
+                }
+                editableEvents(changedPersonEventLists, eventsByPersonID, event.getPersonID(), txn.deletedEventIDs).add(event);
+            }
+            for(Map.Entry<String, AuthorizationToken> entry : txn.insertedTokens.entrySet()) {
+                tokens.put(entry.getValue().getAuthKey(), entry.getValue());
+                tokenKeysByTokenID.put(entry.getKey(), entry.getValue().getAuthKey());
+                tokenIDsByKey.put(entry.getValue().getAuthKey(), entry.getKey());
+                tokenKeysByUserID.computeIfAbsent(entry.getValue().getUserID(), userID -> ConcurrentHashMap.newKeySet())
+                        .add(entry.getValue().getAuthKey());
+            }
+//            Rebuild the immutable secondary index lists for every username and personID that was touched
+            publish(personsByUsername, changedPersonLists);
+            publish(eventsByUsername, changedEventLists);
+            publish(eventsByPersonID, changedPersonEventLists);
+        } finally {
+            publishLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * editablePersons provides a private copy of a username's Person list that the current commit may change
+     * The copy is made in one pass that leaves out the commit's deleted Persons
+     */
+    private List<Person> editablePersons(Map<String, List<Person>> changed, String username, Set<String> deletedPersonIDs) {
+        List<Person> list = changed.get(username);
+        if(list == null) {
+            list = new ArrayList<>();
+            for(Person person : personsByUsername.getOrDefault(username, Collections.<Person>emptyList())) {
+                if(!deletedPersonIDs.contains(person.getPersonID())) {
+                    list.add(person);
+                }
+            }
+            changed.put(username, list);
+        }
+        return list;
+    }
+
+    /**
+     * editableEvents provides a private copy of an index's Event list that the current commit may change
+     * The copy is made in one pass that leaves out the commit's deleted Events
+     */
+    private List<Event> editableEvents(Map<String, List<Event>> changed, Map<String, List<Event>> index, String key,
+                                       Set<String> deletedEventIDs) {
+        List<Event> list = changed.get(key);
+        if(list == null) {
+            list = new ArrayList<>();
+            for(Event event : index.getOrDefault(key, Collections.<Event>emptyList())) {
+                if(!deletedEventIDs.contains(event.getEventID())) {
+                    list.add(event);
+                }
+            }
+            changed.put(key, list);
+        }
+        return list;
+    }
+
+    /**
+     * publish swaps the changed lists into the given index as immutable lists, dropping the ones that became empty
+     */
+    private static <T> void publish(Map<String, List<T>> index, Map<String, List<T>> changed) {
+        for(Map.Entry<String, List<T>> entry : changed.entrySet()) {
+            if(entry.getValue().isEmpty()) {
+                index.remove(entry.getKey());
+            } else {
+                index.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+            }
+        }
+    }
+
+    /**
+     * copyUser provides a copy of the given User so that callers can never change the stored row in place
+     * @param user contains the User to be copied
+     * @return provides the copy, or null if the given User was null
+     */
+    static User copyUser(User user) {
+        if(user == null) {
+            return null;
+        }
+        return new User(user.getUserID(), user.getUsername(), user.getPassword(), user.getEmail(),
+                user.getFirstName(), user.getLastName(), user.getGender(), user.getPersonID());
+    }
+
+    /**
+     * copyPerson provides a copy of the given Person so that callers can never change the stored row in place
+     * @param person contains the Person to be copied
+     * @return provides the copy, or null if the given Person was null
+     */
+    static Person copyPerson(Person person) {
+        if(person == null) {
+            return null;
+        }
+        return new Person(person.getPersonID(), person.getAssociatedUsername(), person.getFirstName(),
+                person.getLastName(), person.getGender(), person.getFatherID(),
+                person.getMotherID(), person.getSpouseID());
+    }
+
+    /**
+     * copyEvent provides a copy of the given Event so that callers can never change the stored row in place
+     * @param event contains the Event to be copied
+     * @return provides the copy, or null if the given Event was null
+     */
+    static Event copyEvent(Event event) {
+        if(event == null) {
+            return null;
+        }
+        Event copy = new Event();
+        copy.setEventID(event.getEventID());
+        copy.setAssociatedUsername(event.getAssociatedUsername());
+        copy.setPersonID(event.getPersonID());
+        copy.setLatitude(event.getLatitude());
+        copy.setLongitude(event.getLongitude());
+        copy.setCountry(event.getCountry());
+        copy.setCity(event.getCity());
+        copy.setEventType(event.getEventType());
+        copy.setYear(event.getYear());
+        return copy;
+    }
+
+    /**
+     * copyToken provides a copy of the given AuthorizationToken so that callers can never change the stored row in place
+     * @param token contains the AuthorizationToken to be copied
+     * @return provides the copy
+     */
+    static AuthorizationToken copyToken(AuthorizationToken token) {
+        AuthorizationToken copy = new AuthorizationToken();
+        copy.setAuthKey(token.getAuthKey());
+        copy.setUserID(token.getUserID());
+        copy.setIssuedAt(token.getIssuedAt());
+        copy.setExpiresAt(token.getExpiresAt());
+        return copy;
+    }
+}
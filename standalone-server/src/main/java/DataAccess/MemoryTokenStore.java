@@ -0,0 +1,64 @@
+/** The MemoryTokenStore class is the in-memory implementation of the TokenStore interface
+ *  It runs every operation against the MemoryTransaction that was opened by the calling Database
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package DataAccess;
+
+import Errors.DataAccessException;
+import Model.AuthorizationToken;
+
+import java.util.List;
+
+public class MemoryTokenStore implements TokenStore {
+
+    /**
+     * txn denotes the in-memory transaction that was opened by the calling method
+     */
+    private final MemoryTransaction txn;
+
+    /**
+     * The constructor takes the MemoryTransaction that was passed by the calling method and makes it available within this class
+     * @param txn the given in-memory transaction
+     */
+    public MemoryTokenStore(MemoryTransaction txn) {
+        this.txn = txn;
+    }
+
+    @Override
+    public String getUserID(String authToken) throws DataAccessException {
+        System.out.println("Getting the userID associated with the given authToken . . . ");
+        return txn.getTokenUserID(authToken);
+    }
+
+    @Override
+    public AuthorizationToken getAuthToken(String authKey) throws DataAccessException {
+        System.out.println("Getting the authToken with the given auth key . . . ");
+        return txn.getToken(authKey);
+    }
+
+    @Override
+    public String addAuthToken(String id, AuthorizationToken token) throws DataAccessException {
+        System.out.println("Inserting a new authToken to the AuthorizationTokens table . . . ");
+        return txn.insertToken(id, token);
+    }
+
+    @Override
+    public void clearAuthTokens() throws DataAccessException {
+        System.out.println("Clearing the AuthorizationTokens table . . . ");
+        txn.clearTokens();
+    }
+
+    @Override
+    public List<String> evictOldestTokens(String userID, int keep) throws DataAccessException {
+        System.out.println("Limiting userID: " + userID + " to " + keep + " authTokens . . . ");
+        return txn.evictOldestTokens(userID, keep);
+    }
+
+    @Override
+    public int deleteExpiredTokens(long now, int limit) throws DataAccessException {
+        return txn.deleteExpiredTokens(now, limit);
+    }
+}
@@ -0,0 +1,938 @@
+/** The MemoryTransaction class holds the uncommitted changes that one Database instance made to the MemoryStorage
+ *  It plays the same role for the in-memory engine that an open SQLite Connection plays for the SQLite engine
+ *
+ *  Reads combine the committed data of the MemoryStorage with this transaction's own changes
+ *  Every read of the committed data holds the MemoryStorage's read lock, so it never sees half of another transaction's commit
+ *  The inserted rows are indexed by username and personID, so a transaction that writes a whole tree doesn't scan them for every row
+ *  Writes are checked against the same constraints the SQLite schema defines (NOT NULL, UNIQUE, and the Gender CHECK)
+ *  The first write waits for the MemoryStorage's writer lock, which is held until the transaction commits or rolls back
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package DataAccess;
+
+import Errors.DataAccessException;
+import Model.AuthorizationToken;
+import Model.Event;
+import Model.Person;
+import Model.User;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class MemoryTransaction {
+
+    /**
+     * storage is the MemoryStorage that this transaction reads from and commits to
+     */
+    private final MemoryStorage storage;
+    /**
+     * writing denotes whether this transaction has made a change and is therefore holding the writer lock
+     */
+    private boolean writing = false;
+    /**
+     * closed denotes whether this transaction has already been committed or rolled back
+     */
+    private boolean closed = false;
+
+    /**
+     * The rows that were inserted by this transaction, keyed by their primary key (TokenID for the tokens)
+     */
+    final Map<String, User> insertedUsers = new LinkedHashMap<>();
+    final Map<String, Person> insertedPersons = new LinkedHashMap<>();
+    final Map<String, Event> insertedEvents = new LinkedHashMap<>();
+    final Map<String, AuthorizationToken> insertedTokens = new LinkedHashMap<>();
+
+    /**
+     * The indexes of the inserted rows, which are kept up to date with the maps above
+     */
+    private final Map<String, String> insertedUserIDsByUsername = new HashMap<>();
+    private final Map<String, String> insertedUserIDsByEmail = new HashMap<>();
+    private final Map<String, String> insertedUserIDsByPersonID = new HashMap<>();
+    private final Map<String, Map<String, Person>> insertedPersonsByUsername = new HashMap<>();
+    private final Map<String, Map<String, Event>> insertedEventsByUsername = new HashMap<>();
+    private final Map<String, Map<String, Event>> insertedEventsByPersonID = new HashMap<>();
+
+    /**
+     * The committed rows that were deleted by this transaction
+     */
+    final Set<String> deletedPersonIDs = new HashSet<>();
+    final Set<String> deletedEventIDs = new HashSet<>();
+    final Set<String> deletedTokenKeys = new HashSet<>();
+
+    /**
+     * attachedUserIDs holds the AssociatedUserIDs that were set by this transaction (personID -> userID)
+     */
+    final Map<String, String> attachedUserIDs = new HashMap<>();
+
+    /**
+     * The tables that were cleared by this transaction
+     */
+    boolean usersCleared = false;
+    boolean personsCleared = false;
+    boolean eventsCleared = false;
+    boolean tokensCleared = false;
+
+    /**
+     * The constructor takes the MemoryStorage that this transaction works against
+     * @param storage is the MemoryStorage that this transaction reads from and commits to
+     */
+    MemoryTransaction(MemoryStorage storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * commit publishes every change of this transaction and ends it
+     */
+    public void commit() {
+        end(true);
+    }
+
+    /**
+     * rollback throws away every change of this transaction and ends it
+     */
+    public void rollback() {
+        end(false);
+    }
+
+    /**
+     * end publishes the changes if requested and releases the writer lock if this transaction was holding it
+     */
+    private void end(boolean commit) {
+        if(closed) {
+            return;
+        }
+        closed = true;
+        if(!writing) {
+            return;
+        }
+        try {
+            if(commit) {
+                storage.apply(this);
+            }
+        } finally {
+            writing = false;
+            storage.unlockWriter();
+        }
+    }
+
+    /**
+     * write must be called before every change so that only one transaction changes the storage at a time
+     */
+    private void write() throws DataAccessException {
+        if(closed) {
+            throw new DataAccessException("The transaction has already been closed");
+        }
+        if(!writing) {
+            storage.lockWriter();
+            writing = true;
+        }
+    }
+
+    /**
+     * read provides the result of the given reader, which is run while holding the MemoryStorage's read lock
+     * It must be called after write, never before it, since a commit holds the writer lock while it waits for the readers
+     */
+    private <T> T read(Supplier<T> reader) {
+        storage.beginRead();
+        try {
+            return reader.get();
+        } finally {
+            storage.endRead();
+        }
+    }
+
+    /**
+     * index adds the given row to the list of the given key in the given index of inserted rows
+     */
+    private static <T> void index(Map<String, Map<String, T>> index, String key, String id, T row) {
+        if(key != null) {
+            index.computeIfAbsent(key, k -> new LinkedHashMap<>()).put(id, row);
+        }
+    }
+
+    /**
+     * unindex removes the given row from the list of the given key in the given index of inserted rows
+     */
+    private static <T> void unindex(Map<String, Map<String, T>> index, String key, String id) {
+        Map<String, T> rows = key == null ? null : index.get(key);
+        if(rows != null) {
+            rows.remove(id);
+            if(rows.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /**
+     * indexed provides the inserted rows of the given key in the given index, in the order they were inserted
+     */
+    private static <T> Iterable<T> indexed(Map<String, Map<String, T>> index, String key) {
+        Map<String, T> rows = index.get(key);
+        return rows == null ? new ArrayList<T>() : rows.values();
+    }
+
+    /**
+     * notNull throws a DataAccessException describing a NOT NULL constraint failure if the given value is null
+     */
+    private static void notNull(Object value, String column) throws DataAccessException {
+        if(value == null) {
+            throw new DataAccessException("NOT NULL constraint failed: " + column);
+        }
+    }
+
+    /**
+     * checkGender throws a DataAccessException describing a CHECK constraint failure if the given gender isn't 'f' or 'm'
+     */
+    private static void checkGender(String gender, String table) throws DataAccessException {
+        notNull(gender, table + ".Gender");
+        if(!gender.equals("f") && !gender.equals("m")) {
+            throw new DataAccessException("CHECK constraint failed: " + table);
+        }
+    }
+
+//    ----- Users -----
+
+    /**
+     * findUser provides the User with the given userID as this transaction sees it, or null if there is none
+     */
+    private User findUser(String userID) {
+        if(userID == null) {
+            return null;
+        }
+        User user = insertedUsers.get(userID);
+        if(user == null && !usersCleared) {
+            user = storage.users.get(userID);
+        }
+        return user;
+    }
+
+    /**
+     * findUserIDByUsername looks up the userID of the given username in this transaction's inserted Users
+     * and then in the committed UserName index
+     */
+    private String findUserIDByUsername(String username) {
+        if(username == null) {
+            return null;
+        }
+        String userID = insertedUserIDsByUsername.get(username);
+        if(userID != null) {
+            return userID;
+        }
+        return usersCleared ? null : storage.userIDsByUsername.get(username);
+    }
+
+    /**
+     * getUser provides a copy of the User with the given userID, or null if there is none
+     */
+    User getUser(String userID) {
+        return read(() -> MemoryStorage.copyUser(findUser(userID)));
+    }
+
+    /**
+     * getUsers provides copies of every User
+     */
+    ArrayList<User> getUsers() {
+        ArrayList<User> users = new ArrayList<>();
+        storage.beginRead();
+        try {
+            if(!usersCleared) {
+                for(User user : storage.users.values()) {
+//                    A committed User whose password was replaced by this transaction is listed with the inserted Users
+                    if(!insertedUsers.containsKey(user.getUserID())) {
+                        users.add(MemoryStorage.copyUser(user));
+                    }
+                }
+            }
+        } finally {
+            storage.endRead();
+        }
+        for(User user : insertedUsers.values()) {
+            users.add(MemoryStorage.copyUser(user));
+        }
+        return users;
+    }
+
+    /**
+     * insertUser adds the given User after checking the Users table constraints
+     */
+    void insertUser(User user) throws DataAccessException {
+        write();
+        notNull(user.getUsername(), "Users.UserName");
+        notNull(user.getPassword(), "Users.PassWord");
+        notNull(user.getEmail(), "Users.Email");
+        notNull(user.getFirstName(), "Users.FirstName");
+        notNull(user.getLastName(), "Users.LastName");
+        checkGender(user.getGender(), "Users");
+        notNull(user.getPersonID(), "Users.PersonID");
+        notNull(user.getUserID(), "Users.UserID");
+        String violated = read(() -> {
+            if(findUser(user.getUserID()) != null) {
+                return "Users.UserID";
+            }
+            if(findUserIDByUsername(user.getUsername()) != null) {
+                return "Users.UserName";
+            }
+            if(insertedUserIDsByEmail.containsKey(user.getEmail()) ||
+                    (!usersCleared && storage.userIDsByEmail.containsKey(user.getEmail()))) {
+                return "Users.Email";
+            }
+            if(insertedUserIDsByPersonID.containsKey(user.getPersonID()) ||
+                    (!usersCleared && storage.userIDsByPersonID.containsKey(user.getPersonID()))) {
+                return "Users.PersonID";
+            }
+            return null;
+        });
+        if(violated != null) {
+            throw new DataAccessException("UNIQUE constraint failed: " + violated);
+        }
+        insertedUsers.put(user.getUserID(), MemoryStorage.copyUser(user));
+        insertedUserIDsByUsername.put(user.getUsername(), user.getUserID());
+        insertedUserIDsByEmail.put(user.getEmail(), user.getUserID());
+        insertedUserIDsByPersonID.put(user.getPersonID(), user.getUserID());
+    }
+
+    /**
+     * checkCredentials denotes whether the given username and password belong to the same User
+     */
+    boolean checkCredentials(String username, String password) {
+        User user = read(() -> findUser(findUserIDByUsername(username)));
+        return user != null && user.getPassword().equals(password);
+    }
+
+    /**
+     * getPasswordHash provides the stored hash of the password of the given username, or null if there is none
+     */
+    String getPasswordHash(String username) {
+        User user = read(() -> findUser(findUserIDByUsername(username)));
+        return user == null ? null : user.getPassword();
+    }
+
+    /**
+     * setPasswordHash replaces the stored hash of the password of the given username
+     * The User is replaced by an updated copy in the inserted Users, which replaces the committed User at the commit
+     */
+    void setPasswordHash(String username, String passwordHash) throws DataAccessException {
+        write();
+        User user = read(() -> MemoryStorage.copyUser(findUser(findUserIDByUsername(username))));
+        if(user != null) {
+            user.setPassword(passwordHash);
+            insertedUsers.put(user.getUserID(), user);
+            insertedUserIDsByUsername.put(user.getUsername(), user.getUserID());
+            insertedUserIDsByEmail.put(user.getEmail(), user.getUserID());
+            insertedUserIDsByPersonID.put(user.getPersonID(), user.getUserID());
+        }
+    }
+
+    /**
+     * getUserID provides the userID of the given username, or null if there is none
+     */
+    String getUserID(String username) {
+        return read(() -> findUserIDByUsername(username));
+    }
+
+    /**
+     * clearUsers removes every User
+     */
+    void clearUsers() throws DataAccessException {
+        write();
+        insertedUsers.clear();
+        insertedUserIDsByUsername.clear();
+        insertedUserIDsByEmail.clear();
+        insertedUserIDsByPersonID.clear();
+        usersCleared = true;
+    }
+
+//    ----- Persons -----
+
+    /**
+     * findPerson provides the Person with the given personID as this transaction sees it, or null if there is none
+     */
+    private Person findPerson(String personID) {
+        if(personID == null) {
+            return null;
+        }
+        Person person = insertedPersons.get(personID);
+        if(person == null && !personsCleared && !deletedPersonIDs.contains(personID)) {
+            person = storage.persons.get(personID);
+        }
+        return person;
+    }
+
+    /**
+     * findAttachedUserID provides the AssociatedUserID of the given personID as this transaction sees it
+     */
+    private String findAttachedUserID(String personID) {
+        String userID = attachedUserIDs.get(personID);
+        if(userID == null && !personsCleared && !deletedPersonIDs.contains(personID)) {
+            userID = storage.attachedUserIDs.get(personID);
+        }
+        return userID;
+    }
+
+    /**
+     * findPersons provides every Person associated with the given username as this transaction sees them
+     * The committed Persons come from the username's immutable secondary index list, so no table scan is needed
+     */
+    private List<Person> findPersons(String username) {
+        List<Person> persons = new ArrayList<>();
+        if(username == null) {
+            return persons;
+        }
+        if(!personsCleared) {
+            List<Person> committed = storage.personsByUsername.get(username);
+            if(committed != null) {
+                for(Person person : committed) {
+                    if(!deletedPersonIDs.contains(person.getPersonID()) && !insertedPersons.containsKey(person.getPersonID())) {
+                        persons.add(person);
+                    }
+                }
+            }
+        }
+        for(Person person : indexed(insertedPersonsByUsername, username)) {
+            persons.add(person);
+        }
+        return persons;
+    }
+
+    /**
+     * getPerson provides a copy of the Person with the given personID, or null if there is none
+     */
+    Person getPerson(String personID) {
+        return read(() -> MemoryStorage.copyPerson(findPerson(personID)));
+    }
+
+    /**
+     * getPersons provides copies of every Person associated with the given username
+     */
+    ArrayList<Person> getPersons(String username) {
+        return read(() -> {
+            ArrayList<Person> persons = new ArrayList<>();
+            for(Person person : findPersons(username)) {
+                persons.add(MemoryStorage.copyPerson(person));
+            }
+            return persons;
+        });
+    }
+
+    /**
+     * getPersonsPage provides copies of one page of the Persons associated with the given username, in order of personID
+     */
+    ArrayList<Person> getPersonsPage(String username, String afterID, int limit) {
+        return read(() -> {
+            ArrayList<Person> persons = new ArrayList<>();
+            for(Person person : page(findPersons(username), Person::getPersonID, afterID, limit)) {
+                persons.add(MemoryStorage.copyPerson(person));
+            }
+            return persons;
+        });
+    }
+
+    /**
+     * page provides the rows of the given list whose ID comes after afterID, in order of ID, up to the limit
+     * Only the rows of the page are kept while the list is scanned, so a page of a large tree doesn't sort the whole tree
+     */
+    private static <T> List<T> page(List<T> rows, Function<T, String> id, String afterID, int limit) {
+        Comparator<T> byID = Comparator.comparing(id);
+//        The heap holds the page so far with its last row on top, which is pushed out by any row that comes before it
+        PriorityQueue<T> page = new PriorityQueue<>(byID.reversed());
+        for(T row : rows) {
+            if(id.apply(row).compareTo(afterID) <= 0) {
+                continue;
+            }
+            if(page.size() < limit) {
+                page.add(row);
+            } else if(byID.compare(row, page.peek()) < 0) {
+                page.poll();
+                page.add(row);
+            }
+        }
+        List<T> sorted = new ArrayList<>(page);
+        sorted.sort(byID);
+        return sorted;
+    }
+
+    /**
+     * insertPerson adds the given Person after checking the Persons table constraints
+     */
+    void insertPerson(Person person) throws DataAccessException {
+        write();
+        notNull(person.getFirstName(), "Persons.FirstName");
+        notNull(person.getLastName(), "Persons.LastName");
+        checkGender(person.getGender(), "Persons");
+        notNull(person.getPersonID(), "Persons.PersonID");
+        if(read(() -> findPerson(person.getPersonID())) != null) {
+            throw new DataAccessException("UNIQUE constraint failed: Persons.PersonID");
+        }
+        putPerson(MemoryStorage.copyPerson(person));
+    }
+
+    /**
+     * putPerson adds the given Person to the inserted Persons and their index
+     */
+    private void putPerson(Person person) {
+        insertedPersons.put(person.getPersonID(), person);
+        index(insertedPersonsByUsername, person.getAssociatedUsername(), person.getPersonID(), person);
+    }
+
+    /**
+     * deletePerson removes the given Person from this transaction's view of the Persons table
+     */
+    private void deletePerson(String personID) {
+        Person inserted = insertedPersons.remove(personID);
+        if(inserted != null) {
+            unindex(insertedPersonsByUsername, inserted.getAssociatedUsername(), personID);
+        }
+        attachedUserIDs.remove(personID);
+        deletedPersonIDs.add(personID);
+    }
+
+    /**
+     * clearPersons removes every Person
+     */
+    void clearPersons() throws DataAccessException {
+        write();
+        insertedPersons.clear();
+        insertedPersonsByUsername.clear();
+        attachedUserIDs.clear();
+        deletedPersonIDs.clear();
+        personsCleared = true;
+    }
+
+    /**
+     * clearPersonByUsername removes the Persons of the given username, keeping the root Person unless overwrite is set
+     */
+    void clearPersonByUsername(String username, boolean overwrite) throws DataAccessException {
+        write();
+        List<String> deleted = read(() -> {
+            List<String> personIDs = new ArrayList<>();
+            for(Person person : findPersons(username)) {
+                if(overwrite || findAttachedUserID(person.getPersonID()) == null) {
+                    personIDs.add(person.getPersonID());
+                }
+            }
+            return personIDs;
+        });
+        for(String personID : deleted) {
+            deletePerson(personID);
+        }
+    }
+
+    /**
+     * getPersonIDByUserID provides the personID of the Person that has the given userID attached, or null if there is none
+     */
+    String getPersonIDByUserID(String userID) {
+        if(userID == null) {
+            return null;
+        }
+        for(Map.Entry<String, String> entry : attachedUserIDs.entrySet()) {
+            if(userID.equals(entry.getValue())) {
+                return entry.getKey();
+            }
+        }
+        if(personsCleared) {
+            return null;
+        }
+        return read(() -> {
+            String personID = storage.rootPersonIDsByUserID.get(userID);
+            if(personID != null && userID.equals(findAttachedUserID(personID))) {
+                return personID;
+            }
+            return null;
+        });
+    }
+
+    /**
+     * getRootPersonIDByUsername provides the personID of the given username's root Person, or null if there is none
+     */
+    String getRootPersonIDByUsername(String username) {
+        return read(() -> {
+            for(Person person : findPersons(username)) {
+                if(findAttachedUserID(person.getPersonID()) != null) {
+                    return person.getPersonID();
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * getLeafPersons provides copies of every Person of the given username that has no fatherID and no motherID,
+     * along with the year of its birth Event
+     */
+    ArrayList<LeafPerson> getLeafPersons(String username) {
+        return read(() -> {
+            ArrayList<LeafPerson> leaves = new ArrayList<>();
+            for(Person person : findPersons(username)) {
+                if(person.getFatherID() != null || person.getMotherID() != null) {
+                    continue;
+                }
+                Integer birthYear = null;
+                for(Event event : findEvents(storage.eventsByPersonID, insertedEventsByPersonID, person.getPersonID())) {
+                    if("birth".equals(event.getEventType())) {
+                        birthYear = event.getYear();
+                        break;
+                    }
+                }
+                leaves.add(new LeafPerson(MemoryStorage.copyPerson(person), birthYear));
+            }
+            return leaves;
+        });
+    }
+
+    /**
+     * setParents sets the fatherID and motherID of the Person with the given personID
+     * The Person is replaced by an updated copy, keeping its AssociatedUserID
+     */
+    void setParents(String personID, String fatherID, String motherID) throws DataAccessException {
+        write();
+        Person person = read(() -> findPerson(personID));
+        if(person == null) {
+            return;
+        }
+        Person updated = MemoryStorage.copyPerson(person);
+        updated.setFatherID(fatherID);
+        updated.setMotherID(motherID);
+        String attachedUserID = read(() -> findAttachedUserID(personID));
+        deletePerson(personID);
+        putPerson(updated);
+        if(attachedUserID != null) {
+            attachedUserIDs.put(personID, attachedUserID);
+        }
+    }
+
+    /**
+     * setSpouse sets the spouseID of the Person with the given personID
+     * The Person is replaced by an updated copy, keeping its AssociatedUserID
+     */
+    void setSpouse(String personID, String spouseID) throws DataAccessException {
+        write();
+        Person person = read(() -> findPerson(personID));
+        if(person == null) {
+            return;
+        }
+        Person updated = MemoryStorage.copyPerson(person);
+        updated.setSpouseID(spouseID);
+        String attachedUserID = read(() -> findAttachedUserID(personID));
+        deletePerson(personID);
+        putPerson(updated);
+        if(attachedUserID != null) {
+            attachedUserIDs.put(personID, attachedUserID);
+        }
+    }
+
+    /**
+     * attachUserID attaches the given userID to every Person associated with the given username
+     */
+    void attachUserID(String userID, String username) throws DataAccessException {
+        write();
+        for(Person person : read(() -> findPersons(username))) {
+            attachedUserIDs.put(person.getPersonID(), userID);
+        }
+    }
+
+//    ----- Events -----
+
+    /**
+     * findEvent provides the Event with the given eventID as this transaction sees it, or null if there is none
+     */
+    private Event findEvent(String eventID) {
+        if(eventID == null) {
+            return null;
+        }
+        Event event = insertedEvents.get(eventID);
+        if(event == null && !eventsCleared && !deletedEventIDs.contains(eventID)) {
+            event = storage.events.get(eventID);
+        }
+        return event;
+    }
+
+    /**
+     * findEvents provides every Event in the given secondary index list and the given index of this transaction's
+     * inserted Events that belong to the given key, as this transaction sees them
+     */
+    private List<Event> findEvents(Map<String, List<Event>> index, Map<String, Map<String, Event>> inserted, String key) {
+        List<Event> events = new ArrayList<>();
+        if(key == null) {
+            return events;
+        }
+        if(!eventsCleared) {
+            List<Event> committed = index.get(key);
+            if(committed != null) {
+                for(Event event : committed) {
+                    if(!deletedEventIDs.contains(event.getEventID()) && !insertedEvents.containsKey(event.getEventID())) {
+                        events.add(event);
+                    }
+                }
+            }
+        }
+        for(Event event : indexed(inserted, key)) {
+            events.add(event);
+        }
+        return events;
+    }
+
+    /**
+     * getEvent provides a copy of the Event with the given eventID, or null if there is none
+     */
+    Event getEvent(String eventID) {
+        return read(() -> MemoryStorage.copyEvent(findEvent(eventID)));
+    }
+
+    /**
+     * getEvents provides copies of every Event associated with the given username
+     */
+    ArrayList<Event> getEvents(String username) {
+        return read(() -> {
+            ArrayList<Event> events = new ArrayList<>();
+            for(Event event : findEvents(storage.eventsByUsername, insertedEventsByUsername, username)) {
+                events.add(MemoryStorage.copyEvent(event));
+            }
+            return events;
+        });
+    }
+
+    /**
+     * getEventsPage provides copies of one page of the Events associated with the given username, in order of eventID
+     */
+    ArrayList<Event> getEventsPage(String username, String afterID, int limit) {
+        return read(() -> {
+            ArrayList<Event> events = new ArrayList<>();
+            for(Event event : page(findEvents(storage.eventsByUsername, insertedEventsByUsername, username), Event::getEventID, afterID, limit)) {
+                events.add(MemoryStorage.copyEvent(event));
+            }
+            return events;
+        });
+    }
+
+    /**
+     * insertEvent adds the given Event after checking the Events table constraints
+     */
+    void insertEvent(Event event) throws DataAccessException {
+        write();
+        notNull(event.getPersonID(), "Events.PersonID");
+        notNull(event.getEventID(), "Events.EventID");
+        if(read(() -> findEvent(event.getEventID())) != null) {
+            throw new DataAccessException("UNIQUE constraint failed: Events.EventID");
+        }
+        Event inserted = MemoryStorage.copyEvent(event);
+        insertedEvents.put(inserted.getEventID(), inserted);
+        index(insertedEventsByUsername, inserted.getAssociatedUsername(), inserted.getEventID(), inserted);
+        index(insertedEventsByPersonID, inserted.getPersonID(), inserted.getEventID(), inserted);
+    }
+
+    /**
+     * getBirthYearByPersonID provides the year of the given Person's birth Event, defaulting to 2020 like the EventDao
+     */
+    int getBirthYearByPersonID(String personID) {
+        return read(() -> {
+            for(Event event : findEvents(storage.eventsByPersonID, insertedEventsByPersonID, personID)) {
+                if("birth".equals(event.getEventType())) {
+                    return event.getYear();
+                }
+            }
+            return 2020;
+        });
+    }
+
+    /**
+     * clearEvents removes every Event
+     */
+    void clearEvents() throws DataAccessException {
+        write();
+        insertedEvents.clear();
+        insertedEventsByUsername.clear();
+        insertedEventsByPersonID.clear();
+        deletedEventIDs.clear();
+        eventsCleared = true;
+    }
+
+    /**
+     * clearEventByUsername removes the Events of the given username, except for those of the given personID
+     */
+    void clearEventByUsername(String username, String personID) throws DataAccessException {
+        write();
+        for(Event event : read(() -> findEvents(storage.eventsByUsername, insertedEventsByUsername, username))) {
+            if(!event.getPersonID().equals(personID)) {
+                insertedEvents.remove(event.getEventID());
+                unindex(insertedEventsByUsername, event.getAssociatedUsername(), event.getEventID());
+                unindex(insertedEventsByPersonID, event.getPersonID(), event.getEventID());
+                deletedEventIDs.add(event.getEventID());
+            }
+        }
+    }
+
+//    ----- AuthorizationTokens -----
+
+    /**
+     * findToken provides the authToken with the given auth key whether or not it has expired, or null if there is none
+     */
+    private AuthorizationToken findToken(String authKey) {
+        if(authKey == null) {
+            return null;
+        }
+        for(AuthorizationToken token : insertedTokens.values()) {
+            if(authKey.equals(token.getAuthKey())) {
+                return token;
+            }
+        }
+        if(tokensCleared || deletedTokenKeys.contains(authKey)) {
+            return null;
+        }
+        return storage.tokens.get(authKey);
+    }
+
+    /**
+     * getToken provides a copy of the authToken with the given auth key, or null if there is none or it has expired
+     */
+    AuthorizationToken getToken(String authKey) {
+        AuthorizationToken token = read(() -> findToken(authKey));
+        if(token == null || token.getExpiresAt() <= System.currentTimeMillis()) {
+            return null;
+        }
+        return MemoryStorage.copyToken(token);
+    }
+
+    /**
+     * getTokenUserID provides the userID attached to the given auth key, or null if there is none or it has expired
+     */
+    String getTokenUserID(String authKey) {
+        AuthorizationToken token = getToken(authKey);
+        return token == null ? null : token.getUserID();
+    }
+
+    /**
+     * getTokenUsername provides the username of the User the given auth key belongs to, or null if there is none or it has expired
+     */
+    String getTokenUsername(String authKey) {
+        return read(() -> {
+            User user = findUser(getTokenUserID(authKey));
+            return user == null ? null : user.getUsername();
+        });
+    }
+
+    /**
+     * insertToken adds the given authToken under the given TokenID after checking the AuthorizationTokens table constraints
+     * An authToken that hasn't been issued yet is issued now with the configured lifetime
+     */
+    String insertToken(String id, AuthorizationToken token) throws DataAccessException {
+        write();
+        notNull(token.getAuthKey(), "AuthorizationTokens.AuthKey");
+        notNull(token.getUserID(), "AuthorizationTokens.UserID");
+        notNull(id, "AuthorizationTokens.TokenID");
+        String storedKey = tokensCleared ? null : read(() -> storage.tokenKeysByTokenID.get(id));
+        if(insertedTokens.containsKey(id) || (storedKey != null && !deletedTokenKeys.contains(storedKey))) {
+            throw new DataAccessException("UNIQUE constraint failed: AuthorizationTokens.TokenID");
+        }
+        if(read(() -> findToken(token.getAuthKey())) != null) {
+            throw new DataAccessException("UNIQUE constraint failed: AuthorizationTokens.AuthKey");
+        }
+        AuthTokenDao.issue(token);
+        insertedTokens.put(id, MemoryStorage.copyToken(token));
+        return token.getAuthKey();
+    }
+
+    /**
+     * deleteToken removes the authToken with the given auth key
+     */
+    private void deleteToken(String authKey) throws DataAccessException {
+        write();
+        for(Map.Entry<String, AuthorizationToken> entry : insertedTokens.entrySet()) {
+            if(authKey.equals(entry.getValue().getAuthKey())) {
+                insertedTokens.remove(entry.getKey());
+                return;
+            }
+        }
+        deletedTokenKeys.add(authKey);
+    }
+
+    /**
+     * evictOldestTokens deletes the oldest authTokens of the given userID until only the given number of them are left
+     * The authTokens inserted by this transaction count as newer than the committed ones that were issued at the same time
+     */
+    List<String> evictOldestTokens(String userID, int keep) throws DataAccessException {
+        List<AuthorizationToken> userTokens = new ArrayList<>();
+        for(AuthorizationToken token : insertedTokens.values()) {
+            if(token.getUserID().equals(userID)) {
+                userTokens.add(token);
+            }
+        }
+        if(!tokensCleared) {
+            userTokens.addAll(read(() -> {
+                List<AuthorizationToken> stored = new ArrayList<>();
+                Set<String> storedKeys = storage.tokenKeysByUserID.get(userID);
+                if(storedKeys != null) {
+                    for(String authKey : storedKeys) {
+                        AuthorizationToken token = storage.tokens.get(authKey);
+                        if(token != null && !deletedTokenKeys.contains(authKey)) {
+                            stored.add(token);
+                        }
+                    }
+                }
+                return stored;
+            }));
+        }
+        List<String> evicted = new ArrayList<>();
+        if(userTokens.size() <= keep) {
+            return evicted;
+        }
+        userTokens.sort((a, b) -> Long.compare(b.getIssuedAt(), a.getIssuedAt()));
+        for(AuthorizationToken token : userTokens.subList(keep, userTokens.size())) {
+            evicted.add(token.getAuthKey());
+        }
+        for(String authKey : evicted) {
+            deleteToken(authKey);
+        }
+        return evicted;
+    }
+
+    /**
+     * deleteExpiredTokens deletes at most the given number of authTokens that expired at or before the given time
+     */
+    int deleteExpiredTokens(long now, int limit) throws DataAccessException {
+        List<String> expired = new ArrayList<>();
+        for(AuthorizationToken token : insertedTokens.values()) {
+            if(expired.size() < limit && token.getExpiresAt() <= now) {
+                expired.add(token.getAuthKey());
+            }
+        }
+        if(!tokensCleared) {
+            read(() -> {
+                for(AuthorizationToken token : storage.tokens.values()) {
+                    if(expired.size() >= limit) {
+                        break;
+                    }
+                    if(token.getExpiresAt() <= now && !deletedTokenKeys.contains(token.getAuthKey())) {
+                        expired.add(token.getAuthKey());
+                    }
+                }
+                return null;
+            });
+        }
+        for(String authKey : expired) {
+            deleteToken(authKey);
+        }
+        return expired.size();
+    }
+
+    /**
+     * clearTokens removes every authToken
+     */
+    void clearTokens() throws DataAccessException {
+        write();
+        insertedTokens.clear();
+        deletedTokenKeys.clear();
+        tokensCleared = true;
+    }
+}
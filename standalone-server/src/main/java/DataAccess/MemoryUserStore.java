@@ -0,0 +1,83 @@
+/** The MemoryUserStore class is the in-memory implementation of the UserStore interface
+ *  It runs every operation against the MemoryTransaction that was opened by the calling Database
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package DataAccess;
+
+import Errors.DataAccessException;
+import Model.User;
+
+import java.util.ArrayList;
+
+public class MemoryUserStore implements UserStore {
+
+    /**
+     * txn denotes the in-memory transaction that was opened by the calling method
+     */
+    private final MemoryTransaction txn;
+
+    /**
+     * The constructor takes the MemoryTransaction that was passed by the calling method and makes it available within this class
+     * @param txn the given in-memory transaction
+     */
+    public MemoryUserStore(MemoryTransaction txn) {
+        this.txn = txn;
+    }
+
+    @Override
+    public User getUser(String userID) throws DataAccessException {
+        System.out.println("Getting the User POJO for the userID: " + userID + " . . . ");
+        return txn.getUser(userID);
+    }
+
+    @Override
+    public ArrayList<User> getUsers() throws DataAccessException {
+        System.out.println("Getting all users . . . ");
+        return txn.getUsers();
+    }
+
+    @Override
+    public void addUser(User user) throws DataAccessException {
+        System.out.println("Inserting " + user.getUsername() + " to the Users table . . . ");
+        txn.insertUser(user);
+    }
+
+    @Override
+    public boolean checkCredentials(String username, String password) throws DataAccessException {
+        System.out.println("Checking the login credentials for " + username + " . . . ");
+        return txn.checkCredentials(username, password);
+    }
+
+    @Override
+    public String getPasswordHash(String username) throws DataAccessException {
+        System.out.println("Getting the password hash of username: " + username + " . . . ");
+        return txn.getPasswordHash(username);
+    }
+
+    @Override
+    public void setPasswordHash(String username, String passwordHash) throws DataAccessException {
+        System.out.println("Replacing the password hash of username: " + username + " . . . ");
+        txn.setPasswordHash(username, passwordHash);
+    }
+
+    @Override
+    public void clearUsers() throws DataAccessException {
+        System.out.println("Clearing the Users table . . . ");
+        txn.clearUsers();
+    }
+
+    @Override
+    public boolean usernameExists(String username) throws DataAccessException {
+        System.out.println("Checking whether " + username + " exists . . . ");
+        return txn.getUserID(username) != null;
+    }
+
+    @Override
+    public String getUserID(String username) throws DataAccessException {
+        System.out.println("Getting the userID associated with username: " + username + " . . . ");
+        return txn.getUserID(username);
+    }
+}
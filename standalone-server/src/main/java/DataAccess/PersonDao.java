@@ -16,19 +16,25 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 
-public class PersonDao {
+public class PersonDao implements PersonStore {
 
     /**
      *  The Connection denotes the connection to the database that was initiated by the calling method
      */
-    private static Connection conn;
+    private Connection conn;
+    /**
+     *  lastConn holds the connection of the most recently created PersonDao
+     *  The static insertPerson method runs against it so callers that use it without an instance keep working
+     */
+    private static Connection lastConn;
 
     /**
      * The constructor takes the Database Connection that was passed by the calling method and makes it available within this class
      * @param conn the given connection to the database instance
      */
     public PersonDao(Connection conn) {
-        PersonDao.conn = conn;
+        this.conn = conn;
+        PersonDao.lastConn = conn;
     }
 
     /**
@@ -46,6 +52,7 @@ public class PersonDao {
      * @return provides the Person POJO that is attached to the given personID
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
+    @Override
     public Person getPerson(String personID) throws DataAccessException {
         System.out.println("Getting the Person POJO for the personID: " + personID + " . . . ");
         String sql = "SELECT * FROM Persons WHERE PersonID = ?;";
@@ -76,6 +83,70 @@ public class PersonDao {
         return null;
     }
 
+    /**
+     * getPersonForAuthKey reads the Person attached to the given personID on behalf of the given auth key
+     * A SQL String is created which is:
+     * "SELECT Users.UserName AS RequesterName, Persons.* FROM AuthorizationTokens
+     *  JOIN Users ON Users.UserID = AuthorizationTokens.UserID
+     *  LEFT JOIN Persons ON Persons.PersonID = ?
+     *  WHERE AuthorizationTokens.AuthKey = ? AND AuthorizationTokens.ExpiresAt > ?;"
+     * This SQL String is used to create a prepared statement to prevent SQL Injection
+     * The method attaches the personID, the auth key, and the current time to the prepared statement and executes the query
+     * If nothing was returned from the SQL query, the auth key doesn't belong to any User
+     * If the returned row has no PersonID, the Person doesn't exist
+     * If the Person's username isn't the auth key's username, the Person belongs to a different User
+     * Otherwise fill in the information for the Person POJO and return it
+     *
+     * If any of the above failed, print the error and throw a new DataAccessException
+     *
+     * @param personID is the personID that was passed by the calling method
+     * @param authKey is the auth key that was sent with the request
+     * @return provides the Person if it belongs to the auth key's User, otherwise the reason it wasn't provided
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    @Override
+    public AuthorizedRead<Person> getPersonForAuthKey(String personID, String authKey) throws DataAccessException {
+        System.out.println("Getting the Person POJO for the PersonID: " + personID + " on behalf of an authToken . . . ");
+        String sql = "SELECT Users.UserName AS RequesterName, Persons.* FROM AuthorizationTokens " +
+                "JOIN Users ON Users.UserID = AuthorizationTokens.UserID " +
+                "LEFT JOIN Persons ON Persons.PersonID = ? " +
+                "WHERE AuthorizationTokens.AuthKey = ? AND AuthorizationTokens.ExpiresAt > ?;";
+//        This SQL String is used to create a prepared statement to prevent SQL Injection
+        try(PreparedStatement stmt = conn.prepareStatement(sql)) {
+//            The method attaches the personID, the auth key, and the current time to the prepared statement and executes the query
+            stmt.setString(1,personID);
+            stmt.setString(2,authKey);
+            stmt.setLong(3,System.currentTimeMillis());
+            try(ResultSet rs = stmt.executeQuery()) {
+                if(!rs.next()) {
+//                    If nothing was returned from the SQL query, the auth key doesn't belong to any User
+                    return AuthorizedRead.denied(AuthorizedRead.Outcome.INVALID_AUTH_TOKEN);
+                }
+                if(rs.getString("PersonID") == null) {
+//                    If the returned row has no PersonID, the Person doesn't exist
+                    return AuthorizedRead.denied(AuthorizedRead.Outcome.NOT_FOUND, rs.getString("RequesterName"));
+                }
+                if(!rs.getString("RequesterName").equals(rs.getString("AssociatedUserName"))) {
+//                    If the Person's username isn't the auth key's username, the Person belongs to a different User
+                    return AuthorizedRead.denied(AuthorizedRead.Outcome.NOT_OWNED, rs.getString("RequesterName"));
+                }
+//                Otherwise fill in the information for the Person POJO and return it
+                return AuthorizedRead.found(new Person(rs.getString("PersonID"),
+                        rs.getString("AssociatedUserName"),
+                        rs.getString("FirstName"),
+                        rs.getString("LastName"),
+                        rs.getString("Gender"),
+                        rs.getString("FatherID"),
+                        rs.getString("MotherID"),
+                        rs.getString("SpouseID")), rs.getString("RequesterName"));
+            }
+        } catch (SQLException e) {
+//            If any of the above failed, print the error and throw a new DataAccessException
+            e.printStackTrace();
+            throw new DataAccessException("Error encountered while getting person");
+        }
+    }
+
     /**
      * getPersons provides all persons that are attached to a User based on a given username
      * A SQL String is created which is:
@@ -93,6 +164,7 @@ public class PersonDao {
      * @return provides an ArrayList of Person POJOs associated with the given username
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
+    @Override
     public ArrayList<Person> getPersons(String username) throws DataAccessException{
         System.out.println("Getting all persons associated with " + username + " . . . ");
         String sql = "SELECT * FROM Persons WHERE AssociatedUserName = ?;";
@@ -125,6 +197,55 @@ public class PersonDao {
         }
     }
 
+    /**
+     * getPersonsPage provides one page of the persons that are attached to a User based on a given username, in order of personID
+     * A SQL String is created which is:
+     * "SELECT * FROM Persons WHERE AssociatedUserName = ? AND PersonID > ? ORDER BY PersonID LIMIT ?;"
+     * This SQL String is used to create a prepared statement to prevent SQL Injection
+     * The method attaches the username, the last personID of the previous page and the limit to the prepared statement
+     *  and executes the query, which walks the PersonsByUserAndID index from the previous page instead of sorting the tree
+     * The method iterates through the results of the query and adds a new Person POJO to the page for every row
+     *
+     * If any of the above failed, print the error and throw a new DataAccessException
+     *
+     * @param username is the username that was passed by the calling method
+     * @param afterID is the last personID of the previous page, or an empty String for the first page
+     * @param limit is the most Persons the page may hold
+     * @return provides an ArrayList of the Person POJOs of the page, which is empty once there are none left
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    @Override
+    public ArrayList<Person> getPersonsPage(String username, String afterID, int limit) throws DataAccessException {
+        System.out.println("Getting a page of persons associated with " + username + " after " + afterID + " . . . ");
+        String sql = "SELECT * FROM Persons WHERE AssociatedUserName = ? AND PersonID > ? ORDER BY PersonID LIMIT ?;";
+//        This SQL String is used to create a prepared statement to prevent SQL Injection
+        try (PreparedStatement stmt = conn.prepareStatement(sql)){
+//            The method attaches the username, the last personID of the previous page and the limit to the prepared statement
+            stmt.setString(1, username);
+            stmt.setString(2, afterID);
+            stmt.setInt(3, limit);
+            ArrayList<Person> persons = new ArrayList<Person>();
+            try (ResultSet rs = stmt.executeQuery()) {
+//                The method iterates through the results of the query and adds a new Person POJO to the page for every row
+                while(rs.next()) {
+                    persons.add(new Person(rs.getString("PersonID"),
+                            rs.getString("AssociatedUserName"),
+                            rs.getString("FirstName"),
+                            rs.getString("LastName"),
+                            rs.getString("Gender"),
+                            rs.getString("FatherID"),
+                            rs.getString("MotherID"),
+                            rs.getString("SpouseID")));
+                }
+            }
+            return persons;
+        } catch (SQLException e) {
+//            If any of the above failed, print the error and throw a new DataAccessException
+            e.printStackTrace();
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
     /**
      * insertPerson inserts a row into the Persons table containing all information related to a given person
      * A SQL String is created which is:
@@ -139,20 +260,35 @@ public class PersonDao {
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
     public static void insertPerson(Person person) throws DataAccessException {
+        insertPerson(lastConn, person);
+    }
+
+    /**
+     * addPerson inserts the given Person using this PersonDao's own connection
+     *
+     * @param person is the Person POJO which is to be inserted into the SQLite database
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    @Override
+    public void addPerson(Person person) throws DataAccessException {
+        insertPerson(conn, person);
+    }
+
+    /**
+     * insertPerson runs the insert described above on the given connection
+     *
+     * @param conn is the connection the insert should run on
+     * @param person is the Person POJO which is to be inserted into the SQLite database
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    private static void insertPerson(Connection conn, Person person) throws DataAccessException {
         System.out.println("Inserting " + person.getPersonID() + " to the Persons table . . . ");
         String sql = "INSERT INTO Persons (PersonID, AssociatedUserName, FirstName, LastName, Gender, FatherID, MotherID, SpouseID) " +
                 "VALUES (?,?,?,?,?,?,?,?);";
 //        This SQL String is used to create a prepared statement to prevent SQL Injection
         try(PreparedStatement stmt = conn.prepareStatement(sql)) {
 //            The method attaches all Person attributes to the prepared statement and executes it
-            stmt.setString(1, person.getPersonID());
-            stmt.setString(2, person.getAssociatedUsername());
-            stmt.setString(3, person.getFirstName());
-            stmt.setString(4, person.getLastName());
-            stmt.setString(5, person.getGender());
-            stmt.setString(6, person.getFatherID());
-            stmt.setString(7, person.getMotherID());
-            stmt.setString(8, person.getSpouseID());
+            bindPerson(stmt, person);
             stmt.executeUpdate();
         } catch (SQLException e) {
 //            If any of the above failed, print the error and throw a new DataAccessException
@@ -161,6 +297,157 @@ public class PersonDao {
         }
     }
 
+    /**
+     * addPersons inserts every given Person with a single prepared statement that is executed as one batch
+     * It is used for bulk loads, where preparing the insert once per row would dominate the cost
+     *
+     * @param persons contains the Person POJOs which are to be inserted into the SQLite database
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    @Override
+    public void addPersons(Iterable<Person> persons) throws DataAccessException {
+        String sql = "INSERT INTO Persons (PersonID, AssociatedUserName, FirstName, LastName, Gender, FatherID, MotherID, SpouseID) " +
+                "VALUES (?,?,?,?,?,?,?,?);";
+        try(PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for(Person person : persons) {
+                bindPerson(stmt, person);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } catch (SQLException e) {
+//            If any of the above failed, print the error and throw a new DataAccessException
+            e.printStackTrace();
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    /**
+     * getLeafPersons gets every Person associated with the given username that has no fatherID and no motherID,
+     * along with the year of its birth Event, with a single query
+     * A SQL String is created which is:
+     * "SELECT p.*, (SELECT e.Year FROM Events e WHERE e.PersonID = p.PersonID AND e.EventType = 'birth' LIMIT 1) AS BirthYear
+     *  FROM Persons p WHERE p.AssociatedUserName = ? AND p.FatherID IS NULL AND p.MotherID IS NULL;"
+     * The Persons are found through the PersonsByUserAndID index and each birth Event through the EventsByPerson index
+     *
+     * @param username is the username whose leaf Persons should be found
+     * @return provides the leaf Persons, which is empty if there are none
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    @Override
+    public ArrayList<LeafPerson> getLeafPersons(String username) throws DataAccessException {
+        System.out.println("Getting the leaf persons associated with " + username + " . . . ");
+        String sql = "SELECT p.*, (SELECT e.Year FROM Events e WHERE e.PersonID = p.PersonID AND e.EventType = 'birth' LIMIT 1) " +
+                "AS BirthYear FROM Persons p WHERE p.AssociatedUserName = ? AND p.FatherID IS NULL AND p.MotherID IS NULL;";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, username);
+            ResultSet rs = stmt.executeQuery();
+            ArrayList<LeafPerson> leaves = new ArrayList<>();
+            while(rs.next()) {
+                Person person = new Person(rs.getString("PersonID"),
+                        rs.getString("AssociatedUserName"),
+                        rs.getString("FirstName"),
+                        rs.getString("LastName"),
+                        rs.getString("Gender"),
+                        rs.getString("FatherID"),
+                        rs.getString("MotherID"),
+                        rs.getString("SpouseID"));
+                int birthYear = rs.getInt("BirthYear");
+                leaves.add(new LeafPerson(person, rs.wasNull() ? null : birthYear));
+            }
+            rs.close();
+            return leaves;
+        } catch (SQLException e) {
+//            If any of the above failed, print the error and throw a new DataAccessException
+            e.printStackTrace();
+            throw new DataAccessException("Error encountered while getting the leaf persons by the Username");
+        }
+    }
+
+    /**
+     * setParents sets the fatherID and motherID of every given Person, as a single batch
+     * A SQL String is created which is:
+     * "UPDATE Persons SET FatherID = ?, MotherID = ? WHERE PersonID = ?;"
+     *
+     * @param persons contains the Persons whose parents should be set
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    @Override
+    public void setParents(Iterable<Person> persons) throws DataAccessException {
+        String sql = "UPDATE Persons SET FatherID = ?, MotherID = ? WHERE PersonID = ?;";
+        try(PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for(Person person : persons) {
+                stmt.setString(1, person.getFatherID());
+                stmt.setString(2, person.getMotherID());
+                stmt.setString(3, person.getPersonID());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } catch (SQLException e) {
+//            If any of the above failed, print the error and throw a new DataAccessException
+            e.printStackTrace();
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    /**
+     * setSpouses sets the spouseID of every given Person, as a single batch
+     * A SQL String is created which is:
+     * "UPDATE Persons SET SpouseID = ? WHERE PersonID = ?;"
+     *
+     * @param persons contains the Persons whose spouses should be set
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    @Override
+    public void setSpouses(Iterable<Person> persons) throws DataAccessException {
+        String sql = "UPDATE Persons SET SpouseID = ? WHERE PersonID = ?;";
+        try(PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for(Person person : persons) {
+                stmt.setString(1, person.getSpouseID());
+                stmt.setString(2, person.getPersonID());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } catch (SQLException e) {
+//            If any of the above failed, print the error and throw a new DataAccessException
+            e.printStackTrace();
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    /**
+     * attachRootPersons sets the AssociatedUserID of every User's own Person, as a single statement
+     * The Users are matched by the PersonID column of the Users table, so none of them have to be held in memory
+     * A SQL String is created which is:
+     * "UPDATE Persons SET AssociatedUserID = (SELECT UserID FROM Users WHERE Users.PersonID = Persons.PersonID)
+     *  WHERE PersonID IN (SELECT PersonID FROM Users);"
+     *
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    public void attachRootPersons() throws DataAccessException {
+        String sql = "UPDATE Persons SET AssociatedUserID = (SELECT UserID FROM Users WHERE Users.PersonID = Persons.PersonID) " +
+                "WHERE PersonID IN (SELECT PersonID FROM Users);";
+        try(PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new DataAccessException("Error encountered while setting the Associated User IDs");
+        }
+    }
+
+    /**
+     * bindPerson attaches all Person attributes to the given insert statement
+     */
+    private static void bindPerson(PreparedStatement stmt, Person person) throws SQLException {
+        stmt.setString(1, person.getPersonID());
+        stmt.setString(2, person.getAssociatedUsername());
+        stmt.setString(3, person.getFirstName());
+        stmt.setString(4, person.getLastName());
+        stmt.setString(5, person.getGender());
+        stmt.setString(6, person.getFatherID());
+        stmt.setString(7, person.getMotherID());
+        stmt.setString(8, person.getSpouseID());
+    }
+
     /**
      * clearPersons clears all rows from the Persons table
      * A SQL String is created which is:
@@ -170,6 +457,7 @@ public class PersonDao {
      * If an error occurs, it is printed and a DataAccessException is thrown
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
+    @Override
     public void clearPersons() throws DataAccessException {
         System.out.println("Clearing the Persons table . . . ");
         String sql = "DELETE FROM Persons;";
@@ -197,6 +485,7 @@ public class PersonDao {
      * @param overwrite denotes whether the method should also overwrite the root Person
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
+    @Override
     public void clearPersonByUsername(String username, boolean overwrite) throws DataAccessException {
         System.out.println("Clearing the Persons table of all rows associated with username: " + username + " . . . ");
         String sql = "DELETE FROM Persons WHERE AssociatedUserName = ? AND AssociatedUserID IS null;";
@@ -230,6 +519,7 @@ public class PersonDao {
      * @return provides the personID that is associated to the given userID
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
+    @Override
     public String getPersonIDByUserID(String userID) throws DataAccessException {
         System.out.println("Getting the personID associated with userID: " + userID + " . . . ");
         String sql = "SELECT * FROM Persons WHERE AssociatedUserID = ?;";
@@ -268,6 +558,7 @@ public class PersonDao {
      * @return provides the personID for the original Person that was generated when the User initially registered
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
+    @Override
     public String getRootPersonIDByUsername(String username) throws DataAccessException {
         System.out.println("Getting the root personID associated with username: " + username + " . . . ");
         String sql = "SELECT * FROM Persons WHERE AssociatedUserName = ? AND AssociatedUserID IS NOT null;";
@@ -305,6 +596,7 @@ public class PersonDao {
      * @param username
      * @throws DataAccessException
      */
+    @Override
     public void attachUserID(String userID, String username) throws DataAccessException {
         System.out.println("Attaching userID: " + userID + " to username: " +
                 username + " in the Persons table . . . ");
@@ -0,0 +1,146 @@
+/** The PersonStore interface describes every operation the services perform against the Persons table
+ *  It allows the services to work with Persons without knowing which storage engine is holding them
+ *
+ *  The PersonDao class is the SQLite implementation and the MemoryPersonStore class is the in-memory implementation
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package DataAccess;
+
+import Errors.DataAccessException;
+import Model.Person;
+
+import java.util.ArrayList;
+
+public interface PersonStore {
+
+    /**
+     * getPerson provides the Person POJO that is attached to the given personID
+     *
+     * @param personID is the personID that was passed by the calling method
+     * @return provides the Person POJO that is attached to the given personID, or null if there is none
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    Person getPerson(String personID) throws DataAccessException;
+
+    /**
+     * getPersonForAuthKey reads the Person attached to the given personID on behalf of the given auth key
+     * The auth key, the Person, and whether the Person belongs to the auth key's User are all checked by a single read
+     *
+     * @param personID is the personID that was passed by the calling method
+     * @param authKey is the auth key that was sent with the request
+     * @return provides the Person if it belongs to the auth key's User, otherwise the reason it wasn't provided
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    AuthorizedRead<Person> getPersonForAuthKey(String personID, String authKey) throws DataAccessException;
+
+    /**
+     * getPersons provides all persons that are attached to a User based on a given username
+     *
+     * @param username is the username that was passed by the calling method
+     * @return provides an ArrayList of Person POJOs associated with the given username, which is empty if there are none
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    ArrayList<Person> getPersons(String username) throws DataAccessException;
+
+    /**
+     * getPersonsPage provides one page of the persons that are attached to a User based on a given username,
+     * in order of personID, so a large tree can be read a page at a time on short transactions
+     *
+     * @param username is the username that was passed by the calling method
+     * @param afterID is the last personID of the previous page, or an empty String for the first page
+     * @param limit is the most Persons the page may hold
+     * @return provides the Persons whose personID comes after afterID, which is empty once there are none left
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    ArrayList<Person> getPersonsPage(String username, String afterID, int limit) throws DataAccessException;
+
+    /**
+     * addPerson stores the given Person
+     * The personID must not already belong to another Person
+     *
+     * @param person is the Person POJO which is to be stored
+     * @throws DataAccessException handles errors and constraint violations that can take place while accessing the storage engine
+     */
+    void addPerson(Person person) throws DataAccessException;
+
+    /**
+     * addPersons stores every given Person at once, which is faster than storing them one at a time
+     * None of the personIDs may already belong to another Person
+     *
+     * @param persons contains the Person POJOs which are to be stored
+     * @throws DataAccessException handles errors and constraint violations that can take place while accessing the storage engine
+     */
+    void addPersons(Iterable<Person> persons) throws DataAccessException;
+
+    /**
+     * clearPersons removes every Person
+     *
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    void clearPersons() throws DataAccessException;
+
+    /**
+     * clearPersonByUsername removes the Persons that are associated with a given username
+     *
+     * @param username is the username that was passed by the calling method
+     * @param overwrite denotes whether the root Person (the one with an attached userID) should be removed as well
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    void clearPersonByUsername(String username, boolean overwrite) throws DataAccessException;
+
+    /**
+     * getPersonIDByUserID gets the personID for a Person that has the given userID attached
+     *
+     * @param userID is the userID that was passed by the calling method
+     * @return provides the personID that is attached to the given userID, or null if there is none
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    String getPersonIDByUserID(String userID) throws DataAccessException;
+
+    /**
+     * getRootPersonIDByUsername gets the personID for the root Person that was generated when the User registered
+     *
+     * @param username is the username that was passed by the calling method
+     * @return provides the personID of the root Person, or null if there is none
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    String getRootPersonIDByUsername(String username) throws DataAccessException;
+
+    /**
+     * attachUserID attaches the given userID to the Persons that are associated with the given username
+     *
+     * @param userID is the userID that should be attached
+     * @param username is the username whose Persons should have the userID attached
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    void attachUserID(String userID, String username) throws DataAccessException;
+
+    /**
+     * getLeafPersons gets every Person associated with the given username that has no fatherID and no motherID,
+     * along with the year of its birth Event
+     *
+     * @param username is the username whose leaf Persons should be found
+     * @return provides the leaf Persons, which is empty if there are none
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    ArrayList<LeafPerson> getLeafPersons(String username) throws DataAccessException;
+
+    /**
+     * setParents sets the fatherID and motherID of every given Person to the ones it holds, as a single batch
+     *
+     * @param persons contains the Persons whose parents should be set
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    void setParents(Iterable<Person> persons) throws DataAccessException;
+
+    /**
+     * setSpouses sets the spouseID of every given Person to the one it holds, as a single batch
+     *
+     * @param persons contains the Persons whose spouses should be set
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    void setSpouses(Iterable<Person> persons) throws DataAccessException;
+}
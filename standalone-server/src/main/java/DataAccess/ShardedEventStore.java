@@ -0,0 +1,111 @@
+/** The ShardedEventStore class is the SHARDED implementation of the EventStore interface
+ *  It routes every operation to the EventDao of the shard that owns the username
+ *  Events and birth years that are requested by ID alone are searched for in every shard, starting with the shards that are already open
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package DataAccess;
+
+import Errors.DataAccessException;
+import Model.Event;
+import Model.Person;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ShardedEventStore implements EventStore {
+
+    /**
+     * txn denotes the sharded transaction that was opened by the calling method
+     */
+    private final ShardedTransaction txn;
+
+    /**
+     * The constructor takes the ShardedTransaction that was passed by the calling method and makes it available within this class
+     * @param txn the given sharded transaction
+     */
+    public ShardedEventStore(ShardedTransaction txn) {
+        this.txn = txn;
+    }
+
+    @Override
+    public Event getEvent(String eventID) throws DataAccessException {
+        for(int shard : txn.getProbeOrder()) {
+            Event event = new EventDao(txn.getShard(shard)).getEvent(eventID);
+            if(event != null) {
+                return event;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public AuthorizedRead<Event> getEventForAuthKey(String eventID, String authKey) throws DataAccessException {
+        String username = txn.getDirectory().getTokenUsername(authKey);
+        if(username == null) {
+            return AuthorizedRead.denied(AuthorizedRead.Outcome.INVALID_AUTH_TOKEN);
+        }
+        AuthorizedRead<Event> read = new EventDao(txn.getShardFor(username)).getEventForAuthKey(eventID, authKey);
+        if(read.getOutcome() == AuthorizedRead.Outcome.NOT_FOUND && getEvent(eventID) != null) {
+//            An Event that isn't in the auth key's shard belongs to a User of another shard
+            return AuthorizedRead.denied(AuthorizedRead.Outcome.NOT_OWNED);
+        }
+        return read;
+    }
+
+    @Override
+    public ArrayList<Event> getEvents(String username) throws DataAccessException {
+        return new EventDao(txn.getShardFor(username)).getEvents(username);
+    }
+
+    @Override
+    public ArrayList<Event> getEventsPage(String username, String afterID, int limit) throws DataAccessException {
+        return new EventDao(txn.getShardFor(username)).getEventsPage(username, afterID, limit);
+    }
+
+    @Override
+    public void insertEvent(Event event) throws DataAccessException {
+        new EventDao(txn.getShardFor(event.getAssociatedUsername())).insertEvent(event);
+    }
+
+    @Override
+    public void insertEvents(Iterable<Event> events) throws DataAccessException {
+//        Every shard gets one batch of the Events it owns
+        Map<Integer, List<Event>> byShard = new HashMap<>();
+        for(Event event : events) {
+            byShard.computeIfAbsent(ShardedTransaction.shardOf(event.getAssociatedUsername(), txn.getShardCount()),
+                    shard -> new ArrayList<>()).add(event);
+        }
+        for(Map.Entry<Integer, List<Event>> batch : byShard.entrySet()) {
+            new EventDao(txn.getShard(batch.getKey())).insertEvents(batch.getValue());
+        }
+    }
+
+    @Override
+    public int getBirthYearByPersonID(String personID) throws DataAccessException {
+//        The birth Event is in the same shard as its Person
+        for(int shard : txn.getProbeOrder()) {
+            Person person = new PersonDao(txn.getShard(shard)).getPerson(personID);
+            if(person != null) {
+                return new EventDao(txn.getShard(shard)).getBirthYearByPersonID(personID);
+            }
+        }
+        return new EventDao(txn.getShard(0)).getBirthYearByPersonID(personID);
+    }
+
+    @Override
+    public void clearEvents() throws DataAccessException {
+        for(int i = 0; i < txn.getShardCount(); i++) {
+            new EventDao(txn.getShard(i)).clearEvents();
+        }
+    }
+
+    @Override
+    public void clearEventByUsername(String username, String personID) throws DataAccessException {
+        new EventDao(txn.getShardFor(username)).clearEventByUsername(username, personID);
+    }
+}
@@ -0,0 +1,145 @@
+/** The ShardedPersonStore class is the SHARDED implementation of the PersonStore interface
+ *  It routes every operation to the PersonDao of the shard that owns the username
+ *  Persons that are requested by personID alone are searched for in every shard, starting with the shards that are already open
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package DataAccess;
+
+import Errors.DataAccessException;
+import Model.Person;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ShardedPersonStore implements PersonStore {
+
+    /**
+     * txn denotes the sharded transaction that was opened by the calling method
+     */
+    private final ShardedTransaction txn;
+
+    /**
+     * The constructor takes the ShardedTransaction that was passed by the calling method and makes it available within this class
+     * @param txn the given sharded transaction
+     */
+    public ShardedPersonStore(ShardedTransaction txn) {
+        this.txn = txn;
+    }
+
+    @Override
+    public Person getPerson(String personID) throws DataAccessException {
+        for(int shard : txn.getProbeOrder()) {
+            Person person = new PersonDao(txn.getShard(shard)).getPerson(personID);
+            if(person != null) {
+                return person;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public AuthorizedRead<Person> getPersonForAuthKey(String personID, String authKey) throws DataAccessException {
+        String username = txn.getDirectory().getTokenUsername(authKey);
+        if(username == null) {
+            return AuthorizedRead.denied(AuthorizedRead.Outcome.INVALID_AUTH_TOKEN);
+        }
+        AuthorizedRead<Person> read = new PersonDao(txn.getShardFor(username)).getPersonForAuthKey(personID, authKey);
+        if(read.getOutcome() == AuthorizedRead.Outcome.NOT_FOUND && getPerson(personID) != null) {
+//            A Person that isn't in the auth key's shard belongs to a User of another shard
+            return AuthorizedRead.denied(AuthorizedRead.Outcome.NOT_OWNED);
+        }
+        return read;
+    }
+
+    @Override
+    public ArrayList<Person> getPersons(String username) throws DataAccessException {
+        return new PersonDao(txn.getShardFor(username)).getPersons(username);
+    }
+
+    @Override
+    public ArrayList<Person> getPersonsPage(String username, String afterID, int limit) throws DataAccessException {
+        return new PersonDao(txn.getShardFor(username)).getPersonsPage(username, afterID, limit);
+    }
+
+    @Override
+    public void addPerson(Person person) throws DataAccessException {
+        new PersonDao(txn.getShardFor(person.getAssociatedUsername())).addPerson(person);
+    }
+
+    @Override
+    public void addPersons(Iterable<Person> persons) throws DataAccessException {
+//        Every shard gets one batch of the Persons it owns
+        Map<Integer, List<Person>> byShard = new HashMap<>();
+        for(Person person : persons) {
+            byShard.computeIfAbsent(ShardedTransaction.shardOf(person.getAssociatedUsername(), txn.getShardCount()),
+                    shard -> new ArrayList<>()).add(person);
+        }
+        for(Map.Entry<Integer, List<Person>> batch : byShard.entrySet()) {
+            new PersonDao(txn.getShard(batch.getKey())).addPersons(batch.getValue());
+        }
+    }
+
+    @Override
+    public void clearPersons() throws DataAccessException {
+        for(int i = 0; i < txn.getShardCount(); i++) {
+            new PersonDao(txn.getShard(i)).clearPersons();
+        }
+    }
+
+    @Override
+    public void clearPersonByUsername(String username, boolean overwrite) throws DataAccessException {
+        new PersonDao(txn.getShardFor(username)).clearPersonByUsername(username, overwrite);
+    }
+
+    @Override
+    public String getPersonIDByUserID(String userID) throws DataAccessException {
+        String username = txn.getDirectory().getUsername(userID);
+        return username == null ? null : new PersonDao(txn.getShardFor(username)).getPersonIDByUserID(userID);
+    }
+
+    @Override
+    public String getRootPersonIDByUsername(String username) throws DataAccessException {
+        return new PersonDao(txn.getShardFor(username)).getRootPersonIDByUsername(username);
+    }
+
+    @Override
+    public void attachUserID(String userID, String username) throws DataAccessException {
+        new PersonDao(txn.getShardFor(username)).attachUserID(userID, username);
+    }
+
+    @Override
+    public ArrayList<LeafPerson> getLeafPersons(String username) throws DataAccessException {
+        return new PersonDao(txn.getShardFor(username)).getLeafPersons(username);
+    }
+
+    @Override
+    public void setParents(Iterable<Person> persons) throws DataAccessException {
+//        Every shard gets one batch of the Persons it owns
+        Map<Integer, List<Person>> byShard = new HashMap<>();
+        for(Person person : persons) {
+            byShard.computeIfAbsent(ShardedTransaction.shardOf(person.getAssociatedUsername(), txn.getShardCount()),
+                    shard -> new ArrayList<>()).add(person);
+        }
+        for(Map.Entry<Integer, List<Person>> batch : byShard.entrySet()) {
+            new PersonDao(txn.getShard(batch.getKey())).setParents(batch.getValue());
+        }
+    }
+
+    @Override
+    public void setSpouses(Iterable<Person> persons) throws DataAccessException {
+//        Every shard gets one batch of the Persons it owns
+        Map<Integer, List<Person>> byShard = new HashMap<>();
+        for(Person person : persons) {
+            byShard.computeIfAbsent(ShardedTransaction.shardOf(person.getAssociatedUsername(), txn.getShardCount()),
+                    shard -> new ArrayList<>()).add(person);
+        }
+        for(Map.Entry<Integer, List<Person>> batch : byShard.entrySet()) {
+            new PersonDao(txn.getShard(batch.getKey())).setSpouses(batch.getValue());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/** The ShardedTokenStore class is the SHARDED implementation of the TokenStore interface
+ *  An authToken is stored in the shard of the User it belongs to, and the directory maps its auth key to that User's username
+ *  Directory entries of evicted authTokens are deleted right away, and those of expired authTokens are swept along with them
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package DataAccess;
+
+import Errors.DataAccessException;
+import Model.AuthorizationToken;
+
+import java.util.List;
+
+public class ShardedTokenStore implements TokenStore {
+
+    /**
+     * txn denotes the sharded transaction that was opened by the calling method
+     */
+    private final ShardedTransaction txn;
+
+    /**
+     * The constructor takes the ShardedTransaction that was passed by the calling method and makes it available within this class
+     * @param txn the given sharded transaction
+     */
+    public ShardedTokenStore(ShardedTransaction txn) {
+        this.txn = txn;
+    }
+
+    @Override
+    public String getUserID(String authToken) throws DataAccessException {
+        AuthorizationToken token = getAuthToken(authToken);
+        return token == null ? null : token.getUserID();
+    }
+
+    @Override
+    public AuthorizationToken getAuthToken(String authKey) throws DataAccessException {
+        DirectoryDao directory = txn.getDirectory();
+        if(!directory.hasToken(authKey)) {
+            return null;
+        }
+        return new AuthTokenDao(txn.getShardFor(directory.getTokenUsername(authKey))).getAuthToken(authKey);
+    }
+
+    @Override
+    public String addAuthToken(String id, AuthorizationToken token) throws DataAccessException {
+        AuthTokenDao.issue(token);
+//        The directory is written first, which also rejects an auth key that another shard already holds
+        String username = txn.getDirectory().getUsername(token.getUserID());
+        txn.getDirectoryFor(username).addToken(token.getAuthKey(), username, token.getExpiresAt());
+        return new AuthTokenDao(txn.getShardFor(username)).addAuthToken(id, token);
+    }
+
+    @Override
+    public void clearAuthTokens() throws DataAccessException {
+        txn.getDirectoryFor(null).clearTokens();
+        for(int i = 0; i < txn.getShardCount(); i++) {
+            new AuthTokenDao(txn.getShard(i)).clearAuthTokens();
+        }
+    }
+
+    @Override
+    public List<String> evictOldestTokens(String userID, int keep) throws DataAccessException {
+        String username = txn.getDirectory().getUsername(userID);
+        List<String> evicted = new AuthTokenDao(txn.getShardFor(username)).evictOldestTokens(userID, keep);
+        if(!evicted.isEmpty()) {
+            txn.getDirectoryFor(username).deleteTokens(evicted);
+        }
+        return evicted;
+    }
+
+    /**
+     * deleteExpiredTokens deletes at most the given number of expired authTokens from the directory,
+     * and at most the given number of expired authTokens from the shards altogether
+     * It provides the larger of the two counts, so a sweep keeps going until both are caught up
+     */
+    @Override
+    public int deleteExpiredTokens(long now, int limit) throws DataAccessException {
+        int directoryDeleted = txn.getDirectoryFor(null).deleteExpiredTokens(now, limit);
+        int shardsDeleted = 0;
+        for(int i = 0; i < txn.getShardCount() && shardsDeleted < limit; i++) {
+            shardsDeleted += new AuthTokenDao(txn.getShard(i)).deleteExpiredTokens(now, limit - shardsDeleted);
+        }
+        return Math.max(directoryDeleted, shardsDeleted);
+    }
+}
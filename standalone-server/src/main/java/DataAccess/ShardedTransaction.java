@@ -0,0 +1,325 @@
+/** The ShardedTransaction class is an open transaction against the SHARDED storage engine
+ *  It takes the place of the single SQLite connection when the SHARDED engine is selected
+ *
+ *  The SHARDED engine works as follows:
+ *      Users, Persons, Events and AuthorizationTokens are split across several SQLite files (shards) by a hash of the username,
+ *      so every row of a User lives in the same shard and the joins of the single-shard queries still work
+ *      A small directory database maps userIDs and auth keys to usernames, so they can be routed as well,
+ *      and keeps usernames, emails and userIDs unique across every shard
+ *      SQLite only allows one writer per file, so writes for users in different shards proceed in parallel
+ *
+ *  A transaction opens the connection to a shard the first time it needs it, and every shard connection has the directory attached
+ *  The directory is written through a single shard connection (the home shard), which is the shard of the first user whose
+ *  directory rows the transaction writes, so SQLite commits the directory and that shard together or not at all
+ *  Every write to the directory is made before any write to a shard, so two transactions always lock them in the same order
+ *  Reads of the directory before the home shard is chosen go through a connection that commits every statement on its own
+ *
+ *  Committing commits the other shards first and the home shard last, and stops at the first failure
+ *  A write for one user (registering, logging in) only touches the directory and that user's shard, so it is atomic
+ *  A write across shards (clearing, loading, sweeping expired authTokens) is only atomic per file,
+ *  so a failure partway can leave it applied to some shards; each of them can simply be repeated
+ *
+ *  The shard files live in the familymap.shards.dir directory (defaults to db/shards),
+ *  and the number of shards is read from the familymap.shards property (defaults to 4)
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package DataAccess;
+
+import Errors.DataAccessException;
+import Util.Config;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class ShardedTransaction {
+
+    /**
+     * initializedPaths holds the shard directories whose files were already created by this process
+     */
+    private static final Set<String> initializedPaths = new HashSet<>();
+
+    /**
+     * path contains the directory that holds the shard files
+     */
+    private final String path;
+    /**
+     * shards holds the open connection to every shard that this transaction used, and null for the others
+     */
+    private final Connection[] shards;
+    /**
+     * home holds the index of the shard whose connection writes the directory, or -1 if this transaction hasn't written it
+     */
+    private int home = -1;
+    /**
+     * reader holds the connection that read the directory before the home shard was chosen, or null if there was none
+     */
+    private Connection reader;
+
+    /**
+     * The constructor starts a transaction against the configured shards, creating their files if they don't exist yet
+     * @throws DataAccessException handles errors that can take place while creating the shard files
+     */
+    ShardedTransaction() throws DataAccessException {
+        this.path = Config.getShardDirectory();
+        this.shards = new Connection[Config.getShardCount()];
+        initialize(path, shards.length);
+    }
+
+    /**
+     * shardOf provides the shard that holds the rows of the given username
+     * String.hashCode is specified by the language, so the shard of a username never changes between runs
+     * Rows without a username are kept in the first shard
+     *
+     * @param username contains the username whose shard is requested
+     * @param shardCount contains the number of shards
+     * @return provides the index of the shard
+     */
+    public static int shardOf(String username, int shardCount) {
+        return username == null ? 0 : Math.floorMod(username.hashCode(), shardCount);
+    }
+
+    /**
+     * getShardCount provides the number of shards this transaction works against
+     * @return provides the number of shards
+     */
+    int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * getShardFor provides the connection to the shard that holds the rows of the given username, opening it if needed
+     * @param username contains the username whose shard is requested
+     * @return provides the connection to the shard
+     * @throws DataAccessException handles errors that can take place while opening the connection
+     */
+    Connection getShardFor(String username) throws DataAccessException {
+        return getShard(shardOf(username, shards.length));
+    }
+
+    /**
+     * getShard provides the connection to the given shard, opening it if needed
+     * @param index contains the index of the shard
+     * @return provides the connection to the shard
+     * @throws DataAccessException handles errors that can take place while opening the connection
+     */
+    Connection getShard(int index) throws DataAccessException {
+        if(shards[index] == null) {
+            shards[index] = open(shardPath(path, index), directoryPath(path), false);
+        }
+        return shards[index];
+    }
+
+    /**
+     * getProbeOrder provides every shard index, starting with the shards this transaction already opened
+     * It is used to find rows that were requested by ID alone, which are most likely in a shard that is already open
+     *
+     * @return provides the shard indexes in the order they should be searched
+     */
+    List<Integer> getProbeOrder() {
+        List<Integer> order = new ArrayList<>();
+        for(int i = 0; i < shards.length; i++) {
+            if(shards[i] != null) {
+                order.add(i);
+            }
+        }
+        for(int i = 0; i < shards.length; i++) {
+            if(shards[i] == null) {
+                order.add(i);
+            }
+        }
+        return order;
+    }
+
+    /**
+     * getDirectory provides the DirectoryDao that reads the directory database
+     * It reads through the home shard once there is one, so the transaction sees its own writes
+     *
+     * @return provides the DirectoryDao
+     * @throws DataAccessException handles errors that can take place while opening the connection
+     */
+    DirectoryDao getDirectory() throws DataAccessException {
+        if(home >= 0) {
+            return new DirectoryDao(shards[home]);
+        }
+        if(reader == null) {
+            reader = open(directoryPath(path), null, true);
+        }
+        return new DirectoryDao(reader);
+    }
+
+    /**
+     * getDirectoryFor provides the DirectoryDao that writes the directory database for the given username
+     * The shard of the first username becomes the home shard, so the directory rows of that user commit with its shard rows
+     * Writes that aren't for one user pass null, which makes the first shard the home shard
+     *
+     * @param username contains the username whose directory rows are written
+     * @return provides the DirectoryDao
+     * @throws DataAccessException handles errors that can take place while opening the connection
+     */
+    DirectoryDao getDirectoryFor(String username) throws DataAccessException {
+        if(home < 0) {
+            home = shardOf(username, shards.length);
+        }
+        return new DirectoryDao(getShard(home));
+    }
+
+    /**
+     * close commits or rolls back every connection this transaction opened and closes them
+     * The other shards are committed first and the home shard, which commits the directory with it, last
+     * After a failure the remaining connections are rolled back, so the directory is never committed after a shard failed
+     * Every connection is closed even if one of them fails, and the first failure is then thrown
+     *
+     * @param commit denotes whether the changes should be committed or rolled back
+     * @throws DataAccessException handles errors that can take place while committing or closing the connections
+     */
+    void close(boolean commit) throws DataAccessException {
+        SQLException failure = null;
+        for(int i = 0; i < shards.length; i++) {
+            if(i != home) {
+                failure = finish(shards[i], commit, failure);
+                shards[i] = null;
+            }
+        }
+        if(home >= 0) {
+            failure = finish(shards[home], commit, failure);
+            shards[home] = null;
+            home = -1;
+        }
+        if(reader != null) {
+            try {
+                reader.close();
+            } catch (SQLException e) {
+                failure = failure == null ? e : failure;
+            }
+            reader = null;
+        }
+        if(failure != null) {
+            failure.printStackTrace();
+            throw new DataAccessException("Unable to Close Connection");
+        }
+    }
+
+    /**
+     * finish commits or rolls back the given connection and closes it, keeping the first failure that happened
+     */
+    private static SQLException finish(Connection conn, boolean commit, SQLException failure) {
+        if(conn == null) {
+            return failure;
+        }
+        try {
+            if(commit && failure == null) {
+                conn.commit();
+            } else {
+                conn.rollback();
+            }
+        } catch (SQLException e) {
+            failure = failure == null ? e : failure;
+        }
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            failure = failure == null ? e : failure;
+        }
+        return failure;
+    }
+
+    /**
+     * open opens a connection to the given SQLite file
+     * The directory is attached before the transaction begins, since SQLite refuses to attach a file inside one
+     *
+     * @param file contains the path of the SQLite file
+     * @param attached contains the path of the directory's SQLite file to attach, or null to attach nothing
+     * @param autoCommit denotes whether the connection should commit every statement on its own
+     * @return provides the connection
+     * @throws DataAccessException handles errors that can take place while opening the connection
+     */
+    private static Connection open(String file, String attached, boolean autoCommit) throws DataAccessException {
+        try {
+            Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file);
+            BusyWait.install(conn);
+            if(attached != null) {
+                try (PreparedStatement stmt = conn.prepareStatement("ATTACH DATABASE ? AS directory;")) {
+                    stmt.setString(1, attached);
+                    stmt.execute();
+                }
+            }
+            conn.setAutoCommit(autoCommit);
+            return conn;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new DataAccessException("Unable to Open Database Connection");
+        }
+    }
+
+    /**
+     * initialize creates the shard files and the directory database in the given directory if they don't exist yet
+     * It only runs once per directory and process
+     *
+     * Create the tables of every shard and of the directory
+     * Record the number of shards in the directory the first time, and refuse to open it with a different number later
+     *
+     * @param path contains the directory that holds the shard files
+     * @param shardCount contains the number of shards
+     * @throws DataAccessException handles errors that can take place while creating the files
+     */
+    private static synchronized void initialize(String path, int shardCount) throws DataAccessException {
+        if(initializedPaths.contains(path)) {
+            return;
+        }
+        System.out.println("Preparing " + shardCount + " shards in " + path + " . . . ");
+        new File(path).mkdirs();
+        try (Connection conn = open(directoryPath(path), null, true); Statement stmt = conn.createStatement()) {
+//            Record the number of shards in the directory the first time, and refuse to open it with a different number later
+            stmt.executeUpdate(DirectoryDao.CREATE_TABLES);
+            int recorded;
+            try (ResultSet rs = stmt.executeQuery("PRAGMA user_version;")) {
+                recorded = rs.next() ? rs.getInt(1) : 0;
+            }
+            if(recorded == 0) {
+                stmt.executeUpdate("PRAGMA user_version = " + shardCount + ";");
+            } else if(recorded != shardCount) {
+                throw new DataAccessException("The shards in " + path + " were created for " + recorded +
+                        " shards, not " + shardCount);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new DataAccessException("SQL Error encountered while creating the shard directory");
+        }
+        for(int i = 0; i < shardCount; i++) {
+//            Create the tables of every shard
+            try (Connection conn = open(shardPath(path, i), null, true); Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate(Database.CREATE_TABLES);
+            } catch (SQLException e) {
+                e.printStackTrace();
+                throw new DataAccessException("SQL Error encountered while creating the tables of shard " + i);
+            }
+        }
+        initializedPaths.add(path);
+    }
+
+    /**
+     * shardPath provides the path of the given shard's SQLite file
+     */
+    private static String shardPath(String path, int index) {
+        return path + "/shard-" + index + ".sqlite";
+    }
+
+    /**
+     * directoryPath provides the path of the directory's SQLite file
+     */
+    private static String directoryPath(String path) {
+        return path + "/directory.sqlite";
+    }
+}
@@ -0,0 +1,85 @@
+/** The ShardedUserStore class is the SHARDED implementation of the UserStore interface
+ *  It routes every operation to the UserDao of the shard that owns the username,
+ *  and uses the directory to route userIDs and to keep usernames, emails and userIDs unique across every shard
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package DataAccess;
+
+import Errors.DataAccessException;
+import Model.User;
+
+import java.util.ArrayList;
+
+public class ShardedUserStore implements UserStore {
+
+    /**
+     * txn denotes the sharded transaction that was opened by the calling method
+     */
+    private final ShardedTransaction txn;
+
+    /**
+     * The constructor takes the ShardedTransaction that was passed by the calling method and makes it available within this class
+     * @param txn the given sharded transaction
+     */
+    public ShardedUserStore(ShardedTransaction txn) {
+        this.txn = txn;
+    }
+
+    @Override
+    public User getUser(String userID) throws DataAccessException {
+        String username = txn.getDirectory().getUsername(userID);
+        return username == null ? null : new UserDao(txn.getShardFor(username)).getUser(userID);
+    }
+
+    @Override
+    public ArrayList<User> getUsers() throws DataAccessException {
+        ArrayList<User> users = new ArrayList<User>();
+        for(int i = 0; i < txn.getShardCount(); i++) {
+            users.addAll(new UserDao(txn.getShard(i)).getUsers());
+        }
+        return users;
+    }
+
+    @Override
+    public void addUser(User user) throws DataAccessException {
+//        The directory is written first, which also rejects a username, email or userID that another shard already holds
+        txn.getDirectoryFor(user.getUsername()).addUser(user.getUsername(), user.getUserID(), user.getEmail());
+        new UserDao(txn.getShardFor(user.getUsername())).addUser(user);
+    }
+
+    @Override
+    public boolean checkCredentials(String username, String password) throws DataAccessException {
+        return new UserDao(txn.getShardFor(username)).checkCredentials(username, password);
+    }
+
+    @Override
+    public String getPasswordHash(String username) throws DataAccessException {
+        return new UserDao(txn.getShardFor(username)).getPasswordHash(username);
+    }
+
+    @Override
+    public void setPasswordHash(String username, String passwordHash) throws DataAccessException {
+        new UserDao(txn.getShardFor(username)).setPasswordHash(username, passwordHash);
+    }
+
+    @Override
+    public void clearUsers() throws DataAccessException {
+        txn.getDirectoryFor(null).clearUsers();
+        for(int i = 0; i < txn.getShardCount(); i++) {
+            new UserDao(txn.getShard(i)).clearUsers();
+        }
+    }
+
+    @Override
+    public boolean usernameExists(String username) throws DataAccessException {
+        return new UserDao(txn.getShardFor(username)).usernameExists(username);
+    }
+
+    @Override
+    public String getUserID(String username) throws DataAccessException {
+        return new UserDao(txn.getShardFor(username)).getUserID(username);
+    }
+}
@@ -0,0 +1,237 @@
+/** The Snapshot class is used to build a complete SQLite database file next to the live one and then swap it in
+ *  It is used by /load and /clear on the SQLITE engine, so readers keep being served from the old file while the new one is built
+ *
+ *  A Snapshot works as follows:
+ *      build creates an empty scratch file with only the tables, and opens one transaction on it
+ *      The rows are written in bulk through the DAOs bound to that transaction
+ *      publish commits the rows, creates the indexes after the data is in, and atomically swaps the file in for the live one
+ *      discard deletes the scratch file instead, leaving the live file untouched
+ *
+ *  The scratch file is written without a rollback journal or syncing, since nothing reads it until it is swapped in,
+ *  and a failed build is thrown away as a whole
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package DataAccess;
+
+import Errors.DataAccessException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class Snapshot {
+
+    /**
+     * TEMPLATE_FILE contains the path of the empty database file that /clear swaps in
+     */
+    private static final String TEMPLATE_FILE = "db/familymap.template.sqlite";
+    /**
+     * templateReady denotes whether the empty template was already built by this process
+     */
+    private static volatile boolean templateReady = false;
+
+    /**
+     * file contains the path of the scratch file this Snapshot is built in
+     */
+    private final Path file;
+    /**
+     * conn contains the open transaction on the scratch file, or null once it is closed
+     */
+    private Connection conn;
+
+    /**
+     * The constructor is private so that snapshots are only created by build
+     */
+    private Snapshot(Path file, Connection conn) {
+        this.file = file;
+        this.conn = conn;
+    }
+
+    /**
+     * build creates a new scratch file next to the live database file and opens a transaction on it
+     *
+     * Create an empty scratch file in the directory of the live file, so it can later be renamed over it
+     * Turn off the rollback journal and syncing, since a failed build is thrown away as a whole
+     * Create the tables without their indexes, and start the transaction the rows are written in
+     *
+     * @return provides the new Snapshot
+     * @throws DataAccessException handles errors that can take place while creating the scratch file
+     */
+    public static Snapshot build() throws DataAccessException {
+        Path file = createScratchFile();
+        Connection conn = null;
+        try {
+//            Turn off the rollback journal and syncing, since a failed build is thrown away as a whole
+            conn = DriverManager.getConnection("jdbc:sqlite:" + file);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("PRAGMA journal_mode = OFF;");
+                stmt.executeUpdate("PRAGMA synchronous = OFF;");
+//                Create the tables without their indexes, and start the transaction the rows are written in
+                stmt.executeUpdate(Database.TABLES);
+            }
+            conn.setAutoCommit(false);
+            System.out.println("Building a new database snapshot in " + file + " . . . ");
+            return new Snapshot(file, conn);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            new Snapshot(file, conn).discard();
+            throw new DataAccessException("Unable to build a new database snapshot");
+        }
+    }
+
+    /**
+     * getUserDao provides a UserDao that writes into this Snapshot
+     * @return provides the UserDao
+     */
+    public UserDao getUserDao() {
+        return new UserDao(conn);
+    }
+
+    /**
+     * getPersonDao provides a PersonDao that writes into this Snapshot
+     * @return provides the PersonDao
+     */
+    public PersonDao getPersonDao() {
+        return new PersonDao(conn);
+    }
+
+    /**
+     * getEventDao provides an EventDao that writes into this Snapshot
+     * @return provides the EventDao
+     */
+    public EventDao getEventDao() {
+        return new EventDao(conn);
+    }
+
+    /**
+     * publish makes this Snapshot the live database
+     *
+     * Commit the rows that were written
+     * Create the indexes now that the data is in, syncing the finished file to disk
+     * Close the scratch file and swap it in for the live file once the open connections have closed
+     *
+     * If anything fails, the scratch file is deleted and the live file is left as it was
+     *
+     * @throws DataAccessException handles errors that can take place while finishing or swapping in the file
+     */
+    public void publish() throws DataAccessException {
+        try {
+//            Commit the rows that were written
+            conn.commit();
+            conn.setAutoCommit(true);
+//            Create the indexes now that the data is in, syncing the finished file to disk
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("PRAGMA synchronous = FULL;");
+                stmt.executeUpdate(Database.INDEXES);
+            }
+            conn.close();
+            conn = null;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            discard();
+            throw new DataAccessException("Unable to finish the new database snapshot");
+        }
+        try {
+//            Close the scratch file and swap it in for the live file once the open connections have closed
+            Database.replaceLiveFile(file);
+        } catch (DataAccessException e) {
+            discard();
+            throw e;
+        }
+    }
+
+    /**
+     * discard closes this Snapshot and deletes its scratch file, leaving the live file untouched
+     */
+    public void discard() {
+        try {
+            if(conn != null) {
+                conn.close();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        conn = null;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * swapInEmpty replaces the live database file with an empty one
+     *
+     * Build the empty template the first time, so it always has this process's tables and indexes
+     * Copy the template to a scratch file and swap that in for the live file
+     *
+     * @throws DataAccessException handles errors that can take place while copying or swapping in the file
+     */
+    public static void swapInEmpty() throws DataAccessException {
+//        Build the empty template the first time, so it always has this process's tables and indexes
+        buildTemplate();
+//        Copy the template to a scratch file and swap that in for the live file
+        Path file = createScratchFile();
+        try {
+            Files.copy(Paths.get(TEMPLATE_FILE), file, StandardCopyOption.REPLACE_EXISTING);
+            Database.replaceLiveFile(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new DataAccessException("Unable to copy the empty database template");
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * buildTemplate creates the empty template file with every table and index, once per process
+     */
+    private static synchronized void buildTemplate() throws DataAccessException {
+        if(templateReady) {
+            return;
+        }
+        System.out.println("Building the empty database template . . . ");
+        Path template = Paths.get(TEMPLATE_FILE);
+        try {
+            Files.deleteIfExists(template);
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new DataAccessException("Unable to replace the empty database template");
+        }
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + TEMPLATE_FILE);
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(Database.CREATE_TABLES);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new DataAccessException("Unable to build the empty database template");
+        }
+        templateReady = true;
+    }
+
+    /**
+     * createScratchFile creates a new empty file in the directory of the live database file
+     */
+    private static Path createScratchFile() throws DataAccessException {
+        Path directory = Paths.get(Database.LIVE_FILE).toAbsolutePath().getParent();
+        try {
+            Files.createDirectories(directory);
+            return Files.createTempFile(directory, "familymap.", ".building");
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new DataAccessException("Unable to create a new database file");
+        }
+    }
+}
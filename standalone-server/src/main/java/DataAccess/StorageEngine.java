@@ -0,0 +1,18 @@
+/** The StorageEngine enum lists the storage engines that the Database class is able to hand out stores for
+ *  The engine is chosen once at startup and is used by every Database instance afterwards
+ *
+ *      SQLITE  keeps all persistent data in the db/familymap.sqlite file (the default)
+ *      MEMORY  keeps all data in the MemoryStorage class, which is fast but does not survive a restart
+ *      SHARDED splits all persistent data across several SQLite files by username so writes for different users run in parallel
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package DataAccess;
+
+public enum StorageEngine {
+    SQLITE,
+    MEMORY,
+    SHARDED
+}
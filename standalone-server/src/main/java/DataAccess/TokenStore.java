@@ -0,0 +1,75 @@
+/** The TokenStore interface describes every operation the services perform against the AuthorizationTokens table
+ *  It allows the services to manage sessions without knowing which storage engine is holding the tokens
+ *
+ *  The AuthTokenDao class is the SQLite implementation and the MemoryTokenStore class is the in-memory implementation
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package DataAccess;
+
+import Errors.DataAccessException;
+import Model.AuthorizationToken;
+
+import java.util.List;
+
+public interface TokenStore {
+
+    /**
+     * getUserID provides the UserID that is attached to the given authToken
+     *
+     * @param authToken is the auth key that was passed by the calling method
+     * @return provides the UserID that is attached to the given authToken, or null if there is none or it has expired
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    String getUserID(String authToken) throws DataAccessException;
+
+    /**
+     * getAuthToken provides the authToken with the given auth key, including when it was issued and when it expires
+     *
+     * @param authKey is the auth key that was passed by the calling method
+     * @return provides the authToken, or null if there is none or it has expired
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    AuthorizationToken getAuthToken(String authKey) throws DataAccessException;
+
+    /**
+     * addAuthToken stores the given authToken under the given TokenID
+     * Both the TokenID and the auth key must not already belong to another token
+     * If the authToken has no issuedAt or expiresAt yet, it is issued now with the configured lifetime
+     *
+     * @param id is the TokenID that was passed by the calling method
+     * @param token is the authToken that was passed by the calling method
+     * @return provides the authToken's AuthKey back to the calling method
+     * @throws DataAccessException handles errors and constraint violations that can take place while accessing the storage engine
+     */
+    String addAuthToken(String id, AuthorizationToken token) throws DataAccessException;
+
+    /**
+     * clearAuthTokens removes every authToken
+     *
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    void clearAuthTokens() throws DataAccessException;
+
+    /**
+     * evictOldestTokens deletes the oldest authTokens of the given User until only the given number of them are left
+     *
+     * @param userID is the userID whose authTokens should be limited
+     * @param keep is the number of the newest authTokens that should be kept
+     * @return provides the auth keys of the deleted authTokens
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    List<String> evictOldestTokens(String userID, int keep) throws DataAccessException;
+
+    /**
+     * deleteExpiredTokens deletes at most the given number of authTokens that expired at or before the given time
+     *
+     * @param now is the current time in milliseconds since the epoch
+     * @param limit is the maximum number of authTokens to delete
+     * @return provides the number of deleted authTokens
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    int deleteExpiredTokens(long now, int limit) throws DataAccessException;
+}
@@ -13,12 +13,17 @@ import Model.User;
 import java.sql.*;
 import java.util.ArrayList;
 
-public class UserDao {
+public class UserDao implements UserStore {
 
     /**
      *  The Connection denotes the connection to the database that was initiated by the calling method
      */
-    private static Connection conn;
+    private Connection conn;
+    /**
+     *  lastConn holds the connection of the most recently created UserDao
+     *  The static insertUser and loginUser methods run against it so callers that use them without an instance keep working
+     */
+    private static Connection lastConn;
 
     /**
      * The constructor takes the Database Connection that was passed by the calling method and makes it available within this class
@@ -26,6 +31,7 @@ public class UserDao {
      */
     public UserDao(Connection conn) {
         this.conn = conn;
+        UserDao.lastConn = conn;
     }
 
     /**
@@ -43,6 +49,7 @@ public class UserDao {
      * @return provides the Event POJO that is attached to the given eventID
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
+    @Override
     public User getUser(String userID) throws DataAccessException {
         System.out.println("Getting the User POJO for the userID: " + userID + " . . . ");
         String sql = "SELECT * FROM Users WHERE UserID = ?;";
@@ -89,6 +96,7 @@ public class UserDao {
      * @return provides an ArrayList of User POJOs associated with the given username
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
+    @Override
     public ArrayList<User> getUsers() throws DataAccessException {
         System.out.println("Getting all Users . . . ");
         String sql = "SELECT * FROM Users;";
@@ -130,20 +138,35 @@ public class UserDao {
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
     public static void insertUser(User user) throws DataAccessException {
+        insertUser(lastConn, user);
+    }
+
+    /**
+     * addUser inserts the given User using this UserDao's own connection
+     *
+     * @param user is the User POJO which is to be inserted into the SQLite database
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    @Override
+    public void addUser(User user) throws DataAccessException {
+        insertUser(conn, user);
+    }
+
+    /**
+     * insertUser runs the insert described above on the given connection
+     *
+     * @param conn is the connection the insert should run on
+     * @param user is the User POJO which is to be inserted into the SQLite database
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    private static void insertUser(Connection conn, User user) throws DataAccessException {
         System.out.println("Inserting " + user.getUserID() + " to the Users table . . . ");
         String sql = "INSERT INTO Users (UserID, UserName, PassWord, Email, FirstName, LastName, Gender, PersonID) " +
                 "VALUES (?,?,?,?,?,?,?,?);";
 //        This SQL String is used to create a prepared statement to prevent SQL Injection
         try(PreparedStatement stmt = conn.prepareStatement(sql)) {
 //            The method attaches all User attributes to the prepared statement and executes it
-            stmt.setString(1, user.getUserID());
-            stmt.setString(2, user.getUsername());
-            stmt.setString(3, user.getPassword());
-            stmt.setString(4, user.getEmail());
-            stmt.setString(5, user.getFirstName());
-            stmt.setString(6, user.getLastName());
-            stmt.setString(7, user.getGender());
-            stmt.setString(8, user.getPersonID());
+            bindUser(stmt, user);
             stmt.executeUpdate();
         } catch (SQLException e) {
 //            If any of the above failed, print the error and throw a new DataAccessException
@@ -152,6 +175,43 @@ public class UserDao {
         }
     }
 
+    /**
+     * addUsers inserts every given User with a single prepared statement that is executed as one batch
+     * It is used for bulk loads, where preparing the insert once per row would dominate the cost
+     *
+     * @param users contains the User POJOs which are to be inserted into the SQLite database
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    public void addUsers(Iterable<User> users) throws DataAccessException {
+        String sql = "INSERT INTO Users (UserID, UserName, PassWord, Email, FirstName, LastName, Gender, PersonID) " +
+                "VALUES (?,?,?,?,?,?,?,?);";
+        try(PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for(User user : users) {
+                bindUser(stmt, user);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } catch (SQLException e) {
+//            If any of the above failed, print the error and throw a new DataAccessException
+            e.printStackTrace();
+            throw new DataAccessException("Error encountered while inserting Users into the database");
+        }
+    }
+
+    /**
+     * bindUser attaches all User attributes to the given insert statement
+     */
+    private static void bindUser(PreparedStatement stmt, User user) throws SQLException {
+        stmt.setString(1, user.getUserID());
+        stmt.setString(2, user.getUsername());
+        stmt.setString(3, user.getPassword());
+        stmt.setString(4, user.getEmail());
+        stmt.setString(5, user.getFirstName());
+        stmt.setString(6, user.getLastName());
+        stmt.setString(7, user.getGender());
+        stmt.setString(8, user.getPersonID());
+    }
+
     /**
      * loginUser performs functionality to verify whether a username and password combination is correct for a single user
      * If the username and password combo is correct, it return true. Otherwise, it returns false
@@ -170,6 +230,100 @@ public class UserDao {
      * @throws DataAccessException
      */
     public static boolean loginUser(String username, String password) throws DataAccessException {
+        return loginUser(lastConn, username, password);
+    }
+
+    /**
+     * checkCredentials verifies the username and password combination using this UserDao's own connection
+     *
+     * @param username is the username that was passed by the calling method
+     * @param password is the hashed password that was passed by the calling method
+     * @return provides true if the combination was found, false otherwise
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    @Override
+    public boolean checkCredentials(String username, String password) throws DataAccessException {
+        return loginUser(conn, username, password);
+    }
+
+    /**
+     * getPasswordHash provides the stored hash of the password of the User that has the given username
+     * A SQL String is created which is:
+     * "SELECT PassWord FROM Users WHERE UserName = ?;"
+     * This SQL String is used to create a prepared statement to prevent SQL Injection
+     * The method attaches the username to the prepared statement and executes it
+     * If something was returned from the SQL query, return the stored hash
+     * If nothing was returned from the SQL query, return null
+     *
+     * If any of the above failed, print the error and throw a new DataAccessException
+     *
+     * @param username is the username that was passed by the calling method
+     * @return provides the stored hash, or null if there is no such User
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    @Override
+    public String getPasswordHash(String username) throws DataAccessException {
+        System.out.println("Getting the password hash of username: " + username + " . . . ");
+        String sql = "SELECT PassWord FROM Users WHERE UserName = ?;";
+//        This SQL String is used to create a prepared statement to prevent SQL Injection
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+//            The method attaches the username to the prepared statement and executes it
+            stmt.setString(1, username);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if(rs.next()) {
+//                    If something was returned from the SQL query, return the stored hash
+                    return rs.getString("PassWord");
+                }
+            }
+        } catch (SQLException e) {
+//            If any of the above failed, print the error and throw a new DataAccessException
+            e.printStackTrace();
+            throw new DataAccessException("Error encountered while getting the password hash");
+        }
+//        If nothing was returned from the SQL query, return null
+        return null;
+    }
+
+    /**
+     * setPasswordHash replaces the stored hash of the password of the User that has the given username
+     * A SQL String is created which is:
+     * "UPDATE Users SET PassWord = ? WHERE UserName = ?;"
+     * This SQL String is used to create a prepared statement to prevent SQL Injection
+     * The method attaches the hash and username to the prepared statement and executes it
+     *
+     * If any of the above failed, print the error and throw a new DataAccessException
+     *
+     * @param username is the username that was passed by the calling method
+     * @param passwordHash is the new hash, which is stored as it is
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    @Override
+    public void setPasswordHash(String username, String passwordHash) throws DataAccessException {
+        System.out.println("Replacing the password hash of username: " + username + " . . . ");
+        String sql = "UPDATE Users SET PassWord = ? WHERE UserName = ?;";
+//        This SQL String is used to create a prepared statement to prevent SQL Injection
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+//            The method attaches the hash and username to the prepared statement and executes it
+            stmt.setString(1, passwordHash);
+            stmt.setString(2, username);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+//            If any of the above failed, print the error and throw a new DataAccessException
+            e.printStackTrace();
+            throw new DataAccessException("Error encountered while replacing the password hash");
+        }
+    }
+
+    /**
+     * loginUser runs the query described above on the given connection
+     *
+     * @param conn is the connection the query should run on
+     * @param username is the username that was passed by the calling method
+     * @param password is the hashed password that was passed by the calling method
+     * @return provides true if the combination was found, false otherwise
+     * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
+     */
+    private static boolean loginUser(Connection conn, String username, String password) throws DataAccessException {
         System.out.println("Verifying Username/Password combination . . . \n");
         String sql = "SELECT * FROM Users WHERE UserName = ? AND PassWord = ?;";
 //        This SQL String is used to create a prepared statement to prevent SQL Injection
@@ -201,6 +355,7 @@ public class UserDao {
      * If an error occurs, it is printed and a DataAccessException is thrown
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
+    @Override
     public void clearUsers() throws DataAccessException {
         System.out.println("Clearing the Users table . . . ");
         String sql = "DELETE FROM Users;";
@@ -230,6 +385,7 @@ public class UserDao {
      * @return provides the status of whether the username exists in the database
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
+    @Override
     public boolean usernameExists(String username) throws DataAccessException {
         System.out.println("Checking whether username: " + username + " exists in the database . . . ");
         String sql = "SELECT * FROM Users WHERE UserName = ?;";
@@ -269,6 +425,7 @@ public class UserDao {
      * @return provides the userID associated with a given username
      * @throws DataAccessException handles SQLExceptions that can take place during interaction with the SQLite DB
      */
+    @Override
     public String getUserID(String username) throws DataAccessException {
         System.out.println("Getting userID associated with username: " + username + " . . . ");
         String sql = "SELECT UserID FROM Users WHERE UserName = ?;";
@@ -0,0 +1,97 @@
+/** The UserStore interface describes every operation the services perform against the Users table
+ *  It allows the services to work with Users without knowing which storage engine is holding them
+ *
+ *  The UserDao class is the SQLite implementation and the MemoryUserStore class is the in-memory implementation
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package DataAccess;
+
+import Errors.DataAccessException;
+import Model.User;
+
+import java.util.ArrayList;
+
+public interface UserStore {
+
+    /**
+     * getUser provides the User POJO that is attached to the given userID
+     *
+     * @param userID is the userID that was passed by the calling method
+     * @return provides the User POJO that is attached to the given userID, or null if there is none
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    User getUser(String userID) throws DataAccessException;
+
+    /**
+     * getUsers provides every User that is currently stored
+     *
+     * @return provides an ArrayList of all User POJOs, which is empty if there are none
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    ArrayList<User> getUsers() throws DataAccessException;
+
+    /**
+     * addUser stores the given User
+     * The username, email, userID and personID must not already belong to another User
+     *
+     * @param user is the User POJO which is to be stored
+     * @throws DataAccessException handles errors and constraint violations that can take place while accessing the storage engine
+     */
+    void addUser(User user) throws DataAccessException;
+
+    /**
+     * checkCredentials verifies whether the username and (already hashed) password combination belongs to a User
+     *
+     * @param username is the username that was passed by the calling method
+     * @param password is the hashed password that was passed by the calling method
+     * @return provides true if the combination belongs to a User, false otherwise
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    boolean checkCredentials(String username, String password) throws DataAccessException;
+
+    /**
+     * getPasswordHash provides the stored hash of the password of the User that has the given username
+     *
+     * @param username is the username that was passed by the calling method
+     * @return provides the stored hash, or null if there is no such User
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    String getPasswordHash(String username) throws DataAccessException;
+
+    /**
+     * setPasswordHash replaces the stored hash of the password of the User that has the given username
+     *
+     * @param username is the username that was passed by the calling method
+     * @param passwordHash is the new hash, which is stored as it is
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    void setPasswordHash(String username, String passwordHash) throws DataAccessException;
+
+    /**
+     * clearUsers removes every User
+     *
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    void clearUsers() throws DataAccessException;
+
+    /**
+     * usernameExists provides info about whether a given username belongs to a stored User
+     *
+     * @param username is the username that was passed by the calling method
+     * @return provides the status of whether the username exists
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    boolean usernameExists(String username) throws DataAccessException;
+
+    /**
+     * getUserID gets the userID of the User that has the given username
+     *
+     * @param username is the username that was passed by the calling method
+     * @return provides the userID associated with the given username, or null if there is none
+     * @throws DataAccessException handles errors that can take place while accessing the storage engine
+     */
+    String getUserID(String username) throws DataAccessException;
+}
@@ -0,0 +1,30 @@
+/** The AncestryGeneratingError exception is thrown when a newly registered User's ancestors are still being generated
+ *  in the background, so a read can't see them yet, or a write that would replace them couldn't wait long enough for them
+ *
+ *  This supports principles of Confidentiality, Integrity, and Availability of data
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+package Errors;
+
+public class AncestryGeneratingError extends Throwable {
+
+    private String message;     // Contains the message that will be included in the response body
+
+    /**
+     * Constructor to define the specific error message associated with this exception
+     */
+    public AncestryGeneratingError() {
+        this.message = "Ancestry Generating";
+    }
+
+    /**
+     * Getter for the message
+     * @return  the message for this specific exception
+     */
+    @Override
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,29 @@
+/** The InvalidJobIDError exception is thrown when a fill job is requested with a jobID that doesn't exist or has expired
+ *
+ *  This supports principles of Confidentiality, Integrity, and Availability of data
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+package Errors;
+
+public class InvalidJobIDError extends Throwable {
+
+    private String message;     // Contains the message that will be included in the response body
+
+    /**
+     * Constructor to define the specific error message associated with this exception
+     */
+    public InvalidJobIDError() {
+        this.message = "Invalid Job ID Provided";
+    }
+
+    /**
+     * Getter for the message
+     * @return  the message for this specific exception
+     */
+    @Override
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,29 @@
+/** The InvalidModeError exception is thrown when the fill request gives a mode other than overwrite or extend
+ *
+ *  This supports principles of Confidentiality, Integrity, and Availability of data
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+package Errors;
+
+public class InvalidModeError extends Throwable {
+
+    private String message;     // Contains the message that will be included in the response body
+
+    /**
+     * Constructor to define the specific error message associated with this exception
+     */
+    public InvalidModeError() {
+        this.message = "Invalid Mode Value Provided";
+    }
+
+    /**
+     * Getter for the message
+     * @return  the message for this specific exception
+     */
+    @Override
+    public String getMessage() {
+        return message;
+    }
+}
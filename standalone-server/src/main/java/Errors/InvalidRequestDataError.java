@@ -12,6 +12,7 @@ package Errors;
 public class InvalidRequestDataError extends Throwable {
 
     private String message;     // Contains the message that will be included in the response body
+    private String details;     // Contains a description of what was invalid, or null
 
     /**
      * Constructor to define the specific error message associated with this exception
@@ -20,6 +21,15 @@ public class InvalidRequestDataError extends Throwable {
         this.message = "Invalid Request Data";
     }
 
+    /**
+     * Constructor to define the specific error message associated with this exception, along with what was invalid
+     * @param details contains a description of what was invalid
+     */
+    public InvalidRequestDataError(String details) {
+        this.message = "Invalid Request Data: " + details;
+        this.details = details;
+    }
+
     /**
      * Getter for the message
      * @return  the message for this specific exception
@@ -28,4 +38,12 @@ public class InvalidRequestDataError extends Throwable {
     public String getMessage() {
         return message;
     }
+
+    /**
+     * Getter for the details
+     * @return  the description of what was invalid, or null if there is none
+     */
+    public String getDetails() {
+        return details;
+    }
 }
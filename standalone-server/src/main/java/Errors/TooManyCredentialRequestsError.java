@@ -0,0 +1,30 @@
+/** The TooManyCredentialRequestsError exception is thrown when the server is already running or queueing
+ *  as many logins and registrations as it allows
+ *
+ *  This supports principles of Confidentiality, Integrity, and Availability of data
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+package Errors;
+
+public class TooManyCredentialRequestsError extends Throwable {
+
+    private String message;     // Contains the message that will be included in the response body
+
+    /**
+     * Constructor to define the specific error message associated with this exception
+     */
+    public TooManyCredentialRequestsError() {
+        this.message = "Too Many Credential Requests";
+    }
+
+    /**
+     * Getter for the message
+     * @return  the message for this specific exception
+     */
+    @Override
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,30 @@
+/** The TooManyExportRequestsError exception is thrown when the server is already streaming or queueing
+ *  as many exports as it allows
+ *
+ *  This supports principles of Confidentiality, Integrity, and Availability of data
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+package Errors;
+
+public class TooManyExportRequestsError extends Throwable {
+
+    private String message;     // Contains the message that will be included in the response body
+
+    /**
+     * Constructor to define the specific error message associated with this exception
+     */
+    public TooManyExportRequestsError() {
+        this.message = "Too Many Export Requests";
+    }
+
+    /**
+     * Getter for the message
+     * @return  the message for this specific exception
+     */
+    @Override
+    public String getMessage() {
+        return message;
+    }
+}
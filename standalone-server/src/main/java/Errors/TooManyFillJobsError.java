@@ -0,0 +1,29 @@
+/** The TooManyFillJobsError exception is thrown when the server is already running or queueing as many fill jobs as it allows
+ *
+ *  This supports principles of Confidentiality, Integrity, and Availability of data
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+package Errors;
+
+public class TooManyFillJobsError extends Throwable {
+
+    private String message;     // Contains the message that will be included in the response body
+
+    /**
+     * Constructor to define the specific error message associated with this exception
+     */
+    public TooManyFillJobsError() {
+        this.message = "Too Many Fill Jobs";
+    }
+
+    /**
+     * Getter for the message
+     * @return  the message for this specific exception
+     */
+    @Override
+    public String getMessage() {
+        return message;
+    }
+}
@@ -7,11 +7,13 @@
 
 package Handlers;
 
+import Errors.AncestryGeneratingError;
 import Errors.DataAccessException;
 import Errors.InternalServerError;
 import Errors.InvalidAuthTokenError;
-import Responses.Response;
+import Responses.AllPersonsResponse;
 import Service.GetPersonService;
+import Util.BinaryCodec;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 
@@ -33,6 +35,7 @@ public class AllPersonsHandler extends RequestHandler implements HttpHandler {
      * an error response is returned to the client
      * If an invalid authToken error is thrown during the service call, an error response is returned to the client
      * If there were no errors, a successful response containing the appropriate GetAllEventsResponse data is returned to the client
+     *      and it is sent in the application/x-familymap-binary format if the client's Accept header asks for it
      *
      * @param httpExchange represents the httpExchange that takes place as part of the client-server architecture
      */
@@ -53,9 +56,14 @@ public class AllPersonsHandler extends RequestHandler implements HttpHandler {
             }
             try {
 //                A Response POJO is created and set to be the results of the getAllEvents method from the GetEventService class
-                Response allPersonsResponse = GetPersonService.getAllPersons(authToken);
+                AllPersonsResponse allPersonsResponse = GetPersonService.getAllPersons(authToken);
 //                If there were no errors, a successful response containing the appropriate GetAllEventsResponse data is returned to the client
-                respond(allPersonsResponse, HttpURLConnection.HTTP_OK);
+                if(acceptsBinary()) {
+//                    and it is sent in the application/x-familymap-binary format if the client's Accept header asks for it
+                    respondBinary(BinaryCodec.encodePersons(allPersonsResponse.getData()), HttpURLConnection.HTTP_OK);
+                } else {
+                    respond(allPersonsResponse, HttpURLConnection.HTTP_OK);
+                }
             } catch (InternalServerError | DataAccessException internalServerError) {
 //                If an internal server error or a data access exception is thrown during the service call,
 //                an error response is returned to the client
@@ -65,6 +73,10 @@ public class AllPersonsHandler extends RequestHandler implements HttpHandler {
 //                If an invalid authToken error is thrown during the service call, an error response is returned to the client
                 invalidAuthTokenError.printStackTrace();
                 respond(defineFailure("Invalid Authorization Token Error"), HttpURLConnection.HTTP_BAD_REQUEST);
+            } catch (AncestryGeneratingError ancestryGeneratingError) {
+//                If the User's ancestors are still being generated, an error response is returned to the client
+                ancestryGeneratingError.printStackTrace();
+                respond(defineFailure("Ancestry Generating Error"), HttpURLConnection.HTTP_UNAVAILABLE);
             }
         } catch (IOException e) {
 //            If the response encounters an error while trying to send, it is caught and printed
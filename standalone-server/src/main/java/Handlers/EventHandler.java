@@ -74,6 +74,10 @@ public class EventHandler extends RequestHandler implements HttpHandler {
 //                    If an invalid authToken error is thrown during the service call, an error response is returned to the client
                     invalidAuthTokenError.printStackTrace();
                     respond(defineFailure("Invalid Authorization Token Error"), HttpURLConnection.HTTP_BAD_REQUEST);
+                } catch (AncestryGeneratingError ancestryGeneratingError) {
+//                    If the User's ancestors are still being generated, an error response is returned to the client
+                    ancestryGeneratingError.printStackTrace();
+                    respond(defineFailure("Ancestry Generating Error"), HttpURLConnection.HTTP_UNAVAILABLE);
                 }
                 return;
             }
@@ -91,6 +95,10 @@ public class EventHandler extends RequestHandler implements HttpHandler {
 //                If an invalid authToken error is thrown during the service call, an error response is returned to the client
                 invalidAuthTokenError.printStackTrace();
                 respond(defineFailure("Invalid Authorization Token Error"), HttpURLConnection.HTTP_BAD_REQUEST);
+            } catch (AncestryGeneratingError ancestryGeneratingError) {
+//                If the User's ancestors are still being generated, an error response is returned to the client
+                ancestryGeneratingError.printStackTrace();
+                respond(defineFailure("Ancestry Generating Error"), HttpURLConnection.HTTP_UNAVAILABLE);
             } catch (RequestedEventDoesNotBelongToThisUser requestedEventDoesNotBelongToThisUser) {
 //                If the User does not own the requested Event, an error response is returned to the client
                 requestedEventDoesNotBelongToThisUser.printStackTrace();
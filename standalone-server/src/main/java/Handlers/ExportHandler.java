@@ -0,0 +1,151 @@
+/** The ExportHandler class is used to handle requests whose URL denotes that the client
+ *  wants to export their whole tree as newline-delimited JSON
+ *  The export is streamed onto the response as it is read, and is compressed with gzip when the client asks for it
+ *
+ *  An export lasts as long as its client takes to read it, so it is streamed on the ExportService's pool
+ *  while the server's dispatcher goes on to the next request
+ *  A new ExportHandler is made for every request, since its request is finished on another thread
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Handlers;
+
+import Cache.Principal;
+import Errors.AncestryGeneratingError;
+import Errors.DataAccessException;
+import Errors.InvalidAuthTokenError;
+import Errors.TooManyExportRequestsError;
+import Service.ExportService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+public class ExportHandler extends RequestHandler implements HttpHandler {
+
+    /**
+     * BUFFER_SIZE is the number of bytes that are written onto the response at once
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * handle takes the given request data, performs business logic by calling the ExportService class,
+     * then streams the export of the client's tree onto the response
+     *
+     * Use the adopted handle method from the RequestHandler class to work with the request data
+     * If the request method is not a GET request, then an error response is returned to the client
+     * If there was no authToken, then an error response is returned to the client
+     * The authToken is authorized by the ExportService before the response is started
+     * If an invalid authToken error is thrown during the authorization, an error response is returned to the client
+     * If the User's ancestors are still being generated, an error response is returned to the client
+     * If a data access exception is thrown during the authorization, an error response is returned to the client
+     * The export is compressed with gzip if the client accepts gzip or asked for it with ?gzip=true
+     * The export is streamed on the export pool, and if its queue is full, an error response is returned to the client
+     *
+     * If the response encounters an error while trying to send, it is caught and printed
+     *
+     * @param httpExchange represents the httpExchange that takes place as part of the client-server architecture
+     */
+    @Override
+    public void handle(HttpExchange httpExchange) {
+        try {
+            System.out.println("\nCalled the ExportHandler");
+//            Use the adopted handle method from the RequestHandler class to work with the request data
+            super.handle(httpExchange);
+            if(!"GET".equals(requestMethod)) {
+//                If the request method is not a GET request, then an error response is returned to the client
+                respond(defineFailure("Invalid Request Method Error"), HttpURLConnection.HTTP_BAD_REQUEST);
+                return;
+            } else if(authToken == null) {
+//                If there was no authToken, then an error response is returned to the client
+                respond(defineFailure("Invalid Authorization Token Error"), HttpURLConnection.HTTP_BAD_REQUEST);
+                return;
+            }
+            Principal principal;
+            try {
+//                The authToken is authorized by the ExportService before the response is started
+                principal = ExportService.authorize(authToken);
+            } catch (InvalidAuthTokenError invalidAuthTokenError) {
+//                If an invalid authToken error is thrown during the authorization, an error response is returned to the client
+                invalidAuthTokenError.printStackTrace();
+                respond(defineFailure("Invalid Authorization Token Error"), HttpURLConnection.HTTP_BAD_REQUEST);
+                return;
+            } catch (AncestryGeneratingError ancestryGeneratingError) {
+//                If the User's ancestors are still being generated, an error response is returned to the client
+                ancestryGeneratingError.printStackTrace();
+                respond(defineFailure("Ancestry Generating Error"), HttpURLConnection.HTTP_UNAVAILABLE);
+                return;
+            } catch (DataAccessException dataAccessException) {
+//                If a data access exception is thrown during the authorization, an error response is returned to the client
+                dataAccessException.printStackTrace();
+                respond(defineFailure("Internal Server Error"), HttpURLConnection.HTTP_INTERNAL_ERROR);
+                return;
+            }
+//            The export is compressed with gzip if the client accepts gzip or asked for it with ?gzip=true
+            String acceptEncoding = httpExchange.getRequestHeaders().getFirst("Accept-Encoding");
+            boolean gzip = "true".equals(queryParameters.get("gzip")) || (acceptEncoding != null && acceptEncoding.contains("gzip"));
+            try {
+//                The export is streamed on the export pool, and if its queue is full, an error response is returned to the client
+                ExportService.execute(() -> export(httpExchange, principal, gzip));
+            } catch (TooManyExportRequestsError tooManyExportRequestsError) {
+                tooManyExportRequestsError.printStackTrace();
+                respond(defineFailure("Too Many Export Requests Error"), HttpURLConnection.HTTP_UNAVAILABLE);
+            }
+        } catch (IOException e) {
+//            If the response encounters an error while trying to send, it is caught and printed
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * export streams the export of the client's tree onto the response, which runs on the export pool
+     *
+     * The response is started without a length, so the export is sent in chunks as it is read
+     * The export method of the ExportService class writes every line of the export onto the response
+     * If the export fails once the response was started, the response is closed without the export's closing line,
+     *      so the client can't mistake it for a whole export
+     *
+     * If the response encounters an error while trying to send, it is caught and printed
+     *
+     * @param httpExchange represents the httpExchange of the export request
+     * @param principal contains the Principal whose tree is exported
+     * @param gzip denotes whether the export is compressed with gzip
+     */
+    private void export(HttpExchange httpExchange, Principal principal, boolean gzip) {
+        try {
+//            The response is started without a length, so the export is sent in chunks as it is read
+            httpExchange.getResponseHeaders().set("Content-Type", "application/x-ndjson; charset=utf-8");
+            if(gzip) {
+                httpExchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+            httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);
+            OutputStream outputStream = httpExchange.getResponseBody();
+            if(gzip) {
+                outputStream = new GZIPOutputStream(outputStream, BUFFER_SIZE);
+            }
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+            try {
+//                The export method of the ExportService class writes every line of the export onto the response
+                ExportService.export(principal, writer);
+                writer.close();
+            } catch (DataAccessException | IOException e) {
+//                If the export fails once the response was started, the response is closed without the export's closing line,
+//                so the client can't mistake it for a whole export
+                e.printStackTrace();
+                httpExchange.close();
+            }
+        } catch (IOException e) {
+//            If the response encounters an error while trying to send, it is caught and printed
+            e.printStackTrace();
+        }
+    }
+}
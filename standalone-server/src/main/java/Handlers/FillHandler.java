@@ -7,11 +7,18 @@
 
 package Handlers;
 
+import Errors.AncestryGeneratingError;
 import Errors.DataAccessException;
 import Errors.InternalServerError;
 import Errors.InvalidGenerationsError;
+import Errors.InvalidModeError;
+import Errors.InvalidSeedError;
 import Errors.InvalidUsernameError;
+import Errors.TooManyFillJobsError;
+import Responses.FillJobResponse;
 import Responses.Response;
+import Service.FillJob;
+import Service.FillJobs;
 import Service.FillService;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
@@ -29,10 +36,15 @@ public class FillHandler extends RequestHandler implements HttpHandler {
      * If the request method is not a POST request, then an error response is returned to the client
      * If the username is malformed, then an error response is returned to the client
      * If there is no second parameter denoting the number of generations to be filled, set the second parameter to 4 by default
-     * A Response POJO is created and set to be the results of the fill method from the FillService class
+     * If the async query parameter is true, the fill is queued as a job and its jobID is returned with a 202 response
+     * A Response POJO is created and set to be the results of the fill method from the FillService class,
+     *      which is given the optional ?seed= and ?mode= query parameters
      * If an internal server error or a data access exception is thrown during the service call,
      *      an error response is returned to the client
      * If the number of generations is invalid, an error response is returned to the client
+     * If the seed is invalid, an error response is returned to the client
+     * If the mode is invalid, an error response is returned to the client
+     * If every fill job thread is busy and the queue is full, an error response is returned to the client
      * If the username is invalid, an error response is returned to the client
      * If there were no errors, a successful response containing the appropriate FillResponse data is returned to the client
      *
@@ -59,8 +71,18 @@ public class FillHandler extends RequestHandler implements HttpHandler {
                 secondParameter = "4";
             }
             try {
+                if("true".equals(queryParameters.get("async"))) {
+//                    If the client asked for an asynchronous fill, it is queued as a job and its jobID is returned right away
+                    FillJob job = FillJobs.submit(secondParameter, firstParameter, queryParameters.get("seed"),
+                            queryParameters.get("mode"));
+                    FillJobResponse jobResponse = new FillJobResponse(job);
+                    jobResponse.setMessage("Accepted fill job " + job.getJobID() + ", which can be followed at /fill/status/" + job.getJobID());
+                    respond(jobResponse, HttpURLConnection.HTTP_ACCEPTED);
+                    return;
+                }
 //                A Response POJO is created and set to be the results of the fill method from the FillService class
-                Response fillResponse = FillService.fill(secondParameter, firstParameter);
+                Response fillResponse = FillService.fill(secondParameter, firstParameter, queryParameters.get("seed"),
+                        queryParameters.get("mode"));
 //                If there were no errors, a successful response containing the appropriate FillResponse data is returned to the client
                 respond(fillResponse, HttpURLConnection.HTTP_OK);
             } catch (InternalServerError | DataAccessException internalServerError) {
@@ -72,6 +94,22 @@ public class FillHandler extends RequestHandler implements HttpHandler {
 //                If the number of generations is invalid, an error response is returned to the client
                 invalidGenerationsError.printStackTrace();
                 respond(defineFailure("Invalid Generations Error"), HttpURLConnection.HTTP_BAD_REQUEST);
+            } catch (InvalidSeedError invalidSeedError) {
+//                If the seed is invalid, an error response is returned to the client
+                invalidSeedError.printStackTrace();
+                respond(defineFailure("Invalid Seed Error"), HttpURLConnection.HTTP_BAD_REQUEST);
+            } catch (InvalidModeError invalidModeError) {
+//                If the mode is invalid, an error response is returned to the client
+                invalidModeError.printStackTrace();
+                respond(defineFailure("Invalid Mode Error"), HttpURLConnection.HTTP_BAD_REQUEST);
+            } catch (AncestryGeneratingError ancestryGeneratingError) {
+//                If the User's ancestors from registering didn't finish within the wait, an error response is returned to the client
+                ancestryGeneratingError.printStackTrace();
+                respond(defineFailure("Ancestry Generating Error"), HttpURLConnection.HTTP_UNAVAILABLE);
+            } catch (TooManyFillJobsError tooManyFillJobsError) {
+//                If every fill job thread is busy and the queue is full, an error response is returned to the client
+                tooManyFillJobsError.printStackTrace();
+                respond(defineFailure("Too Many Fill Jobs Error"), HttpURLConnection.HTTP_UNAVAILABLE);
             } catch (InvalidUsernameError invalidUsernameError) {
 //                If the username is invalid, an error response is returned to the client
                 invalidUsernameError.printStackTrace();
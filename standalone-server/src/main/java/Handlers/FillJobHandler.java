@@ -0,0 +1,74 @@
+/** The FillJobHandler class is used to handle requests whose URL denotes that the client
+ *  wants to look up or cancel an asynchronous fill job
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Handlers;
+
+import Errors.InvalidJobIDError;
+import Responses.FillJobResponse;
+import Service.FillJob;
+import Service.FillJobs;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+public class FillJobHandler extends RequestHandler implements HttpHandler {
+
+    /**
+     * handle takes the given request data, performs business logic by calling the FillJobs class,
+     * then sends an HTTP response to the client describing the requested fill job
+     *
+     * Use the adopted handle method from the RequestHandler class to work with the request data
+     * If the jobID is missing, then an error response is returned to the client
+     * If the request method is a GET request, the fill job is looked up
+     * If the request method is a DELETE request, the fill job is cancelled
+     * If the request method is anything else, then an error response is returned to the client
+     * If the jobID is invalid, an error response is returned to the client
+     * If there were no errors, a successful response containing the fill job's status and progress is returned to the client
+     *
+     * If the response encounters an error while trying to send, it is caught and printed
+     *
+     * @param httpExchange represents the httpExchange that takes place as part of the client-server architecture
+     */
+    @Override
+    public void handle(HttpExchange httpExchange) {
+        try {
+            System.out.println("\nCalled the FillJobHandler");
+//            Use the adopted handle method from the RequestHandler class to work with the request data
+            super.handle(httpExchange);
+            if(!"status".equals(firstParameter) || secondParameter == null) {
+//                If the jobID is missing, then an error response is returned to the client
+                respond(defineFailure("Invalid Job ID Error"), HttpURLConnection.HTTP_BAD_REQUEST);
+                return;
+            }
+            try {
+                FillJob job;
+                if("GET".equals(requestMethod)) {
+//                    If the request method is a GET request, the fill job is looked up
+                    job = FillJobs.getJob(secondParameter);
+                } else if("DELETE".equals(requestMethod)) {
+//                    If the request method is a DELETE request, the fill job is cancelled
+                    job = FillJobs.cancel(secondParameter);
+                } else {
+//                    If the request method is anything else, then an error response is returned to the client
+                    respond(defineFailure("Invalid Request Method Error"), HttpURLConnection.HTTP_BAD_REQUEST);
+                    return;
+                }
+//                If there were no errors, a successful response containing the fill job's status and progress is returned to the client
+                respond(new FillJobResponse(job), HttpURLConnection.HTTP_OK);
+            } catch (InvalidJobIDError invalidJobIDError) {
+//                If the jobID is invalid, an error response is returned to the client
+                invalidJobIDError.printStackTrace();
+                respond(defineFailure("Invalid Job ID Error"), HttpURLConnection.HTTP_BAD_REQUEST);
+            }
+        } catch (IOException e) {
+//            If the response encounters an error while trying to send, it is caught and printed
+            e.printStackTrace();
+        }
+    }
+}
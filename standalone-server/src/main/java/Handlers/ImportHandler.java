@@ -0,0 +1,120 @@
+/** The ImportHandler class is used to handle requests whose URL denotes that the client
+ *  wants to replace the tree of a given username with the individuals and families of a GEDCOM file
+ *  The request body is spooled into a temporary file, since the GedcomService reads the file once for every step of the import
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Handlers;
+
+import Errors.AncestryGeneratingError;
+import Errors.DataAccessException;
+import Errors.InternalServerError;
+import Errors.InvalidRequestDataError;
+import Errors.InvalidUsernameError;
+import Responses.Response;
+import Service.GedcomService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+public class ImportHandler extends RequestHandler implements HttpHandler {
+
+    /**
+     * readsRequestBody is overridden so that the request body is spooled into a file instead of being read into memory
+     * @return provides false
+     */
+    @Override
+    protected boolean readsRequestBody() {
+        return false;
+    }
+
+    /**
+     * handle takes the given GEDCOM file, performs business logic by calling the GedcomService class,
+     * then sends an HTTP response to the client containing the results of the import
+     *
+     * Use the adopted handle method from the RequestHandler class to work with the request data
+     * If the request method is not a POST request, then an error response is returned to the client
+     * If the username is malformed, then an error response is returned to the client
+     * Spool the request body into a temporary file, which is deleted once the import is done
+     * If the request has no data, then an error response is returned to the client
+     * A Response POJO is created and set to be the results of the importGedcom method from the GedcomService class,
+     *      which is given the optional ?root= query parameter
+     * If the file isn't a GEDCOM file or doesn't have the root individual, an error response is returned to the client
+     * If the username is invalid, an error response is returned to the client
+     * If an internal server error or a data access exception is thrown during the service call,
+     *      an error response is returned to the client
+     * If there were no errors, a successful response containing the counts of the import is returned to the client
+     *
+     * If the response encounters an error while trying to send, it is caught and printed
+     *
+     * @param httpExchange represents the httpExchange that takes place as part of the client-server architecture
+     */
+    @Override
+    public void handle(HttpExchange httpExchange) {
+        Path file = null;
+        try {
+            System.out.println("\nCalled the ImportHandler");
+//            Use the adopted handle method from the RequestHandler class to work with the request data
+            super.handle(httpExchange);
+            if(!"POST".equals(requestMethod)) {
+//                If the request method is not a POST request, then an error response is returned to the client
+                respond(defineFailure("Invalid Request Method Error"), HttpURLConnection.HTTP_BAD_REQUEST);
+                return;
+            } else if(secondParameter == null) {
+//                If the username is malformed, then an error response is returned to the client
+                respond(defineFailure("Invalid Username Error"), HttpURLConnection.HTTP_BAD_REQUEST);
+                return;
+            }
+//            Spool the request body into a temporary file, which is deleted once the import is done
+            file = Files.createTempFile("familymap-import", ".ged");
+            if(Files.copy(httpExchange.getRequestBody(), file, StandardCopyOption.REPLACE_EXISTING) == 0) {
+//                If the request has no data, then an error response is returned to the client
+                respond(defineFailure("Empty Request Body Error"), HttpURLConnection.HTTP_BAD_REQUEST);
+                return;
+            }
+            try {
+//                A Response POJO is created and set to be the results of the importGedcom method from the GedcomService class
+                Response importResponse = GedcomService.importGedcom(secondParameter, file, queryParameters.get("root"));
+//                If there were no errors, a successful response containing the counts of the import is returned to the client
+                respond(importResponse, HttpURLConnection.HTTP_OK);
+            } catch (InvalidRequestDataError invalidRequestDataError) {
+//                If the file isn't a GEDCOM file or doesn't have the root individual, an error response is returned to the client
+                invalidRequestDataError.printStackTrace();
+                String details = invalidRequestDataError.getDetails();
+                respond(defineFailure("Invalid Request Data Error" + (details != null ? ": " + details : "")),
+                        HttpURLConnection.HTTP_BAD_REQUEST);
+            } catch (InvalidUsernameError invalidUsernameError) {
+//                If the username is invalid, an error response is returned to the client
+                invalidUsernameError.printStackTrace();
+                respond(defineFailure("Invalid Username Error"), HttpURLConnection.HTTP_BAD_REQUEST);
+            } catch (InternalServerError | DataAccessException internalServerError) {
+//                If an internal server error or a data access exception is thrown during the service call,
+//                an error response is returned to the client
+                internalServerError.printStackTrace();
+                respond(defineFailure("Internal Server Error"), HttpURLConnection.HTTP_INTERNAL_ERROR);
+            } catch (AncestryGeneratingError ancestryGeneratingError) {
+//                If the User's ancestors from registering didn't finish within the wait, an error response is returned to the client
+                ancestryGeneratingError.printStackTrace();
+                respond(defineFailure("Ancestry Generating Error"), HttpURLConnection.HTTP_UNAVAILABLE);
+            }
+        } catch (IOException e) {
+//            If the response encounters an error while trying to send, it is caught and printed
+            e.printStackTrace();
+        } finally {
+            if(file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+}
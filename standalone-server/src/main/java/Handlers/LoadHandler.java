@@ -1,5 +1,7 @@
-/** The FillHandler class is used to handle requests whose URL denotes that the client
+/** The LoadHandler class is used to handle requests whose URL denotes that the client
  *  wants to populate the database with given data for Persons, Users, or Events
+ *  The request body is streamed into the LoadService, so a load is never held in memory as a whole
+ *  A body sent as application/x-ndjson, such as an /export, is loaded a line at a time, and a gzip body is inflated as it is read
  *
  * @author Cody Uhi
  * @version 1.0.0
@@ -7,30 +9,48 @@
 
 package Handlers;
 
+import Errors.AncestryGeneratingError;
 import Errors.DataAccessException;
 import Errors.InternalServerError;
 import Errors.InvalidRequestDataError;
-import Requests.LoadRequest;
 import Responses.Response;
 import Service.LoadService;
-import Util.JsonUtil;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
 import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
 
 public class LoadHandler extends RequestHandler implements HttpHandler {
 
     /**
-     * handle takes the given request data, performs business logic by calling the FillService class,
-     * then sends an HTTP response to the client containing the requested Fill data
+     * readsRequestBody is overridden so that the request body is streamed into the LoadService instead of being read all at once
+     * @return provides false
+     */
+    @Override
+    protected boolean readsRequestBody() {
+        return false;
+    }
+
+    /**
+     * handle takes the given request data, performs business logic by calling the LoadService class,
+     * then sends an HTTP response to the client containing the results of the load
      *
      * Use the adopted handle method from the RequestHandler class to work with the request data
-     * Access the passed request data by deserializing it into a LoadRequest POJO
      * If the request method is not a POST request, then an error response is returned to the client
      * If the request has no data, then an error response is returned to the client
-     * A Response POJO is created and set to be the results of the load method from the LoadService class
+     * If the request body was sent with a Content-Encoding of gzip, it is inflated as it is read
+     * A Response POJO is created and set to be the results of the load method from the LoadService class,
+     *      which reads the request body as it is written, or of the loadLines method if it was sent as application/x-ndjson
+     * If the request body isn't valid JSON or has an invalid record, an error response is returned to the client
+     * If the request body was sent as gzip but isn't, an error response is returned to the client
      * If an internal server error or a data access exception is thrown during the service call,
      *      an error response is returned to the client
      * If there were no errors, a successful response containing the appropriate LoadResponse data is returned to the client
@@ -45,30 +65,50 @@ public class LoadHandler extends RequestHandler implements HttpHandler {
             System.out.println("\nCalled the LoadHandler");
 //            Use the adopted handle method from the RequestHandler class to work with the request data
             super.handle(httpExchange);
-//            Access the passed request data by deserializing it into a LoadRequest POJO
-            LoadRequest loadRequest = JsonUtil.deserialize(requestBody, LoadRequest.class);
             if(!"POST".equals(requestMethod)) {
 //                If the request method is not a POST request, then an error response is returned to the client
                 respond(defineFailure("Invalid Request Method Error"), HttpURLConnection.HTTP_BAD_REQUEST);
                 return;
-            } else if(loadRequest == null) {
+            }
+            PushbackInputStream body = new PushbackInputStream(httpExchange.getRequestBody());
+            int first = body.read();
+            if(first == -1) {
 //                If the request has no data, then an error response is returned to the client
                 respond(defineFailure("Empty Request Body Error"), HttpURLConnection.HTTP_BAD_REQUEST);
                 return;
             }
+            body.unread(first);
             try {
-//                A Response POJO is created and set to be the results of the load method from the LoadService class
-                Response loadResponse = LoadService.load(loadRequest);
+//                If the request body was sent with a Content-Encoding of gzip, it is inflated as it is read
+                InputStream content = "gzip".equalsIgnoreCase(httpExchange.getRequestHeaders().getFirst("Content-Encoding")) ?
+                        new GZIPInputStream(body) : body;
+                BufferedReader reader = new BufferedReader(new InputStreamReader(content, StandardCharsets.UTF_8));
+//                A Response POJO is created and set to be the results of the load method from the LoadService class,
+//                which reads the request body as it is written, or of the loadLines method if it was sent as application/x-ndjson
+                String contentType = httpExchange.getRequestHeaders().getFirst("Content-Type");
+                Response loadResponse = contentType != null && contentType.startsWith("application/x-ndjson") ?
+                        LoadService.loadLines(reader) : LoadService.load(reader);
 //                If there were no errors, a successful response containing the appropriate LoadResponse data is returned to the client
                 respond(loadResponse, HttpURLConnection.HTTP_OK);
             } catch (InvalidRequestDataError invalidRequestDataError) {
+//                If the request body isn't valid JSON or has invalid records, an error response describing them is returned to the client
                 invalidRequestDataError.printStackTrace();
-                respond(defineFailure("Invalid Request Data Error"), HttpURLConnection.HTTP_BAD_REQUEST);
+                String details = invalidRequestDataError.getDetails();
+                respond(defineFailure("Invalid Request Data Error" + (details != null ? ": " + details : "")),
+                        HttpURLConnection.HTTP_BAD_REQUEST);
+            } catch (ZipException zipException) {
+//                If the request body was sent as gzip but isn't, an error response is returned to the client
+                zipException.printStackTrace();
+                respond(defineFailure("Invalid Request Data Error: the body is not valid gzip"), HttpURLConnection.HTTP_BAD_REQUEST);
             } catch (InternalServerError | DataAccessException internalServerError) {
 //                If an internal server error or a data access exception is thrown during the service call,
 //                an error response is returned to the client
                 internalServerError.printStackTrace();
                 respond(defineFailure("Internal Server Error"), HttpURLConnection.HTTP_INTERNAL_ERROR);
+            } catch (AncestryGeneratingError ancestryGeneratingError) {
+//                If the ancestors that are still being generated didn't finish within the wait, an error response is returned to the client
+                ancestryGeneratingError.printStackTrace();
+                respond(defineFailure("Ancestry Generating Error"), HttpURLConnection.HTTP_UNAVAILABLE);
             }
         } catch (IOException e) {
 //            If the response encounters an error while trying to send, it is caught and printed
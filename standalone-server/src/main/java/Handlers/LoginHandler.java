@@ -1,6 +1,10 @@
 /** The LoginHandler class is used to handle requests whose URL denotes that the client
  *  wants to login to the server and receive an authToken for session functionality
  *
+ *  A login hashes the password, which is slow on purpose, so it is finished on the CredentialHasher's pool
+ *  while the server's dispatcher goes on to the next request
+ *  A new LoginHandler is made for every request, since its request is finished on another thread
+ *
  * @author Cody Uhi
  * @version 1.0.0
  */
@@ -11,8 +15,10 @@ import Errors.DataAccessException;
 import Errors.InternalServerError;
 import Errors.RequestPropertyInvalidValue;
 import Errors.RequestPropertyMissingValue;
+import Errors.TooManyCredentialRequestsError;
 import Requests.LoginRequest;
 import Responses.Response;
+import Service.CredentialHasher;
 import Service.LoginService;
 import Util.JsonUtil;
 import com.sun.net.httpserver.HttpExchange;
@@ -21,6 +27,7 @@ import com.sun.net.httpserver.HttpHandler;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 
+
 public class LoginHandler extends RequestHandler implements HttpHandler {
 
     /**
@@ -30,12 +37,7 @@ public class LoginHandler extends RequestHandler implements HttpHandler {
      * Use the adopted handle method from the RequestHandler class to work with the request data
      * If the request method is not a POST request, then an error response is returned to the client
      * If the request has no data, then an error response is returned to the client
-     * A Response POJO is created and set to be the results of the load method from the LoadService class
-     * If an internal server error or a data access exception is thrown during the service call,
-     * an error response is returned to the client
-     * If there is missing data in the request body, then an error response is returned to the client
-     * If the username/password combo does not exist, then an error response is returned to the client
-     * If there were no errors, a successful response containing the appropriate LoadResponse data is returned to the client
+     * The rest of the request is finished on the credential pool, and if its queue is full, an error response is returned to the client
      *
      * If the response encounters an error while trying to send, it is caught and printed
      *
@@ -58,6 +60,35 @@ public class LoginHandler extends RequestHandler implements HttpHandler {
                 return;
             }
             try {
+//                The rest of the request is finished on the credential pool, and if its queue is full, an error response is returned to the client
+                CredentialHasher.execute(() -> login(loginRequest));
+            } catch (TooManyCredentialRequestsError tooManyCredentialRequestsError) {
+                tooManyCredentialRequestsError.printStackTrace();
+                respond(defineFailure("Too Many Credential Requests Error"), HttpURLConnection.HTTP_UNAVAILABLE);
+            }
+        } catch (IOException e) {
+//            If the response encounters an error while trying to send, it is caught and printed
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * login logs the client in and sends the response, which runs on the credential pool
+     *
+     * A Response POJO is created and set to be the results of the login method from the LoginService class
+     * If an internal server error or a data access exception is thrown during the service call,
+     * an error response is returned to the client
+     * If there is missing data in the request body, then an error response is returned to the client
+     * If the username/password combo does not exist, then an error response is returned to the client
+     * If there were no errors, a successful response containing the appropriate LoginResponse data is returned to the client
+     *
+     * If the response encounters an error while trying to send, it is caught and printed
+     *
+     * @param loginRequest contains the request data
+     */
+    private void login(LoginRequest loginRequest) {
+        try {
+            try {
 //                A Response POJO is created and set to be the results of the login method from the LoginService class
                 Response loginResponse = LoginService.login(loginRequest);
 //                If there were no errors, a successful response containing the appropriate LoginResponse data is returned to the client
@@ -74,6 +74,10 @@ public class PersonHandler extends RequestHandler implements HttpHandler {
 //                    If an invalid authToken error is thrown during the service call, an error response is returned to the client
                     invalidAuthTokenError.printStackTrace();
                     respond(defineFailure("Invalid Authorization Token Error"), HttpURLConnection.HTTP_BAD_REQUEST);
+                } catch (AncestryGeneratingError ancestryGeneratingError) {
+//                    If the User's ancestors are still being generated, an error response is returned to the client
+                    ancestryGeneratingError.printStackTrace();
+                    respond(defineFailure("Ancestry Generating Error"), HttpURLConnection.HTTP_UNAVAILABLE);
                 }
                 return;
             }
@@ -95,6 +99,10 @@ public class PersonHandler extends RequestHandler implements HttpHandler {
 //                If the authToken could not be found, then an error response is returned to the client
                 invalidAuthTokenError.printStackTrace();
                 respond(defineFailure("Invalid Auth Token Error"), HttpURLConnection.HTTP_BAD_REQUEST);
+            } catch (AncestryGeneratingError ancestryGeneratingError) {
+//                If the User's ancestors are still being generated, an error response is returned to the client
+                ancestryGeneratingError.printStackTrace();
+                respond(defineFailure("Ancestry Generating Error"), HttpURLConnection.HTTP_UNAVAILABLE);
             } catch (RequestedPersonDoesNotBelongToThisUser requestedPersonDoesNotBelongToThisUser) {
 //                If the requested Person does not belong to the authenticated user, then an error response is returned to the client
                 requestedPersonDoesNotBelongToThisUser.printStackTrace();
@@ -1,6 +1,10 @@
 /** The RegisterHandler class is used to handle requests whose URL denotes that the client
  *  desires to add another User and its associated data to the database for the application
  *
+ *  A registration hashes the password, which is slow on purpose, so it is finished on the CredentialHasher's pool
+ *  while the server's dispatcher goes on to the next request
+ *  A new RegisterHandler is made for every request, since its request is finished on another thread
+ *
  * @author Cody Uhi
  * @version 1.0.0
  */
@@ -10,6 +14,7 @@ package Handlers;
 import Errors.*;
 import Requests.RegisterRequest;
 import Responses.Response;
+import Service.CredentialHasher;
 import Util.JsonUtil;
 import Service.RegisterService;
 import com.sun.net.httpserver.HttpExchange;
@@ -28,13 +33,7 @@ public class RegisterHandler extends RequestHandler implements HttpHandler {
      * Use the adopted handle method from the RequestHandler class to work with the request data
      * If the request method is not a POST request, then an error response is returned to the client
      * If the request has no data, then an error response is returned to the client
-     * A Response POJO is created and set to be the results of the login method from the LoginService class
-     * If there were no errors, a successful response containing the appropriate LoginResponse data is returned to the client
-     * If there is missing data in the request body, then an error response is returned to the client
-     * If the request body contains an invalid value, then an error response is returned to the client
-     * If the submitted username is already taken, then an error response is returned to the client
-     * If an internal server error or a data access exception is thrown during the service call,
-     * an error response is returned to the client
+     * The rest of the request is finished on the credential pool, and if its queue is full, an error response is returned to the client
      *
      * If the response encounters an error while trying to send, it is caught and printed
      *
@@ -57,7 +56,37 @@ public class RegisterHandler extends RequestHandler implements HttpHandler {
                 return;
             }
             try {
-//                A Response POJO is created and set to be the results of the load method from the LoadService class
+//                The rest of the request is finished on the credential pool, and if its queue is full, an error response is returned to the client
+                CredentialHasher.execute(() -> register(registerRequest));
+            } catch (TooManyCredentialRequestsError tooManyCredentialRequestsError) {
+                tooManyCredentialRequestsError.printStackTrace();
+                respond(defineFailure("Too Many Credential Requests Error"), HttpURLConnection.HTTP_UNAVAILABLE);
+            }
+        } catch (IOException e) {
+//            If the response encounters an error while trying to send, it is caught and printed
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * register registers the new User and sends the response, which runs on the credential pool
+     *
+     * A Response POJO is created and set to be the results of the register method from the RegisterService class
+     * If there were no errors, a successful response containing the appropriate LoginResponse data is returned to the client
+     * If there is missing data in the request body, then an error response is returned to the client
+     * If the request body contains an invalid value, then an error response is returned to the client
+     * If the submitted username is already taken, then an error response is returned to the client
+     * If an internal server error or a data access exception is thrown during the service call,
+     * an error response is returned to the client
+     *
+     * If the response encounters an error while trying to send, it is caught and printed
+     *
+     * @param registerRequest contains the request data
+     */
+    private void register(RegisterRequest registerRequest) {
+        try {
+            try {
+//                A Response POJO is created and set to be the results of the register method from the RegisterService class
                 Response registerResponse = RegisterService.register(registerRequest);
 //                If there were no errors, a successful response containing the appropriate LoginResponse data is returned to the client
                 respond(registerResponse, HttpURLConnection.HTTP_OK);
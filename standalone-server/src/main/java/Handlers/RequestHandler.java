@@ -8,14 +8,18 @@
 package Handlers;
 
 import Responses.Response;
+import Util.BinaryCodec;
 import Util.JsonUtil;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 
 import java.io.*;
 import java.net.HttpURLConnection;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 public class RequestHandler implements HttpHandler {
 
@@ -60,6 +64,10 @@ public class RequestHandler implements HttpHandler {
      * This variable holds the full request URI in case further breakdown is necessary to handle the request
      */
     protected String requestUri;
+    /**
+     * This variable holds the decoded query parameters of the request URI, such as ?seed=42
+     */
+    protected Map<String, String> queryParameters;
 
     /**
      * Empty constructor
@@ -86,18 +94,20 @@ public class RequestHandler implements HttpHandler {
 //            Pull information from the HttpExchange
             firstParameter = null;
             secondParameter = null;
+            queryParameters = parseQuery(httpExchange.getRequestURI().getRawQuery());
             requestMethod = httpExchange.getRequestMethod();
-            requestBody = convertRequestBody(httpExchange.getRequestBody());
+            requestBody = readsRequestBody() ? convertRequestBody(httpExchange.getRequestBody()) : null;
             authToken = httpExchange.getRequestHeaders().getFirst("Authorization");
             if(authToken != null) {
                 System.out.println("Auth Token: " + authToken);
             }
             requestPath = httpExchange.getHttpContext().getPath();
 //            Pull information from the requestURI
-            if(!httpExchange.getRequestURI().toString().equals("") && !requestPath.equals("event") && !requestPath.equals("person")){
-                requestUri = httpExchange.getRequestURI().toString();
+//            The query string is left out, since it was already parsed into the query parameters
+            if(!httpExchange.getRequestURI().getRawPath().equals("") && !requestPath.equals("event") && !requestPath.equals("person")){
+                requestUri = httpExchange.getRequestURI().getRawPath();
             }else {
-                requestUri = httpExchange.getRequestURI().toString().replaceAll(requestPath,"");
+                requestUri = httpExchange.getRequestURI().getRawPath().replaceAll(requestPath,"");
             }
 //            Define parameters included in the requestURI
             String[] parameters = requestUri.trim().split("/");
@@ -130,6 +140,44 @@ public class RequestHandler implements HttpHandler {
         }
     }
 
+    /**
+     * readsRequestBody denotes whether handle reads the whole request body into requestBody
+     * A handler that streams the request body itself overrides it, and reads the body from the HttpExchange instead
+     *
+     * @return provides true if the request body should be read into requestBody
+     */
+    protected boolean readsRequestBody() {
+        return true;
+    }
+
+    /**
+     * parseQuery decodes the given raw query string into its parameters
+     * A parameter without a value maps to an empty String, and the first of several values for the same name is kept
+     *
+     * @param rawQuery contains the raw query string, or null if the request URI has none
+     * @return provides the decoded query parameters
+     */
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if(rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for(String pair : rawQuery.split("&")) {
+            if(pair.isEmpty()) {
+                continue;
+            }
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            try {
+                parameters.putIfAbsent(URLDecoder.decode(name, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+            } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+                System.out.println("Ignoring the malformed query parameter " + pair);
+            }
+        }
+        return parameters;
+    }
+
     /**
      * convertRequestBody takes the given inputStream and iterates through it to convert the raw data into a parsable String
      *
@@ -179,7 +227,7 @@ public class RequestHandler implements HttpHandler {
 //        Serialize the Response POJO
         String responseBody = JsonUtil.serialize(response);
 //        Set response headers and body onto the outputstream
-        this.httpExchange.sendResponseHeaders(responseCode, responseBody.getBytes().length);
+        this.httpExchange.sendResponseHeaders(responseCode, responseBody.getBytes(StandardCharsets.UTF_8).length);
         OutputStream outputStream = this.httpExchange.getResponseBody();
         OutputStreamWriter outputStreamWriter = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
 //        Write, send, and close the OutputStream, which send the actual response to the client
@@ -189,10 +237,41 @@ public class RequestHandler implements HttpHandler {
         outputStream.close();
         System.out.println("Response sent to client successfully!\nCode: " +
                 responseCode + "\nLength: " +
-                responseBody.getBytes().length + "\nBody:\n" +
+                responseBody.getBytes(StandardCharsets.UTF_8).length + "\nBody:\n" +
                 responseBody + "\n");
     }
 
+    /**
+     * acceptsBinary denotes whether the request's Accept header asks for the application/x-familymap-binary format
+     * @return provides true if a successful response should be sent in that format
+     */
+    protected boolean acceptsBinary() {
+        return BinaryCodec.isAccepted(this.httpExchange.getRequestHeaders().getFirst("Accept"));
+    }
+
+    /**
+     * respondBinary sends the given body, which BinaryCodec encoded, to the client
+     *
+     * Set the Content-Type, and note that the response depends on the Accept header, so a cache doesn't mix the formats up
+     * Write, send, and close the OutputStream, which send the actual response to the client
+     * @param body contains the encoded body
+     * @param responseCode is an integer which contains industry-wide standards for what the status of the response is
+     * @throws IOException this occurs when something went wrong while writing the response
+     *                     this exception is handled by the calling method
+     */
+    protected void respondBinary(byte[] body, int responseCode) throws IOException {
+        System.out.println("Sending binary response . . .");
+//        Set the Content-Type, and note that the response depends on the Accept header, so a cache doesn't mix the formats up
+        this.httpExchange.getResponseHeaders().set("Content-Type", BinaryCodec.CONTENT_TYPE);
+        this.httpExchange.getResponseHeaders().set("Vary", "Accept");
+        this.httpExchange.sendResponseHeaders(responseCode, body.length);
+//        Write, send, and close the OutputStream, which send the actual response to the client
+        OutputStream outputStream = this.httpExchange.getResponseBody();
+        outputStream.write(body);
+        outputStream.close();
+        System.out.println("Response sent to client successfully!\nCode: " + responseCode + "\nLength: " + body.length + "\n");
+    }
+
     /**
      * defineFailure provides an easy way to build a Response POJO based off a given String message
      *
@@ -13,6 +13,9 @@
  *
  *  An auth token should be included in the HTTP "Authorization" request header for all requests that require an Auth token
  *
+ *  Every auth token records when it was issued and when it expires (both in milliseconds since the epoch)
+ *  Expired auth tokens are no longer accepted and are eventually deleted by the TokenSweeper
+ *
  * @author Cody Uhi
  * @version 1.0.0
  */
@@ -23,6 +26,8 @@ public class AuthorizationToken {
 
     private String authKey; // Randomly generated authentication token string
     private String userID; // userID associated with the auth token
+    private long issuedAt; // time the auth token was issued, 0 if it hasn't been issued yet
+    private long expiresAt; // time the auth token expires, 0 if it hasn't been issued yet
 
     /**
      * Empty constructor marking the class for public use
@@ -60,4 +65,36 @@ public class AuthorizationToken {
     public void setUserID(String userID) {
         this.userID = userID;
     }
+
+    /** Getter for the issuedAt value
+     *
+     * @return the time the Auth token was issued, in milliseconds since the epoch
+     */
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    /** Getter for the expiresAt value
+     *
+     * @return the time the Auth token expires, in milliseconds since the epoch
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /** Setter for the issuedAt value
+     *
+     * @param issuedAt pass in the issuedAt value and set the auth token class's issuedAt to the parameter
+     */
+    public void setIssuedAt(long issuedAt) {
+        this.issuedAt = issuedAt;
+    }
+
+    /** Setter for the expiresAt value
+     *
+     * @param expiresAt pass in the expiresAt value and set the auth token class's expiresAt to the parameter
+     */
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
 }
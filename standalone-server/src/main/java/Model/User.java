@@ -17,6 +17,7 @@ public class User {
     private String lastName; // User's last name (non-empty string)
     private String gender;   // User's gender (string: "f" or "m")
     private String personID; // Unique person ID assigned to this user's generated Person object
+    private String passwordHash; // Stored hash of the user's password, which an exported User may carry instead of its password [OPTIONAL]
 
     /**
      * Empty constructor marking the class for public use
@@ -118,6 +119,22 @@ public class User {
         this.password = password;
     }
 
+    /** Getter for the passwordHash value
+     *
+     * @return the stored hash of the user's password, or null if the user carries its password instead
+     */
+    public String getPasswordHash() {
+        return passwordHash;
+    }
+
+    /** Setter for the passwordHash value
+     *
+     * @param passwordHash pass in the stored hash of the password and set the user class's passwordHash to the parameter
+     */
+    public void setPasswordHash(String passwordHash) {
+        this.passwordHash = passwordHash;
+    }
+
     /** Setter for the email value
      *
      * @param email pass in the email value and set the user class's email to the parameter
@@ -0,0 +1,134 @@
+/**
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Responses;
+
+import Service.FillJob;
+
+public class FillJobResponse extends Response {
+
+    private String jobID;           // the jobID is used to look up or cancel the fill job
+    private String status;          // the status is one of queued, generating, writing, succeeded, failed or cancelled
+    private long personsWritten;    // the personsWritten is the number of Persons written so far by the fill's transaction
+    private long eventsWritten;     // the eventsWritten is the number of Events written so far by the fill's transaction
+    private long totalPersons;      // the totalPersons is the number of Persons the fill will write, or 0 until the tree is generated
+    private long totalEvents;       // the totalEvents is the number of Events the fill will write, or 0 until the tree is generated
+
+    /**
+     * Empty constructor marking the class for public use
+     */
+    public FillJobResponse() {}
+
+    /**
+     * Constructor that describes the given FillJob as it is right now
+     * @param job   pass in the FillJob to describe
+     */
+    public FillJobResponse(FillJob job) {
+        this.jobID = job.getJobID();
+        this.status = job.getStatus();
+        this.personsWritten = job.getPersonsWritten();
+        this.eventsWritten = job.getEventsWritten();
+        this.totalPersons = job.getTotalPersons();
+        this.totalEvents = job.getTotalEvents();
+        setMessage(job.getMessage());
+        setSuccess(!FillJob.FAILED.equals(status));
+    }
+
+    /**
+     * Getter for the jobID
+     * @return  the jobID for the FillJobResponse
+     */
+    public String getJobID() {
+        return jobID;
+    }
+
+    /**
+     * Getter for the status
+     * @return  the status for the FillJobResponse
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Getter for the personsWritten
+     * @return  the personsWritten for the FillJobResponse
+     */
+    public long getPersonsWritten() {
+        return personsWritten;
+    }
+
+    /**
+     * Getter for the eventsWritten
+     * @return  the eventsWritten for the FillJobResponse
+     */
+    public long getEventsWritten() {
+        return eventsWritten;
+    }
+
+    /**
+     * Getter for the totalPersons
+     * @return  the totalPersons for the FillJobResponse
+     */
+    public long getTotalPersons() {
+        return totalPersons;
+    }
+
+    /**
+     * Getter for the totalEvents
+     * @return  the totalEvents for the FillJobResponse
+     */
+    public long getTotalEvents() {
+        return totalEvents;
+    }
+
+    /**
+     * Setter for the jobID
+     * @param jobID  pass in the jobID and set the jobID to the parameter
+     */
+    public void setJobID(String jobID) {
+        this.jobID = jobID;
+    }
+
+    /**
+     * Setter for the status
+     * @param status  pass in the status and set the status to the parameter
+     */
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    /**
+     * Setter for the personsWritten
+     * @param personsWritten  pass in the personsWritten and set the personsWritten to the parameter
+     */
+    public void setPersonsWritten(long personsWritten) {
+        this.personsWritten = personsWritten;
+    }
+
+    /**
+     * Setter for the eventsWritten
+     * @param eventsWritten  pass in the eventsWritten and set the eventsWritten to the parameter
+     */
+    public void setEventsWritten(long eventsWritten) {
+        this.eventsWritten = eventsWritten;
+    }
+
+    /**
+     * Setter for the totalPersons
+     * @param totalPersons  pass in the totalPersons and set the totalPersons to the parameter
+     */
+    public void setTotalPersons(long totalPersons) {
+        this.totalPersons = totalPersons;
+    }
+
+    /**
+     * Setter for the totalEvents
+     * @param totalEvents  pass in the totalEvents and set the totalEvents to the parameter
+     */
+    public void setTotalEvents(long totalEvents) {
+        this.totalEvents = totalEvents;
+    }
+}
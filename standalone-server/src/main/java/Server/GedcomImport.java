@@ -0,0 +1,63 @@
+/** The GedcomImport class imports a GEDCOM file into the tree of a User from the command line
+ *  It runs the same import as the /import endpoint, without sending the file over the network,
+ *  so a file with millions of lines can be imported straight into the database
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Server;
+
+import DataAccess.Database;
+import Errors.AncestryGeneratingError;
+import Errors.DataAccessException;
+import Errors.InternalServerError;
+import Errors.InvalidRequestDataError;
+import Errors.InvalidUsernameError;
+import Responses.Response;
+import Service.GedcomService;
+import Util.Config;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class GedcomImport {
+
+    /** The main function imports the given GEDCOM file into the tree of the given username
+     *
+     * This program can be run using "java -cp target/classes Server.GedcomImport <file> <username> [root_xref]" on the cmd line
+     * First the method checks to see if the user input contains the file and the username
+     *  if not, the program returns and requires the user to try again
+     * The storage engine is selected the same way the server selects it
+     * The file is imported and the result of the import is printed
+     *
+     * @param args the path of the GEDCOM file, the username, and optionally the xref of the root individual such as @I1@
+     */
+    public static void main(String[] args) {
+//        First the method checks to see if the user input contains the file and the username
+        if(args.length < 2 || args.length > 3) {
+            System.out.println("Invalid input given. Please give input in this format: 'java GedcomImport <file> <username> [root_xref]'");
+            return;
+        }
+        Path file = Paths.get(args[0]);
+        if(!Files.isReadable(file)) {
+            System.out.println("Unable to read " + file);
+            return;
+        }
+//        The storage engine is selected the same way the server selects it
+        Database.setStorageEngine(Config.getStorageEngine());
+//        The file is imported and the result of the import is printed
+        try {
+            Response response = GedcomService.importGedcom(args[1], file, args.length == 3 ? args[2] : null);
+            System.out.println(response.getMessage());
+        } catch (InvalidUsernameError e) {
+            System.out.println(args[1] + " isn't the username of a registered User");
+        } catch (InvalidRequestDataError e) {
+            System.out.println("Unable to import " + file + ": " + e.getDetails());
+        } catch (InternalServerError | AncestryGeneratingError | DataAccessException e) {
+            e.printStackTrace();
+            System.out.println("Unable to import " + file);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/** The JsonBenchmark class measures how long an AllEventsResponse takes to serialize and deserialize
+ *  It compares the shared Gson of JsonUtil, which uses the adapters in JsonAdapters,
+ *  with a new Gson that reflects over the fields for every call, which is how JsonUtil used to work,
+ *  and with the application/x-familymap-binary format of BinaryCodec
+ *
+ *  The benchmark works as follows:
+ *      An AllEventsResponse is built for each of the given sizes, with every Event in a different place
+ *      The size of the JSON and of the binary body are printed, as they are and compressed with gzip
+ *      Each way of serializing and deserializing is run until the JIT has compiled it, and then timed over a number of runs
+ *      The average and fastest run of each are printed in milliseconds
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Server;
+
+import Model.Event;
+import Responses.AllEventsResponse;
+import Util.BinaryCodec;
+import Util.JsonUtil;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import static java.lang.Integer.parseInt;
+
+public class JsonBenchmark {
+
+    private static final int WARMUP_RUNS = 10;
+    private static final int TIMED_RUNS = 20;
+
+    /**
+     * sink keeps the results alive, so the JIT can't leave out the work that made them
+     */
+    private static int sink;
+
+    /** The main function runs the benchmark for each of the given numbers of Events
+     *
+     * This program can be run using "java -cp target/classes Server.JsonBenchmark <events> [events ...]" on the cmd line
+     * First the method checks to see if the user input contains at least one number of Events
+     *  if not, the program returns and requires the user to try again
+     * An AllEventsResponse is built for each of the given sizes
+     * The size of the JSON and of the binary body are printed, as they are and compressed with gzip
+     * Each way of serializing and deserializing is warmed up, timed, and printed
+     *
+     * @param args the numbers of Events to benchmark with, such as 10000 100000
+     */
+    public static void main(String[] args) {
+//        First the method checks to see if the user input contains at least one number of Events
+        if(args.length == 0) {
+            System.out.println("Invalid input given. Please give input in this format: 'java JsonBenchmark <events> [events ...]'");
+            return;
+        }
+        for(String arg : args) {
+//            An AllEventsResponse is built for each of the given sizes
+            AllEventsResponse response = response(parseInt(arg));
+            String json = JsonUtil.serialize(response);
+            byte[] binary = BinaryCodec.encodeEvents(response.getData());
+//            The size of the JSON and of the binary body are printed, as they are and compressed with gzip
+            byte[] jsonBytes = json.getBytes(StandardCharsets.UTF_8);
+            System.out.println(arg + " events: JSON " + jsonBytes.length + " bytes (" + gzipped(jsonBytes) + " gzipped), binary " +
+                    binary.length + " bytes (" + gzipped(binary) + " gzipped)");
+//            Each way of serializing and deserializing is warmed up, timed, and printed
+            time("  serialize, reflection   ", () -> new GsonBuilder().setPrettyPrinting().create().toJson(response));
+            time("  serialize, adapters     ", () -> JsonUtil.serialize(response));
+            time("  deserialize, reflection ", () -> new Gson().fromJson(json, AllEventsResponse.class).getData());
+            time("  deserialize, adapters   ", () -> JsonUtil.deserialize(json, AllEventsResponse.class).getData());
+            time("  encode, binary          ", () -> BinaryCodec.encodeEvents(response.getData()));
+            time("  decode, binary          ", () -> {
+                try {
+                    return BinaryCodec.decodeEvents(binary);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * response provides an AllEventsResponse with the given number of Events
+     */
+    private static AllEventsResponse response(int events) {
+        ArrayList<Event> data = new ArrayList<>(events);
+        for(int i = 0; i < events; i++) {
+            Event event = new Event();
+            event.setEventID("event" + i);
+            event.setAssociatedUsername("benchmark");
+            event.setPersonID("person" + (i / 4));
+            event.setLatitude((i % 18000) / 100f - 90f);
+            event.setLongitude((i % 36000) / 100f - 180f);
+            event.setCountry("Country" + (i % 200));
+            event.setCity("City" + (i % 5000));
+            event.setEventType(i % 3 == 0 ? "birth" : i % 3 == 1 ? "marriage" : "death");
+            event.setYear(1700 + i % 320);
+            data.add(event);
+        }
+        AllEventsResponse response = new AllEventsResponse();
+        response.setData(data);
+        response.setSuccess(true);
+        return response;
+    }
+
+    /**
+     * gzipped provides the size of the given bytes once they are compressed with gzip
+     */
+    private static int gzipped(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.size();
+    }
+
+    /**
+     * time warms up the given work, then prints the average and fastest of the timed runs
+     */
+    private static void time(String label, Supplier<Object> work) {
+        for(int i = 0; i < WARMUP_RUNS; i++) {
+            sink += System.identityHashCode(work.get());
+        }
+        long total = 0;
+        long fastest = Long.MAX_VALUE;
+        for(int i = 0; i < TIMED_RUNS; i++) {
+            long start = System.nanoTime();
+            sink += System.identityHashCode(work.get());
+            long elapsed = System.nanoTime() - start;
+            total += elapsed;
+            fastest = Math.min(fastest, elapsed);
+        }
+        System.out.println(label + String.format("avg %8.2f ms, min %8.2f ms", total / 1e6 / TIMED_RUNS, fastest / 1e6));
+    }
+}
@@ -0,0 +1,192 @@
+/** The LoginBenchmark class measures how logins and reads share a running server
+ *  Logins hash their password on purpose slowly, so this shows how many logins the server finishes each second
+ *  while it goes on serving the cheap reads, and how long those reads take meanwhile
+ *
+ *  The benchmark works as follows:
+ *      A User is registered, or logged in if it was registered by an earlier run
+ *      The login threads log that User in over and over, counting the logins that succeed and the ones that are refused
+ *      At the same time a single reader reads the User's Person over and over, timing every read
+ *      Once the time is up, the logins per second and the 50th, 99th and largest read times are printed
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Server;
+
+import Requests.LoginRequest;
+import Requests.RegisterRequest;
+import Responses.LoginResponse;
+import Util.JsonUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.Integer.parseInt;
+
+public class LoginBenchmark {
+
+    private static String host;
+
+    /** The main function runs the benchmark against the server on the given port
+     *
+     * This program can be run using "java -cp target/classes Server.LoginBenchmark <port> <seconds> <login_threads>" on the cmd line
+     * First the method checks to see if the user input contains the port, the seconds and the login threads
+     *  if not, the program returns and requires the user to try again
+     * The User is registered, or logged in if it was already registered
+     * The login threads and the reader run until the time is up
+     * The results are printed
+     *
+     * @param args the port of the running server, the seconds to run for, and the number of login threads
+     */
+    public static void main(String[] args) throws Exception {
+//        First the method checks to see if the user input contains the port, the seconds and the login threads
+        if(args.length != 3) {
+            System.out.println("Invalid input given. Please give input in this format: 'java LoginBenchmark <port> <seconds> <login_threads>'");
+            return;
+        }
+//        Every request gets a connection of its own, since a reused connection waits on delayed acknowledgements
+//        for as long as the reads being timed take
+        System.setProperty("http.keepAlive", "false");
+        host = "http://localhost:" + parseInt(args[0]);
+        long seconds = parseInt(args[1]);
+        int loginThreads = parseInt(args[2]);
+//        The User is registered, or logged in if it was already registered
+        LoginResponse session = JsonUtil.deserialize(post("/user/register",
+                JsonUtil.serialize(new RegisterRequest("benchmark", "password", "benchmark@email", "Bench", "Mark", "f"))),
+                LoginResponse.class);
+        if(session == null || session.getAuthToken() == null) {
+            session = JsonUtil.deserialize(post("/user/login", loginBody()), LoginResponse.class);
+        }
+        if(session == null || session.getAuthToken() == null) {
+            System.out.println("Unable to register or log in the benchmark User");
+            return;
+        }
+        String personPath = "/person/" + session.getPersonID();
+        String authToken = session.getAuthToken();
+//        The login threads and the reader run until the time is up
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        AtomicLong logins = new AtomicLong();
+        AtomicLong refused = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        for(int i = 0; i < loginThreads; i++) {
+            Thread thread = new Thread(() -> {
+                while(System.nanoTime() < end) {
+                    try {
+                        int code = postCode("/user/login", loginBody());
+                        (code == HttpURLConnection.HTTP_OK ? logins : refused).incrementAndGet();
+                    } catch (IOException e) {
+                        refused.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        List<Long> reads = new ArrayList<>();
+        while(System.nanoTime() < end) {
+            long start = System.nanoTime();
+            get(personPath, authToken);
+            reads.add(System.nanoTime() - start);
+        }
+        for(Thread thread : threads) {
+            thread.join();
+        }
+//        The results are printed
+        Collections.sort(reads);
+        System.out.println(loginThreads + " login threads for " + seconds + " s: " +
+                String.format("%.1f", logins.get() / (double) seconds) + " logins/s, " + refused.get() + " refused");
+        System.out.println(reads.size() + " reads: p50 " + millis(reads, 0.50) + " ms, p99 " + millis(reads, 0.99) +
+                " ms, max " + millis(reads, 1.0) + " ms");
+    }
+
+    /**
+     * loginBody provides the body of a login of the benchmark User
+     */
+    private static String loginBody() {
+        LoginRequest request = new LoginRequest();
+        request.setUserName("benchmark");
+        request.setPassword("password");
+        return JsonUtil.serialize(request);
+    }
+
+    /**
+     * millis provides the given percentile of the given sorted times in milliseconds
+     */
+    private static String millis(List<Long> sorted, double percentile) {
+        if(sorted.isEmpty()) {
+            return "-";
+        }
+        int index = (int) Math.min(sorted.size() - 1, Math.ceil(percentile * sorted.size()) - 1);
+        return String.format("%.2f", sorted.get(Math.max(0, index)) / 1e6);
+    }
+
+    /**
+     * post posts the given body and provides the response body
+     */
+    private static String post(String path, String body) throws IOException {
+        HttpURLConnection connection = open(path, "POST", null);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return read(connection);
+    }
+
+    /**
+     * postCode posts the given body and provides the response code
+     */
+    private static int postCode(String path, String body) throws IOException {
+        HttpURLConnection connection = open(path, "POST", null);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        read(connection);
+        return connection.getResponseCode();
+    }
+
+    /**
+     * get gets the given path with the given authToken and provides the response body
+     */
+    private static String get(String path, String authToken) throws IOException {
+        return read(open(path, "GET", authToken));
+    }
+
+    private static HttpURLConnection open(String path, String method, String authToken) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(host + path).openConnection();
+        connection.setRequestMethod(method);
+        if(authToken != null) {
+            connection.setRequestProperty("Authorization", authToken);
+        }
+        connection.setDoOutput("POST".equals(method));
+        return connection;
+    }
+
+    /**
+     * read reads the whole response body
+     */
+    private static String read(HttpURLConnection connection) throws IOException {
+        InputStream in = connection.getResponseCode() < HttpURLConnection.HTTP_BAD_REQUEST ?
+                connection.getInputStream() : connection.getErrorStream();
+        if(in == null) {
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        in.close();
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -1,6 +1,14 @@
 /** The server class is the main class from which all functionality will originate
  * The server accepts the following command line arguments:
  *  - Port number on which the server will accept client connections.  This value is an integer in the range 1-65535 EX: 8080
+ * The storage engine is selected with the familymap.storage system property (sqlite, memory, or sharded) EX: -Dfamilymap.storage=memory
+ * Single Person and Event reads are served from an in-memory read replica with the familymap.replica system property EX: -Dfamilymap.replica=true
+ * Fills run in the background with /fill/[username]/[generations]?async=true and are followed or cancelled at /fill/status/[jobID]
+ * A GEDCOM file replaces a User's tree when it is posted to /import/[username]?root=[xref], or when it is given to Server.GedcomImport
+ * A User's tree is streamed as newline-delimited JSON from /export?gzip=true, which /load takes back as application/x-ndjson
+ * Passwords are hashed with PBKDF2 on a pool of their own, sized with familymap.hash.threads and familymap.hash.queue EX: -Dfamilymap.hash.threads=2
+ * Auth tokens are signed and verified without the AuthorizationTokens table with familymap.token.signed, keyed by familymap.token.secret EX: -Dfamilymap.token.signed=true
+ * /person and /event send a User's tree in a compact binary format to clients that ask for it EX: Accept: application/x-familymap-binary
  *
  * @author Cody Uhi
  * @version 1.0.0
@@ -8,7 +16,15 @@
 
 package Server;
 
+import Cache.ReadReplica;
+import DataAccess.Database;
+import Errors.InternalServerError;
 import Handlers.*;
+import Service.CredentialHasher;
+import Service.TemplatePool;
+import Service.TokenSweeper;
+import Util.Config;
+import Util.ResourceCatalog;
 import com.sun.net.httpserver.HttpServer;
 
 import java.io.File;
@@ -62,6 +78,19 @@ public class Server {
             return;
         }
         System.out.println("All necessary resources are accessible");
+//        Select the storage engine before any request can open a connection
+        Database.setStorageEngine(Config.getStorageEngine());
+//        Load the names and locations assets once, so generating a tree never reads them again
+        try {
+            ResourceCatalog.load();
+        } catch (InternalServerError e) {
+            System.out.println("Unable to load the names and locations assets");
+            return;
+        }
+//        Start pre-generating the trees that every registration stamps its ancestors from
+        TemplatePool.warm(4);
+//        Calibrate the cost of a password hash now, so the first login doesn't wait for it
+        CredentialHasher.getIterations();
 //        else if the port number is inside the range, call Server.run to start the server on that port
         run(port);
     }
@@ -74,6 +103,7 @@ public class Server {
      *  The method creates contexts for all the supported endpoints.
      *  These contexts will handle requests that are directed at those endpoints as designated by the request URL.
      *  When the contexts are created, start the server and listen for traffic
+     *  Once the server is listening, start sweeping expired auth tokens in the background
      *
      *  If any of the above fails, don't start the server and print the error
      *
@@ -89,20 +119,34 @@ public class Server {
 
 //            The method creates contexts for all the supported endpoints.
 //            These contexts will handle requests that are directed at those endpoints as designated by the request URL.
-            server.createContext("/user/register", new RegisterHandler());
-            server.createContext("/user/login", new LoginHandler());
+//            Logins and registrations are finished on the credential pool, and exports on the export pool,
+//            so they get a new handler for every request
+            server.createContext("/user/register", exchange -> new RegisterHandler().handle(exchange));
+            server.createContext("/user/login", exchange -> new LoginHandler().handle(exchange));
             server.createContext("/clear", new ClearHandler());
+            server.createContext("/fill/status/", new FillJobHandler());
             server.createContext("/fill", new FillHandler());
             server.createContext("/load", new LoadHandler());
+            server.createContext("/import", new ImportHandler());
+            server.createContext("/export", exchange -> new ExportHandler().handle(exchange));
             server.createContext("/person/", new PersonHandler());
             server.createContext("/person", new AllPersonsHandler());
             server.createContext("/event/", new EventHandler());
             server.createContext("/event", new AllEventsHandler());
             server.createContext("/", new FileHandler());
-            System.out.println("Server running on http:/" + networkInterface.getInetAddresses().nextElement() + "/" + String.valueOf(port));
+            if(networkInterface != null && networkInterface.getInetAddresses().hasMoreElements()) {
+                System.out.println("Server running on http:/" + networkInterface.getInetAddresses().nextElement() + "/" + String.valueOf(port));
+            } else {
+//                If this device has no wlan1 interface, the server still listens on every interface
+                System.out.println("Server running on port " + String.valueOf(port));
+            }
 
 //            When the contexts are created, start the server and listen for traffic
             server.start();
+//            Once the server is listening, start sweeping expired auth tokens in the background
+            TokenSweeper.start();
+//            Start refreshing the read replica if it is enabled
+            ReadReplica.getInstance().start();
 
         } catch(Exception e) {
 //            If any of the above fails, don't start the server and print the error
@@ -0,0 +1,193 @@
+/** The AncestryJobs class generates the ancestors of newly registered Users in the background
+ *  It lets /user/register return as soon as the User, their Person and their authToken are committed
+ *
+ *  The jobs work as follows:
+ *      Each User's ancestors are generated and written on a bounded pool of daemon threads, in a transaction of their own
+ *      A User whose ancestors are being generated is marked as generating until the ancestors are committed or have failed
+ *      A read of a generating User's Persons or Events reports that they are still generating right away, instead of
+ *      holding the server's dispatcher thread while it waits for them
+ *      A /fill, /clear or /load waits for the ancestors it would write over, so they never land on top of it,
+ *      and reports that they are still generating if they take longer than the wait
+ *      A User who finds the queue full has their ancestors generated by the register request itself, which slows
+ *      registering down instead of letting the queue grow
+ *
+ *  The threads, queue and wait are read from the familymap.ancestry.threads, familymap.ancestry.queue
+ *  and familymap.ancestry.waitMillis properties
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Service;
+
+import Cache.ReadReplica;
+import Cache.TreeCache;
+import Errors.AncestryGeneratingError;
+import Errors.DataAccessException;
+import Errors.InternalServerError;
+import Model.Person;
+import Util.Config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AncestryJobs {
+
+    /**
+     * executor generates the ancestors, or is null before the first User registers
+     */
+    private static ThreadPoolExecutor executor;
+    /**
+     * generating holds a latch for every username whose ancestors are being generated, which is released once they are done
+     */
+    private static final ConcurrentHashMap<String, CountDownLatch> generating = new ConcurrentHashMap<>();
+
+    /**
+     * Empty constructor marking the class for public use
+     */
+    public AncestryJobs() {}
+
+    /**
+     * submit generates the given number of generations of ancestors for the given Person in the background
+     *
+     * Mark the Person's username as generating, so its reads report the ancestors as generating
+     * Queue the generation, or generate the ancestors on the calling thread if the queue is full
+     *
+     * @param person contains the Person whose ancestors should be generated, which is already committed
+     * @param birthYear contains the birthYear of the given Person, which the ancestors' years are generated from
+     * @param generations contains the number of generations to generate
+     */
+    public static void submit(Person person, int birthYear, int generations) {
+//        Mark the Person's username as generating, so its reads report the ancestors as generating
+        String username = person.getAssociatedUsername();
+        CountDownLatch done = new CountDownLatch(1);
+        generating.put(username, done);
+//        Queue the generation, or generate the ancestors on the calling thread if the queue is full
+        Runnable job = () -> generate(person, birthYear, generations, done);
+        try {
+            getExecutor().execute(job);
+        } catch (RejectedExecutionException e) {
+            System.out.println("The ancestry queue is full, so the ancestors of " + username + " are generated right away");
+            job.run();
+        }
+    }
+
+    /**
+     * generate generates and writes the ancestors of the given Person, then releases the readers waiting for them
+     * A failure is logged instead of thrown, since the User was already told that they registered
+     */
+    private static void generate(Person person, int birthYear, int generations, CountDownLatch done) {
+        String username = person.getAssociatedUsername();
+        try {
+            TreeGenerator ancestors = FillService.fillHelper(generations, person, birthYear);
+            System.out.println("Created " +
+                    ancestors.getPersons().size() +
+                    " persons and " +
+                    ancestors.getEvents().size() +
+                    " events of ancestors for " + username);
+        } catch (InternalServerError | DataAccessException | RuntimeException e) {
+            e.printStackTrace();
+            System.out.println("Failed to generate the ancestors of " + username);
+        } finally {
+//            The username's tree may have been cached while it was being generated
+            TreeCache.getInstance().invalidate(username);
+            ReadReplica.getInstance().recordWrite(username);
+            generating.remove(username, done);
+            done.countDown();
+        }
+    }
+
+    /**
+     * isGenerating denotes whether any User's ancestors are being generated, which lets a read skip looking up its User
+     * @return provides true if at least one User is generating
+     */
+    public static boolean isGenerating() {
+        return !generating.isEmpty();
+    }
+
+    /**
+     * isGenerating denotes whether the ancestors of the given username are being generated
+     * @param username contains the username to look up
+     * @return provides true if the username is generating
+     */
+    public static boolean isGenerating(String username) {
+        return username != null && generating.containsKey(username);
+    }
+
+    /**
+     * checkGenerated reports whether the ancestors of the given username are still being generated, without waiting for them
+     * A read runs on the server's dispatcher thread, so waiting here would hold up every other request
+     *
+     * @param username contains the username that is being read
+     * @throws AncestryGeneratingError occurs when the ancestors are still being generated
+     */
+    public static void checkGenerated(String username) throws AncestryGeneratingError {
+        CountDownLatch done = username == null ? null : generating.get(username);
+        if(done != null && done.getCount() > 0) {
+            throw new AncestryGeneratingError();
+        }
+    }
+
+    /**
+     * await waits for the ancestors of the given username, if they are being generated, for at most the ancestry wait
+     *
+     * @param username contains the username that is about to be written
+     * @throws AncestryGeneratingError occurs when the ancestors weren't finished within the wait
+     */
+    public static void await(String username) throws AncestryGeneratingError {
+        CountDownLatch done = username == null ? null : generating.get(username);
+        if(done != null) {
+            awaitLatch(done, System.currentTimeMillis() + Config.getAncestryWaitMillis());
+        }
+    }
+
+    /**
+     * awaitAll waits for the ancestors of every username that is being generated, for at most the ancestry wait in all
+     *
+     * @throws AncestryGeneratingError occurs when the ancestors weren't all finished within the wait
+     */
+    public static void awaitAll() throws AncestryGeneratingError {
+        long deadline = System.currentTimeMillis() + Config.getAncestryWaitMillis();
+        for(CountDownLatch done : generating.values()) {
+            awaitLatch(done, deadline);
+        }
+    }
+
+    /**
+     * awaitLatch waits for the given latch until the given deadline, keeping the interrupt for the caller
+     *
+     * @throws AncestryGeneratingError occurs when the latch wasn't released by the deadline, or the wait was interrupted
+     */
+    private static void awaitLatch(CountDownLatch done, long deadline) throws AncestryGeneratingError {
+        try {
+            if(done.await(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new AncestryGeneratingError();
+    }
+
+    /**
+     * getExecutor provides the pool that generates the ancestors, creating it on the first call
+     */
+    private static synchronized ThreadPoolExecutor getExecutor() {
+        if(executor == null) {
+            int threads = Config.getAncestryThreads();
+            AtomicInteger count = new AtomicInteger();
+            executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Config.getAncestryQueue()), runnable -> {
+                Thread thread = new Thread(runnable, "ancestry-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+}
@@ -9,13 +9,16 @@
 
 package Service;
 
+import Cache.ReadReplica;
+import Cache.SessionCache;
+import Cache.SignedTokens;
+import Cache.TreeCache;
 import DataAccess.*;
+import Errors.AncestryGeneratingError;
 import Errors.DataAccessException;
 import Errors.InternalServerError;
 import Responses.Response;
 
-import java.sql.Connection;
-
 public class ClearService {
 
     /**
@@ -35,6 +38,8 @@ public class ClearService {
      *  The business logic for this service is as follows:
      *   - Delete all data from the database, including user accounts, auth tokens, and generated person and event data
      *
+     *  On the SQLite engine, an empty database file is swapped in for the live one instead of deleting every row
+     *
      * @return      The results of the clear operation are returned in the expected JSON format
      *
      *              The response body will look as follows upon successful operation:
@@ -51,25 +56,54 @@ public class ClearService {
      *                                          "message":"Description of message",
      *                                          "success":"false"   // Boolean identifier
      *                                      }
+     *                                      It is also thrown if the ancestors that are still being generated
+     *                                      weren't finished within the ancestry wait, or the cancelled fill jobs
+     *                                      didn't finish within the cancel wait
      */
     public static Response clear() throws InternalServerError, DataAccessException {
         System.out.println("The clear service was triggered!");
         Response response = new Response();
         db = new Database();
+//        Wait for the ancestors that are still being generated, so they aren't written after the clear
+        try {
+            AncestryJobs.awaitAll();
+        } catch (AncestryGeneratingError e) {
+            System.out.println("The clear service timed out waiting for the ancestors that are still being generated");
+            throw new InternalServerError();
+        }
+//        Cancel the fill jobs and wait for them, so they aren't committed after the clear
+        FillJobs.cancelAll();
+        if(Database.getStorageEngine() == StorageEngine.SQLITE) {
+            try {
+//                Swap an empty database file in for the live one
+                Snapshot.swapInEmpty();
+            } catch (DataAccessException e) {
+                System.out.println("The clear service failed to clear the database");
+                throw new InternalServerError();
+            } finally {
+                TreeCache.getInstance().invalidateAll();
+                SessionCache.getInstance().invalidateAll();
+                SignedTokens.getInstance().revokeAll();
+                ReadReplica.getInstance().recordGlobalWrite();
+            }
+            response.setMessage("Clear succeeded");
+            response.setSuccess(true);
+            return response;
+        }
         try {
 //            Open the database connection,
-//            Create UserDao, PersonDao, AuthTokenDao, and EventDao POJOs
+//            Get the User, Person, AuthToken, and Event stores
 //            Call the clear method in each of them
 //            Exit gracefully after everything is successfully cleared
-            Connection conn = db.openConnection();
-            UserDao uDao = new UserDao(conn);
-            uDao.clearUsers();
-            PersonDao pDao = new PersonDao(conn);
-            pDao.clearPersons();
-            AuthTokenDao aDao = new AuthTokenDao(conn);
-            aDao.clearAuthTokens();
-            EventDao eDao = new EventDao(conn);
-            eDao.clearEvents();
+            db.openConnection();
+            UserStore uStore = db.getUserStore();
+            uStore.clearUsers();
+            PersonStore pStore = db.getPersonStore();
+            pStore.clearPersons();
+            TokenStore aStore = db.getTokenStore();
+            aStore.clearAuthTokens();
+            EventStore eStore = db.getEventStore();
+            eStore.clearEvents();
             db.closeConnection(true);
         } catch (DataAccessException e) {
 //            If something goes wrong while clearing the database,
@@ -78,6 +112,11 @@ public class ClearService {
             db.closeConnection(false);
             throw new InternalServerError();
         }
+//        Every cached tree and session, and every signed auth token, is now stale
+        TreeCache.getInstance().invalidateAll();
+        SessionCache.getInstance().invalidateAll();
+        SignedTokens.getInstance().revokeAll();
+        ReadReplica.getInstance().recordGlobalWrite();
         response.setMessage("Clear succeeded");
         response.setSuccess(true);
         return response;
@@ -0,0 +1,285 @@
+/** The CredentialHasher class hashes and verifies passwords with PBKDF2, and runs the requests that do so on a pool of their own
+ *  A password hash is meant to be slow, so logins and registrations are kept off the thread that serves the cheap reads,
+ *  and only a bounded number of them may run or wait at once
+ *
+ *  The hashes work as follows:
+ *      A password is hashed with PBKDF2WithHmacSHA256 and a random salt of its own, and stored as
+ *      pbkdf2-sha256$[iterations]$[salt]$[hash] with the salt and hash in Base64
+ *      The iterations are read from the familymap.hash.iterations property, or calibrated once so a hash takes about
+ *      familymap.hash.targetMillis on this machine, so the cost keeps up with faster hardware
+ *      A hash that was stored with fewer iterations than are in use now, or with the MD5 hash that came before PBKDF2,
+ *      is still verified, and is replaced by a new hash at the next login
+ *
+ *  The requests work as follows:
+ *      Logins and registrations run on a bounded pool of daemon threads, and wait in a bounded queue when every thread is busy
+ *      A request that finds the queue full is refused instead of piling up
+ *      The passwords of a /load are hashed in slices on the same pool, one slice for every thread, with any slice that
+ *      doesn't fit the queue hashed by the load itself, so a bulk load never refuses its Users or starves the logins
+ *
+ *  The threads and queue are read from the familymap.hash.threads and familymap.hash.queue properties
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Service;
+
+import Errors.InternalServerError;
+import Errors.TooManyCredentialRequestsError;
+import Model.User;
+import Util.Config;
+import Util.RandomUtil;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CredentialHasher {
+
+    /**
+     * PREFIX starts every PBKDF2 hash, which tells it apart from the MD5 hashes that came before it
+     */
+    private static final String PREFIX = "pbkdf2-sha256";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    /**
+     * MIN_ITERATIONS is the fewest iterations that calibrating may choose, however slow this machine is
+     */
+    static final int MIN_ITERATIONS = 10000;
+    /**
+     * CALIBRATION_ITERATIONS is the number of iterations that are timed to calibrate the cost
+     */
+    private static final int CALIBRATION_ITERATIONS = 20000;
+    private static final int CALIBRATION_RUNS = 6;
+
+    private static final SecureRandom random = new SecureRandom();
+    /**
+     * executor runs the logins, registrations and slices of passwords, or is null before the first one
+     */
+    private static ThreadPoolExecutor executor;
+    /**
+     * calibratedIterations holds the iterations that were calibrated to the target time, or 0 before they were
+     */
+    private static volatile int calibratedIterations = 0;
+
+    /**
+     * Empty constructor marking the class for public use
+     */
+    public CredentialHasher() {}
+
+    /**
+     * execute runs the given login or registration on the credential pool, which finishes its request there
+     *
+     * @param request contains the request, which responds to its client itself
+     * @throws TooManyCredentialRequestsError occurs when every thread is busy and the queue is full
+     */
+    public static void execute(Runnable request) throws TooManyCredentialRequestsError {
+        try {
+            getExecutor().execute(request);
+        } catch (RejectedExecutionException e) {
+            System.out.println("Refused a credential request since the credential queue is full");
+            throw new TooManyCredentialRequestsError();
+        }
+    }
+
+    /**
+     * hash hashes the given password with a new salt and the iterations that are in use now, on the calling thread
+     *
+     * @param password contains the password in plaintext
+     * @return provides the hash to store, which includes its salt and iterations
+     */
+    public static String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        int iterations = getIterations();
+        byte[] hash = pbkdf2(password, salt, iterations);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + "$" + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    /**
+     * verify denotes whether the given password is the one the given stored hash was made from, on the calling thread
+     * The hashes are compared in constant time, so the comparison doesn't tell how much of a guess was right
+     *
+     * @param password contains the password in plaintext
+     * @param stored contains the stored hash, which is either a PBKDF2 hash or an MD5 hash from before PBKDF2
+     * @return provides true if the password matches
+     */
+    public static boolean verify(String password, String stored) {
+        if(password == null || stored == null) {
+            return false;
+        }
+        if(!stored.startsWith(PREFIX + "$")) {
+            String legacy = RandomUtil.generateHash(password);
+            return legacy != null && MessageDigest.isEqual(legacy.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.split("\\$");
+        if(parts.length != 4) {
+            return false;
+        }
+        try {
+            int iterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            return iterations > 0 && MessageDigest.isEqual(expected, pbkdf2(password, salt, iterations));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * needsRehash denotes whether the given stored hash is weaker than a new hash would be,
+     * either because it was stored with fewer iterations than are in use now or because it is an MD5 hash
+     *
+     * @param stored contains the stored hash
+     * @return provides true if the hash should be replaced once its password is known
+     */
+    public static boolean needsRehash(String stored) {
+        if(stored == null || !stored.startsWith(PREFIX + "$")) {
+            return true;
+        }
+        String[] parts = stored.split("\\$");
+        try {
+            return parts.length != 4 || Integer.parseInt(parts[1]) < getIterations();
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /**
+     * hashAll hashes the passwords of the given Users in place, in parallel on the credential pool
+     *
+     * Split the Users into a slice for every credential thread
+     * Queue every slice but the first, hashing any slice that doesn't fit the queue on the calling thread
+     * Hash the first slice on the calling thread while the others are hashed, then wait for them
+     *
+     * @param users contains the Users whose passwords are in plaintext
+     * @throws InternalServerError occurs when a slice failed or the wait was interrupted
+     */
+    public static void hashAll(List<User> users) throws InternalServerError {
+        if(users.isEmpty()) {
+            return;
+        }
+//        Split the Users into a slice for every credential thread
+        int slices = Math.min(users.size(), Config.getHashThreads() + 1);
+        int size = (users.size() + slices - 1) / slices;
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+//            Queue every slice but the first, hashing any slice that doesn't fit the queue on the calling thread
+            for(int start = size; start < users.size(); start += size) {
+                List<User> slice = users.subList(start, Math.min(users.size(), start + size));
+                try {
+                    futures.add(getExecutor().submit(() -> hashSlice(slice)));
+                } catch (RejectedExecutionException e) {
+                    hashSlice(slice);
+                }
+            }
+//            Hash the first slice on the calling thread while the others are hashed, then wait for them
+            hashSlice(users.subList(0, Math.min(users.size(), size)));
+            for(Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+            throw new InternalServerError();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalServerError();
+        }
+    }
+
+    /**
+     * hashSlice hashes the passwords of the given Users in place
+     */
+    private static void hashSlice(List<User> users) {
+        for(User user : users) {
+            user.setPassword(hash(user.getPassword()));
+        }
+    }
+
+    /**
+     * getIterations provides the iterations that new hashes are given, calibrating them on the first call if they aren't configured
+     *
+     * @return provides the number of iterations
+     */
+    public static int getIterations() {
+        int configured = Config.getHashIterations();
+        if(configured > 0) {
+            return configured;
+        }
+        if(calibratedIterations == 0) {
+            calibrate();
+        }
+        return calibratedIterations;
+    }
+
+    /**
+     * calibrate times a hash with a known number of iterations, and scales the iterations so a hash takes the target time
+     * The hash is timed several times and the fastest time is kept, since the first runs are slowed down by the warm up
+     * of the JVM and would lower the cost
+     */
+    private static synchronized void calibrate() {
+        if(calibratedIterations != 0) {
+            return;
+        }
+        byte[] salt = new byte[SALT_BYTES];
+        long best = Long.MAX_VALUE;
+        for(int i = 0; i < CALIBRATION_RUNS; i++) {
+            long start = System.nanoTime();
+            pbkdf2("calibration", salt, CALIBRATION_ITERATIONS);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        long target = TimeUnit.MILLISECONDS.toNanos(Config.getHashTargetMillis());
+        long iterations = CALIBRATION_ITERATIONS * target / Math.max(1, best);
+        calibratedIterations = (int) Math.max(MIN_ITERATIONS, Math.min(Integer.MAX_VALUE, iterations));
+        System.out.println("Calibrated password hashes to " + calibratedIterations + " PBKDF2 iterations, about " +
+                Config.getHashTargetMillis() + " ms each");
+    }
+
+    /**
+     * pbkdf2 derives the hash of the given password with the given salt and iterations
+     */
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+//            Every Java 8 runtime has PBKDF2WithHmacSHA256, so this can't happen on a supported runtime
+            throw new IllegalStateException(e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    /**
+     * getExecutor provides the pool that runs the credential work, creating it on the first call
+     */
+    private static synchronized ThreadPoolExecutor getExecutor() {
+        if(executor == null) {
+            int threads = Config.getHashThreads();
+            AtomicInteger count = new AtomicInteger();
+            executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Config.getHashQueue()), runnable -> {
+                Thread thread = new Thread(runnable, "credential-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+}
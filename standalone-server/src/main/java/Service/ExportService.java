@@ -0,0 +1,262 @@
+/** The ExportService class contains an export method which performs the business logic
+ *  for exporting the whole tree of the current user as newline-delimited JSON
+ *
+ *  Exporting lets a large tree be pulled back out of the server, which /person and /event can't do since they build
+ *  every row into a single response in memory
+ *
+ *  The export works as follows:
+ *      Exports are streamed on a bounded pool of daemon threads of their own, so a slow client never holds up the
+ *      server's dispatcher, and an export that finds the queue full is refused instead of piling up
+ *      The rows are read a page at a time in order of their IDs, each page on a short transaction of its own, and the page
+ *      is written to the client after its transaction is closed, so a slow client never holds the database open
+ *      A /fill, /load or /clear replaces the whole tree, so an export whose User's root Person changed between pages
+ *      is stopped without its closing line rather than mixing the old tree with the new one
+ *
+ *  The threads, queue and page size are read from the familymap.export.threads, familymap.export.queue and
+ *  familymap.export.pageSize properties
+ *
+ *  Every line of an export is a single record, which is loaded again by posting the export to /load as application/x-ndjson:
+ *      {"user":{...}}      The User, without its password or the passwordHash it was stored with
+ *      {"person":{...}}    A Person of the User's tree, once for every Person
+ *      {"event":{...}}     An Event of the User's tree, once for every Event
+ *      {"end":{...}}       The counts of the export, which is always the last line, so an export without it was cut off
+ *
+ *  Anyone holding the User's authToken can export, so the stored hash of the password is left out by default
+ *  A server started with familymap.export.passwordHash exports it, so an export can be loaded back with the same password,
+ *  while the User of an export without it needs a password added before the export is loaded
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Service;
+
+import Cache.Principal;
+import Cache.SessionCache;
+import DataAccess.Database;
+import Errors.AncestryGeneratingError;
+import Errors.DataAccessException;
+import Errors.InvalidAuthTokenError;
+import Errors.TooManyExportRequestsError;
+import Model.Event;
+import Model.Person;
+import Model.User;
+import Util.Config;
+import Util.JsonUtil;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ExportService {
+
+    /**
+     * The PageReader interface describes the read of one page that is made on a page's transaction
+     */
+    private interface PageReader<T> {
+        ArrayList<T> read(Database db) throws DataAccessException;
+    }
+
+    /**
+     * executor streams the exports, or is null before the first one
+     */
+    private static ThreadPoolExecutor executor;
+
+    /**
+     * Empty constructor marking the class for public use
+     */
+    public ExportService() {}
+
+    /**
+     * execute runs the given export on the export pool, which finishes its request there
+     *
+     * @param export contains the export, which responds to its client itself
+     * @throws TooManyExportRequestsError occurs when every thread is busy and the queue is full
+     */
+    public static void execute(Runnable export) throws TooManyExportRequestsError {
+        try {
+            getExecutor().execute(export);
+        } catch (RejectedExecutionException e) {
+            System.out.println("Refused an export since the export queue is full");
+            throw new TooManyExportRequestsError();
+        }
+    }
+
+    /**
+     * authorize checks the given authToken before an export starts, since the response can't report an error once it is streaming
+     *
+     * The authToken is resolved through the SessionCache
+     * If the authToken doesn't belong to any User, send an error response to the client
+     * Report the User's ancestors if they are still being generated
+     *
+     * @param authToken contains the authToken that was sent with the request
+     * @return provides the Principal of the User whose tree is exported
+     * @throws InvalidAuthTokenError occurs when the authToken doesn't belong to any User
+     * @throws AncestryGeneratingError occurs when the User's ancestors are still being generated
+     * @throws DataAccessException occurs when something went wrong while accessing the database
+     */
+    public static Principal authorize(String authToken) throws InvalidAuthTokenError, AncestryGeneratingError, DataAccessException {
+//        The authToken is resolved through the SessionCache
+        Principal principal = authToken != null ? SessionCache.getInstance().resolve(authToken) : null;
+        if(principal == null) {
+//            If the authToken doesn't belong to any User, send an error response to the client
+            throw new InvalidAuthTokenError();
+        }
+//        Report the User's ancestors if they are still being generated
+        AncestryJobs.checkGenerated(principal.getUsername());
+        return principal;
+    }
+
+    /** The export method performs the business logic for exporting the tree of the authorized User
+     *  The method is called on the export pool once the authToken of an export request was authorized
+     *
+     *  The business logic for this service is as follows:
+     *   - Read the User and the personID of its current root on a short transaction of their own
+     *   - Write the User's line without the password, carrying the hash of the password only if the server exports it,
+     *     and the personID of its current root
+     *   - Read every Person of the User a page at a time in order of personID, and write each page once its transaction is closed
+     *   - Read every Event of the User a page at a time in order of eventID, and write each page once its transaction is closed
+     *   - Write the closing line with the counts of the export
+     *
+     * @param principal contains the Principal that was provided by authorize
+     * @param out       receives the lines of the export, and is flushed but not closed
+     * @return          provides a message describing what was exported
+     * @throws DataAccessException occurs when something went wrong while reading the database, or the tree was replaced
+     *                             while it was being exported
+     * @throws IOException occurs when the export couldn't be written, such as when the client hung up
+     */
+    public static String export(Principal principal, Writer out) throws DataAccessException, IOException {
+        String username = principal.getUsername();
+        String userID = principal.getUserID();
+        System.out.println("Exporting the tree of " + username + " . . . ");
+        Gson gson = JsonUtil.getGson();
+        int pageSize = Config.getExportPageSize();
+        User user;
+        String rootID;
+        Database db = new Database();
+        try {
+//            Read the User and the personID of its current root on a short transaction of their own
+            db.openConnection();
+            user = db.getUserStore().getUser(userID);
+            rootID = db.getPersonStore().getPersonIDByUserID(userID);
+            db.closeConnection(true);
+        } catch (DataAccessException e) {
+            db.closeConnection(false);
+            throw e;
+        }
+        if(user != null) {
+//            Write the User's line without the password, carrying the hash of the password only if the server exports it
+            if(Config.isExportPasswordHash()) {
+                user.setPasswordHash(user.getPassword());
+            }
+            user.setPassword(null);
+//            A fill replaces the User's Person, so the User is exported with the Person it is attached to now
+            if(rootID != null) {
+                user.setPersonID(rootID);
+            }
+            writeLine(out, gson, "user", user, User.class);
+        }
+//        Read every Person of the User a page at a time in order of personID, and write each page once its transaction is closed
+        long persons = 0;
+        String afterID = "";
+        while(true) {
+            String after = afterID;
+            ArrayList<Person> page = readPage(userID, rootID, pageDb -> pageDb.getPersonStore().getPersonsPage(username, after, pageSize));
+            for(Person person : page) {
+                writeLine(out, gson, "person", person, Person.class);
+            }
+            persons += page.size();
+            if(page.size() < pageSize) {
+                break;
+            }
+            afterID = page.get(page.size() - 1).getPersonID();
+        }
+//        Read every Event of the User a page at a time in order of eventID, and write each page once its transaction is closed
+        long events = 0;
+        afterID = "";
+        while(true) {
+            String after = afterID;
+            ArrayList<Event> page = readPage(userID, rootID, pageDb -> pageDb.getEventStore().getEventsPage(username, after, pageSize));
+            for(Event event : page) {
+                writeLine(out, gson, "event", event, Event.class);
+            }
+            events += page.size();
+            if(page.size() < pageSize) {
+                break;
+            }
+            afterID = page.get(page.size() - 1).getEventID();
+        }
+//        Write the closing line with the counts of the export
+        JsonObject end = new JsonObject();
+        end.addProperty("persons", persons);
+        end.addProperty("events", events);
+        writeLine(out, gson, "end", end, JsonObject.class);
+        out.flush();
+        String message = "Exported " + persons + " persons and " + events + " events of " + username;
+        System.out.println(message);
+        return message;
+    }
+
+    /**
+     * readPage reads one page of the export on a short transaction of its own
+     * A /fill, /load or /clear replaces the whole tree along with the User's root Person, so the page is refused once the
+     * root isn't the one the export started with, rather than mixing the old tree with the new one
+     *
+     * @param userID contains the userID of the User whose tree is exported
+     * @param rootID contains the personID of the User's root when the export started
+     * @param reader reads the page
+     * @return provides the page
+     * @throws DataAccessException occurs when the page couldn't be read, or the tree was replaced
+     */
+    private static <T> ArrayList<T> readPage(String userID, String rootID, PageReader<T> reader) throws DataAccessException {
+        Database db = new Database();
+        try {
+            db.openConnection();
+            if(!Objects.equals(rootID, db.getPersonStore().getPersonIDByUserID(userID))) {
+                throw new DataAccessException("The tree was replaced while it was being exported");
+            }
+            ArrayList<T> page = reader.read(db);
+            db.closeConnection(true);
+            return page;
+        } catch (DataAccessException e) {
+            db.closeConnection(false);
+            throw e;
+        }
+    }
+
+    /**
+     * writeLine writes the given record as a line of the export, wrapped in an object under the given name
+     */
+    private static <T> void writeLine(Writer out, Gson gson, String name, T record, Class<T> type) throws IOException {
+        out.write("{\"");
+        out.write(name);
+        out.write("\":");
+        gson.toJson(record, type, out);
+        out.write("}\n");
+    }
+
+    /**
+     * getExecutor provides the pool that streams the exports, creating it on the first call
+     */
+    private static synchronized ThreadPoolExecutor getExecutor() {
+        if(executor == null) {
+            int threads = Config.getExportThreads();
+            AtomicInteger count = new AtomicInteger();
+            executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Config.getExportQueue()), runnable -> {
+                Thread thread = new Thread(runnable, "export-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+}
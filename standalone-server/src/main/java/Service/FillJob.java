@@ -0,0 +1,224 @@
+/** The FillJob class holds the state and progress of a fill that runs in the background
+ *  It is created by FillJobs when an asynchronous fill is accepted, and updated by the fill as it goes
+ *
+ *  A job goes through the following statuses:
+ *      queued      the job is waiting for a free fill thread
+ *      generating  the tree is being generated in memory
+ *      writing     the Persons and Events are being written, in chunks, on the fill's single transaction
+ *      succeeded   the fill committed
+ *      failed      the fill rolled back because of an error
+ *      cancelled   the fill was cancelled, and rolled back if it had started writing
+ *  The written counts cover the uncommitted transaction, so none of them are visible to other requests until the job succeeds
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Service;
+
+import Errors.DataAccessException;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class FillJob {
+
+    public static final String QUEUED = "queued";
+    public static final String GENERATING = "generating";
+    public static final String WRITING = "writing";
+    public static final String SUCCEEDED = "succeeded";
+    public static final String FAILED = "failed";
+    public static final String CANCELLED = "cancelled";
+
+    private final String jobID;
+    private final String username;
+    private final String generations;
+    private final String seed;
+    private final String mode;
+
+    private String status = QUEUED;
+    private String message;
+    private long finishedAt = 0;
+    private volatile boolean cancelRequested = false;
+    private Future<?> future;
+
+    private final AtomicLong totalPersons = new AtomicLong();
+    private final AtomicLong totalEvents = new AtomicLong();
+    private final AtomicLong personsWritten = new AtomicLong();
+    private final AtomicLong eventsWritten = new AtomicLong();
+
+    /**
+     * The constructor creates a queued FillJob for the given fill
+     * @param jobID contains the ID that the job is looked up by
+     * @param username contains the username to be filled
+     * @param generations contains the number of generations to be filled
+     * @param seed contains the seed of the fill, or null
+     * @param mode contains the mode of the fill, or null
+     */
+    FillJob(String jobID, String username, String generations, String seed, String mode) {
+        this.jobID = jobID;
+        this.username = username;
+        this.generations = generations;
+        this.seed = seed;
+        this.mode = mode;
+    }
+
+    /**
+     * start moves the job from queued to generating, unless it was cancelled while it was queued
+     * @return provides true if the fill should run
+     */
+    synchronized boolean start() {
+        if(!QUEUED.equals(status)) {
+            return false;
+        }
+        status = GENERATING;
+        return true;
+    }
+
+    /**
+     * generated records the size of the generated tree, including the root Person and his birth Event, and moves the job to writing
+     * @param persons contains the number of Persons that will be written
+     * @param events contains the number of Events that will be written
+     */
+    synchronized void generated(long persons, long events) {
+        totalPersons.set(persons);
+        totalEvents.set(events);
+        if(GENERATING.equals(status)) {
+            status = WRITING;
+        }
+    }
+
+    /**
+     * wrote adds the given numbers of Persons and Events to the written counts
+     * @param persons contains the number of Persons that were just written
+     * @param events contains the number of Events that were just written
+     */
+    void wrote(long persons, long events) {
+        personsWritten.addAndGet(persons);
+        eventsWritten.addAndGet(events);
+    }
+
+    /**
+     * checkCancelled stops the fill if the job was cancelled, which rolls back everything it wrote
+     * @throws DataAccessException occurs when the job was cancelled
+     */
+    void checkCancelled() throws DataAccessException {
+        if(cancelRequested) {
+            throw new DataAccessException("The fill job " + jobID + " was cancelled");
+        }
+    }
+
+    /**
+     * finish records the outcome of the fill
+     * @param status contains SUCCEEDED, FAILED or CANCELLED
+     * @param message contains the message of the fill's Response, or the error that stopped it
+     */
+    synchronized void finish(String status, String message) {
+        this.status = status;
+        this.message = message;
+        this.finishedAt = System.currentTimeMillis();
+        notifyAll();
+    }
+
+    /**
+     * awaitFinished waits for the job to finish until the given deadline, keeping the interrupt for the caller
+     * @param deadline contains the time in milliseconds to stop waiting at
+     * @return provides true if the job finished by the deadline
+     */
+    synchronized boolean awaitFinished(long deadline) {
+        long remaining;
+        while(!isFinished() && (remaining = deadline - System.currentTimeMillis()) > 0) {
+            try {
+                wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return isFinished();
+    }
+
+    /**
+     * cancel asks the job to stop
+     * A queued job is cancelled right away, and a running job rolls back at its next check
+     *
+     * @return provides false if the job had already finished
+     */
+    synchronized boolean cancel() {
+        if(isFinished()) {
+            return false;
+        }
+        cancelRequested = true;
+        if(QUEUED.equals(status)) {
+            if(future != null) {
+                future.cancel(false);
+            }
+            finish(CANCELLED, "The fill job was cancelled before it started");
+        }
+        return true;
+    }
+
+    /**
+     * isFinished denotes whether the job succeeded, failed or was cancelled
+     * @return provides true if the job is finished
+     */
+    public synchronized boolean isFinished() {
+        return SUCCEEDED.equals(status) || FAILED.equals(status) || CANCELLED.equals(status);
+    }
+
+    synchronized void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    synchronized long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getJobID() {
+        return jobID;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getGenerations() {
+        return generations;
+    }
+
+    public String getSeed() {
+        return seed;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public synchronized String getStatus() {
+        return status;
+    }
+
+    public synchronized String getMessage() {
+        return message;
+    }
+
+    public long getTotalPersons() {
+        return totalPersons.get();
+    }
+
+    public long getTotalEvents() {
+        return totalEvents.get();
+    }
+
+    public long getPersonsWritten() {
+        return personsWritten.get();
+    }
+
+    public long getEventsWritten() {
+        return eventsWritten.get();
+    }
+}
@@ -0,0 +1,213 @@
+/** The FillJobs class runs asynchronous fills in the background and keeps track of them by jobID
+ *  It keeps a deep fill from holding an HTTP exchange, and a server thread, open for the whole fill
+ *
+ *  The jobs work as follows:
+ *      A fill is validated before it is accepted, so a bad request still fails right away
+ *      Accepted fills run on a bounded pool of daemon threads, and wait in a bounded queue when every thread is busy
+ *      A fill that finds the queue full is refused instead of piling up
+ *      Each job reports its status and the Persons and Events it has written so far, and can be cancelled
+ *      A /clear or /load cancels every job that hasn't finished and waits for them, so no fill commits on top of it
+ *      Finished jobs can be looked up until their retention runs out, and are forgotten after that
+ *
+ *  The threads, queue and retention are read from the familymap.fill.jobs.threads, familymap.fill.jobs.queue
+ *  and familymap.fill.jobs.retentionSeconds properties
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Service;
+
+import Errors.AncestryGeneratingError;
+import Errors.DataAccessException;
+import Errors.InternalServerError;
+import Errors.InvalidGenerationsError;
+import Errors.InvalidJobIDError;
+import Errors.InvalidModeError;
+import Errors.InvalidSeedError;
+import Errors.InvalidUsernameError;
+import Errors.TooManyFillJobsError;
+import Responses.Response;
+import Util.Config;
+import Util.RandomUtil;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FillJobs {
+
+    /**
+     * executor runs the fill jobs, or is null before the first job is submitted
+     */
+    private static ThreadPoolExecutor executor;
+    /**
+     * jobs holds every job that is running, waiting, or finished within its retention, by jobID
+     */
+    private static final ConcurrentHashMap<String, FillJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Empty constructor marking the class for public use
+     */
+    public FillJobs() {}
+
+    /**
+     * submit validates the given fill and queues it as a job
+     *
+     * Validate the fill, so a bad request fails before it is accepted
+     * Forget the finished jobs whose retention ran out
+     * Queue the job, or refuse it if the queue is full
+     *
+     * @param generations contains the number of generations to be filled
+     * @param username contains the username to be filled
+     * @param seed contains the seed of the fill, or null
+     * @param mode contains the mode of the fill, or null
+     * @return provides the queued FillJob
+     * @throws TooManyFillJobsError occurs when every thread is busy and the queue is full
+     */
+    public static FillJob submit(String generations, String username, String seed, String mode) throws InvalidUsernameError,
+            InvalidGenerationsError, InvalidSeedError, InvalidModeError, TooManyFillJobsError, DataAccessException {
+//        Validate the fill, so a bad request fails before it is accepted
+        FillService.validateInput(generations, username);
+        if(seed != null) {
+            FillService.parseSeed(seed);
+        }
+        FillService.isExtend(mode);
+//        Forget the finished jobs whose retention ran out
+        purge(System.currentTimeMillis());
+//        Queue the job, or refuse it if the queue is full
+        FillJob job = new FillJob(RandomUtil.generateAuthKey(), username, generations, seed, mode);
+        jobs.put(job.getJobID(), job);
+        try {
+            job.setFuture(getExecutor().submit(() -> run(job)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getJobID());
+            System.out.println("Refused a fill job for " + username + " since the fill job queue is full");
+            throw new TooManyFillJobsError();
+        }
+        System.out.println("Queued fill job " + job.getJobID() + " for " + username);
+        return job;
+    }
+
+    /**
+     * run runs the fill of the given job and records how it ended
+     */
+    private static void run(FillJob job) {
+        if(!job.start()) {
+            return;
+        }
+        System.out.println("Running fill job " + job.getJobID());
+        try {
+            Response response = FillService.fill(job.getGenerations(), job.getUsername(), job.getSeed(), job.getMode(), job);
+            job.finish(FillJob.SUCCEEDED, response.getMessage());
+        } catch (InvalidUsernameError | InvalidGenerationsError | InvalidSeedError | InvalidModeError | InternalServerError |
+                AncestryGeneratingError | DataAccessException | RuntimeException e) {
+            if(job.isCancelRequested()) {
+                job.finish(FillJob.CANCELLED, "The fill job was cancelled and nothing was written");
+            } else {
+                e.printStackTrace();
+                job.finish(FillJob.FAILED, e.getMessage());
+            }
+        }
+        System.out.println("Fill job " + job.getJobID() + " " + job.getStatus());
+    }
+
+    /**
+     * getJob provides the job with the given jobID
+     *
+     * @param jobID contains the jobID that was returned when the job was submitted
+     * @return provides the FillJob
+     * @throws InvalidJobIDError occurs when there is no such job, or it finished longer ago than its retention
+     */
+    public static FillJob getJob(String jobID) throws InvalidJobIDError {
+        purge(System.currentTimeMillis());
+        FillJob job = jobID == null ? null : jobs.get(jobID);
+        if(job == null) {
+            throw new InvalidJobIDError();
+        }
+        return job;
+    }
+
+    /**
+     * cancel cancels the job with the given jobID
+     * A waiting job is cancelled right away, and a running job rolls back everything it wrote at its next check
+     *
+     * @param jobID contains the jobID that was returned when the job was submitted
+     * @return provides the FillJob
+     * @throws InvalidJobIDError occurs when there is no such job, or it finished longer ago than its retention
+     */
+    public static FillJob cancel(String jobID) throws InvalidJobIDError {
+        FillJob job = getJob(jobID);
+        if(job.cancel()) {
+            System.out.println("Cancelling fill job " + jobID);
+//            A job that was cancelled while waiting shouldn't keep its place in the queue
+            removeCancelled();
+        }
+        return job;
+    }
+
+    /**
+     * cancelAll cancels every job that is waiting or running, and waits for the running ones to roll back
+     * A /clear or /load calls it before it writes, so a fill can't commit its tree over the cleared or loaded data
+     * A running job that already passed its last check commits before it finishes, and is then written over by the caller
+     *
+     * @throws InternalServerError occurs when the jobs didn't all finish within the cancel wait
+     */
+    public static void cancelAll() throws InternalServerError {
+        long deadline = System.currentTimeMillis() + Config.getFillJobCancelWaitMillis();
+        boolean cancelled = false;
+        for(FillJob job : jobs.values()) {
+            if(job.cancel()) {
+                System.out.println("Cancelling fill job " + job.getJobID());
+                cancelled = true;
+            }
+        }
+        if(cancelled) {
+//            The jobs that were cancelled while waiting shouldn't keep their places in the queue
+            removeCancelled();
+        }
+        for(FillJob job : jobs.values()) {
+            if(!job.awaitFinished(deadline)) {
+                System.out.println("Fill job " + job.getJobID() + " didn't finish within the cancel wait");
+                throw new InternalServerError();
+            }
+        }
+    }
+
+    /**
+     * purge forgets every finished job whose retention ran out at the given time
+     */
+    private static void purge(long now) {
+        long retention = Config.getFillJobRetentionMillis();
+        jobs.values().removeIf(job -> job.isFinished() && now - job.getFinishedAt() > retention);
+    }
+
+    /**
+     * removeCancelled removes the jobs that were cancelled while waiting from the queue
+     */
+    private static synchronized void removeCancelled() {
+        if(executor != null) {
+            executor.purge();
+        }
+    }
+
+    /**
+     * getExecutor provides the pool that runs the jobs, creating it on the first call
+     */
+    private static synchronized ThreadPoolExecutor getExecutor() {
+        if(executor == null) {
+            int threads = Config.getFillJobThreads();
+            AtomicInteger count = new AtomicInteger();
+            executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Config.getFillJobQueue()), runnable -> {
+                Thread thread = new Thread(runnable, "fill-job-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+}
@@ -11,60 +11,42 @@
 
 package Service;
 
+import Cache.ReadReplica;
+import Cache.SessionCache;
+import Cache.TreeCache;
 import DataAccess.Database;
-import DataAccess.EventDao;
-import DataAccess.PersonDao;
-import DataAccess.UserDao;
+import DataAccess.EventStore;
+import DataAccess.LeafPerson;
+import DataAccess.PersonStore;
+import DataAccess.UserStore;
+import Errors.AncestryGeneratingError;
 import Errors.DataAccessException;
 import Errors.InternalServerError;
 import Errors.InvalidGenerationsError;
+import Errors.InvalidModeError;
+import Errors.InvalidSeedError;
 import Errors.InvalidUsernameError;
 import Model.Event;
 import Model.Person;
 import Responses.Response;
-import Util.JsonUtil;
-import com.google.gson.JsonObject;
+import Util.RandomUtil;
 
-import java.sql.Connection;
-import java.util.Random;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 public class FillService extends Service {
 
     /**
-     * The db variable contains a Database instance which allows for data access to the persistent SQLite database
+     * WRITE_CHUNK is the number of rows inserted per batch, after which a fill job reports its progress
      */
-    private static Database db;
-    /**
-     * totalPersons contains a count of the total number of Persons added to the database during the fill operation
-     */
-    private static int totalPersons;
-    /**
-     * totalEvents contains a count of the total number of Events added to the database during the fill operation
-     */
-    private static int totalEvents;
+    private static final int WRITE_CHUNK = 10000;
 
     /**
      * Empty constructor
      */
     public FillService() {}
 
-    /**
-     * getTotalPersons is a getter to provide the totalPersons private variable
-     * @return provides the totalPersons count for the total number of Persons added in the fill operation
-     */
-    public static int getTotalPersons() {
-        return totalPersons;
-    }
-
-    /**
-     * getTotalEvents is a getter to provide the totalEvents private variable
-     * @return provides the totalEvents count for the total number of Events added in the fill operation
-     */
-    public static int getTotalEvents() {
-        return totalEvents;
-    }
-
     /** The fill method performs the business logic for populating Person and Event information
      *  The method is called when the Fill endpoint is hit by a request from the client or other classes in the server
      *
@@ -88,6 +70,8 @@ public class FillService extends Service {
      * @throws Errors.InvalidUsernameError      Throws an invalid username/password error if the provided username/password could not be found
      * @throws Errors.InvalidGenerationsError   Throws an invalid generations error if the number of generations requested is outside of an acceptable range
      * @throws Errors.InternalServerError       Throws an internal server error if the server has problems executing the operation
+     * @throws Errors.AncestryGeneratingError   Throws an ancestry generating error if the User's ancestors from registering
+     *                                          weren't finished within the ancestry wait
      *
      *                          The response body will look as follows upon a failed operation:
      *                          {
@@ -96,74 +80,124 @@ public class FillService extends Service {
      *                          }
      *
      */
-    public static Response fill(String generations, String username) throws InvalidUsernameError, InvalidGenerationsError, InternalServerError, DataAccessException  {
+    public static Response fill(String generations, String username) throws InvalidUsernameError, InvalidGenerationsError, InternalServerError, AncestryGeneratingError, DataAccessException  {
+        try {
+            return fill(generations, username, null);
+        } catch (InvalidSeedError e) {
+//            A fill without a seed can't have an invalid seed
+            throw new InternalServerError();
+        }
+    }
+
+    /**
+     * fill performs the same fill as above, drawing the generated names, years and locations from the given seed
+     * Two fills with the same seed add the same tree, apart from the personIDs and eventIDs
+     *
+     * @param generations contains the number of generations to be populated
+     * @param username contains the username for the currently authenticated User
+     * @param seed contains the seed as a whole number, or null to generate a different tree every time
+     * @return provides the same Response as the fill above
+     * @throws InvalidSeedError occurs when the seed isn't a whole number
+     */
+    public static Response fill(String generations, String username, String seed)
+            throws InvalidUsernameError, InvalidGenerationsError, InvalidSeedError, InternalServerError, AncestryGeneratingError, DataAccessException  {
+        try {
+            return fill(generations, username, seed, null, null);
+        } catch (InvalidModeError e) {
+//            A fill without a mode can't have an invalid mode
+            throw new InternalServerError();
+        }
+    }
+
+    /**
+     * fill performs the same fill as above in the given mode
+     * The overwrite mode replaces the User's whole tree, which is what every fill used to do
+     * The extend mode keeps the User's tree and adds the given number of generations on top of its leaf Persons,
+     * so its cost only depends on the number of new rows
+     *
+     * @param mode contains overwrite, extend, or null for overwrite
+     * @throws InvalidModeError occurs when the mode is neither overwrite nor extend
+     */
+    public static Response fill(String generations, String username, String seed, String mode) throws InvalidUsernameError,
+            InvalidGenerationsError, InvalidSeedError, InvalidModeError, InternalServerError, AncestryGeneratingError, DataAccessException  {
+        return fill(generations, username, seed, mode, null);
+    }
+
+    /**
+     * fill performs the same fill as above, reporting its progress to the given FillJob
+     * The job is checked for cancellation between the steps of the fill, and a cancelled fill rolls back everything it wrote
+     *
+     * @param job contains the FillJob running this fill, or null if the fill isn't running as a job
+     */
+    static Response fill(String generations, String username, String seed, String mode, FillJob job) throws InvalidUsernameError,
+            InvalidGenerationsError, InvalidSeedError, InvalidModeError, InternalServerError, AncestryGeneratingError, DataAccessException  {
 //        The overwrite variable is an artifact of a troubleshooting process
 //        This also will allow me to tweak the Server code based on whether I want to overwrite the original Person or not
 //        I want this to be an option in the future because I would prefer to not overwrite the original Person created at registration
         boolean overwrite = true;
 //        Create the Response POJO and Database variables
         Response response = new Response();
-        db = new Database();
+        Database db = new Database();
 //        If the given input is invalid, validateInput will throw an error send response to the client
         validateInput(generations, username);
+        boolean extend = isExtend(mode);
+//        Wait for the ancestors generated at registration, so they aren't written on top of this fill
+//        If they take longer than the ancestry wait, the fill is refused instead
+        AncestryJobs.await(username);
+        TreeGenerator tree = createGenerator(seed);
 //        Initialize the variables that will be the roots of the fill operation to be built upon
         int birthYear = -1;
         Person person = null;
-        totalPersons = 0;
-        totalEvents = 0;
+        int rootPersons = 0;
+        int rootEvents = 0;
         try {
 //            Open the database connection
-            Connection conn = db.openConnection();
-//            Create the PersonDao POJO
-            PersonDao pDao = new PersonDao(conn);
-//            Clear the Person table of all Persons that are associated with the given username
-            pDao.clearPersonByUsername(username, overwrite);
-            String rootPersonID = null;
-            if(overwrite) {
-//                If the overwrite artifact is true, I want ot overwrite the rootPerson that was originally created when the User registered
-                rootPersonID = UUID.randomUUID().toString();
-                person = new Person(
-                        rootPersonID,
-                        username,
-                        getRandomFirstName("m"),
-                        getRandomLastName(),
-                        "m",
-                        UUID.randomUUID().toString(),
-                        UUID.randomUUID().toString(),
-                        UUID.randomUUID().toString()
-                );
-//            Insert the newly created Person and increment the persons counter
-                pDao.insertPerson(person);
-                totalPersons++;
-//                Generate a location randomly from the locations assets
-//                Then fill in data for the event
-                JsonObject birthLocation = JsonUtil.getJsonFile("json/locations.json")
-                        .getAsJsonArray("data")
-                        .get((int) (977 * Math.random()))
-                        .getAsJsonObject();
-                Event birth = new Event();
-                birth.setEventID(UUID.randomUUID().toString());
-                birth.setAssociatedUsername(username);
-                birth.setLatitude(birthLocation.get("latitude").getAsLong());
-                birth.setLongitude(birthLocation.get("longitude").getAsLong());
-                birth.setCountry(birthLocation.get("country").toString());
-                birth.setCity(birthLocation.get("city").toString());
-                birth.setEventType("birth");
-                birth.setYear(2020);
-                birth.setPersonID(rootPersonID);
-                EventDao eDao = new EventDao(conn);
-//                Insert the Event to the database then increment the totalEvents counter
-                eDao.insertEvent(birth);
-                totalEvents++;
+            db.openConnection();
+            if(extend) {
+//                An extending fill keeps the whole tree, and generates the new generations on top of its leaf Persons
+                if(!extendLeaves(db, tree, username, Integer.parseInt(generations))) {
+                    db.closeConnection(false);
+                    throw new InvalidGenerationsError();
+                }
             } else {
-//                If the overwrite boolean is false, preserve the original root Person
-                rootPersonID = pDao.getRootPersonIDByUsername(username);
-                person = pDao.getPerson(rootPersonID);
+//                Create the PersonDao POJO
+                PersonStore pStore = db.getPersonStore();
+//                Clear the Person table of all Persons that are associated with the given username
+                pStore.clearPersonByUsername(username, overwrite);
+                String rootPersonID = null;
+                if(overwrite) {
+//                    If the overwrite artifact is true, I want ot overwrite the rootPerson that was originally created when the User registered
+//                    The root Person and his birth Event are drawn from the fill's TreeGenerator, so a seeded fill is the same from the root up
+                    Event birth = new Event();
+                    person = tree.generateRoot(username, 2020, birth);
+                    rootPersonID = person.getPersonID();
+//                Insert the newly created Person and increment the persons counter
+                    pStore.addPerson(person);
+                    rootPersons++;
+//                    The new root is attached to the User, so a login or an export finds it the way it found the one it replaced
+                    pStore.attachUserID(db.getUserStore().getUserID(username), username);
+                    EventStore eStore = db.getEventStore();
+//                    Insert the Event to the database then increment the events counter
+                    eStore.insertEvent(birth);
+                    rootEvents++;
+                } else {
+//                    If the overwrite boolean is false, preserve the original root Person
+                    rootPersonID = pStore.getRootPersonIDByUsername(username);
+                    person = pStore.getPerson(rootPersonID);
+                }
+//                Create a new EventDao POJO and clear all Events from the database that are associated with the given username
+                EventStore eStore = db.getEventStore();
+                eStore.clearEventByUsername(username, rootPersonID);
+                birthYear = eStore.getBirthYearByPersonID(rootPersonID);
+//                Generate the ancestors of the root Person in memory and write them in the same transaction
+                tree.generate(person, birthYear, Integer.parseInt(generations));
+            }
+            if(job != null) {
+                job.checkCancelled();
+                job.generated(rootPersons + tree.getPersons().size(), rootEvents + tree.getEvents().size());
+                job.wrote(rootPersons, rootEvents);
             }
-//            Create a new EventDao POJO and clear all Events from the database that are associated with the given username
-            EventDao eDao = new EventDao(conn);
-            eDao.clearEventByUsername(username, rootPersonID);
-            birthYear = eDao.getBirthYearByPersonID(rootPersonID);
+            writeAncestors(db, tree, job);
 //            Close the database
             db.closeConnection(true);
         } catch (DataAccessException e) {
@@ -171,237 +205,178 @@ public class FillService extends Service {
             db.closeConnection(false);
             System.out.println("Something went wrong while accessing data in the Fill method");
             throw new DataAccessException(e.getMessage());
+        } catch (RuntimeException e) {
+//            A tree that couldn't be generated rolls back, so the connection and its write lock aren't left open
+            db.closeConnection(false);
+            e.printStackTrace();
+            System.out.println("Something went wrong while generating the tree in the Fill method");
+            throw new InternalServerError();
+        } finally {
+//            The username's cached tree and sessions are stale once the fill has written anything, even if it failed
+//            The sessions hold the root personID, which the fill replaces
+            TreeCache.getInstance().invalidate(username);
+            SessionCache.getInstance().invalidateUsername(username);
+            ReadReplica.getInstance().recordWrite(username);
         }
-
-//        Call the recursive fillHelper and pass in the number of generations to be recursed,
-//        a new root node Person for the recursion,
-//        and the root node Person's birthYear to calculate all the following nodes' birth, death, and marriage years
-        fillHelper(Integer.parseInt(generations), person, birthYear);
-//        Set response message, reset the total counts, set the success status, and return the successful response
-        response.setMessage("Successfully added " + totalPersons + " persons and " + totalEvents + " events to the database.");
-        totalPersons = 0;
-        totalEvents = 0;
+//        Set response message, set the success status, and return the successful response
+        response.setMessage("Successfully added " + (rootPersons + tree.getPersons().size()) + " persons and " +
+                (rootEvents + tree.getEvents().size()) + " events to the database.");
         response.setSuccess(true);
         return response;
     }
 
     /**
-     * fillHelper is a recursive method which uses the parent Person to populate appropriate, randomly generated data into the database
-     * The number of generations that the User provided in the request denotes how many times this helper method will be called
-     *
-     * If the number of generations is 0, the recursion is complete and the method should be exited
-     * Create and populate the father Person with randomly generated data that meets the business requirements
-     * Create and populate the mother Person with randomly generated data that meets the business requirements
-     *      Random locations and names are taken from the json assets
-     *      Random years for events are found within an appropriate range
-     *          proportionately to their spouse's age, their own death/birth, and the age of the child
-     * If the Person is one of the last from the generations requirement, make sure they don't have a defined father/motherID
+     * fillHelper generates the given number of generations of ancestors for the given Person and writes them to the database
+     * The whole ancestry is written in one transaction of its own, so either all of it is added or none of it is
      *
-     * @param generations contains the remaining number of recursions to iterate through
-     * @param person contains the Person POJO from the child node
-     * @param birthYear contains the birthYear for the person whose father and mother are currently being created
-     *                  This allows for realistic dates to be randomly generated
-     * @throws InternalServerError this occurs when there is a problem that occurs during business operations in this method
+     * @param generations contains the number of generations to generate
+     * @param person contains the Person whose ancestors should be generated
+     * @param birthYear contains the birthYear of the given Person, which the ancestors' years are generated from
+     * @return provides the TreeGenerator holding every Person and Event that was added
+     * @throws InternalServerError this occurs when the names and locations assets couldn't be loaded, or the ancestors couldn't be generated
      * @throws DataAccessException this occurs when there is a problem during database access
      */
-    public static void fillHelper(int generations, Person person, int birthYear) throws InternalServerError, DataAccessException {
-//        If the number of generations is 0, the recursion is complete and the method should be exited
-        if(generations <= 0) {
-            System.out.println("Exit condition met!");
-            return;
+    public static TreeGenerator fillHelper(int generations, Person person, int birthYear) throws InternalServerError, DataAccessException {
+        Database db = new Database();
+        try {
+            db.openConnection();
+            TreeGenerator tree = new TreeGenerator();
+            tree.generate(person, birthYear, generations);
+            writeAncestors(db, tree, null);
+            db.closeConnection(true);
+            return tree;
+        } catch (DataAccessException e) {
+            db.closeConnection(false);
+            System.out.println("Failed to add the generated ancestors to the database");
+            throw new DataAccessException(e.getMessage());
+        } catch (RuntimeException e) {
+            db.closeConnection(false);
+            e.printStackTrace();
+            System.out.println("Failed to generate the ancestors");
+            throw new InternalServerError();
         }
-//        Create and populate the father Person with randomly generated data that meets the business requirements
-        Person father = new Person(person.getFatherID(),
-                person.getAssociatedUsername(),
-                getRandomFirstName("m"),
-                getRandomLastName(),
-                "m",
-                UUID.randomUUID().toString(),
-                UUID.randomUUID().toString(),
-                person.getMotherID());
+    }
 
-//        Create the Events associated with the father Person
-        Random random = new Random();
-        JsonObject fatherBirthLocation = JsonUtil.getJsonFile("json/locations.json")
-                .getAsJsonArray("data")
-                .get((int) (977 * Math.random()))
-                .getAsJsonObject();
-        int fatherBirthYear = random.nextInt((birthYear - 13) - (birthYear - 50)) + (birthYear - 50);
-        if((birthYear - fatherBirthYear) < 13) {
-            fatherBirthYear = birthYear - 13;
-        }
-        if((birthYear - fatherBirthYear) > 50) {
-            fatherBirthYear = birthYear - 50;
+    /**
+     * extendLeaves generates the given number of generations on top of every leaf Person of the given username,
+     * on the given Database's open transaction
+     *
+     * Find the leaf Persons and the years of their birth Events with one query, in the order of their personIDs
+     * Leave out the leaf Persons without a birth Event, since their parents' years can't be generated
+     * Give every other leaf Person a new fatherID and motherID, and set them as one batch
+     * Generate a tree on top of each of those leaf Persons
+     *
+     * @return provides false if there are too many leaf Persons to generate that many generations on top of
+     */
+    private static boolean extendLeaves(Database db, TreeGenerator tree, String username, int generations)
+            throws DataAccessException {
+        PersonStore pStore = db.getPersonStore();
+//        Find the leaf Persons and the years of their birth Events with one query, in the order of their personIDs
+        List<LeafPerson> leaves = pStore.getLeafPersons(username);
+        leaves.sort(Comparator.comparing(leaf -> leaf.getPerson().getPersonID()));
+//        Leave out the leaf Persons without a birth Event, since their parents' years can't be generated
+        List<Person> children = new ArrayList<>(leaves.size());
+        int[] birthYears = new int[leaves.size()];
+        for(LeafPerson leaf : leaves) {
+            if(leaf.getBirthYear() != null) {
+                birthYears[children.size()] = leaf.getBirthYear();
+                children.add(leaf.getPerson());
+            }
         }
-        System.out.println("Birth year: " + birthYear +
-                "\nFather Birth year: " + fatherBirthYear);
-        Event fatherBirth = new Event();
-        fatherBirth.setEventID(UUID.randomUUID().toString());
-        fatherBirth.setAssociatedUsername(person.getAssociatedUsername());
-        fatherBirth.setLatitude(fatherBirthLocation.get("latitude").getAsLong());
-        fatherBirth.setLongitude(fatherBirthLocation.get("longitude").getAsLong());
-        fatherBirth.setCountry(fatherBirthLocation.get("country").toString());
-        fatherBirth.setCity(fatherBirthLocation.get("city").toString());
-        fatherBirth.setEventType("birth");
-        fatherBirth.setYear(fatherBirthYear);
-        fatherBirth.setPersonID(father.getPersonID());
-        JsonObject fatherDeathLocation = JsonUtil.getJsonFile("json/locations.json")
-                .getAsJsonArray("data")
-                .get((int) (977 * Math.random()))
-                .getAsJsonObject();
-        int fatherDeathYear = random.nextInt((120 + fatherBirthYear) - (birthYear)) + (birthYear);
-        if((fatherDeathYear - fatherBirthYear) > 120) {
-            fatherDeathYear = fatherBirthYear + 120;
+        if(children.size() < leaves.size()) {
+            System.out.println("Skipping " + (leaves.size() - children.size()) + " leaf persons of " + username + " without a birth event");
         }
-        Event fatherDeath = new Event();
-        fatherDeath.setEventID(UUID.randomUUID().toString());
-        fatherDeath.setAssociatedUsername(person.getAssociatedUsername());
-        fatherDeath.setLatitude(fatherDeathLocation.get("latitude").getAsLong());
-        fatherDeath.setLongitude(fatherDeathLocation.get("longitude").getAsLong());
-        fatherDeath.setCountry(fatherBirthLocation.get("country").toString());
-        fatherDeath.setCity(fatherDeathLocation.get("city").toString());
-        fatherDeath.setEventType("death");
-        fatherDeath.setYear(fatherDeathYear);
-        fatherDeath.setPersonID(father.getPersonID());
-
-//        Create and populate the mother Person with randomly generated data that meets the business requirements
-        Person mother = new Person(person.getMotherID(),
-                person.getAssociatedUsername(),
-                getRandomFirstName("f"),
-                getRandomLastName(),
-                "f",
-                UUID.randomUUID().toString(),
-                UUID.randomUUID().toString(),
-                person.getFatherID());
-
-//        Create the Events associated with the mother Person
-        JsonObject motherBirthLocation = JsonUtil.getJsonFile("json/locations.json")
-                .getAsJsonArray("data")
-                .get((int) (977 * Math.random()))
-                .getAsJsonObject();
-        int motherBirthYear = random.nextInt((fatherBirthYear + 13) - (fatherBirthYear - 13)) + (fatherBirthYear - 13);
-        if((birthYear - motherBirthYear) < 13) {
-            motherBirthYear = birthYear - 13;
+        if(generations <= 0 || children.isEmpty()) {
+            return true;
         }
-        if((birthYear - motherBirthYear) > 50) {
-            motherBirthYear = birthYear - 50;
+        if(!TreeGenerator.canGenerate(children.size(), generations)) {
+            System.out.println(username + " has too many leaf persons to extend by " + generations + " generations");
+            return false;
         }
-        System.out.println("Mother Birth year: " + motherBirthYear);
-        Event motherBirth = new Event();
-        motherBirth.setEventID(UUID.randomUUID().toString());
-        motherBirth.setAssociatedUsername(person.getAssociatedUsername());
-        motherBirth.setLatitude(motherBirthLocation.get("latitude").getAsLong());
-        motherBirth.setLongitude(motherBirthLocation.get("longitude").getAsLong());
-        motherBirth.setCountry(motherBirthLocation.get("country").toString());
-        motherBirth.setCity(motherBirthLocation.get("city").toString());
-        motherBirth.setEventType("birth");
-        motherBirth.setYear(motherBirthYear);
-        motherBirth.setPersonID(mother.getPersonID());
-        JsonObject motherDeathLocation = JsonUtil.getJsonFile("json/locations.json")
-                .getAsJsonArray("data")
-                .get((int) (977 * Math.random()))
-                .getAsJsonObject();
-        int motherDeathYear = random.nextInt((120 + motherBirthYear) - birthYear) + birthYear;
-        if((motherDeathYear - motherBirthYear) > 120) {
-            motherDeathYear = motherBirthYear + 120;
+//        Give every other leaf Person a new fatherID and motherID, and set them as one batch
+        for(Person child : children) {
+            child.setFatherID(RandomUtil.generateID());
+            child.setMotherID(RandomUtil.generateID());
         }
-        Event motherDeath = new Event();
-        motherDeath.setEventID(UUID.randomUUID().toString());
-        motherDeath.setAssociatedUsername(person.getAssociatedUsername());
-        motherDeath.setLatitude(motherDeathLocation.get("latitude").getAsLong());
-        motherDeath.setLongitude(motherDeathLocation.get("longitude").getAsLong());
-        motherDeath.setCountry(motherDeathLocation.get("country").toString());
-        motherDeath.setCity(motherDeathLocation.get("city").toString());
-        motherDeath.setEventType("death");
-        motherDeath.setYear(motherDeathYear);
-        motherDeath.setPersonID(mother.getPersonID());
+        pStore.setParents(children);
+//        Generate a tree on top of each of those leaf Persons
+        tree.generate(children, birthYears, generations);
+        return true;
+    }
 
-//        Create the marriage event
-        JsonObject marriageLocation = JsonUtil.getJsonFile("json/locations.json")
-                .getAsJsonArray("data")
-                .get((int) (977 * Math.random()))
-                .getAsJsonObject();
-        int marriageYear = random.nextInt((Math.min(fatherDeathYear, motherDeathYear) - (Math.max(fatherBirthYear, motherBirthYear)))) +
-                (Math.max(fatherBirthYear, motherBirthYear));
-        if((marriageYear - fatherBirthYear) < 13) {
-            marriageYear = fatherBirthYear + 13;
+    /**
+     * writeAncestors writes the Persons and Events of the given generated tree on the given Database's open transaction
+     *
+     * Insert the Persons in batches of WRITE_CHUNK, then the Events
+     * After each batch, report the progress to the job and stop if it was cancelled
+     */
+    private static void writeAncestors(Database db, TreeGenerator tree, FillJob job) throws DataAccessException {
+        List<Person> persons = tree.getPersons();
+        List<Event> events = tree.getEvents();
+//        Insert the Persons in batches of WRITE_CHUNK, then the Events
+        for(int start = 0; start < persons.size(); start += WRITE_CHUNK) {
+            List<Person> chunk = persons.subList(start, Math.min(start + WRITE_CHUNK, persons.size()));
+            db.getPersonStore().addPersons(chunk);
+//            After each batch, report the progress to the job and stop if it was cancelled
+            if(job != null) {
+                job.wrote(chunk.size(), 0);
+                job.checkCancelled();
+            }
         }
-        if((marriageYear - motherBirthYear) < 13) {
-            marriageYear = motherBirthYear + 13;
+        for(int start = 0; start < events.size(); start += WRITE_CHUNK) {
+            List<Event> chunk = events.subList(start, Math.min(start + WRITE_CHUNK, events.size()));
+            db.getEventStore().insertEvents(chunk);
+            if(job != null) {
+                job.wrote(0, chunk.size());
+                job.checkCancelled();
+            }
         }
-        System.out.println("Marriage year: " + marriageYear);
-        System.out.println("Father was " + (marriageYear - fatherBirthYear) + " years old and Mother was " +
-                (marriageYear - motherBirthYear) + " years old when they got married\n");
-        Event marriage = new Event();
-        marriage.setEventID(UUID.randomUUID().toString());
-        marriage.setAssociatedUsername(person.getAssociatedUsername());
-        marriage.setLatitude(marriageLocation.get("latitude").getAsLong());
-        marriage.setLongitude(marriageLocation.get("longitude").getAsLong());
-        marriage.setCountry(marriageLocation.get("country").toString());
-        marriage.setCity(marriageLocation.get("city").toString());
-        marriage.setEventType("marriage");
-        marriage.setYear(marriageYear);
-        marriage.setPersonID(father.getPersonID());
+    }
 
-//        If the Person is one of the last from the generations requirement, make sure they don't have a defined father/motherID
-        if(generations == 1) {
-            father.setFatherID(null);
-            father.setMotherID(null);
-            mother.setFatherID(null);
-            mother.setMotherID(null);
+    /**
+     * createGenerator creates the TreeGenerator of a fill, seeded with the given seed if there is one
+     *
+     * @param seed contains the seed as a whole number, or null to generate a different tree every time
+     * @return provides the TreeGenerator
+     * @throws InvalidSeedError occurs when the seed isn't a whole number
+     * @throws InternalServerError occurs when the names and locations assets couldn't be loaded
+     */
+    private static TreeGenerator createGenerator(String seed) throws InvalidSeedError, InternalServerError {
+        if(seed == null) {
+            return new TreeGenerator();
         }
+        return new TreeGenerator(parseSeed(seed));
+    }
 
-//        Open the connection to the database and add the newly created events to the database
-        db = new Database();
-        try {
-//            for every successful event added, increment the event count
-            Connection conn = db.openConnection();
-            EventDao eDao = new EventDao(conn);
-            eDao.insertEvent(fatherBirth);
-            totalEvents++;
-            eDao.insertEvent(fatherDeath);
-            totalEvents++;
-            eDao.insertEvent(marriage);
-            totalEvents++;
-            eDao.insertEvent(motherBirth);
-            totalEvents++;
-            eDao.insertEvent(motherDeath);
-            totalEvents++;
-            marriage.setPersonID(mother.getPersonID());
-            marriage.setEventID(UUID.randomUUID().toString());
-            eDao.insertEvent(marriage);
-            totalEvents++;
-//            After successful additions, gracefully close the database
-            db.closeConnection(true);
-        } catch (DataAccessException e) {
-//            Failed conditions trigger a fail response to the client
-            db.closeConnection(false);
-            System.out.println("Failed to add an Event to the database in the FillHelper method");
-            throw new DataAccessException(e.getMessage());
+    /**
+     * isExtend parses the given mode of a fill
+     *
+     * @param mode contains overwrite, extend, or null for overwrite
+     * @return provides true if the fill should extend the User's tree instead of replacing it
+     * @throws InvalidModeError occurs when the mode is neither overwrite nor extend
+     */
+    static boolean isExtend(String mode) throws InvalidModeError {
+        if(mode == null || "overwrite".equals(mode)) {
+            return false;
+        } else if("extend".equals(mode)) {
+            return true;
         }
+        throw new InvalidModeError();
+    }
 
-//        Open the connection to the database and add the newly created father and mother to the database
+    /**
+     * parseSeed parses the given seed of a fill
+     *
+     * @param seed contains the seed as a whole number
+     * @return provides the parsed seed
+     * @throws InvalidSeedError occurs when the seed isn't a whole number
+     */
+    static long parseSeed(String seed) throws InvalidSeedError {
         try {
-//            Increment the counter for every successful person added
-            Connection conn = db.openConnection();
-            PersonDao pDao = new PersonDao(conn);
-            pDao.insertPerson(father);
-            totalPersons++;
-            pDao.insertPerson(mother);
-            totalPersons++;
-            db.closeConnection(true);
-//            After successful additions, gracefully close the database
-        } catch (DataAccessException e) {
-//            Failed conditions trigger a fail response to the client
-            db.closeConnection(false);
-            System.out.println("Failed to add a Person to the database in the FillHelper method");
-            throw new DataAccessException(e.getMessage());
+            return Long.parseLong(seed.trim());
+        } catch (NumberFormatException e) {
+            throw new InvalidSeedError();
         }
-
-//        Decrement the generations count and recursively call the helper method for the father and mother
-        generations--;
-        fillHelper(generations, father, fatherBirthYear);
-        fillHelper(generations, mother, motherBirthYear);
     }
 
     /**
@@ -410,7 +385,7 @@ public class FillService extends Service {
      *
      * If the generations were not given in the URL parameters, send an error response to the client
      * If the username was not given in the URL parameters, send an error response to the client
-     * If the generations value is not valid (not an int), send an error response to the client
+     * If the generations value is not valid (not an int, or more than TreeGenerator.MAX_GENERATIONS), send an error response to the client
      * If a User associated with the given username does not exist in the database, send an error response to the client
      *
      * @param generations contains the number of generations to be filled
@@ -419,7 +394,8 @@ public class FillService extends Service {
      * @throws InvalidUsernameError occurs when the username is not attached to a valid user
      * @throws DataAccessException occurs when something went wrong while accessing the database
      */
-    private static void validateInput(String generations, String username) throws InvalidGenerationsError, InvalidUsernameError, DataAccessException {
+    static void validateInput(String generations, String username) throws InvalidGenerationsError, InvalidUsernameError, DataAccessException {
+        Database db = new Database();
 //        If the generations were not given in the URL parameters, send an error response to the client
         if(generations == null) {
             throw new InvalidGenerationsError();
@@ -430,15 +406,18 @@ public class FillService extends Service {
         }
 //        If the generations value is not valid (not an int), send an error response to the client
         try {
-            Integer.parseInt(generations);
+            if(Integer.parseInt(generations) > TreeGenerator.MAX_GENERATIONS) {
+                System.out.println("No more than " + TreeGenerator.MAX_GENERATIONS + " generations can be filled");
+                throw new InvalidGenerationsError();
+            }
         } catch (NumberFormatException e) {
             throw new InvalidGenerationsError();
         }
         try {
 //            If a User associated with the given username does not exist in the database, send an error response to the client
-            Connection conn = db.openConnection();
-            UserDao uDao = new UserDao(conn);
-            if(!uDao.usernameExists(username)) {
+            db.openConnection();
+            UserStore uStore = db.getUserStore();
+            if(!uStore.usernameExists(username)) {
                 System.out.println(username + " does not exist in the database");
                 db.closeConnection(false);
                 throw new InvalidUsernameError();
@@ -0,0 +1,175 @@
+/** The GedcomReader class reads a GEDCOM 5.5 file one record at a time
+ *  It never holds more than the record it is reading, so a file with millions of lines is read in the same memory
+ *
+ *  The reader works as follows:
+ *      Every line has a level, an optional @xref@, a tag and an optional value, such as "1 NAME John /Smith/"
+ *      A record is a level 0 line along with every line after it up to the next level 0 line
+ *      A CONC line is joined onto the value of the line before it, and a CONT line is joined on with a line break
+ *      Blank lines and a leading byte order mark are skipped
+ *      The file is read as UTF-8, so characters of another encoding are replaced instead of failing the read
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Service;
+
+import Errors.InvalidRequestDataError;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+class GedcomReader implements Closeable {
+
+    /**
+     * The Line class holds one line of a GEDCOM file
+     */
+    static class Line {
+        final int level;
+        final String xref;
+        final String tag;
+        String value;
+
+        private Line(int level, String xref, String tag, String value) {
+            this.level = level;
+            this.xref = xref;
+            this.tag = tag;
+            this.value = value;
+        }
+    }
+
+    private final BufferedReader reader;
+    /**
+     * next holds the level 0 line that starts the next record, which was read while finishing the last one
+     */
+    private Line next;
+    private long lineNumber = 0;
+
+    /**
+     * open opens the given GEDCOM file for reading
+     * @param file contains the path of the file
+     * @return provides the GedcomReader, which has to be closed
+     * @throws IOException occurs when the file can't be opened
+     */
+    static GedcomReader open(Path file) throws IOException {
+        return new GedcomReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The constructor is private so that readers are only created by open
+     */
+    private GedcomReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * nextRecord reads the next record
+     *
+     * Start the record with the level 0 line that was read last, or the next line if there is none
+     * Add every line up to the next level 0 line, joining CONC and CONT lines onto the line before them
+     *
+     * @return provides the lines of the record, starting with its level 0 line, or null at the end of the file
+     * @throws InvalidRequestDataError occurs when a line isn't a GEDCOM line
+     * @throws IOException occurs when the file can't be read
+     */
+    List<Line> nextRecord() throws InvalidRequestDataError, IOException {
+//        Start the record with the level 0 line that was read last, or the next line if there is none
+        Line first = next != null ? next : readLine();
+        next = null;
+        if(first == null) {
+            return null;
+        }
+        if(first.level != 0) {
+            throw new InvalidRequestDataError("line " + lineNumber + " of the GEDCOM file is outside of any record");
+        }
+        List<Line> record = new ArrayList<>();
+        record.add(first);
+//        Add every line up to the next level 0 line, joining CONC and CONT lines onto the line before them
+        Line line;
+        while((line = readLine()) != null) {
+            if(line.level == 0) {
+                next = line;
+                break;
+            }
+            Line last = record.get(record.size() - 1);
+            if("CONC".equals(line.tag)) {
+                last.value = (last.value != null ? last.value : "") + (line.value != null ? line.value : "");
+            } else if("CONT".equals(line.tag)) {
+                last.value = (last.value != null ? last.value : "") + "\n" + (line.value != null ? line.value : "");
+            } else {
+                record.add(line);
+            }
+        }
+        return record;
+    }
+
+    /**
+     * readLine reads and splits the next line that isn't blank
+     * @return provides the Line, or null at the end of the file
+     */
+    private Line readLine() throws InvalidRequestDataError, IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if(text == null) {
+                return null;
+            }
+            lineNumber++;
+            if(lineNumber == 1 && !text.isEmpty() && text.charAt(0) == '\uFEFF') {
+                text = text.substring(1);
+            }
+            text = text.trim();
+        } while(text.isEmpty());
+        return parse(text);
+    }
+
+    /**
+     * parse splits the given line into its level, xref, tag and value
+     */
+    private Line parse(String text) throws InvalidRequestDataError {
+        int space = text.indexOf(' ');
+        int level;
+        try {
+            level = Integer.parseInt(space < 0 ? text : text.substring(0, space));
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestDataError("line " + lineNumber + " of the GEDCOM file does not start with a level");
+        }
+        if(space < 0 || level < 0) {
+            throw new InvalidRequestDataError("line " + lineNumber + " of the GEDCOM file has no tag");
+        }
+        String rest = text.substring(space + 1).trim();
+        String xref = null;
+        if(rest.startsWith("@")) {
+            int end = rest.indexOf('@', 1);
+            int afterXref = rest.indexOf(' ');
+            if(end < 0 || afterXref < 0) {
+                throw new InvalidRequestDataError("line " + lineNumber + " of the GEDCOM file has no tag");
+            }
+            xref = rest.substring(0, end + 1);
+            rest = rest.substring(afterXref + 1).trim();
+        }
+        space = rest.indexOf(' ');
+        String tag = space < 0 ? rest : rest.substring(0, space);
+        String value = space < 0 ? null : rest.substring(space + 1);
+        return new Line(level, xref, tag.toUpperCase(), value);
+    }
+
+    /**
+     * getLineNumber provides the number of lines that were read
+     * @return the number of lines
+     */
+    long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,473 @@
+/** The GedcomService class contains an importGedcom method which performs the business logic
+ *  for importing a GEDCOM 5.5 file into the Persons and Events of a User
+ *
+ *  Importing lets real genealogy data be brought into the server without building a /load by hand
+ *  The file is read a record at a time and written in batches, so a file with millions of lines is imported in bounded memory
+ *
+ *  The records are mapped as follows:
+ *      Every INDI record becomes a Person, with its first NAME split into a first and last name and its SEX as the gender
+ *      The BIRT, CHR, BAPM, RESI, CENS, OCCU, EMIG, IMMI, NATU, DEAT and BURI events of an INDI record become Events,
+ *      with the year of their DATE, the first part of their PLAC as the city and the last part as the country
+ *      Every FAM record sets the fatherID and motherID of its CHIL to its HUSB and WIFE, and links the HUSB and WIFE as spouses
+ *      The MARR event of a FAM record becomes a marriage Event for each spouse
+ *      An event without a year is skipped, and a Person whose SEX isn't M or F is stored as "f",
+ *      since the Persons table only allows "m" and "f"
+ *
+ *  Every personID is made from the username and the xref of its INDI record, so the FAM records can link Persons
+ *  without holding any of them in memory
+ *  The root individual, which is the one given or else the first INDI record in the file, becomes the User's own Person
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Service;
+
+import Cache.ReadReplica;
+import Cache.SessionCache;
+import Cache.TreeCache;
+import DataAccess.Database;
+import DataAccess.EventStore;
+import DataAccess.PersonStore;
+import DataAccess.UserStore;
+import Errors.AncestryGeneratingError;
+import Errors.DataAccessException;
+import Errors.InternalServerError;
+import Errors.InvalidRequestDataError;
+import Errors.InvalidUsernameError;
+import Model.Event;
+import Model.Person;
+import Model.User;
+import Responses.Response;
+import Util.RandomUtil;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class GedcomService extends Service {
+
+    /**
+     * EVENT_TYPES maps the tags of the individual events that are imported onto their eventType
+     */
+    private static final Map<String, String> EVENT_TYPES = new HashMap<>();
+    static {
+        EVENT_TYPES.put("BIRT", "birth");
+        EVENT_TYPES.put("CHR", "christening");
+        EVENT_TYPES.put("BAPM", "baptism");
+        EVENT_TYPES.put("RESI", "residence");
+        EVENT_TYPES.put("CENS", "census");
+        EVENT_TYPES.put("OCCU", "occupation");
+        EVENT_TYPES.put("EMIG", "emigration");
+        EVENT_TYPES.put("IMMI", "immigration");
+        EVENT_TYPES.put("NATU", "naturalization");
+        EVENT_TYPES.put("DEAT", "death");
+        EVENT_TYPES.put("BURI", "burial");
+    }
+
+    private final Database db;
+    private final String username;
+    private final User user;
+    /**
+     * rootXref holds the xref of the root individual, without its @ signs
+     */
+    private String rootXref;
+
+    /**
+     * The buffers hold the rows that weren't written yet
+     */
+    private final List<Person> persons = new ArrayList<>();
+    private final List<Event> events = new ArrayList<>();
+    private final List<Person> parents = new ArrayList<>();
+    private final List<Person> spouses = new ArrayList<>();
+
+    /**
+     * The counts of the rows that were added
+     */
+    private int totalPersons = 0;
+    private int totalEvents = 0;
+
+    /**
+     * The constructor is private so that imports are only run by importGedcom
+     */
+    private GedcomService(Database db, User user, String rootXref) {
+        this.db = db;
+        this.username = user.getUsername();
+        this.user = user;
+        this.rootXref = rootXref;
+    }
+
+    /** The importGedcom method performs the business logic for importing a GEDCOM file into a User's tree
+     *  The method is called when the import endpoint is hit by a request from the client, or from the command line
+     *
+     *  The business logic for this service is as follows:
+     *   - Delete every Person and Event of the User, as a fill does
+     *   - Find the root individual, and write it as the User's own Person
+     *   - Write every other individual and their events
+     *   - Link the individuals of every family, and write the families' marriages
+     *   - Keep everything that was written, or nothing if anything failed
+     *
+     * @param username  contains the username of the User whose tree is replaced
+     * @param file      contains the path of the GEDCOM file, which is read once for every step of the import
+     * @param root      contains the xref of the root individual, such as @I1@, or null for the first individual in the file
+     * @return          A Response class member is returned, which has the attributes that can be converted into JSON
+     *
+     *                  The response body will look as follows upon successful operation:
+     *                  {
+     *                      "message":"Successfully added X persons and Y events to the database.",
+     *                      "success":"true"    // Boolean identifier
+     *                  }
+     *
+     * @throws InvalidUsernameError occurs when the username isn't attached to a User
+     * @throws InvalidRequestDataError occurs when the file isn't a GEDCOM file, or the root individual isn't in it
+     * @throws InternalServerError occurs when the file can't be read
+     * @throws AncestryGeneratingError occurs when the User's ancestors from registering weren't finished within the ancestry wait
+     * @throws DataAccessException occurs when the tree couldn't be written
+     */
+    public static Response importGedcom(String username, Path file, String root) throws InvalidUsernameError,
+            InvalidRequestDataError, InternalServerError, AncestryGeneratingError, DataAccessException {
+        Response response = new Response();
+//        If the username isn't attached to a User, send an error response to the client
+        User user = findUser(username);
+//        Wait for the ancestors generated at registration, so they aren't written on top of this import
+        AncestryJobs.await(username);
+        Database db = new Database();
+        GedcomService gedcom = new GedcomService(db, user, root != null ? root.replace("@", "").trim() : null);
+        try {
+            db.openConnection();
+//            Delete every Person and Event of the User, as a fill does
+            db.getPersonStore().clearPersonByUsername(username, true);
+            db.getEventStore().clearEventByUsername(username, "");
+//            Find the root individual, and write it as the User's own Person
+            gedcom.importRoot(file);
+//            Write every other individual and their events
+            gedcom.importIndividuals(file);
+//            Link the individuals of every family, and write the families' marriages
+            gedcom.importFamilies(file);
+//            Keep everything that was written, or nothing if anything failed
+            db.closeConnection(true);
+        } catch (IOException e) {
+            db.closeConnection(false);
+            e.printStackTrace();
+            throw new InternalServerError();
+        } catch (InvalidRequestDataError | DataAccessException e) {
+            db.closeConnection(false);
+            throw e;
+        } finally {
+//            The username's cached tree and sessions are stale once the import has written anything, even if it failed
+            TreeCache.getInstance().invalidate(username);
+            SessionCache.getInstance().invalidateUsername(username);
+            ReadReplica.getInstance().recordWrite(username);
+        }
+        response.setMessage("Successfully added " + gedcom.totalPersons + " persons and " + gedcom.totalEvents +
+                " events to the database.");
+        response.setSuccess(true);
+        System.out.println(response.getMessage());
+        return response;
+    }
+
+    /**
+     * findUser provides the User attached to the given username
+     */
+    private static User findUser(String username) throws InvalidUsernameError, DataAccessException {
+        if(username == null) {
+            throw new InvalidUsernameError();
+        }
+        Database db = new Database();
+        try {
+            db.openConnection();
+            UserStore uStore = db.getUserStore();
+            String userID = uStore.getUserID(username);
+            User user = userID != null ? uStore.getUser(userID) : null;
+            db.closeConnection(true);
+            if(user == null) {
+                System.out.println(username + " does not exist in the database");
+                throw new InvalidUsernameError();
+            }
+            return user;
+        } catch (DataAccessException e) {
+            db.closeConnection(false);
+            throw e;
+        }
+    }
+
+    /**
+     * importRoot writes the root individual as the User's own Person, with the User's personID
+     *
+     * Make sure the file starts with a HEAD record, so a file that isn't a GEDCOM file is refused before anything is written
+     * Find the root individual, which is the first individual if none was given
+     * Write the root and attach the User to it, which only attaches the root since the User's other Persons were deleted
+     */
+    private void importRoot(Path file) throws InvalidRequestDataError, IOException, DataAccessException {
+        try(GedcomReader reader = GedcomReader.open(file)) {
+//            Make sure the file starts with a HEAD record, so a file that isn't a GEDCOM file is refused before anything is written
+            List<GedcomReader.Line> record = reader.nextRecord();
+            if(record == null || !"HEAD".equals(record.get(0).tag)) {
+                throw new InvalidRequestDataError("the file does not start with a GEDCOM HEAD record");
+            }
+//            Find the root individual, which is the first individual if none was given
+            while((record = reader.nextRecord()) != null) {
+                GedcomReader.Line first = record.get(0);
+                if(!"INDI".equals(first.tag) || first.xref == null) {
+                    continue;
+                }
+                String xref = first.xref.replace("@", "");
+                if(rootXref == null || rootXref.equals(xref)) {
+                    rootXref = xref;
+//                    Write the root and attach the User to it, which only attaches the root since the User's other Persons were deleted
+                    addIndividual(record);
+                    flush();
+                    db.getPersonStore().attachUserID(user.getUserID(), username);
+                    return;
+                }
+            }
+        }
+        throw new InvalidRequestDataError(rootXref == null ? "the file has no individuals" :
+                "@" + rootXref + "@ is not an individual in the file");
+    }
+
+    /**
+     * importIndividuals writes every individual other than the root, along with their events
+     */
+    private void importIndividuals(Path file) throws InvalidRequestDataError, IOException, DataAccessException {
+        try(GedcomReader reader = GedcomReader.open(file)) {
+            List<GedcomReader.Line> record;
+            while((record = reader.nextRecord()) != null) {
+                GedcomReader.Line first = record.get(0);
+                if("INDI".equals(first.tag) && first.xref != null && !rootXref.equals(first.xref.replace("@", ""))) {
+                    addIndividual(record);
+                }
+            }
+            flush();
+            System.out.println("Imported the individuals of " + reader.getLineNumber() + " lines");
+        }
+    }
+
+    /**
+     * importFamilies links the spouses and children of every family, and writes the marriage of every family
+     * It runs once every individual was written, so every family can link individuals that come after it in the file
+     */
+    private void importFamilies(Path file) throws InvalidRequestDataError, IOException, DataAccessException {
+        try(GedcomReader reader = GedcomReader.open(file)) {
+            List<GedcomReader.Line> record;
+            while((record = reader.nextRecord()) != null) {
+                if("FAM".equals(record.get(0).tag)) {
+                    addFamily(record);
+                }
+            }
+            flush();
+        }
+    }
+
+    /**
+     * addIndividual buffers the Person and Events of the given INDI record
+     *
+     * Read the name and sex of the individual
+     * Read every event of the individual that has a year
+     */
+    private void addIndividual(List<GedcomReader.Line> record) throws DataAccessException {
+        String personID = personIDOf(record.get(0).xref);
+        String firstName = null;
+        String lastName = null;
+        String gender = "f";
+        for(int i = 1; i < record.size(); i++) {
+            GedcomReader.Line line = record.get(i);
+//            Read the name and sex of the individual
+            if(line.level == 1 && "NAME".equals(line.tag) && firstName == null) {
+                String name = line.value != null ? line.value : "";
+                int slash = name.indexOf('/');
+                firstName = (slash < 0 ? name : name.substring(0, slash)).trim();
+                lastName = slash < 0 ? "" : name.substring(slash + 1).replace("/", "").trim();
+                for(int j = i + 1; j < record.size() && record.get(j).level > 1; j++) {
+                    GedcomReader.Line part = record.get(j);
+                    if("GIVN".equals(part.tag) && part.value != null) {
+                        firstName = part.value.trim();
+                    } else if("SURN".equals(part.tag) && part.value != null) {
+                        lastName = part.value.trim();
+                    }
+                }
+            } else if(line.level == 1 && "SEX".equals(line.tag) && line.value != null) {
+                gender = line.value.trim().toUpperCase().startsWith("M") ? "m" : "f";
+            } else if(line.level == 1 && EVENT_TYPES.containsKey(line.tag)) {
+//                Read every event of the individual that has a year
+                addEvent(record, i, EVENT_TYPES.get(line.tag), personID);
+            }
+        }
+        persons.add(new Person(personID, username, isEmpty(firstName) ? "Unknown" : firstName,
+                isEmpty(lastName) ? "Unknown" : lastName, gender, null, null, null));
+        totalPersons++;
+        if(persons.size() >= LoadWriter.BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * addFamily buffers the links and marriage Events of the given FAM record
+     */
+    private void addFamily(List<GedcomReader.Line> record) throws DataAccessException {
+        String fatherID = null;
+        String motherID = null;
+        List<String> children = new ArrayList<>();
+        int marriage = -1;
+        for(int i = 1; i < record.size(); i++) {
+            GedcomReader.Line line = record.get(i);
+            if(line.level != 1) {
+                continue;
+            }
+            if("HUSB".equals(line.tag)) {
+                fatherID = personIDOf(line.value);
+            } else if("WIFE".equals(line.tag)) {
+                motherID = personIDOf(line.value);
+            } else if("CHIL".equals(line.tag) && line.value != null) {
+                children.add(personIDOf(line.value));
+            } else if("MARR".equals(line.tag) && marriage < 0) {
+                marriage = i;
+            }
+        }
+        for(String childID : children) {
+            Person child = new Person(childID, username, null, null, null, fatherID, motherID, null);
+            parents.add(child);
+        }
+        if(fatherID != null && motherID != null) {
+            spouses.add(new Person(fatherID, username, null, null, null, null, null, motherID));
+            spouses.add(new Person(motherID, username, null, null, null, null, null, fatherID));
+        }
+        if(marriage >= 0) {
+            for(String spouseID : new String[] { fatherID, motherID }) {
+                if(spouseID != null) {
+                    addEvent(record, marriage, "marriage", spouseID);
+                }
+            }
+        }
+        if(parents.size() >= LoadWriter.BATCH_SIZE || spouses.size() >= LoadWriter.BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * addEvent buffers the event that starts at the given line of the given record, if it has a year
+     */
+    private void addEvent(List<GedcomReader.Line> record, int start, String eventType, String personID) throws DataAccessException {
+        Integer year = null;
+        String city = null;
+        String country = null;
+        float latitude = 0;
+        float longitude = 0;
+        int level = record.get(start).level;
+        for(int i = start + 1; i < record.size() && record.get(i).level > level; i++) {
+            GedcomReader.Line line = record.get(i);
+            if("DATE".equals(line.tag) && line.value != null && year == null) {
+                year = parseYear(line.value);
+            } else if("PLAC".equals(line.tag) && line.value != null && city == null) {
+                String[] parts = line.value.split(",");
+                city = parts[0].trim();
+                country = parts[parts.length - 1].trim();
+            } else if("LATI".equals(line.tag) && line.value != null) {
+                latitude = parseCoordinate(line.value, 'S');
+            } else if("LONG".equals(line.tag) && line.value != null) {
+                longitude = parseCoordinate(line.value, 'W');
+            }
+        }
+        if(year == null) {
+            return;
+        }
+        Event event = new Event();
+        event.setEventID(RandomUtil.generateID());
+        event.setAssociatedUsername(username);
+        event.setPersonID(personID);
+        event.setEventType(eventType);
+        event.setYear(year);
+        event.setCity(city);
+        event.setCountry(country);
+        event.setLatitude(latitude);
+        event.setLongitude(longitude);
+        events.add(event);
+        totalEvents++;
+        if(events.size() >= LoadWriter.BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * flush writes every buffered row, writing the Persons before the links between them
+     */
+    private void flush() throws DataAccessException {
+        PersonStore pStore = db.getPersonStore();
+        EventStore eStore = db.getEventStore();
+        if(!persons.isEmpty()) {
+            pStore.addPersons(persons);
+            persons.clear();
+        }
+        if(!events.isEmpty()) {
+            eStore.insertEvents(events);
+            events.clear();
+        }
+        if(!parents.isEmpty()) {
+            pStore.setParents(parents);
+            parents.clear();
+        }
+        if(!spouses.isEmpty()) {
+            pStore.setSpouses(spouses);
+            spouses.clear();
+        }
+    }
+
+    /**
+     * personIDOf provides the personID of the individual with the given xref, which is the User's personID for the root
+     */
+    private String personIDOf(String xref) {
+        if(xref == null) {
+            return null;
+        }
+        String id = xref.replace("@", "").trim();
+        return id.equals(rootXref) ? user.getPersonID() : username + "_" + id;
+    }
+
+    /**
+     * parseYear provides the first year of the given GEDCOM date, such as 1901 in "ABT 12 MAR 1901", or null if it has none
+     * The year is the first number of three or four digits, so the day of the month is never taken for it
+     */
+    static Integer parseYear(String date) {
+        int digits = 0;
+        for(int i = 0; i <= date.length(); i++) {
+            if(i < date.length() && Character.isDigit(date.charAt(i))) {
+                digits++;
+            } else {
+                if(digits >= 3 && digits <= 4) {
+                    return Integer.parseInt(date.substring(i - digits, i));
+                }
+                digits = 0;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * parseCoordinate provides the given GEDCOM coordinate, such as N50.5 or W1.25, which is negative for the given direction
+     */
+    private static float parseCoordinate(String value, char negative) {
+        String coordinate = value.trim().toUpperCase();
+        if(coordinate.isEmpty()) {
+            return 0;
+        }
+        float sign = coordinate.charAt(0) == negative ? -1 : 1;
+        if(!Character.isDigit(coordinate.charAt(0)) && coordinate.charAt(0) != '-') {
+            coordinate = coordinate.substring(1);
+        }
+        try {
+            return sign * Float.parseFloat(coordinate);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * isEmpty denotes whether the given value is null or an empty String
+     */
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+}
@@ -12,17 +12,19 @@
 
 package Service;
 
-import DataAccess.AuthTokenDao;
+import Cache.Principal;
+import Cache.ReadReplica;
+import Cache.SessionCache;
+import Cache.SignedTokens;
+import Cache.TreeCache;
+import DataAccess.AuthorizedRead;
 import DataAccess.Database;
-import DataAccess.EventDao;
-import DataAccess.UserDao;
+import DataAccess.EventStore;
 import Errors.*;
 import Model.Event;
-import Model.User;
 import Responses.AllEventsResponse;
 import Responses.EventResponse;
 
-import java.sql.Connection;
 import java.util.ArrayList;
 
 public class GetEventService {
@@ -42,6 +44,7 @@ public class GetEventService {
      *
      *  The business logic for this service is as follows:
      *   - Return a single Event object with the specified ID
+     *   - The authToken, the Event, and whether the Event belongs to the authToken's User are checked by one read on one connection
      *
      * @param eventID       The eventID parameter is a string
      *                      and has the eventID value for the Event row that
@@ -81,24 +84,29 @@ public class GetEventService {
      *                      }
      */
     public static EventResponse getEvent(String eventID, String authToken) throws InvalidAuthTokenError,
-            InvalidEventIDError, RequestedEventDoesNotBelongToThisUser, InternalServerError, DataAccessException {
+            InvalidEventIDError, RequestedEventDoesNotBelongToThisUser, AncestryGeneratingError, InternalServerError, DataAccessException {
         System.out.println("Getting Event with EventID: " + eventID + " . . . ");
         EventResponse response = new EventResponse();
-//        If the given input is invalid, validateInput will throw an error send response to the client
-        validateInput(eventID, authToken);
-        Event event = null;
-        try {
-//            Open the database connection
-            Connection conn = db.openConnection();
-//            Create the EventDao POJO
-            EventDao eDao = new EventDao(conn);
-            event = eDao.getEvent(eventID);
-//            Gracefully exit
-            db.closeConnection(true);
-        } catch (DataAccessException e) {
-            db.closeConnection(false);
-            throw new DataAccessException(e.getMessage());
+        AuthorizedRead<Event> read = readEvent(eventID, authToken);
+//        An Event that isn't found may be an ancestor that is still being generated for a newly registered User,
+//        so report that they are still generating, or read it again if they have just finished
+        if(read.getOutcome() == AuthorizedRead.Outcome.NOT_FOUND && AncestryJobs.isGenerating()) {
+            Principal principal = SessionCache.getInstance().resolve(authToken);
+            if(principal != null && AncestryJobs.isGenerating(principal.getUsername())) {
+                AncestryJobs.checkGenerated(principal.getUsername());
+                read = readEvent(eventID, authToken);
+            }
         }
+//        If the read didn't provide the event, send the matching error response to the client
+        switch (read.getOutcome()) {
+            case INVALID_AUTH_TOKEN:
+                throw new InvalidAuthTokenError();
+            case NOT_FOUND:
+                throw new InvalidEventIDError();
+            case NOT_OWNED:
+                throw new RequestedEventDoesNotBelongToThisUser();
+        }
+        Event event = read.getRow();
 //        Define the response based on the Dao results
         response.setAssociatedUsername(event.getAssociatedUsername());
         response.setEventID(event.getEventID());
@@ -141,23 +149,18 @@ public class GetEventService {
      *                          "success":"false"   // Boolean identifier
      *                      }
      */
-    public static AllEventsResponse getAllEvents(String authToken) throws InvalidAuthTokenError, InternalServerError, DataAccessException {
+    public static AllEventsResponse getAllEvents(String authToken) throws InvalidAuthTokenError, AncestryGeneratingError, InternalServerError, DataAccessException {
         System.out.println("Getting all Events . . . ");
         AllEventsResponse response = new AllEventsResponse();
-        validateAllInput(authToken);
+//        The session resolved during validation provides the username of the authenticated User
+        String username = validateAllInput(authToken).getUsername();
+//        Report the User's ancestors if they are still being generated
+        AncestryJobs.checkGenerated(username);
         ArrayList<Event> events = null;
-//        Open the DB connection and get the ArrayList of all Events
+//        Get the ArrayList of all Events from the tree cache, which only reads the database on a miss
         try {
-            Connection conn = db.openConnection();
-            AuthTokenDao aDao = new AuthTokenDao(conn);
-            String userID = aDao.getUserID(authToken);
-            UserDao uDao = new UserDao(conn);
-            String username = uDao.getUser(userID).getUsername();
-            EventDao eDao = new EventDao(conn);
-            events = eDao.getEvents(username);
-            db.closeConnection(true);
+            events = new ArrayList<Event>(TreeCache.getInstance().getTree(username).getEvents());
         } catch (DataAccessException e) {
-            db.closeConnection(false);
             throw new InternalServerError();
         }
         response.setData(events);
@@ -166,85 +169,91 @@ public class GetEventService {
     }
 
     /**
-     * validateInput performs input validation before any changes are allowed on the database
-     * This will filter any potentially dangerous or crash-causing inputs from being allowed in methods that change the database
-     *
-     * If the authToken isn't in the database, send an error response to the client
-     * If no User exists for the existing authToken, send an error response to the client
-     * If the event doesn't exist in the database, send an error response to the client
-     * If the authenticated User is not authorized to get this event, send an error response to the client
+     * readEvent checks the authToken, finds the Event, and checks who owns it with a single read
+     * The read is served from the read replica when it can vouch for the answer, otherwise the database file is read
+     * A signed authToken is verified in memory, so only the Event is read
      *
-     * @param eventID contains the EventID for the event that is desired in the response
-     * @param authToken contains the authToken to verify the user is authorized to access the event
-     * @throws InvalidEventIDError occurs when the EventID does not exist in the database
-     * @throws InvalidAuthTokenError occurs when the authToken does not exist in the database
-     * @throws RequestedEventDoesNotBelongToThisUser occurs when the authenticated user is not authorized for the desired event
+     * @return provides the result of the read
      * @throws DataAccessException occurs when something went wrong while accessing the database
      */
-    private static void validateInput(String eventID, String authToken) throws InvalidEventIDError,
-            InvalidAuthTokenError, RequestedEventDoesNotBelongToThisUser, DataAccessException {
-        try {
-            db = new Database();
-            Connection conn = db.openConnection();
-            AuthTokenDao aDao = new AuthTokenDao(conn);
-            String userID = aDao.getUserID(authToken);
-            if(userID == null) {
-//                If the authToken isn't in the database, send an error response to the client
-                db.closeConnection(false);
-                throw new InvalidAuthTokenError();
-            }
-            UserDao uDao = new UserDao(conn);
-            User user = uDao.getUser(userID);
-            if(user == null) {
-//                If no User exists for the existing authToken, send an error response to the client
-                db.closeConnection(false);
-                throw new InvalidAuthTokenError();
-            }
-            EventDao eDao = new EventDao(conn);
-            Event event = eDao.getEvent(eventID);
-            if(event == null) {
-//                If the event doesn't exist in the database, send an error response to the client
-                db.closeConnection(false);
-                throw new InvalidEventIDError();
-            }
-            if(!user.getUsername().equals(event.getAssociatedUsername())) {
-//                If the authenticated User is not authorized to get this event, send an error response to the client
+    private static AuthorizedRead<Event> readEvent(String eventID, String authToken) throws DataAccessException {
+        db = new Database();
+//        A signed authToken is verified in memory, so only the Event is read
+        if(SignedTokens.isSigned(authToken)) {
+            return readEventForPrincipal(eventID, SignedTokens.getInstance().verify(authToken));
+        }
+//        Serve the read from the read replica when it can vouch for the answer, otherwise read the database file
+        AuthorizedRead<Event> read = ReadReplica.getInstance().getEventForAuthKey(eventID, authToken);
+        if(read == null) {
+            try {
+//                Open the database connection
+                db.openConnection();
+//                Check the authToken, find the Event, and check who owns it with a single read
+                EventStore eStore = db.getEventStore();
+                read = eStore.getEventForAuthKey(eventID, authToken);
+//                Gracefully exit
+                db.closeConnection(true);
+            } catch (DataAccessException e) {
                 db.closeConnection(false);
-                throw new RequestedEventDoesNotBelongToThisUser();
+                throw new DataAccessException(e.getMessage());
             }
+        }
+        return read;
+    }
+
+    /**
+     * readEventForPrincipal finds the Event and checks that it belongs to the User of a verified signed authToken,
+     * who must still be the User that holds the authToken's username
+     *
+     * @return provides the result of the read
+     * @throws DataAccessException occurs when something went wrong while accessing the database
+     */
+    private static AuthorizedRead<Event> readEventForPrincipal(String eventID, Principal principal) throws DataAccessException {
+        if(principal == null) {
+            return AuthorizedRead.denied(AuthorizedRead.Outcome.INVALID_AUTH_TOKEN);
+        }
+        Event row;
+        String userID;
+        try {
+            db.openConnection();
+            EventStore eStore = db.getEventStore();
+            row = eStore.getEvent(eventID);
+//            The username may belong to a newer User than the one the authToken was issued to
+            userID = db.getUserStore().getUserID(principal.getUsername());
             db.closeConnection(true);
         } catch (DataAccessException e) {
-            System.out.println("Something went wrong while validating input in the GetEventService!");
             db.closeConnection(false);
             throw new DataAccessException(e.getMessage());
         }
+        if(userID == null || !userID.equals(principal.getUserID())) {
+            return AuthorizedRead.denied(AuthorizedRead.Outcome.INVALID_AUTH_TOKEN);
+        } else if(row == null) {
+            return AuthorizedRead.denied(AuthorizedRead.Outcome.NOT_FOUND, principal.getUsername());
+        } else if(!principal.getUsername().equals(row.getAssociatedUsername())) {
+            return AuthorizedRead.denied(AuthorizedRead.Outcome.NOT_OWNED, principal.getUsername());
+        }
+        return AuthorizedRead.found(row, principal.getUsername());
     }
 
     /**
      * validateAllInput performs input validation before any changes are allowed on the database
      * This will filter any potentially dangerous or crash-causing inputs from being allowed in methods that change the database
      *
-     * If the authToken isn't in the database, send an error response to the client
+     * The authToken is resolved through the SessionCache, so steady-state requests don't read the database at all
+     * If the authToken doesn't belong to any User, send an error response to the client
      *
-     * @param authToken
-     * @throws InvalidAuthTokenError
-     * @throws DataAccessException
+     * @param authToken contains the authToken that was sent with the request
+     * @return provides the Principal of the authenticated User
+     * @throws InvalidAuthTokenError occurs when the authToken doesn't belong to any User
+     * @throws DataAccessException occurs when something went wrong while accessing the database
      */
-    private static void validateAllInput(String authToken) throws InvalidAuthTokenError, DataAccessException {
+    private static Principal validateAllInput(String authToken) throws InvalidAuthTokenError, DataAccessException {
         db = new Database();
-        try {
-            Connection conn = db.openConnection();
-            AuthTokenDao aDao = new AuthTokenDao(conn);
-            if(aDao.getUserID(authToken) == null) {
-//                If the authToken isn't in the database, send an error response to the client
-                db.closeConnection(false);
-                throw new InvalidAuthTokenError();
-            }
-            db.closeConnection(true);
-        } catch (DataAccessException e) {
-            System.out.println("Something went wrong while validating input in the GetAllEventsService!");
-            db.closeConnection(false);
-            throw new DataAccessException(e.getMessage());
+        Principal principal = SessionCache.getInstance().resolve(authToken);
+        if(principal == null) {
+//            If the authToken doesn't belong to any User, send an error response to the client
+            throw new InvalidAuthTokenError();
         }
+        return principal;
     }
 }
@@ -12,17 +12,19 @@
 
 package Service;
 
-import DataAccess.AuthTokenDao;
+import Cache.Principal;
+import Cache.ReadReplica;
+import Cache.SessionCache;
+import Cache.SignedTokens;
+import Cache.TreeCache;
+import DataAccess.AuthorizedRead;
 import DataAccess.Database;
-import DataAccess.PersonDao;
-import DataAccess.UserDao;
+import DataAccess.PersonStore;
 import Errors.*;
 import Model.Person;
-import Model.User;
 import Responses.AllPersonsResponse;
 import Responses.PersonResponse;
 
-import java.sql.Connection;
 import java.util.ArrayList;
 
 public class GetPersonService {
@@ -42,6 +44,7 @@ public class GetPersonService {
      *
      *  The business logic for this service is as follows:
      *   - Return a single Person object with the specified ID
+     *   - The authToken, the Person, and whether the Person belongs to the authToken's User are checked by one read on one connection
      *
      * @param personID  The personID parameter is a string
      *                  and has the personID value for the Person row that
@@ -80,24 +83,29 @@ public class GetPersonService {
      *                  }
      */
     public static PersonResponse getPerson(String personID, String authToken) throws InvalidAuthTokenError,
-            InvalidPersonIDError, RequestedPersonDoesNotBelongToThisUser, InternalServerError, DataAccessException {
+            InvalidPersonIDError, RequestedPersonDoesNotBelongToThisUser, AncestryGeneratingError, InternalServerError, DataAccessException {
         System.out.println("Getting Person with PersonID: " + personID + "\n");
         PersonResponse response = new PersonResponse();
-//        If the given input is invalid, validateInput will throw an error send response to the client
-        validateInput(personID, authToken);
-        Person person = null;
-        try {
-//            Open the database connection
-            Connection conn = db.openConnection();
-//            Create the PersonDao POJO
-            PersonDao pDao = new PersonDao(conn);
-            person = pDao.getPerson(personID);
-//            Gracefully exit
-            db.closeConnection(true);
-        } catch (DataAccessException e) {
-            db.closeConnection(false);
-            throw new DataAccessException(e.getMessage());
+        AuthorizedRead<Person> read = readPerson(personID, authToken);
+//        A Person that isn't found may be an ancestor that is still being generated for a newly registered User,
+//        so report that they are still generating, or read it again if they have just finished
+        if(read.getOutcome() == AuthorizedRead.Outcome.NOT_FOUND && AncestryJobs.isGenerating()) {
+            Principal principal = SessionCache.getInstance().resolve(authToken);
+            if(principal != null && AncestryJobs.isGenerating(principal.getUsername())) {
+                AncestryJobs.checkGenerated(principal.getUsername());
+                read = readPerson(personID, authToken);
+            }
         }
+//        If the read didn't provide the person, send the matching error response to the client
+        switch (read.getOutcome()) {
+            case INVALID_AUTH_TOKEN:
+                throw new InvalidAuthTokenError();
+            case NOT_FOUND:
+                throw new InvalidPersonIDError();
+            case NOT_OWNED:
+                throw new RequestedPersonDoesNotBelongToThisUser();
+        }
+        Person person = read.getRow();
 //        Define the response based on the Dao results
         response.setAssociatedUsername(person.getAssociatedUsername());
         response.setPersonID(person.getPersonID());
@@ -139,23 +147,18 @@ public class GetPersonService {
      *                          "success":"false"   // Boolean identifier
      *                      }
      */
-    public static AllPersonsResponse getAllPersons(String authToken) throws InvalidAuthTokenError, InternalServerError, DataAccessException {
+    public static AllPersonsResponse getAllPersons(String authToken) throws InvalidAuthTokenError, AncestryGeneratingError, InternalServerError, DataAccessException {
         System.out.println("Getting all Persons . . . ");
         AllPersonsResponse response = new AllPersonsResponse();
-        validateAllInput(authToken);
+//        The session resolved during validation provides the username of the authenticated User
+        String username = validateAllInput(authToken).getUsername();
+//        Report the User's ancestors if they are still being generated
+        AncestryJobs.checkGenerated(username);
         ArrayList<Person> persons = null;
-//        Open the DB connection and get the ArrayList of all Events
+//        Get the ArrayList of all Persons from the tree cache, which only reads the database on a miss
         try {
-            Connection conn = db.openConnection();
-            AuthTokenDao aDao = new AuthTokenDao(conn);
-            String userID = aDao.getUserID(authToken);
-            UserDao uDao = new UserDao(conn);
-            String username = uDao.getUser(userID).getUsername();
-            PersonDao pDao = new PersonDao(conn);
-            persons = pDao.getPersons(username);
-            db.closeConnection(true);
+            persons = new ArrayList<Person>(TreeCache.getInstance().getTree(username).getPersons());
         } catch (DataAccessException e) {
-            db.closeConnection(false);
             throw new InternalServerError();
         }
         response.setData(persons);
@@ -164,84 +167,91 @@ public class GetPersonService {
     }
 
     /**
-     * validateInput performs input validation before any changes are allowed on the database
-     * This will filter any potentially dangerous or crash-causing inputs from being allowed in methods that change the database
+     * readPerson checks the authToken, finds the Person, and checks who owns it with a single read
+     * The read is served from the read replica when it can vouch for the answer, otherwise the database file is read
+     * A signed authToken is verified in memory, so only the Person is read
      *
-     * If the authToken isn't in the database, send an error response to the client
-     * If no User exists for the existing authToken, send an error response to the client
-     * If the person doesn't exist in the database, send an error response to the client
-     * If the authenticated User is not authorized to get this person, send an error response to the client
-     *
-     * @param personID contains the personID for the desired person
-     * @param authToken contains the authToken to verify that the user is authorized to access the person
-     * @throws InvalidPersonIDError occurs if the personID is not associated with a Person in the database
-     * @throws InvalidAuthTokenError occurs if the authToken is not in the authToken table
-     * @throws RequestedPersonDoesNotBelongToThisUser occurs if the user is not authorized to view the person
-     * @throws DataAccessException occurs if something goes wrong while accessing the database
+     * @return provides the result of the read
+     * @throws DataAccessException occurs when something went wrong while accessing the database
      */
-    private static void validateInput(String personID, String authToken) throws InvalidPersonIDError,
-            InvalidAuthTokenError, RequestedPersonDoesNotBelongToThisUser, DataAccessException {
-        try {
-            db = new Database();
-            Connection conn = db.openConnection();
-            AuthTokenDao aDao = new AuthTokenDao(conn);
-            String userID = aDao.getUserID(authToken);
-            if(userID == null) {
-//                If the authToken isn't in the database, send an error response to the client
-                db.closeConnection(false);
-                throw new InvalidAuthTokenError();
-            }
-            UserDao uDao = new UserDao(conn);
-            User user = uDao.getUser(userID);
-            if(user == null) {
-//                If no User exists for the existing authToken, send an error response to the client
-                db.closeConnection(false);
-                throw new InvalidAuthTokenError();
-            }
-            PersonDao pDao = new PersonDao(conn);
-            Person person = pDao.getPerson(personID);
-            if(person == null) {
-//                If the person doesn't exist in the database, send an error response to the client
-                db.closeConnection(false);
-                throw new InvalidPersonIDError();
-            }
-            if(!user.getUsername().equals(person.getAssociatedUsername())) {
-//                If the authenticated User is not authorized to get this person, send an error response to the client
+    private static AuthorizedRead<Person> readPerson(String personID, String authToken) throws DataAccessException {
+        db = new Database();
+//        A signed authToken is verified in memory, so only the Person is read
+        if(SignedTokens.isSigned(authToken)) {
+            return readPersonForPrincipal(personID, SignedTokens.getInstance().verify(authToken));
+        }
+//        Serve the read from the read replica when it can vouch for the answer, otherwise read the database file
+        AuthorizedRead<Person> read = ReadReplica.getInstance().getPersonForAuthKey(personID, authToken);
+        if(read == null) {
+            try {
+//                Open the database connection
+                db.openConnection();
+//                Check the authToken, find the Person, and check who owns it with a single read
+                PersonStore pStore = db.getPersonStore();
+                read = pStore.getPersonForAuthKey(personID, authToken);
+//                Gracefully exit
+                db.closeConnection(true);
+            } catch (DataAccessException e) {
                 db.closeConnection(false);
-                throw new RequestedPersonDoesNotBelongToThisUser();
+                throw new DataAccessException(e.getMessage());
             }
+        }
+        return read;
+    }
+
+    /**
+     * readPersonForPrincipal finds the Person and checks that it belongs to the User of a verified signed authToken,
+     * who must still be the User that holds the authToken's username
+     *
+     * @return provides the result of the read
+     * @throws DataAccessException occurs when something went wrong while accessing the database
+     */
+    private static AuthorizedRead<Person> readPersonForPrincipal(String personID, Principal principal) throws DataAccessException {
+        if(principal == null) {
+            return AuthorizedRead.denied(AuthorizedRead.Outcome.INVALID_AUTH_TOKEN);
+        }
+        Person row;
+        String userID;
+        try {
+            db.openConnection();
+            PersonStore pStore = db.getPersonStore();
+            row = pStore.getPerson(personID);
+//            The username may belong to a newer User than the one the authToken was issued to
+            userID = db.getUserStore().getUserID(principal.getUsername());
             db.closeConnection(true);
         } catch (DataAccessException e) {
-            System.out.println("Something went wrong while validating input in the GetPersonService!");
             db.closeConnection(false);
             throw new DataAccessException(e.getMessage());
         }
+        if(userID == null || !userID.equals(principal.getUserID())) {
+            return AuthorizedRead.denied(AuthorizedRead.Outcome.INVALID_AUTH_TOKEN);
+        } else if(row == null) {
+            return AuthorizedRead.denied(AuthorizedRead.Outcome.NOT_FOUND, principal.getUsername());
+        } else if(!principal.getUsername().equals(row.getAssociatedUsername())) {
+            return AuthorizedRead.denied(AuthorizedRead.Outcome.NOT_OWNED, principal.getUsername());
+        }
+        return AuthorizedRead.found(row, principal.getUsername());
     }
 
     /**
      * validateAllInput performs input validation before any changes are allowed on the database
      * This will filter any potentially dangerous or crash-causing inputs from being allowed in methods that change the database
      *
-     * If the authToken isn't in the database, send an error response to the client
+     * The authToken is resolved through the SessionCache, so steady-state requests don't read the database at all
+     * If the authToken doesn't belong to any User, send an error response to the client
      *
-     * @param authToken
-     * @throws InvalidAuthTokenError
-     * @throws DataAccessException
+     * @param authToken contains the authToken that was sent with the request
+     * @return provides the Principal of the authenticated User
+     * @throws InvalidAuthTokenError occurs when the authToken doesn't belong to any User
+     * @throws DataAccessException occurs when something went wrong while accessing the database
      */
-    private static void validateAllInput(String authToken) throws InvalidAuthTokenError, DataAccessException {
+    private static Principal validateAllInput(String authToken) throws InvalidAuthTokenError, DataAccessException {
         db = new Database();
-        try {
-            Connection conn = db.openConnection();
-            AuthTokenDao aDao = new AuthTokenDao(conn);
-            if(aDao.getUserID(authToken) == null) {
-//                If the authToken isn't in the database, send an error response to the client
-                db.closeConnection(false);
-                throw new InvalidAuthTokenError();
-            }
-            db.closeConnection(true);
-        } catch (DataAccessException e) {
-            db.closeConnection(false);
-            throw new DataAccessException(e.getMessage());
+        Principal principal = SessionCache.getInstance().resolve(authToken);
+        if(principal == null) {
+//            If the authToken doesn't belong to any User, send an error response to the client
+            throw new InvalidAuthTokenError();
         }
+        return principal;
     }
 }
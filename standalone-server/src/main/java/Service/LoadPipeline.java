@@ -0,0 +1,539 @@
+/** The LoadPipeline class runs a /load as three stages that work at the same time
+ *  It keeps the writer busy with the records that were already parsed and checked, while the next ones are still being parsed
+ *
+ *  The pipeline works as follows:
+ *      The parser stage is the thread that reads the load, which hands its records to the pipeline in chunks of one kind
+ *      Each chunk is checked by a pool of worker threads, which check the values of its records, give any record without
+ *      an ID a new one, and hash the Users' passwords
+ *      A single writer thread takes the chunks in the order they were parsed, indexes their IDs with the LoadValidator,
+ *      and writes them with the LoadWriter until a record is found to be invalid
+ *      The chunks wait for the writer in a bounded queue, so a parser that gets ahead of the writer waits for it
+ *      instead of holding the rest of the load in memory
+ *      Once every chunk is written, the links between the records are checked and the LoadWriter keeps what was written
+ *      If anything fails, every stage stops and nothing that was written is kept
+ *
+ *  When the pipeline isn't pipelined, each chunk is checked and written by the thread that reads the load as soon as it is full,
+ *  which avoids handing the chunks between threads on a server with a single processor
+ *
+ *  Every stage counts its records and the time it was busy, and the throughput of each stage is logged once the load is done
+ *  The workers, the queue and whether the stages run on threads of their own are read from the familymap.load.workers,
+ *  familymap.load.queue and familymap.load.pipelined properties
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Service;
+
+import Errors.DataAccessException;
+import Errors.InternalServerError;
+import Errors.InvalidRequestDataError;
+import Model.Event;
+import Model.Person;
+import Model.User;
+import Util.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LoadPipeline {
+
+    /**
+     * CHUNK_SIZE is the number of records of one kind that are handed to the workers at once
+     */
+    static final int CHUNK_SIZE = 1000;
+
+    /**
+     * The Chunk class holds records of one kind in the order they were parsed,
+     * along with the violations the workers found in each of them
+     */
+    private static class Chunk {
+        private final String kind;
+        private final int firstIndex;
+        private final List<Object> records = new ArrayList<>(CHUNK_SIZE);
+        /**
+         * violations holds the violations of every record, and violationEnds the end of each record's violations in it
+         */
+        private final List<String> violations = new ArrayList<>();
+        private int[] violationEnds;
+
+        private Chunk(String kind, int firstIndex) {
+            this.kind = kind;
+            this.firstIndex = firstIndex;
+        }
+
+        private String describe(int i) {
+            return kind + "[" + (firstIndex + i) + "]";
+        }
+    }
+
+    /**
+     * END is queued after the last chunk, which tells the writer that the load is over
+     */
+    private static final CompletableFuture<Chunk> END = CompletableFuture.completedFuture(null);
+
+    /**
+     * workers checks the chunks of every load, or is null before the first load
+     */
+    private static ThreadPoolExecutor workers;
+    /**
+     * last holds the pipeline of the latest load, so its throughput can be looked up
+     */
+    private static volatile LoadPipeline last;
+
+    private final LoadWriter writer;
+    /**
+     * validator indexes the IDs of the records, or is null if the records were already validated as a whole
+     */
+    private final LoadValidator validator;
+    /**
+     * queue holds the chunks that are being checked or waiting for the writer, in the order they were parsed
+     */
+    private final BlockingQueue<CompletableFuture<Chunk>> queue;
+    /**
+     * writerThread writes the chunks, or is null if the thread that reads the load writes them itself
+     */
+    private final Thread writerThread;
+    /**
+     * failure holds what stopped the writer, or null if it hasn't failed
+     */
+    private volatile Throwable failure;
+    /**
+     * aborted denotes whether the load was given up, in which case the writer skips the rest of the chunks
+     */
+    private volatile boolean aborted = false;
+
+    /**
+     * current holds the chunk that is still being filled by the parser, and the counts hold the number of records
+     * of each kind that were parsed
+     */
+    private Chunk current;
+    private int userCount = 0;
+    private int personCount = 0;
+    private int eventCount = 0;
+
+    /**
+     * The metrics of each stage
+     */
+    private final long startedAt = System.nanoTime();
+    private long parsedAt;
+    private long finishedAt;
+    private long parserWaitNanos = 0;
+    private final AtomicLong checked = new AtomicLong();
+    private final AtomicLong workerNanos = new AtomicLong();
+    private long written = 0;
+    private long writerNanos = 0;
+
+    /**
+     * The constructor is private so that pipelines are only created by start
+     */
+    private LoadPipeline(LoadWriter writer, LoadValidator validator) {
+        this.writer = writer;
+        this.validator = validator;
+        this.queue = new ArrayBlockingQueue<>(Config.getLoadQueue());
+        if(Config.isLoadPipelined()) {
+            this.writerThread = new Thread(this::write, "load-writer");
+            this.writerThread.setDaemon(true);
+        } else {
+            this.writerThread = null;
+        }
+    }
+
+    /**
+     * start starts the workers and the writer of a new pipeline, which then waits for the parser's records
+     *
+     * @param writer contains the LoadWriter that the records are written with, which is only used by the writer thread
+     *               until the pipeline is finished or discarded
+     * @param validator contains the LoadValidator that checks the records, or null if they were already validated
+     * @return provides the started LoadPipeline
+     */
+    static LoadPipeline start(LoadWriter writer, LoadValidator validator) {
+        LoadPipeline pipeline = new LoadPipeline(writer, validator);
+        if(pipeline.writerThread != null) {
+            pipeline.writerThread.start();
+        }
+        last = pipeline;
+        return pipeline;
+    }
+
+    /**
+     * addUser hands the given parsed User to the pipeline
+     * @param user contains the User, which may be null or invalid
+     * @throws DataAccessException occurs when the writer already failed
+     * @throws InternalServerError occurs when the parser was interrupted while it waited for the writer
+     */
+    void addUser(User user) throws DataAccessException, InternalServerError {
+        add("users", userCount++, user);
+    }
+
+    /**
+     * addPerson hands the given parsed Person to the pipeline
+     * @param person contains the Person, which may be null or invalid
+     * @throws DataAccessException occurs when the writer already failed
+     * @throws InternalServerError occurs when the parser was interrupted while it waited for the writer
+     */
+    void addPerson(Person person) throws DataAccessException, InternalServerError {
+        add("persons", personCount++, person);
+    }
+
+    /**
+     * addEvent hands the given parsed Event to the pipeline
+     * @param event contains the Event, which may be null or invalid
+     * @throws DataAccessException occurs when the writer already failed
+     * @throws InternalServerError occurs when the parser was interrupted while it waited for the writer
+     */
+    void addEvent(Event event) throws DataAccessException, InternalServerError {
+        add("events", eventCount++, event);
+    }
+
+    /**
+     * add puts the given record in the current chunk, which is handed to the workers once it is full
+     * or a record of another kind arrives, so the chunks keep the order the records were sent in
+     */
+    private void add(String kind, int index, Object record) throws DataAccessException, InternalServerError {
+        if(current != null && !current.kind.equals(kind)) {
+            submit(current);
+            current = null;
+        }
+        if(current == null) {
+            current = new Chunk(kind, index);
+        }
+        current.records.add(record);
+        if(current.records.size() >= CHUNK_SIZE) {
+            Chunk full = current;
+            current = null;
+            submit(full);
+        }
+    }
+
+    /**
+     * submit hands the given chunk to the workers, and queues it for the writer
+     *
+     * Stop the parser if the writer already failed, since nothing the parser reads will be kept
+     * Check and write the chunk right away if the stages take turns
+     * Check the chunk on the workers
+     * Queue the chunk for the writer, waiting while the queue is full
+     */
+    private void submit(Chunk chunk) throws DataAccessException, InternalServerError {
+//        Stop the parser if the writer already failed, since nothing the parser reads will be kept
+        rethrowFailure();
+//        Check and write the chunk right away if the stages take turns
+        if(writerThread == null) {
+            accept(check(chunk));
+            rethrowFailure();
+            return;
+        }
+//        Check the chunk on the workers
+        CompletableFuture<Chunk> checking = CompletableFuture.supplyAsync(() -> check(chunk), getWorkers());
+//        Queue the chunk for the writer, waiting while the queue is full
+        put(checking);
+    }
+
+    /**
+     * put queues the given chunk for the writer, counting the time the parser waited for room in the queue
+     */
+    private void put(CompletableFuture<Chunk> chunk) throws InternalServerError {
+        long start = System.nanoTime();
+        try {
+            queue.put(chunk);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalServerError();
+        } finally {
+            parserWaitNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * check checks the values of every record of the given chunk and hashes the Users' passwords, which runs on a worker
+     * The passwords of a chunk of Users are hashed together in slices on the CredentialHasher's pool, since each one takes
+     * as long as a login does
+     */
+    private Chunk check(Chunk chunk) {
+        long start = System.nanoTime();
+        int size = chunk.records.size();
+        chunk.violationEnds = new int[size];
+        List<User> plaintext = new ArrayList<>();
+        for(int i = 0; i < size; i++) {
+            Object record = chunk.records.get(i);
+            if(validator != null) {
+                String description = chunk.describe(i);
+                if("users".equals(chunk.kind)) {
+                    LoadValidator.checkUserFields((User) record, description, chunk.violations);
+                } else if("persons".equals(chunk.kind)) {
+                    LoadValidator.checkPersonFields((Person) record, description, chunk.violations);
+                } else {
+                    LoadValidator.checkEventFields((Event) record, description, chunk.violations);
+                }
+            }
+            chunk.violationEnds[i] = chunk.violations.size();
+            if(record instanceof User && ((User) record).getPassword() != null) {
+                plaintext.add((User) record);
+            } else if(record instanceof User && ((User) record).getPasswordHash() != null) {
+//                An exported User already carries the hash its password was stored with
+                User user = (User) record;
+                user.setPassword(user.getPasswordHash());
+            }
+        }
+        try {
+            CredentialHasher.hashAll(plaintext);
+        } catch (InternalServerError e) {
+//            The writer writes nothing more once it has failed, so no User is written with its plaintext password
+            if(failure == null) {
+                failure = e;
+            }
+        }
+        checked.addAndGet(size);
+        workerNanos.addAndGet(System.nanoTime() - start);
+        return chunk;
+    }
+
+    /**
+     * write takes the chunks in the order they were parsed and writes them, which runs on the writer thread
+     *
+     * Wait for the next chunk to be checked, and stop once the load is over
+     * Write the chunk
+     */
+    private void write() {
+        while(true) {
+//            Wait for the next chunk to be checked, and stop once the load is over
+            Chunk chunk;
+            try {
+                chunk = queue.take().get();
+            } catch (InterruptedException e) {
+                failure = e;
+                return;
+            } catch (ExecutionException e) {
+                if(failure == null) {
+                    failure = e.getCause();
+                }
+                continue;
+            }
+            if(chunk == null) {
+                return;
+            }
+//            Write the chunk
+            accept(chunk);
+        }
+    }
+
+    /**
+     * accept writes the given checked chunk, unless the load was given up or the writer already failed,
+     * so the parser never waits on a full queue
+     */
+    private void accept(Chunk chunk) {
+        if(aborted || failure != null) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            writeChunk(chunk);
+        } catch (DataAccessException | RuntimeException e) {
+            failure = e;
+        }
+        writerNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * writeChunk indexes and writes every record of the given checked chunk
+     */
+    private void writeChunk(Chunk chunk) throws DataAccessException {
+        int from = 0;
+        for(int i = 0; i < chunk.records.size(); i++) {
+            Object record = chunk.records.get(i);
+            if(validator != null) {
+                for(int v = from; v < chunk.violationEnds[i]; v++) {
+                    validator.violation(chunk.violations.get(v));
+                }
+                from = chunk.violationEnds[i];
+                String description = chunk.describe(i);
+                if("users".equals(chunk.kind)) {
+                    validator.indexUser((User) record, description);
+                } else if("persons".equals(chunk.kind)) {
+                    validator.indexPerson((Person) record, description);
+                } else {
+                    validator.indexEvent((Event) record, description);
+                }
+                if(!validator.isValid()) {
+                    continue;
+                }
+            }
+            if("users".equals(chunk.kind)) {
+                writer.addUser((User) record);
+            } else if("persons".equals(chunk.kind)) {
+                writer.addPerson((Person) record);
+            } else {
+                writer.addEvent((Event) record);
+            }
+            written++;
+        }
+    }
+
+    /**
+     * finish waits for every record to be written, then keeps them if the load was valid
+     *
+     * Hand the chunk that isn't full yet to the workers, and tell the writer the load is over
+     * Wait for the writer to write every chunk, and report what stopped it if it failed
+     * Check the links between the records, reporting every violation in the load at once
+     * Keep everything that was written, and log the throughput of every stage
+     *
+     * @throws InvalidRequestDataError occurs when a record was invalid, describing every violation
+     * @throws DataAccessException occurs when the records couldn't be written or kept
+     * @throws InternalServerError occurs when a worker failed or the parser was interrupted
+     */
+    void finish() throws InvalidRequestDataError, DataAccessException, InternalServerError {
+//        Hand the chunk that isn't full yet to the workers, and tell the writer the load is over
+        if(current != null) {
+            Chunk rest = current;
+            current = null;
+            submit(rest);
+        }
+        if(writerThread != null) {
+            put(END);
+        }
+        parsedAt = System.nanoTime();
+//        Wait for the writer to write every chunk, and report what stopped it if it failed
+        if(writerThread != null) {
+            join();
+        }
+        rethrowFailure();
+//        Check the links between the records, reporting every violation in the load at once
+        if(validator != null) {
+            validator.finish();
+        }
+//        Keep everything that was written, and log the throughput of every stage
+        writer.finish();
+        finishedAt = System.nanoTime();
+        System.out.println(getReport());
+    }
+
+    /**
+     * discard stops every stage and throws away everything that was written
+     */
+    void discard() {
+        aborted = true;
+        if(writerThread != null && writerThread.isAlive()) {
+            queue.clear();
+            try {
+                put(END);
+            } catch (InternalServerError e) {
+                writerThread.interrupt();
+            }
+            join();
+        }
+        writer.discard();
+        finishedAt = System.nanoTime();
+    }
+
+    /**
+     * join waits for the writer thread to stop
+     */
+    private void join() {
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writerThread.interrupt();
+        }
+    }
+
+    /**
+     * rethrowFailure throws what stopped the writer, if it failed
+     */
+    private void rethrowFailure() throws DataAccessException, InternalServerError {
+        Throwable cause = failure;
+        if(cause instanceof DataAccessException) {
+            throw (DataAccessException) cause;
+        } else if(cause != null) {
+            cause.printStackTrace();
+            throw new InternalServerError();
+        }
+    }
+
+    /**
+     * getWorkers provides the pool that checks the chunks of every load, creating it on the first call
+     * Its queue isn't bounded, since each pipeline never has more chunks in flight than its own queue holds
+     */
+    private static synchronized ThreadPoolExecutor getWorkers() {
+        if(workers == null) {
+            int threads = Config.getLoadWorkers();
+            AtomicInteger count = new AtomicInteger();
+            workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "load-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return workers;
+    }
+
+    /**
+     * getLast provides the pipeline of the latest load
+     * @return the latest LoadPipeline, or null if nothing was loaded since the server started
+     */
+    public static LoadPipeline getLast() {
+        return last;
+    }
+
+    /**
+     * getParsed provides the number of records the parser handed to the pipeline
+     * @return the number of parsed records
+     */
+    public long getParsed() {
+        return userCount + personCount + eventCount;
+    }
+
+    /**
+     * getChecked provides the number of records the workers checked
+     * @return the number of checked records
+     */
+    public long getChecked() {
+        return checked.get();
+    }
+
+    /**
+     * getWritten provides the number of records the writer wrote
+     * @return the number of written records
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * getReport describes the throughput of every stage, which is the number of records each stage handled per second
+     * it was busy, along with how long the parser waited for the writer
+     * @return the description of the throughput
+     */
+    public String getReport() {
+        long elapsed = (finishedAt > 0 ? finishedAt : System.nanoTime()) - startedAt;
+        long parserNanos = (parsedAt > 0 ? parsedAt : startedAt + elapsed) - startedAt - parserWaitNanos;
+        if(writerThread == null) {
+//            The parser checked and wrote every chunk itself, so that time isn't spent parsing
+            parserNanos -= workerNanos.get() + writerNanos;
+        }
+        parserNanos = Math.max(0, parserNanos);
+        return "Load pipeline took " + TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms: " +
+                "parsed " + getParsed() + " records at " + perSecond(getParsed(), parserNanos) + "/s, " +
+                "checked " + getChecked() + " at " + perSecond(getChecked(), workerNanos.get()) + "/s" +
+                (writerThread != null ? " on each of " + Config.getLoadWorkers() + " workers, " : " on the parser's thread, ") +
+                "wrote " + written + " at " + perSecond(written, writerNanos) + "/s, " +
+                "parser waited " + TimeUnit.NANOSECONDS.toMillis(parserWaitNanos) + " ms for the writer";
+    }
+
+    /**
+     * perSecond provides the given number of records per second of the given busy time
+     */
+    private static long perSecond(long records, long nanos) {
+        return nanos > 0 ? records * TimeUnit.SECONDS.toNanos(1) / nanos : 0;
+    }
+}
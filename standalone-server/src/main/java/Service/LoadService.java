@@ -2,6 +2,7 @@
  *  for loading given user, person, and event data into the database
  *
  *  Loading allows for data to be loaded into the database in bulk to support easy testing
+ *  A load can be read from a LoadRequest, or streamed from the request body so its size isn't limited by the heap
  *
  * @author Cody Uhi
  * @version 1.0.0
@@ -9,10 +10,11 @@
 
 package Service;
 
-import DataAccess.Database;
-import DataAccess.EventDao;
-import DataAccess.PersonDao;
-import DataAccess.UserDao;
+import Cache.ReadReplica;
+import Cache.SessionCache;
+import Cache.SignedTokens;
+import Cache.TreeCache;
+import Errors.AncestryGeneratingError;
 import Errors.DataAccessException;
 import Errors.InternalServerError;
 import Errors.InvalidRequestDataError;
@@ -21,31 +23,19 @@ import Model.Person;
 import Model.User;
 import Requests.LoadRequest;
 import Responses.Response;
-import Util.RandomUtil;
+import Util.JsonUtil;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
-import java.sql.Connection;
-import java.util.ArrayList;
-import java.util.UUID;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 
 public class LoadService {
 
-    /**
-     * The db variable contains a Database instance which allows for data access to the persistent SQLite database
-     */
-    private static Database db;
-    /**
-     * totalUsers contains a count of the total number of Users added to the database during the fill operation
-     */
-    private static int totalUsers;
-    /**
-     * totalPersons contains a count of the total number of Persons added to the database during the fill operation
-     */
-    private static int totalPersons;
-    /**
-     * totalEvents contains a count of the total number of Events added to the database during the fill operation
-     */
-    private static int totalEvents;
-
     /**
      * Empty constructor
      */
@@ -54,6 +44,10 @@ public class LoadService {
     /** The load method performs the business logic for loading bulk data into the database
      *  The method is called when the load endpoint is hit by a request from the client
      *
+     *  The data is written in batches by a LoadWriter, which on the SQLite engine writes a new database file that then
+     *  replaces the live one, so the clear and the load happen at once and readers are served from the old file until then
+     *  The passwords are hashed by the workers of a LoadPipeline while its writer writes the records that are ready
+     *
      *  The business logic for this service is as follows:
      *   - Clear all data from the database
      *   - Load the posted user data into the database
@@ -81,6 +75,8 @@ public class LoadService {
      *
      * @throws Errors.InvalidRequestDataError       Throws invalid request data error if the request data is invalid
      * @throws Errors.InternalServerError           Throws internal server error if something went wrong while performing the operation
+     * @throws Errors.AncestryGeneratingError       Throws ancestry generating error if the ancestors that are still being generated
+     *                                              weren't finished within the ancestry wait
      *
      *                  The response body will look as follows upon failed operation:
      *                  {
@@ -88,118 +84,218 @@ public class LoadService {
      *                      "success":"false"       // Boolean identifier
      *                  }
      */
-    public static Response load(LoadRequest request) throws InvalidRequestDataError, InternalServerError, DataAccessException {
-//       Create the Response POJO and Database variables
+    public static Response load(LoadRequest request) throws InvalidRequestDataError, InternalServerError, AncestryGeneratingError, DataAccessException {
+//       Create the Response POJO
         Response response = new Response();
-        db = new Database();
 //        If the given input is invalid, validateInput will throw an error send response to the client
-        validateInput(request);
-
+        User[] users = request.getUsers() != null ? request.getUsers() : new User[0];
+        Person[] persons = request.getPersons() != null ? request.getPersons() : new Person[0];
+        Event[] events = request.getEvents() != null ? request.getEvents() : new Event[0];
+        validateInput(users, persons, events);
+//        Wait for the ancestors that are still being generated, so they aren't written after the load
+        AncestryJobs.awaitAll();
+//        Cancel the fill jobs and wait for them, so they aren't committed after the load
+        FillJobs.cancelAll();
+        LoadWriter writer = LoadWriter.open();
+        LoadPipeline pipeline = LoadPipeline.start(writer, null);
         try {
-            System.out.println("Clearing the database");
-            ClearService.clear();
-            System.out.println("Database successfully cleared!");
-            Connection conn = db.openConnection();
-            UserDao uDao = new UserDao(conn);
-//            Iterate through the users in the request and add them into the database
-            for(User user : request.getUsers()) {
-                System.out.println(user);
-                user.setPassword(RandomUtil.generateHash(user.getPassword()));
-                uDao.insertUser(user);
-                totalUsers++;
+//            Iterate through the users, persons and events in the request and add them into the database
+            for(User user : users) {
+                pipeline.addUser(user);
             }
-//            Iterate through the persons in the request and add them into the database
-            PersonDao pDao = new PersonDao(conn);
-            for(Person person : request.getPersons()) {
-                pDao.insertPerson(person);
-                for(User user : request.getUsers()) {
-                    if(person.getPersonID().equals(user.getPersonID())) {
-                        pDao.attachUserID(user.getUserID(), user.getUsername());
-                    }
-                }
-                totalPersons++;
+            for(Person person : persons) {
+                pipeline.addPerson(person);
             }
-//            Iterate through the events in the request and add them into the database
-            EventDao eDao = new EventDao(conn);
-            for(Event event : request.getEvents()) {
-                eDao.insertEvent(event);
-                totalEvents++;
+            for(Event event : events) {
+                pipeline.addEvent(event);
             }
-            db.closeConnection(true);
-        } catch(DataAccessException e) {
-            db.closeConnection(false);
-            throw new DataAccessException(e.getMessage());
+            pipeline.finish();
+        } catch(DataAccessException | InternalServerError e) {
+//            If anything failed, nothing that was written is kept
+            pipeline.discard();
+            throw e;
+        } finally {
+//            Every cached tree and session, and every signed auth token, is stale once the load has written anything,
+//            even if it failed
+            TreeCache.getInstance().invalidateAll();
+            SessionCache.getInstance().invalidateAll();
+            SignedTokens.getInstance().revokeAll();
+            ReadReplica.getInstance().recordGlobalWrite();
         }
-
-//        Set the response message and success values, then reset the counters
-        response.setMessage("Successfully added " + totalUsers + " users, " +
-                totalPersons + " persons, and " + totalEvents + " events to the database.");
-        totalPersons = 0;
-        totalEvents = 0;
-        totalUsers = 0;
+//        Set the response message and success values
+        response.setMessage(writer.getMessage());
         response.setSuccess(true);
         return response;
     }
 
     /**
-     * validateInput performs input validation before any changes are allowed on the database
-     * This will filter any potentially dangerous or crash-causing inputs from being allowed in methods that change the database
+     * load performs the same load as above, reading the request body as it is written instead of all at once
+     * The body is walked with a pull parser that hands each record to a LoadPipeline, so only the chunks in the pipeline
+     * and one batch of each kind of record are held in memory, whether the body has a thousand Events or ten million
+     * The records are checked on the pipeline's workers and written by its writer while the parser reads the rest of the body
+     * The LoadValidator still keeps every ID in the body, since the IDs have to be unique and every link has to be resolved
+     *
+     * Wait for the ancestors that are still being generated, so they aren't written after the load
+     * Walk the users, persons and events arrays in the order they were sent, skipping any other member
+     * Hand each record to the pipeline as it arrives, which validates it and writes it in its batch until a record is found to be invalid
+     * Wait for the pipeline to write every record and check the links between them, reporting every violation in the body at once,
+     * then keep everything that was written, or nothing if anything failed
      *
-     * If any of the Users have duplicates or invalid values from the request, send an error response to the client
-     * If any of the Persons have duplicates or invalid values from the request, send an error response to the client
-     * If any of the Events have duplicates or invalid values from the request, send an error response to the client
+     * @param body contains the request body, which has the same form as the LoadRequest above
+     * @return provides the same Response as the load above
+     * @throws InvalidRequestDataError occurs when the body isn't valid JSON or a record is invalid
+     */
+    public static Response load(Reader body) throws InvalidRequestDataError, InternalServerError, AncestryGeneratingError, DataAccessException {
+        return load(body, false);
+    }
+
+    /**
+     * loadLines performs the same load as above, reading a body of newline-delimited JSON such as an /export
+     * Every line is an object of its own, which is either a member of a load such as "persons":[...],
+     * or a single record such as {"person":{...}}, so an exported tree is loaded by posting it back as it was sent
      *
-     * @param request provides the LoadRequest data provided by the client
-     * @throws InvalidRequestDataError occurs if the request data had an invalid value
+     * @param body contains the request body, which has one JSON object on every line
+     * @return provides the same Response as the load above
+     * @throws InvalidRequestDataError occurs when a line isn't valid JSON or a record is invalid
      */
-    private static void validateInput(LoadRequest request) throws InvalidRequestDataError {
+    public static Response loadLines(BufferedReader body) throws InvalidRequestDataError, InternalServerError, AncestryGeneratingError, DataAccessException {
+        return load(body, true);
+    }
+
+    /**
+     * load reads the given body as a single load, or as one load object on every line
+     *
+     * Wait for the ancestors that are still being generated, so they aren't written after the load
+     * Walk the object of the body, or of every line, handing each record to the pipeline as it arrives
+     * Wait for the pipeline to write every record and check the links between them, reporting every violation in the body at once,
+     * then keep everything that was written, or nothing if anything failed
+     */
+    private static Response load(Reader body, boolean lines) throws InvalidRequestDataError, InternalServerError, AncestryGeneratingError, DataAccessException {
+        Response response = new Response();
+//        Wait for the ancestors that are still being generated, so they aren't written after the load
+        AncestryJobs.awaitAll();
+//        Cancel the fill jobs and wait for them, so they aren't committed after the load
+        FillJobs.cancelAll();
+        Gson gson = JsonUtil.getGson();
+        LoadWriter writer = LoadWriter.open();
+        LoadPipeline pipeline = LoadPipeline.start(writer, new LoadValidator());
+        long lineNumber = 0;
         try {
-//            If any of the Users have duplicates or invalid values from the request, send an error response to the client
-            User[] users = request.getUsers();
-            ArrayList<String> redundantUserChecker = new ArrayList<String>();
-            ArrayList<String> redundantPersonChecker = new ArrayList<String>();
-            for(User user : users) {
-                assert !redundantUserChecker.contains(user.getUserID()) && !redundantPersonChecker.contains(user.getPersonID());
-                redundantUserChecker.add(user.getUserID());
-                redundantPersonChecker.add(user.getPersonID());
-                if(user.getUserID() == null) {
-                    user.setUserID(UUID.randomUUID().toString());
+//            Walk the object of the body, or of every line, handing each record to the pipeline as it arrives
+            if(lines) {
+                BufferedReader lineReader = (BufferedReader) body;
+                String line;
+                while((line = lineReader.readLine()) != null) {
+                    lineNumber++;
+                    if(line.trim().isEmpty()) {
+                        continue;
+                    }
+                    JsonReader reader = new JsonReader(new StringReader(line));
+                    readObject(reader, gson, pipeline);
+                    if(reader.peek() != JsonToken.END_DOCUMENT) {
+                        throw new IllegalStateException("Line " + lineNumber + " has more than one object");
+                    }
                 }
-                assert user.getUsername() != null && !user.getUsername().equals("");
-                assert user.getPassword() != null && !user.getPassword().equals("");
-                assert user.getEmail() != null && !user.getEmail().equals("");
-                assert user.getFirstName() != null && !user.getFirstName().equals("");
-                assert user.getLastName() != null && !user.getLastName().equals("");
-                assert user.getGender().equals("m") || user.getGender().equals("f");
-                assert user.getPersonID() != null && !user.getPersonID().equals("");
+            } else {
+                readObject(new JsonReader(body), gson, pipeline);
             }
-//            If any of the Persons have duplicates or invalid values from the request, send an error response to the client
-            Person[] persons = request.getPersons();
-            redundantPersonChecker.clear();
-            for(Person person : persons) {
-                assert !redundantPersonChecker.contains(person.getPersonID());
-                redundantPersonChecker.add(person.getPersonID());
-                if(person.getPersonID() == null || "".equals(person.getPersonID())) {
-                    person.setPersonID(UUID.randomUUID().toString());
-                }
-                assert person.getFirstName() != null && !person.getFirstName().equals("");
-                assert person.getLastName() != null && !person.getLastName().equals("");
-                assert person.getGender().equals("m") || person.getGender().equals("f");
+//            Wait for the pipeline to write every record and check the links between them, reporting every violation in the body at once,
+//            then keep everything that was written, or nothing if anything failed
+            pipeline.finish();
+        } catch(IOException | JsonParseException | IllegalStateException e) {
+            pipeline.discard();
+            System.out.println("The load body isn't valid JSON: " + e.getMessage());
+            throw lines ? new InvalidRequestDataError("line " + lineNumber + " of the load is not valid JSON")
+                    : new InvalidRequestDataError();
+        } catch(InvalidRequestDataError | DataAccessException | InternalServerError e) {
+            pipeline.discard();
+            throw e;
+        } finally {
+//            Every cached tree and session, and every signed auth token, is stale once the load has written anything,
+//            even if it failed
+            TreeCache.getInstance().invalidateAll();
+            SessionCache.getInstance().invalidateAll();
+            SignedTokens.getInstance().revokeAll();
+            ReadReplica.getInstance().recordGlobalWrite();
+        }
+        response.setMessage(writer.getMessage());
+        response.setSuccess(true);
+        System.out.println(response.getMessage());
+        return response;
+    }
+
+    /**
+     * readObject walks a single load object, handing each of its records to the given pipeline
+     *
+     * Walk the users, persons and events arrays in the order they were sent, along with any single user, person or event,
+     * skipping any other member
+     */
+    private static void readObject(JsonReader reader, Gson gson, LoadPipeline pipeline) throws IOException,
+            InternalServerError, DataAccessException {
+        reader.beginObject();
+        while(reader.hasNext()) {
+            String name = reader.nextName();
+            JsonToken token = reader.peek();
+//            Walk the users, persons and events arrays in the order they were sent, along with any single user, person or event,
+//            skipping any other member
+            if(token == JsonToken.BEGIN_OBJECT && ("user".equals(name) || "person".equals(name) || "event".equals(name))) {
+                addRecord(name + "s", reader, gson, pipeline);
+                continue;
+            } else if(token != JsonToken.BEGIN_ARRAY) {
+                reader.skipValue();
+                continue;
             }
-//            If any of the Events have duplicates or invalid values from the request, send an error response to the client
-            Event[] events = request.getEvents();
-            redundantPersonChecker.clear();
-            for(Event event : events) {
-                assert !redundantPersonChecker.contains(event.getEventID());
-                redundantPersonChecker.add(event.getEventID());
-                if(event.getEventID() == null || "".equals(event.getEventID())) {
-                    event.setEventID(UUID.randomUUID().toString());
-                }
-                assert event.getPersonID() != null && !event.getPersonID().equals("");
+            reader.beginArray();
+            while(reader.hasNext()) {
+                addRecord(name, reader, gson, pipeline);
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new InvalidRequestDataError();
+            reader.endArray();
+        }
+        reader.endObject();
+    }
+
+    /**
+     * addRecord hands the next record of the reader to the pipeline, which validates it and writes it in its batch
+     * until a record is found to be invalid, or skips it if it is in a member other than users, persons or events
+     */
+    private static void addRecord(String name, JsonReader reader, Gson gson, LoadPipeline pipeline) throws IOException,
+            InternalServerError, DataAccessException {
+        if("users".equals(name)) {
+            pipeline.addUser(gson.fromJson(reader, User.class));
+        } else if("persons".equals(name)) {
+            pipeline.addPerson(gson.fromJson(reader, Person.class));
+        } else if("events".equals(name)) {
+            pipeline.addEvent(gson.fromJson(reader, Event.class));
+        } else {
+            reader.skipValue();
+        }
+    }
+
+    /**
+     * validateInput performs input validation before any changes are allowed on the database
+     * This will filter any potentially dangerous or crash-causing inputs from being allowed in methods that change the database
+     *
+     * Check every User, Person and Event from the request, giving any record without an ID a new one
+     * Check the links between them, and send every violation to the client in a single error response
+     *
+     * @param users provides the Users from the request
+     * @param persons provides the Persons from the request
+     * @param events provides the Events from the request
+     * @throws InvalidRequestDataError occurs if the request data had an invalid value, describing every violation
+     */
+    private static void validateInput(User[] users, Person[] persons, Event[] events) throws InvalidRequestDataError {
+        LoadValidator validator = new LoadValidator();
+//        Check every User, Person and Event from the request, giving any record without an ID a new one
+        for(User user : users) {
+            validator.checkUser(user);
+        }
+        for(Person person : persons) {
+            validator.checkPerson(person);
+        }
+        for(Event event : events) {
+            validator.checkEvent(event);
         }
+//        Check the links between them, and send every violation to the client in a single error response
+        validator.finish();
     }
 }
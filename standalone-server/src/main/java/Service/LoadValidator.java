@@ -0,0 +1,326 @@
+/** The LoadValidator class checks every User, Person and Event of a /load, and the links between them, in one pass
+ *  A new LoadValidator is created for every load, and checks the records one at a time in the order they arrive,
+ *  so a streamed load is validated without holding its records
+ *
+ *  The records are checked as follows:
+ *      A User needs a username, password, email, first name, last name and personID, and a gender of "m" or "f"
+ *      An exported User may carry the passwordHash it was stored with instead of its password
+ *      A Person needs a first name and last name, and a gender of "m" or "f"
+ *      An Event needs a personID
+ *      A record without an ID of its own is given a new one
+ *      No two Users may share a userID, username, email or personID, no two Persons a personID, and no two Events an eventID
+ *      Every User's personID, every Person's fatherID, motherID and spouseID, and every Event's personID has to be a loaded Person
+ *
+ *  Every ID is kept in a hash set, so each check takes constant time and a load is validated in time linear to its size
+ *  Only the IDs are kept, never the records, and a link is only remembered when its Person wasn't loaded yet
+ *  Every violation is counted, and the first MAX_REPORTED of them are described, so a single response reports them
+ *  without growing with the size of the load
+ *  The values of each record are checked on their own by the static check methods, which a LoadPipeline runs on many threads,
+ *  while the IDs are indexed on a single thread in the order the records were sent
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Service;
+
+import Errors.InvalidRequestDataError;
+import Model.Event;
+import Model.Person;
+import Model.User;
+import Util.RandomUtil;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class LoadValidator {
+
+    /**
+     * MAX_REPORTED is the most violations that are described, while the rest are only counted
+     */
+    static final int MAX_REPORTED = 100;
+
+    /**
+     * The ID sets hold every ID that was loaded, each in the set of the column it has to be unique in
+     */
+    private final Set<String> userIDs = new HashSet<>();
+    private final Set<String> usernames = new HashSet<>();
+    private final Set<String> emails = new HashSet<>();
+    private final Set<String> userPersonIDs = new HashSet<>();
+    private final Set<String> personIDs = new HashSet<>();
+    private final Set<String> eventIDs = new HashSet<>();
+    /**
+     * The unresolved lists hold every link to a Person that wasn't loaded yet when the link was checked,
+     * with the description of the linking record at the same index as the personID it links to
+     */
+    private final List<String> unresolvedIDs = new ArrayList<>();
+    private final List<String> unresolvedRecords = new ArrayList<>();
+    /**
+     * violations holds the descriptions of the first MAX_REPORTED violations, and violationCount counts all of them
+     */
+    private final List<String> violations = new ArrayList<>();
+    private int violationCount = 0;
+
+    /**
+     * The counts of the records that were checked, which are the indexes of the next records
+     */
+    private int users = 0;
+    private int persons = 0;
+    private int events = 0;
+
+    /**
+     * Empty constructor marking the class for public use
+     */
+    public LoadValidator() {}
+
+    /**
+     * checkUser checks the values of the given User and the IDs that have to be unique, and gives it a userID if it has none
+     * Its personID is checked once every Person was loaded
+     *
+     * @param user contains the User to check
+     */
+    void checkUser(User user) {
+        String record = "users[" + users++ + "]";
+        List<String> found = new ArrayList<>();
+        checkUserFields(user, record, found);
+        found.forEach(this::violation);
+        indexUser(user, record);
+    }
+
+    /**
+     * checkPerson checks the values of the given Person and its personID, and gives it a personID if it has none
+     * Its fatherID, motherID and spouseID are checked once every Person was loaded
+     *
+     * @param person contains the Person to check
+     */
+    void checkPerson(Person person) {
+        String record = "persons[" + persons++ + "]";
+        List<String> found = new ArrayList<>();
+        checkPersonFields(person, record, found);
+        found.forEach(this::violation);
+        indexPerson(person, record);
+    }
+
+    /**
+     * checkEvent checks the values of the given Event and its eventID, and gives it an eventID if it has none
+     * Its personID is checked once every Person was loaded
+     *
+     * @param event contains the Event to check
+     */
+    void checkEvent(Event event) {
+        String record = "events[" + events++ + "]";
+        List<String> found = new ArrayList<>();
+        checkEventFields(event, record, found);
+        found.forEach(this::violation);
+        indexEvent(event, record);
+    }
+
+    /**
+     * checkUserFields checks the values of the given User on their own, and gives it a userID if it has none
+     * It doesn't touch the IDs of the load, so any number of Users can be checked at the same time
+     *
+     * @param user contains the User to check
+     * @param record contains the description of the User, such as users[0]
+     * @param found receives the description of every violation
+     */
+    static void checkUserFields(User user, String record, List<String> found) {
+        if(user == null) {
+            found.add(record + " is null");
+            return;
+        }
+        require(found, record, "userName", user.getUsername());
+        if(isEmpty(user.getPasswordHash())) {
+            require(found, record, "password", user.getPassword());
+        }
+        require(found, record, "email", user.getEmail());
+        require(found, record, "firstName", user.getFirstName());
+        require(found, record, "lastName", user.getLastName());
+        requireGender(found, record, user.getGender());
+        require(found, record, "personID", user.getPersonID());
+        if(isEmpty(user.getUserID())) {
+            user.setUserID(RandomUtil.generateID());
+        }
+    }
+
+    /**
+     * checkPersonFields checks the values of the given Person on their own, and gives it a personID if it has none
+     * It doesn't touch the IDs of the load, so any number of Persons can be checked at the same time
+     *
+     * @param person contains the Person to check
+     * @param record contains the description of the Person, such as persons[0]
+     * @param found receives the description of every violation
+     */
+    static void checkPersonFields(Person person, String record, List<String> found) {
+        if(person == null) {
+            found.add(record + " is null");
+            return;
+        }
+        require(found, record, "firstName", person.getFirstName());
+        require(found, record, "lastName", person.getLastName());
+        requireGender(found, record, person.getGender());
+        if(isEmpty(person.getPersonID())) {
+            person.setPersonID(RandomUtil.generateID());
+        }
+    }
+
+    /**
+     * checkEventFields checks the values of the given Event on their own, and gives it an eventID if it has none
+     * It doesn't touch the IDs of the load, so any number of Events can be checked at the same time
+     *
+     * @param event contains the Event to check
+     * @param record contains the description of the Event, such as events[0]
+     * @param found receives the description of every violation
+     */
+    static void checkEventFields(Event event, String record, List<String> found) {
+        if(event == null) {
+            found.add(record + " is null");
+            return;
+        }
+        require(found, record, "personID", event.getPersonID());
+        if(isEmpty(event.getEventID())) {
+            event.setEventID(RandomUtil.generateID());
+        }
+    }
+
+    /**
+     * indexUser checks that the IDs of the given User are unique, and remembers its link to its Person
+     * The User's values have to be checked by checkUserFields first
+     *
+     * @param user contains the User to index, which may be null
+     * @param record contains the description of the User, such as users[0]
+     */
+    void indexUser(User user, String record) {
+        if(user == null) {
+            return;
+        }
+        unique(userIDs, record, "userID", user.getUserID());
+        unique(usernames, record, "userName", user.getUsername());
+        unique(emails, record, "email", user.getEmail());
+        unique(userPersonIDs, record, "personID", user.getPersonID());
+        link(record, "personID", user.getPersonID());
+    }
+
+    /**
+     * indexPerson checks that the personID of the given Person is unique, and remembers its links to its relatives
+     * The Person's values have to be checked by checkPersonFields first
+     *
+     * @param person contains the Person to index, which may be null
+     * @param record contains the description of the Person, such as persons[0]
+     */
+    void indexPerson(Person person, String record) {
+        if(person == null) {
+            return;
+        }
+        unique(personIDs, record, "personID", person.getPersonID());
+        link(record, "fatherID", person.getFatherID());
+        link(record, "motherID", person.getMotherID());
+        link(record, "spouseID", person.getSpouseID());
+    }
+
+    /**
+     * indexEvent checks that the eventID of the given Event is unique, and remembers its link to its Person
+     * The Event's values have to be checked by checkEventFields first
+     *
+     * @param event contains the Event to index, which may be null
+     * @param record contains the description of the Event, such as events[0]
+     */
+    void indexEvent(Event event, String record) {
+        if(event == null) {
+            return;
+        }
+        unique(eventIDs, record, "eventID", event.getEventID());
+        link(record, "personID", event.getPersonID());
+    }
+
+    /**
+     * isValid denotes whether no violation was found so far
+     * A load can stop writing its records once this is false, since none of them will be kept
+     *
+     * @return provides true if every record so far was valid
+     */
+    boolean isValid() {
+        return violationCount == 0;
+    }
+
+    /**
+     * finish checks the links to Persons that weren't loaded yet when they were checked,
+     * and reports every violation that was found
+     *
+     * @throws InvalidRequestDataError occurs when any violation was found, describing them
+     */
+    void finish() throws InvalidRequestDataError {
+        for(int i = 0; i < unresolvedIDs.size(); i++) {
+            if(!personIDs.contains(unresolvedIDs.get(i))) {
+                violation(unresolvedRecords.get(i) + " " + unresolvedIDs.get(i) + " is not a loaded Person");
+            }
+        }
+        unresolvedIDs.clear();
+        unresolvedRecords.clear();
+        if(violationCount > 0) {
+            StringBuilder details = new StringBuilder();
+            details.append(violationCount).append(violationCount == 1 ? " violation: " : " violations: ");
+            details.append(String.join("; ", violations));
+            if(violationCount > violations.size()) {
+                details.append("; and ").append(violationCount - violations.size()).append(" more");
+            }
+            throw new InvalidRequestDataError(details.toString());
+        }
+    }
+
+    /**
+     * require adds a violation to the given list if the given value of the given record is missing
+     */
+    private static void require(List<String> found, String record, String field, String value) {
+        if(isEmpty(value)) {
+            found.add(record + " is missing its " + field);
+        }
+    }
+
+    /**
+     * requireGender adds a violation to the given list if the given gender of the given record isn't "m" or "f"
+     */
+    private static void requireGender(List<String> found, String record, String gender) {
+        if(!"m".equals(gender) && !"f".equals(gender)) {
+            found.add(record + " has a gender other than m or f");
+        }
+    }
+
+    /**
+     * unique adds the given ID to the given set, and records a violation if it was already there
+     */
+    private void unique(Set<String> ids, String record, String field, String id) {
+        if(!isEmpty(id) && !ids.add(id)) {
+            violation(record + " " + field + " " + id + " was already used");
+        }
+    }
+
+    /**
+     * link remembers the given link to a Person if the Person wasn't loaded yet, so it is checked by finish
+     */
+    private void link(String record, String field, String personID) {
+        if(!isEmpty(personID) && !personIDs.contains(personID)) {
+            unresolvedIDs.add(personID);
+            unresolvedRecords.add(record + " " + field);
+        }
+    }
+
+    /**
+     * violation counts the given violation, and keeps its description if fewer than MAX_REPORTED were kept
+     * @param description contains the description of the violation
+     */
+    void violation(String description) {
+        violationCount++;
+        if(violations.size() < MAX_REPORTED) {
+            violations.add(description);
+        }
+    }
+
+    /**
+     * isEmpty denotes whether the given value is null or an empty String
+     */
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+}
@@ -0,0 +1,233 @@
+/** The LoadWriter class writes the Users, Persons and Events of a /load in batches as they arrive
+ *  It never holds more than one batch of each kind of record, so a load of any size is written in the same memory
+ *
+ *  The writer works as follows:
+ *      On the SQLITE engine, the records are written into a new database file which then replaces the live one,
+ *      so the clear and the load happen at once and readers are served from the old file until then
+ *      On the other engines, the database is cleared and the records are written on a single transaction
+ *      Each kind of record is buffered until a batch is full, and then written as one batch
+ *      The Users' passwords are hashed by the LoadPipeline's workers before they reach the writer
+ *      Once every record is written, every User is attached to their own Person
+ *      If anything fails, the writer is discarded and nothing that was written is kept
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Service;
+
+import DataAccess.Database;
+import DataAccess.Snapshot;
+import DataAccess.StorageEngine;
+import Errors.DataAccessException;
+import Errors.InternalServerError;
+import Model.Event;
+import Model.Person;
+import Model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class LoadWriter {
+
+    /**
+     * BATCH_SIZE is the number of records of one kind that are buffered before they are written
+     */
+    static final int BATCH_SIZE = 5000;
+
+    /**
+     * snapshot holds the new database file on the SQLITE engine, or null on the other engines
+     */
+    private final Snapshot snapshot;
+    /**
+     * db holds the open transaction on the other engines, or null on the SQLITE engine
+     */
+    private final Database db;
+
+    /**
+     * The buffers hold the records that weren't written yet
+     */
+    private final List<User> users = new ArrayList<>();
+    private final List<Person> persons = new ArrayList<>();
+    private final List<Event> events = new ArrayList<>();
+    /**
+     * attachments holds the userID and username of every User on the engines other than SQLITE,
+     * which attach Persons to Users by username instead of with a single statement
+     */
+    private final List<String[]> attachments = new ArrayList<>();
+
+    /**
+     * The counts of the records that were added
+     */
+    private int totalUsers = 0;
+    private int totalPersons = 0;
+    private int totalEvents = 0;
+
+    /**
+     * The constructor is private so that writers are only created by open
+     */
+    private LoadWriter(Snapshot snapshot, Database db) {
+        this.snapshot = snapshot;
+        this.db = db;
+    }
+
+    /**
+     * open creates a writer for the current storage engine
+     * On the SQLITE engine, it builds a new database file, and on the others it clears the database and opens a transaction
+     *
+     * @return provides the LoadWriter
+     * @throws InternalServerError occurs when the database couldn't be cleared
+     * @throws DataAccessException occurs when the new database file or the transaction couldn't be opened
+     */
+    static LoadWriter open() throws InternalServerError, DataAccessException {
+        if(Database.getStorageEngine() == StorageEngine.SQLITE) {
+            return new LoadWriter(Snapshot.build(), null);
+        }
+        System.out.println("Clearing the database");
+        ClearService.clear();
+        System.out.println("Database successfully cleared!");
+        Database db = new Database();
+        db.openConnection();
+        return new LoadWriter(null, db);
+    }
+
+    /**
+     * addUser buffers the given validated User, whose password is already hashed, and writes the Users once a batch is full
+     * @param user contains the User to add
+     * @throws DataAccessException occurs when the batch couldn't be written
+     */
+    void addUser(User user) throws DataAccessException {
+        users.add(user);
+        totalUsers++;
+        if(snapshot == null) {
+            attachments.add(new String[] { user.getUserID(), user.getUsername() });
+        }
+        if(users.size() >= BATCH_SIZE) {
+            flushUsers();
+        }
+    }
+
+    /**
+     * addPerson buffers the given validated Person, and writes the Persons once a batch is full
+     * @param person contains the Person to add
+     * @throws DataAccessException occurs when the batch couldn't be written
+     */
+    void addPerson(Person person) throws DataAccessException {
+        persons.add(person);
+        totalPersons++;
+        if(persons.size() >= BATCH_SIZE) {
+            flushPersons();
+        }
+    }
+
+    /**
+     * addEvent buffers the given validated Event, and writes the Events once a batch is full
+     * @param event contains the Event to add
+     * @throws DataAccessException occurs when the batch couldn't be written
+     */
+    void addEvent(Event event) throws DataAccessException {
+        events.add(event);
+        totalEvents++;
+        if(events.size() >= BATCH_SIZE) {
+            flushEvents();
+        }
+    }
+
+    /**
+     * flushUsers writes the buffered Users as one batch
+     */
+    private void flushUsers() throws DataAccessException {
+        if(users.isEmpty()) {
+            return;
+        }
+        if(snapshot != null) {
+            snapshot.getUserDao().addUsers(users);
+        } else {
+            for(User user : users) {
+                db.getUserStore().addUser(user);
+            }
+        }
+        users.clear();
+    }
+
+    /**
+     * flushPersons writes the buffered Persons as one batch
+     */
+    private void flushPersons() throws DataAccessException {
+        if(persons.isEmpty()) {
+            return;
+        }
+        if(snapshot != null) {
+            snapshot.getPersonDao().addPersons(persons);
+        } else {
+            db.getPersonStore().addPersons(persons);
+        }
+        persons.clear();
+    }
+
+    /**
+     * flushEvents writes the buffered Events as one batch
+     */
+    private void flushEvents() throws DataAccessException {
+        if(events.isEmpty()) {
+            return;
+        }
+        if(snapshot != null) {
+            snapshot.getEventDao().insertEvents(events);
+        } else {
+            db.getEventStore().insertEvents(events);
+        }
+        events.clear();
+    }
+
+    /**
+     * finish writes the rest of the records, attaches every User to their own Person, and keeps everything that was written
+     *
+     * Write what is left in every buffer
+     * Attach every User to their own Person
+     * Swap the new database file in for the live one, or commit the transaction
+     *
+     * @throws DataAccessException occurs when the records couldn't be written or kept, in which case the writer has to be discarded
+     */
+    void finish() throws DataAccessException {
+//        Write what is left in every buffer
+        flushUsers();
+        flushPersons();
+        flushEvents();
+//        Attach every User to their own Person
+        if(snapshot != null) {
+            snapshot.getPersonDao().attachRootPersons();
+//            Swap the new database file in for the live one, or commit the transaction
+            snapshot.publish();
+        } else {
+            for(String[] attachment : attachments) {
+                db.getPersonStore().attachUserID(attachment[0], attachment[1]);
+            }
+            db.closeConnection(true);
+        }
+    }
+
+    /**
+     * discard throws away everything that was written, leaving the database as it was before the writer was opened
+     */
+    void discard() {
+        if(snapshot != null) {
+            snapshot.discard();
+        } else {
+            try {
+                db.closeConnection(false);
+            } catch (DataAccessException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * getMessage provides the message of a successful load, with the number of added Users, Persons and Events
+     * @return the message
+     */
+    String getMessage() {
+        return "Successfully added " + totalUsers + " users, " +
+                totalPersons + " persons, and " + totalEvents + " events to the database.";
+    }
+}
@@ -9,10 +9,13 @@
 
 package Service;
 
-import DataAccess.AuthTokenDao;
+import Cache.Principal;
+import Cache.ReadReplica;
+import Cache.SessionCache;
+import Cache.SignedTokens;
+import DataAccess.TokenStore;
 import DataAccess.Database;
-import DataAccess.PersonDao;
-import DataAccess.UserDao;
+import DataAccess.UserStore;
 import Errors.DataAccessException;
 import Errors.InternalServerError;
 import Errors.RequestPropertyInvalidValue;
@@ -20,18 +23,13 @@ import Errors.RequestPropertyMissingValue;
 import Model.AuthorizationToken;
 import Requests.LoginRequest;
 import Responses.LoginResponse;
+import Util.Config;
 import Util.RandomUtil;
 
-import java.sql.Connection;
-import java.util.UUID;
+import java.util.List;
 
 public class LoginService {
 
-    /**
-     * The db variable contains a Database instance which allows for data access to the persistent SQLite database
-     */
-    private static Database db;
-
     /**
      * Empty constructor
      */
@@ -41,8 +39,10 @@ public class LoginService {
      *  The method is called when the login endpoint is hit by a request from the client
      *
      *  The business logic for this service is as follows:
-     *   - Login the user
-     *   - Return an AuthenticationToken
+     *   - Login the user, replacing their stored password hash if it is weaker than a new one would be
+     *   - Return an AuthenticationToken, which is stored, or signed without touching the AuthorizationTokens table
+     *
+     *  The password is hashed on the calling thread, which the LoginHandler keeps off the server's dispatcher
      *
      * @param request   the request parameter is a member of the LoginRequest class,
      *                  and has the information that would be passed in JSON for the login operation
@@ -82,39 +82,77 @@ public class LoginService {
         LoginResponse response = new LoginResponse();
 //        If the given input is invalid, validateInput will throw an error send response to the client
         validateInput(request);
-        db = new Database();
+//        The Database is local, since logins run on several credential threads at once
+        Database db = new Database();
 
 //        Initialize to comboFound to false for fail-safe default permission design
         boolean comboFound = false;
         String personID = null;
         AuthorizationToken authToken = new AuthorizationToken();
-        authToken.setAuthKey(UUID.randomUUID().toString());
+        authToken.setAuthKey(RandomUtil.generateAuthKey());
         authToken.setUserID(null);
 
+        String stored;
+//        A revocation that happens after this point also revokes a signed authToken issued by this login
+        long tokenEpoch = SignedTokens.getInstance().getEpoch();
         try {
-//            Hash the password and compare it with the database contents
-            String pWord = RandomUtil.generateHash(request.getPassword());
-            Connection conn = db.openConnection();
-            UserDao uDao = new UserDao(conn);
-//            If the user/pass combo is found, this will be true
-            comboFound = uDao.loginUser(request.getUserName(), pWord);
-            authToken.setUserID(uDao.getUserID(request.getUserName()));
+            db.openConnection();
+            UserStore uStore = db.getUserStore();
+            stored = uStore.getPasswordHash(request.getUserName());
+            authToken.setUserID(uStore.getUserID(request.getUserName()));
+            if(authToken.getUserID() != null) {
+                personID = db.getPersonStore().getPersonIDByUserID(authToken.getUserID());
+            }
             db.closeConnection(true);
         } catch (DataAccessException e) {
             db.closeConnection(false);
             throw new DataAccessException(e.getMessage());
         }
+//        Hash the password with the stored hash's salt and iterations after the connection is closed,
+//        and if they match, this will be true
+        comboFound = CredentialHasher.verify(request.getPassword(), stored);
 
         if(comboFound) {
-//            If the combo was found, insert a new row to the authToken table and generate an authToken for the response
+//            A hash with fewer iterations than are in use now, or an MD5 hash, is replaced now that the password is known
+            String rehashed = null;
+            if(CredentialHasher.needsRehash(stored)) {
+                System.out.println("Rehashing the password of " + request.getUserName() + " with " +
+                        CredentialHasher.getIterations() + " iterations");
+                rehashed = CredentialHasher.hash(request.getPassword());
+            }
             System.out.println("Correct Username/Password combination found");
+            if(Config.isSignedTokens()) {
+//                A signed authToken carries the User's Principal, so nothing is written unless the password was rehashed
+                if(rehashed != null) {
+                    writePasswordHash(db, request.getUserName(), rehashed);
+                }
+                authToken.setExpiresAt(System.currentTimeMillis() + Config.getTokenLifetimeMillis());
+                authToken.setAuthKey(SignedTokens.getInstance().issue(new Principal(authToken.getUserID(),
+                        request.getUserName(), personID, authToken.getExpiresAt()), tokenEpoch));
+                return respond(response, authToken, request.getUserName(), personID);
+            }
+//            If the combo was found, insert a new row to the authToken table and generate an authToken for the response
+            long sessionGeneration = SessionCache.getInstance().getGeneration();
             try {
-                Connection conn = db.openConnection();
-                PersonDao pDao = new PersonDao(conn);
-                personID = pDao.getPersonIDByUserID(authToken.getUserID());
-                AuthTokenDao aDao = new AuthTokenDao(conn);
-                aDao.insertAuthToken(UUID.randomUUID().toString(),authToken);
+                db.openConnection();
+                if(rehashed != null) {
+                    db.getUserStore().setPasswordHash(request.getUserName(), rehashed);
+                }
+                TokenStore aStore = db.getTokenStore();
+                authToken.setIssuedAt(System.currentTimeMillis());
+                authToken.setExpiresAt(authToken.getIssuedAt() + Config.getTokenLifetimeMillis());
+                aStore.addAuthToken(RandomUtil.generateID(),authToken);
+//                Keep the User within the per-user authToken cap by deleting its oldest authTokens in the same transaction
+                List<String> evicted = aStore.evictOldestTokens(authToken.getUserID(), Config.getMaxTokensPerUser());
                 db.closeConnection(true);
+//                The new authToken and the evicted ones are written, so this User's reads skip the read replica until it catches up
+                ReadReplica.getInstance().recordWrite(request.getUserName());
+                if(!evicted.isEmpty()) {
+                    SessionCache.getInstance().invalidate(evicted);
+                }
+//                Cache the new session so requests made with this authToken don't need to read the database
+                SessionCache.getInstance().put(authToken.getAuthKey(), new Principal(authToken.getUserID(),
+                        request.getUserName(), personID, authToken.getExpiresAt()), sessionGeneration);
             } catch (DataAccessException e) {
                 db.closeConnection(false);
                 throw new DataAccessException(e.getMessage());
@@ -123,14 +161,35 @@ public class LoginService {
             System.out.println("Username/Password combination not found!");
             throw new RequestPropertyInvalidValue();
         }
-//        Define response values and send them back to the client
+        return respond(response, authToken, request.getUserName(), personID);
+    }
+
+    /**
+     * respond defines the response values so they can be sent back to the client
+     */
+    private static LoginResponse respond(LoginResponse response, AuthorizationToken authToken, String username, String personID) {
         response.setAuthToken(authToken.getAuthKey());
-        response.setUserName(request.getUserName());
+        response.setUserName(username);
         response.setPersonID(personID);
         response.setSuccess(true);
         return response;
     }
 
+    /**
+     * writePasswordHash replaces the stored hash of the given User's password in a transaction of its own
+     */
+    private static void writePasswordHash(Database db, String username, String passwordHash) throws DataAccessException {
+        try {
+            db.openConnection();
+            db.getUserStore().setPasswordHash(username, passwordHash);
+            db.closeConnection(true);
+        } catch (DataAccessException e) {
+            db.closeConnection(false);
+            throw new DataAccessException(e.getMessage());
+        }
+        ReadReplica.getInstance().recordWrite(username);
+    }
+
     /**
      * validateInput performs input validation before any changes are allowed on the database
      * This will filter any potentially dangerous or crash-causing inputs from being allowed in methods that change the database
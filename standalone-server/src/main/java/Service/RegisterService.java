@@ -10,6 +10,10 @@
 
 package Service;
 
+import Cache.Principal;
+import Cache.ReadReplica;
+import Cache.SessionCache;
+import Cache.SignedTokens;
 import DataAccess.*;
 import Errors.*;
 import Model.AuthorizationToken;
@@ -18,20 +22,12 @@ import Model.Person;
 import Model.User;
 import Requests.RegisterRequest;
 import Responses.RegisterResponse;
-import Util.JsonUtil;
+import Util.Config;
 import Util.RandomUtil;
-import com.google.gson.JsonObject;
-
-import java.sql.Connection;
-import java.util.UUID;
+import Util.ResourceCatalog;
 
 public class RegisterService extends Service {
 
-    /**
-     * The db variable contains a Database instance which allows for data access to the persistent SQLite database
-     */
-    private static Database db;
-
     /**
      * Empty constructor
      */
@@ -41,10 +37,10 @@ public class RegisterService extends Service {
      *  The method is called when the register endpoint is hit by a request from the client
      *
      *  The business logic for this service is as follows:
-     *   - Create a new user account
-     *   - Generate 4 generations of ancestor data for the new user
-     *   - Login the user
-     *   - Return an AuthenticationToken
+     *   - Create a new user account, their Person and an AuthenticationToken in one transaction,
+     *     or sign the AuthenticationToken instead of storing it when signed tokens are enabled
+     *   - Start generating 4 generations of ancestor data for the new user in the background
+     *   - Return the AuthenticationToken without waiting for the ancestors
      *
      * @param request   the request parameter is a member of the RegisterRequest class,
      *                  and has the information that would be passed in JSON for the register operation
@@ -89,89 +85,78 @@ public class RegisterService extends Service {
 //        Create the Response POJO and Database variables
         System.out.println("Entered the register method");
         RegisterResponse response = new RegisterResponse();
-        db = new Database();
+//        The Database is local, since registrations run on several credential threads at once
+        Database db = new Database();
 //        If the given input is invalid, validateInput will throw an error send response to the client
         validateInput(request);
 //        Create a new User for the register result
-        String newUserID = UUID.randomUUID().toString();
-        String newPersonID = UUID.randomUUID().toString();
+        String newUserID = RandomUtil.generateID();
+        String newPersonID = RandomUtil.generateID();
         User user = new User(newUserID,
                 request.getUserName(),
-                RandomUtil.generateHash(request.getPassword()),
+                CredentialHasher.hash(request.getPassword()),
                 request.getEmail(),
                 request.getFirstName(),
                 request.getLastName(),
                 request.getGender(),
                 newPersonID);
-        try {
-//            Insert the new User into the database
-            Connection conn = db.openConnection();
-            UserDao uDao = new UserDao(conn);
-            uDao.insertUser(user);
-            db.closeConnection(true);
-        } catch (DataAccessException e) {
-            db.closeConnection(false);
-            throw new DataAccessException(e.getMessage());
-        }
-
-//        Create a new Person for the register result
+//        Create a new Person for the register result, which has no spouse, so its spouseID is left empty
         Person person = new Person(newPersonID,
                 request.getUserName(),
                 request.getFirstName(),
                 request.getLastName(),
                 request.getGender(),
-                UUID.randomUUID().toString(),
-                UUID.randomUUID().toString(),
-                UUID.randomUUID().toString());
+                RandomUtil.generateID(),
+                RandomUtil.generateID(),
+                null);
 //        The birth location and date is randomly generated from assets that were provided
-        JsonObject birthLocation = JsonUtil.getJsonFile("json/locations.json")
-                .getAsJsonArray("data")
-                .get((int) (977 * Math.random()))
-                .getAsJsonObject();
         Event birth = new Event();
-        birth.setEventID(UUID.randomUUID().toString());
+        birth.setEventID(RandomUtil.generateID());
         birth.setAssociatedUsername(request.getUserName());
-        birth.setLatitude(birthLocation.get("latitude").getAsLong());
-        birth.setLongitude(birthLocation.get("longitude").getAsLong());
-        birth.setCountry(birthLocation.get("country").toString());
-        birth.setCity(birthLocation.get("city").toString());
+        ResourceCatalog.getInstance().placeEventRandomly(birth);
         birth.setEventType("birth");
         birth.setYear(2020);
         birth.setPersonID(newPersonID);
-        try {
-//            Insert the new Person into the database
-            Connection conn = db.openConnection();
-            PersonDao pDao = new PersonDao(conn);
-            pDao.insertPerson(person);
-            pDao.attachUserID(newUserID, request.getUserName());
-            EventDao eDao = new EventDao(conn);
-            eDao.insertEvent(birth);
-            db.closeConnection(true);
-        } catch (DataAccessException e) {
-            db.closeConnection(false);
-            throw new DataAccessException(e.getMessage());
-        }
-//        Call the FillService to fill the database with more Persons going 4 generations back by default
-        FillService.fillHelper(4, person, 2020);
-        System.out.println("Created " +
-                FillService.getTotalPersons() +
-                " persons and " +
-                FillService.getTotalEvents() +
-                " events of ancestors for the new user");
-
-//        Create an authToken and add it to the database
+//        Create an authToken for the new User
         AuthorizationToken authToken = new AuthorizationToken();
         authToken.setUserID(newUserID);
-        authToken.setAuthKey(UUID.randomUUID().toString());
+        authToken.setAuthKey(RandomUtil.generateAuthKey());
+        authToken.setIssuedAt(System.currentTimeMillis());
+        authToken.setExpiresAt(authToken.getIssuedAt() + Config.getTokenLifetimeMillis());
+        long sessionGeneration = SessionCache.getInstance().getGeneration();
+        long tokenEpoch = SignedTokens.getInstance().getEpoch();
         try {
-            Connection conn = db.openConnection();
-            AuthTokenDao aDao = new AuthTokenDao(conn);
-            response.setAuthToken(aDao.insertAuthToken(UUID.randomUUID().toString(), authToken));
+//            Insert the new User, their Person and birth Event, and the authToken into the database in one transaction
+            db.openConnection();
+            UserStore uStore = db.getUserStore();
+            uStore.addUser(user);
+            PersonStore pStore = db.getPersonStore();
+            pStore.addPerson(person);
+            pStore.attachUserID(newUserID, request.getUserName());
+            EventStore eStore = db.getEventStore();
+            eStore.insertEvent(birth);
+            if(!Config.isSignedTokens()) {
+                TokenStore aStore = db.getTokenStore();
+                aStore.addAuthToken(RandomUtil.generateID(), authToken);
+            }
             db.closeConnection(true);
         } catch (DataAccessException e) {
             db.closeConnection(false);
             throw new DataAccessException(e.getMessage());
         }
+        ReadReplica.getInstance().recordWrite(request.getUserName());
+        Principal principal = new Principal(newUserID, request.getUserName(), newPersonID, authToken.getExpiresAt());
+        if(Config.isSignedTokens()) {
+//            A signed authToken carries the new User's Principal, so it was never written
+            response.setAuthToken(SignedTokens.getInstance().issue(principal, tokenEpoch));
+        } else {
+//            Cache the new session so requests made with this authToken don't need to read the database
+            response.setAuthToken(authToken.getAuthKey());
+            SessionCache.getInstance().put(authToken.getAuthKey(), principal, sessionGeneration);
+        }
+//        Generate 4 generations of ancestors in the background, and the User's reads wait for them
+        AncestryJobs.submit(person, 2020, 4);
+
 //        Define response values and send them back to the client
         response.setPersonID(newPersonID);
         response.setUserName(request.getUserName());
@@ -207,11 +192,12 @@ public class RegisterService extends Service {
         if(!"m".equals(request.getGender()) && !"f".equals(request.getGender())) {
             throw new RequestPropertyInvalidValue();
         }
+        Database db = new Database();
         try {
 //            If the username is already taken in the database, send an error response to the client
-            Connection conn = db.openConnection();
-            UserDao uDao = new UserDao(conn);
-            if(uDao.usernameExists(request.getUserName())) {
+            db.openConnection();
+            UserStore uStore = db.getUserStore();
+            if(uStore.usernameExists(request.getUserName())) {
                 System.out.println(request.getUserName() + " is a username that has already been taken");
                 db.closeConnection(false);
                 throw new UserNameAlreadyTakenError();
@@ -6,54 +6,32 @@
  */
 package Service;
 
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.stream.Stream;
+import Errors.InternalServerError;
+import Util.ResourceCatalog;
 
 public class Service {
 
     /**
      * getRandomFirstName uses the given gender to randomly select a first name from the first name asset stored at
      * resources/maleNames.txt or resources/femaleNames.txt
-     *
-     * If the Person is male, randomly select a first name from the male file
-     * If the Person is female, randomly select a first name from the female file
+     * The names are picked from the ResourceCatalog, which read the files once at startup
      *
      * @param gender contains the gender of the Person so that the proper first name can be generated based on gender
      * @return provides a String containing the randomly selected name based on the gender
+     * @throws InternalServerError occurs when the name assets couldn't be loaded
      */
-    protected static String getRandomFirstName(String gender) {
-        if("m".equals(gender)) {
-//            If the Person is male, randomly select a first name from the male file
-            try(Stream<String> allLines = Files.lines(Paths.get("resources/maleNames.txt"))) {
-                return allLines.skip((int) (3901 * Math.random())).findFirst().get();
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        } else if ("f".equals(gender)){
-//            If the Person is female, randomly select a first name from the female file
-            try(Stream<String> allLines = Files.lines(Paths.get("resources/femaleNames.txt"))) {
-                return allLines.skip((int) (4945 * Math.random())).findFirst().get();
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }
-        return null;
+    protected static String getRandomFirstName(String gender) throws InternalServerError {
+        return ResourceCatalog.getInstance().randomFirstName(gender);
     }
 
     /**
      * getRandomLastName randomly selects a last name from the lastName asset that was found online
-     *
-     * Randomly retrieve the last name from the resources/lastNames.txt file
+     * The names are picked from the ResourceCatalog, which read resources/lastNames.txt once at startup
      *
      * @return provides a randomly selected last name from the lastNames file
+     * @throws InternalServerError occurs when the name assets couldn't be loaded
      */
-    protected static String getRandomLastName() {
-        try(Stream<String> allLines = Files.lines(Paths.get("resources/lastNames.txt"))) {
-            return allLines.skip((int) (6298 * Math.random())).findFirst().get();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return null;
+    protected static String getRandomLastName() throws InternalServerError {
+        return ResourceCatalog.getInstance().randomLastName();
     }
 }
@@ -0,0 +1,169 @@
+/** The TemplatePool class keeps pre-generated TreeTemplates ready, so unseeded fills and registrations only stamp a tree
+ *  instead of generating it while the request waits
+ *
+ *  The pool works as follows:
+ *      Each number of generations has a queue of its own, which is created the first time a tree of that size is asked for
+ *      Taking a template removes it from its queue, and a queue that isn't full is refilled on a single background thread
+ *      The refill pauses between templates, so it never takes over the server's time
+ *      A request that finds its queue empty generates its tree itself, just like a seeded fill always does
+ *      Trees deeper than the most pooled generations are always generated, since their templates would take up too much memory
+ *
+ *  The size of each queue, the most pooled generations and the pause between refills are read from the
+ *  familymap.templates.size, familymap.templates.maxGenerations and familymap.templates.refillMillis properties
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Service;
+
+import Errors.InternalServerError;
+import Util.Config;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TemplatePool {
+
+    /**
+     * templates holds the queue of ready templates for each number of generations
+     */
+    private static final ConcurrentHashMap<Integer, ArrayBlockingQueue<TreeTemplate>> templates = new ConcurrentHashMap<>();
+    /**
+     * refilling holds every number of generations whose queue is being refilled
+     */
+    private static final Set<Integer> refilling = ConcurrentHashMap.newKeySet();
+    /**
+     * executor runs the refills on a single daemon thread, or is null before the first refill
+     */
+    private static ExecutorService executor;
+
+    /**
+     * The metrics of the pool
+     */
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Empty constructor marking the class for public use
+     */
+    public TemplatePool() {}
+
+    /**
+     * take provides a ready template of the given number of generations, and starts refilling its queue
+     *
+     * @param generations contains the number of generations of the tree
+     * @return provides the TreeTemplate, or null if none is ready and the tree has to be generated
+     */
+    static TreeTemplate take(int generations) {
+        ArrayBlockingQueue<TreeTemplate> queue = getQueue(generations);
+        if(queue == null) {
+            return null;
+        }
+        TreeTemplate template = queue.poll();
+        (template == null ? misses : hits).incrementAndGet();
+        refill(generations, queue);
+        return template;
+    }
+
+    /**
+     * warm starts filling the queue of the given number of generations before any tree of that size is asked for,
+     * which is called when the server starts
+     *
+     * @param generations contains the number of generations of the trees
+     */
+    public static void warm(int generations) {
+        ArrayBlockingQueue<TreeTemplate> queue = getQueue(generations);
+        if(queue != null) {
+            System.out.println("Pre-generating " + queue.remainingCapacity() + " trees of " + generations + " generations");
+            refill(generations, queue);
+        }
+    }
+
+    /**
+     * getQueue provides the queue of the given number of generations, creating it on the first call
+     * @return provides the queue, or null if trees of that size aren't pooled
+     */
+    private static ArrayBlockingQueue<TreeTemplate> getQueue(int generations) {
+        int size = Config.getTemplatePoolSize();
+        if(size == 0 || generations <= 0 || generations > Config.getTemplateMaxGenerations()) {
+            return null;
+        }
+        return templates.computeIfAbsent(generations, key -> new ArrayBlockingQueue<>(size));
+    }
+
+    /**
+     * refill generates templates on the background thread until the given queue is full, unless it is already being refilled
+     *
+     * Only one refill runs for each number of generations at a time
+     * Generate a template and wait before the next one, until the queue is full
+     * A refill that fails is logged and stops, and the next template that is taken starts another
+     */
+    private static void refill(int generations, ArrayBlockingQueue<TreeTemplate> queue) {
+//        Only one refill runs for each number of generations at a time
+        if(queue.remainingCapacity() == 0 || !refilling.add(generations)) {
+            return;
+        }
+        getExecutor().execute(() -> {
+            try {
+//                Generate a template and wait before the next one, until the queue is full
+                while(queue.remainingCapacity() > 0) {
+                    queue.offer(TreeTemplate.generate(generations));
+                    Thread.sleep(Config.getTemplateRefillMillis());
+                }
+            } catch (InternalServerError | RuntimeException e) {
+//                A refill that fails is logged and stops, and the next template that is taken starts another
+                System.out.println("Unable to pre-generate trees of " + generations + " generations");
+                e.printStackTrace();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                refilling.remove(generations);
+            }
+        });
+    }
+
+    /**
+     * getReady provides the number of templates that are ready for the given number of generations
+     * @param generations contains the number of generations of the trees
+     * @return the number of ready templates
+     */
+    public static int getReady(int generations) {
+        ArrayBlockingQueue<TreeTemplate> queue = templates.get(generations);
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * getHits provides the number of trees that were stamped from a ready template
+     * @return the number of hits
+     */
+    public static long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * getMisses provides the number of pooled trees that had to be generated because no template was ready
+     * @return the number of misses
+     */
+    public static long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * getExecutor provides the thread that refills the pool, creating it on the first call
+     */
+    private static synchronized ExecutorService getExecutor() {
+        if(executor == null) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "template-pool");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+}
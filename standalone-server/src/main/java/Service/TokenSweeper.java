@@ -0,0 +1,108 @@
+/** The TokenSweeper class deletes expired auth tokens in the background so the AuthorizationTokens table doesn't grow forever
+ *  Expired auth tokens are already rejected when they are used, so the sweeper only reclaims their space
+ *
+ *  The sweeper works as follows:
+ *      Every sweep deletes the expired auth tokens in chunks, each in its own short transaction,
+ *      so a large backlog never holds the database lock long enough to stall logins or authenticated requests
+ *      A sweep stops as soon as a chunk deletes fewer auth tokens than the chunk size
+ *      A failed sweep is logged and retried on the next interval
+ *
+ *  The interval is read from the familymap.token.sweepSeconds property (defaults to 60 seconds)
+ *  and the chunk size from the familymap.token.sweepChunk property (defaults to 500 auth tokens)
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Service;
+
+import DataAccess.Database;
+import Errors.DataAccessException;
+import Util.Config;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class TokenSweeper {
+
+    /**
+     * executor runs the sweeps on a single daemon thread so it never keeps the server process alive
+     */
+    private static ScheduledExecutorService executor;
+
+    /**
+     * Empty constructor marking the class for public use
+     */
+    public TokenSweeper() {}
+
+    /**
+     * start schedules the sweeps, which is called once when the server starts
+     * Calling it again while the sweeper is already running does nothing
+     */
+    public static synchronized void start() {
+        if(executor != null) {
+            return;
+        }
+        long interval = Math.max(1, Config.getLong("familymap.token.sweepSeconds", 60));
+        int chunkSize = Math.max(1, Config.getInt("familymap.token.sweepChunk", 500));
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                int deleted = sweep(System.currentTimeMillis(), chunkSize);
+                if(deleted > 0) {
+                    System.out.println("Swept " + deleted + " expired authTokens");
+                }
+            } catch (DataAccessException e) {
+//                A failed sweep is logged and retried on the next interval
+                System.out.println("Unable to sweep expired authTokens: " + e.getMessage());
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+        System.out.println("Sweeping expired authTokens every " + interval + " seconds");
+    }
+
+    /**
+     * stop cancels the sweeps
+     */
+    public static synchronized void stop() {
+        if(executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * sweep deletes every authToken that expired at or before the given time
+     *
+     * Delete the expired authTokens one chunk at a time, each chunk in its own transaction
+     * Stop as soon as a chunk deletes fewer authTokens than the chunk size
+     *
+     * @param now is the time the authTokens must have expired by, in milliseconds since the epoch
+     * @param chunkSize is the maximum number of authTokens deleted by a single transaction
+     * @return provides the number of authTokens that were deleted
+     * @throws DataAccessException handles errors that can take place while accessing the database
+     */
+    public static int sweep(long now, int chunkSize) throws DataAccessException {
+        int total = 0;
+        int deleted;
+        do {
+//            Delete the expired authTokens one chunk at a time, each chunk in its own transaction
+            Database db = new Database();
+            try {
+                db.openConnection();
+                deleted = db.getTokenStore().deleteExpiredTokens(now, chunkSize);
+                db.closeConnection(true);
+            } catch (DataAccessException e) {
+                db.closeConnection(false);
+                throw e;
+            }
+            total += deleted;
+//            Stop as soon as a chunk deletes fewer authTokens than the chunk size
+        } while(deleted >= chunkSize);
+        return total;
+    }
+}
@@ -0,0 +1,424 @@
+/** The TreeGenerator class builds the generated ancestry of a Person in memory, without touching the database
+ *  A new TreeGenerator is created for every fill, so concurrent fills never share any state
+ *
+ *  The generator works as follows:
+ *      The ancestry is a complete binary tree of couples, so every couple has a fixed slot in the result arrays
+ *      and each branch of the tree can be generated on its own thread without ever merging lists
+ *      An extending fill generates one such tree on top of each leaf Person, laid out one after another
+ *      Every couple gets a father and a mother, a birth and a death Event each, and a marriage Event each
+ *      Names and locations are picked from the ResourceCatalog, and years follow the same rules as before:
+ *          parents are born 13 to 50 years before their child, and the mother within 13 years of the father
+ *          parents die after their child is born and before they turn 120
+ *          parents marry after both are 13 and before either dies
+ *      The Persons of the last generation have no fatherID or motherID
+ *      The generated Persons and Events are then written by the caller, all at once
+ *
+ *  Every branch draws from its own SplittableRandom, split off its child's random in a fixed order, so the names,
+ *  years and locations of a tree only depend on the seed, and never on how many threads generated it
+ *  The personIDs and eventIDs come from RandomUtil.generateID instead, which is never seeded, since they have to be unique
+ *  across every fill that uses the same seed
+ *
+ *  A TreeGenerator without a seed stamps the ancestry of a single Person from a ready TreeTemplate of the TemplatePool
+ *  when there is one, and only generates it when there isn't
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Service;
+
+import Errors.InternalServerError;
+import Model.Event;
+import Model.Person;
+import Util.Config;
+import Util.RandomUtil;
+import Util.ResourceCatalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class TreeGenerator {
+
+    /**
+     * MAX_GENERATIONS is the most generations a single tree may have, which keeps every slot within an array
+     */
+    public static final int MAX_GENERATIONS = 20;
+    /**
+     * MAX_COUPLES is the most couples that can be generated at once, which is the size of a tree of MAX_GENERATIONS
+     */
+    public static final int MAX_COUPLES = (1 << MAX_GENERATIONS) - 1;
+    /**
+     * SEQUENTIAL_GENERATIONS is the size of a branch, in generations, that is cheaper to generate on one thread than to split
+     */
+    private static final int SEQUENTIAL_GENERATIONS = 6;
+
+    /**
+     * sharedPool holds the threads that every fill generates its tree on, or null before the first deep fill
+     */
+    private static volatile ForkJoinPool sharedPool;
+
+    /**
+     * The Branch class generates the parents of one child, then the branches of both parents
+     */
+    private class Branch extends RecursiveAction {
+        private final Person child;
+        private final int birthYear;
+        private final int generations;
+        private final int couple;
+        private final SplittableRandom random;
+
+        private Branch(Person child, int birthYear, int generations, int couple, SplittableRandom random) {
+            this.child = child;
+            this.birthYear = birthYear;
+            this.generations = generations;
+            this.couple = couple;
+            this.random = random;
+        }
+
+        /**
+         * compute generates the parents of the child, then the branches of both parents
+         *
+         * Generate the parents and their Events into the couple's slots
+         * Split the randoms of both parents' branches off this branch's random, always in the same order
+         * Generate both branches in parallel, unless they are small enough to generate on this thread
+         */
+        @Override
+        protected void compute() {
+            boolean last = generations == 1;
+//            Generate the parents and their Events into the couple's slots
+            int[] birthYears = generateParents(this, last);
+            if(last) {
+                return;
+            }
+//            Split the randoms of both parents' branches off this branch's random, always in the same order
+            int fatherCouple = couple + 1;
+            int motherCouple = fatherCouple + couplesIn(generations - 1);
+            Branch father = new Branch(persons[couple * 2], birthYears[0], generations - 1, fatherCouple, random.split());
+            Branch mother = new Branch(persons[couple * 2 + 1], birthYears[1], generations - 1, motherCouple, random.split());
+//            Generate both branches in parallel, unless they are small enough to generate on this thread
+            if(generations - 1 > SEQUENTIAL_GENERATIONS) {
+                invokeAll(father, mother);
+            } else {
+                father.compute();
+                mother.compute();
+            }
+        }
+    }
+
+    /**
+     * random is split into the random of every branch, and is the only source of the tree's names, years and locations
+     */
+    private final SplittableRandom random;
+    /**
+     * pool runs the branches of a deep tree
+     */
+    private final ForkJoinPool pool;
+    /**
+     * catalog provides the names and locations
+     */
+    private final ResourceCatalog catalog;
+    /**
+     * pooled denotes whether the trees may be stamped from the TemplatePool, which is only true without a seed
+     */
+    private final boolean pooled;
+    /**
+     * persons holds every generated Person, with the father and mother of couple i in slots 2i and 2i + 1
+     */
+    private Person[] persons = new Person[0];
+    /**
+     * events holds every generated Event, with the six Events of couple i in slots 6i through 6i + 5
+     */
+    private Event[] events = new Event[0];
+
+    /**
+     * The constructor creates a TreeGenerator with a seed of its own, so every tree it generates is different
+     * @throws InternalServerError occurs when the names and locations assets couldn't be loaded
+     */
+    public TreeGenerator() throws InternalServerError {
+        this(ThreadLocalRandom.current().nextLong(), getSharedPool(), true);
+    }
+
+    /**
+     * The constructor creates a TreeGenerator whose trees only depend on the given seed
+     * @param seed contains the seed that the names, years and locations are drawn from
+     * @throws InternalServerError occurs when the names and locations assets couldn't be loaded
+     */
+    public TreeGenerator(long seed) throws InternalServerError {
+        this(seed, getSharedPool());
+    }
+
+    /**
+     * The constructor creates a TreeGenerator whose trees only depend on the given seed, generated on the given pool
+     * @param seed contains the seed that the names, years and locations are drawn from
+     * @param pool contains the threads that deep trees are generated on
+     * @throws InternalServerError occurs when the names and locations assets couldn't be loaded
+     */
+    public TreeGenerator(long seed, ForkJoinPool pool) throws InternalServerError {
+        this(seed, pool, false);
+    }
+
+    /**
+     * The constructor creates a TreeGenerator from the given seed and pool, which stamps its trees from the TemplatePool if it is pooled
+     */
+    private TreeGenerator(long seed, ForkJoinPool pool, boolean pooled) throws InternalServerError {
+        this.random = new SplittableRandom(seed);
+        this.pool = pool;
+        this.catalog = ResourceCatalog.getInstance();
+        this.pooled = pooled;
+    }
+
+    /**
+     * getSharedPool provides the threads that fills generate their trees on, creating them on the first call
+     * The number of threads is read from the familymap.fill.parallelism property
+     */
+    private static ForkJoinPool getSharedPool() {
+        ForkJoinPool pool = sharedPool;
+        if(pool == null) {
+            synchronized (TreeGenerator.class) {
+                if(sharedPool == null) {
+                    sharedPool = new ForkJoinPool(Config.getFillParallelism());
+                }
+                pool = sharedPool;
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * generateRoot creates a male root Person for the given username, along with his birth Event
+     * The root is drawn from the same seed as the tree, so a seeded fill is the same from the root up
+     * It has to be called before generate
+     *
+     * @param username contains the username the root Person belongs to
+     * @param birthYear contains the year of the root Person's birth
+     * @param birth contains the Event that becomes the root Person's birth
+     * @return provides the root Person
+     */
+    public Person generateRoot(String username, int birthYear, Event birth) {
+        Person root = new Person(RandomUtil.generateID(),
+                username,
+                catalog.randomFirstName("m", random),
+                catalog.randomLastName(random),
+                "m",
+                RandomUtil.generateID(),
+                RandomUtil.generateID(),
+                null);
+        birth.setEventID(RandomUtil.generateID());
+        birth.setAssociatedUsername(username);
+        catalog.placeEventRandomly(birth, random);
+        birth.setEventType("birth");
+        birth.setYear(birthYear);
+        birth.setPersonID(root.getPersonID());
+        return root;
+    }
+
+    /**
+     * generate builds the given number of generations of ancestors for the given Person
+     * The Person's fatherID and motherID become the personIDs of the generated parents
+     * Without a seed, the ancestors are stamped from a ready template of the TemplatePool if there is one
+     *
+     * @param person contains the Person whose ancestors should be generated
+     * @param birthYear contains the Person's birth year
+     * @param generations contains the number of generations to generate, up to MAX_GENERATIONS
+     */
+    public void generate(Person person, int birthYear, int generations) {
+        TreeTemplate template = pooled ? TemplatePool.take(generations) : null;
+        if(template != null) {
+            stamp(template, person, birthYear);
+            return;
+        }
+        generate(Collections.singletonList(person), new int[] { birthYear }, generations);
+    }
+
+    /**
+     * stamp builds the ancestors of the given Person from the given template
+     *
+     * @param template contains the TreeTemplate to stamp
+     * @param person contains the Person whose ancestors the template becomes
+     * @param birthYear contains the Person's birth year
+     */
+    public void stamp(TreeTemplate template, Person person, int birthYear) {
+        persons = new Person[template.getPersonCount()];
+        events = new Event[template.getEventCount()];
+        template.stamp(person, birthYear, persons, events);
+        System.out.println("Stamped " + persons.length + " persons and " + events.length + " events from a pre-generated tree");
+    }
+
+    /**
+     * generate builds the given number of generations of ancestors on top of each of the given Persons
+     * Each Person's fatherID and motherID become the personIDs of its generated parents,
+     * and the trees are laid out one after another in the order of the Persons
+     *
+     * Reserve a slot for every couple of every tree
+     * Split a random off for each tree, in the order of the Persons
+     * Generate a few shallow trees on this thread, and anything bigger on the pool
+     *
+     * @param children contains the Persons whose ancestors should be generated
+     * @param birthYears contains the birth year of each of the Persons
+     * @param generations contains the number of generations to generate on top of each Person
+     */
+    public void generate(List<Person> children, int[] birthYears, int generations) {
+        if(generations <= 0 || children.isEmpty()) {
+            return;
+        }
+        if(!canGenerate(children.size(), generations)) {
+            throw new IllegalArgumentException("No more than " + MAX_COUPLES + " couples can be generated at once");
+        }
+        System.out.println("Generating " + generations + " generations of ancestors for " + children.size() + " persons . . . ");
+//        Reserve a slot for every couple of every tree
+        int couplesPerTree = couplesIn(generations);
+        int couples = couplesPerTree * children.size();
+        persons = new Person[couples * 2];
+        events = new Event[couples * 6];
+//        Split a random off for each tree, in the order of the Persons
+        List<Branch> trees = new ArrayList<>(children.size());
+        for(int i = 0; i < children.size(); i++) {
+            trees.add(new Branch(children.get(i), birthYears[i], generations, i * couplesPerTree, random.split()));
+        }
+//        Generate a few shallow trees on this thread, and anything bigger on the pool
+        if(couples > couplesIn(SEQUENTIAL_GENERATIONS)) {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(trees);
+                }
+            });
+        } else {
+            for(Branch tree : trees) {
+                tree.compute();
+            }
+        }
+        System.out.println("Generated " + persons.length + " persons and " + events.length + " events");
+    }
+
+    /**
+     * canGenerate denotes whether the given number of trees of the given number of generations can be generated at once
+     *
+     * @param trees contains the number of Persons whose ancestors would be generated
+     * @param generations contains the number of generations that would be generated on top of each Person
+     * @return provides true if no more than MAX_COUPLES couples would be generated
+     */
+    public static boolean canGenerate(int trees, int generations) {
+        return generations <= MAX_GENERATIONS && (long) trees * couplesIn(generations) <= MAX_COUPLES;
+    }
+
+    /**
+     * couplesIn provides the number of couples in a tree of the given number of generations
+     */
+    private static int couplesIn(int generations) {
+        return (1 << generations) - 1;
+    }
+
+    /**
+     * generateParents generates the father and mother of the given branch's child along with their Events
+     *
+     * Create the father and his birth and death Events
+     * Create the mother and her birth and death Events
+     * Create the marriage Event of each parent
+     * If the parents are the last generation, they don't get a fatherID or motherID
+     *
+     * @return provides the birth years of the father and the mother
+     */
+    private int[] generateParents(Branch branch, boolean last) {
+        SplittableRandom random = branch.random;
+        Person child = branch.child;
+        int birthYear = branch.birthYear;
+        String username = child.getAssociatedUsername();
+//        Create the father and his birth and death Events
+        Person father = new Person(child.getFatherID(),
+                username,
+                catalog.randomFirstName("m", random),
+                catalog.randomLastName(random),
+                "m",
+                last ? null : RandomUtil.generateID(),
+                last ? null : RandomUtil.generateID(),
+                child.getMotherID());
+        int fatherBirthYear = random.nextInt((birthYear - 13) - (birthYear - 50)) + (birthYear - 50);
+        int fatherDeathYear = random.nextInt((120 + fatherBirthYear) - birthYear) + birthYear;
+        if((fatherDeathYear - fatherBirthYear) > 120) {
+            fatherDeathYear = fatherBirthYear + 120;
+        }
+//        Create the mother and her birth and death Events
+        Person mother = new Person(child.getMotherID(),
+                username,
+                catalog.randomFirstName("f", random),
+                catalog.randomLastName(random),
+                "f",
+                last ? null : RandomUtil.generateID(),
+                last ? null : RandomUtil.generateID(),
+                child.getFatherID());
+        int motherBirthYear = random.nextInt((fatherBirthYear + 13) - (fatherBirthYear - 13)) + (fatherBirthYear - 13);
+        if((birthYear - motherBirthYear) < 13) {
+            motherBirthYear = birthYear - 13;
+        }
+        if((birthYear - motherBirthYear) > 50) {
+            motherBirthYear = birthYear - 50;
+        }
+        int motherDeathYear = random.nextInt((120 + motherBirthYear) - birthYear) + birthYear;
+        if((motherDeathYear - motherBirthYear) > 120) {
+            motherDeathYear = motherBirthYear + 120;
+        }
+//        Create the marriage Event of each parent
+        int marriageYear = random.nextInt(Math.min(fatherDeathYear, motherDeathYear) - Math.max(fatherBirthYear, motherBirthYear)) +
+                Math.max(fatherBirthYear, motherBirthYear);
+        if((marriageYear - fatherBirthYear) < 13) {
+            marriageYear = fatherBirthYear + 13;
+        }
+        if((marriageYear - motherBirthYear) < 13) {
+            marriageYear = motherBirthYear + 13;
+        }
+        int slot = branch.couple * 6;
+        persons[branch.couple * 2] = father;
+        persons[branch.couple * 2 + 1] = mother;
+        events[slot] = createEvent(father, "birth", fatherBirthYear, random);
+        events[slot + 1] = createEvent(father, "death", fatherDeathYear, random);
+        Event marriage = createEvent(father, "marriage", marriageYear, random);
+        events[slot + 2] = marriage;
+        events[slot + 3] = createEvent(mother, "birth", motherBirthYear, random);
+        events[slot + 4] = createEvent(mother, "death", motherDeathYear, random);
+//        Both marriage Events take place at the same location
+        Event motherMarriage = createEvent(mother, "marriage", marriageYear, random);
+        motherMarriage.setLatitude(marriage.getLatitude());
+        motherMarriage.setLongitude(marriage.getLongitude());
+        motherMarriage.setCountry(marriage.getCountry());
+        motherMarriage.setCity(marriage.getCity());
+        events[slot + 5] = motherMarriage;
+        return new int[] { fatherBirthYear, motherBirthYear };
+    }
+
+    /**
+     * createEvent creates an Event of the given type and year for the given Person at a location picked by the given random
+     */
+    private Event createEvent(Person person, String eventType, int year, SplittableRandom random) {
+        Event event = new Event();
+        event.setEventID(RandomUtil.generateID());
+        event.setAssociatedUsername(person.getAssociatedUsername());
+        catalog.placeEventRandomly(event, random);
+        event.setEventType(eventType);
+        event.setYear(year);
+        event.setPersonID(person.getPersonID());
+        return event;
+    }
+
+    /**
+     * getPersons provides every generated Person
+     * @return the generated Persons
+     */
+    public List<Person> getPersons() {
+        return Arrays.asList(persons);
+    }
+
+    /**
+     * getEvents provides every generated Event
+     * @return the generated Events
+     */
+    public List<Event> getEvents() {
+        return Arrays.asList(events);
+    }
+}
@@ -0,0 +1,199 @@
+/** The TreeTemplate class holds an anonymous generated ancestry that can be stamped onto any Person
+ *  Stamping a template only creates the Persons and Events with fresh IDs, so none of the names, years or
+ *  locations have to be picked again
+ *
+ *  The template works as follows:
+ *      It is generated once by a TreeGenerator, for a placeholder child born in TEMPLATE_BIRTH_YEAR
+ *      The Persons keep their names, and the links between them are kept as slots in the template instead of IDs
+ *      The Events keep their types and locations, and their years are kept relative to the child's birth year
+ *      Stamping it gives every Person and Event a new ID, the child's username, and years moved to the child's birth year,
+ *      which keeps every rule between the years that the tree was generated with
+ *  A template is never changed after it is generated, so it can be stamped from any thread
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Service;
+
+import Errors.InternalServerError;
+import Model.Event;
+import Model.Person;
+import Util.RandomUtil;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class TreeTemplate {
+
+    /**
+     * TEMPLATE_BIRTH_YEAR is the birth year of the placeholder child that every template is generated for
+     */
+    static final int TEMPLATE_BIRTH_YEAR = 2020;
+
+    /**
+     * generations holds the number of generations in the template
+     */
+    private final int generations;
+    /**
+     * The Person arrays are parallel, so the same slot describes one Person in each of them
+     * A parent slot holds the slot of the Person's father, whose mother is in the next slot, or -1 for the last generation
+     */
+    private final String[] firstNames;
+    private final String[] lastNames;
+    private final String[] genders;
+    private final int[] parentSlots;
+    private final int[] spouseSlots;
+    /**
+     * The Event arrays are parallel, so the same slot describes one Event in each of them
+     */
+    private final String[] eventTypes;
+    private final int[] eventPersonSlots;
+    private final int[] yearOffsets;
+    private final float[] latitudes;
+    private final float[] longitudes;
+    private final String[] cities;
+    private final String[] countries;
+
+    /**
+     * The constructor turns the given generated ancestry of a placeholder child into a template
+     *
+     * Give every generated Person a slot, with the placeholder child's father and mother in the first two
+     * Keep each Person's name, and the slots of their father and spouse
+     * Keep each Event's type, location, Person slot and year relative to the placeholder child's birth
+     *
+     * @param generations contains the number of generations that were generated
+     * @param persons contains the generated Persons
+     * @param events contains the generated Events
+     */
+    TreeTemplate(int generations, List<Person> persons, List<Event> events) {
+        this.generations = generations;
+//        Give every generated Person a slot, with the placeholder child's father and mother in the first two
+        Map<String, Integer> slots = new HashMap<>(persons.size() * 2);
+        for(int i = 0; i < persons.size(); i++) {
+            slots.put(persons.get(i).getPersonID(), i);
+        }
+//        Keep each Person's name, and the slots of their father and spouse
+        firstNames = new String[persons.size()];
+        lastNames = new String[persons.size()];
+        genders = new String[persons.size()];
+        parentSlots = new int[persons.size()];
+        spouseSlots = new int[persons.size()];
+        for(int i = 0; i < persons.size(); i++) {
+            Person person = persons.get(i);
+            firstNames[i] = person.getFirstName();
+            lastNames[i] = person.getLastName();
+            genders[i] = person.getGender();
+            parentSlots[i] = person.getFatherID() == null ? -1 : slots.get(person.getFatherID());
+            spouseSlots[i] = slots.get(person.getSpouseID());
+        }
+//        Keep each Event's type, location, Person slot and year relative to the placeholder child's birth
+        eventTypes = new String[events.size()];
+        eventPersonSlots = new int[events.size()];
+        yearOffsets = new int[events.size()];
+        latitudes = new float[events.size()];
+        longitudes = new float[events.size()];
+        cities = new String[events.size()];
+        countries = new String[events.size()];
+        for(int i = 0; i < events.size(); i++) {
+            Event event = events.get(i);
+            eventTypes[i] = event.getEventType();
+            eventPersonSlots[i] = slots.get(event.getPersonID());
+            yearOffsets[i] = event.getYear() - TEMPLATE_BIRTH_YEAR;
+            latitudes[i] = event.getLatitude();
+            longitudes[i] = event.getLongitude();
+            cities[i] = event.getCity();
+            countries[i] = event.getCountry();
+        }
+    }
+
+    /**
+     * generate generates a new template of the given number of generations with a random seed of its own
+     *
+     * @param generations contains the number of generations to generate
+     * @return provides the TreeTemplate
+     * @throws InternalServerError occurs when the names and locations assets couldn't be loaded
+     */
+    static TreeTemplate generate(int generations) throws InternalServerError {
+        Person child = new Person("child", null, null, null, "m", "father", "mother", null);
+        TreeGenerator tree = new TreeGenerator(ThreadLocalRandom.current().nextLong());
+        tree.generate(child, TEMPLATE_BIRTH_YEAR, generations);
+        return new TreeTemplate(generations, tree.getPersons(), tree.getEvents());
+    }
+
+    /**
+     * stamp creates the Persons and Events of the template as the ancestors of the given child
+     * The child's fatherID and motherID become the personIDs of the first two Persons, and every other ID is new
+     *
+     * Give every Person an ID, reusing the child's fatherID and motherID for the first two
+     * Create every Person with the links of their slot
+     * Create every Event, with its year moved by the difference between the birth years
+     *
+     * @param child contains the Person whose ancestors the template becomes
+     * @param birthYear contains the child's birth year
+     * @param persons contains the array the Persons are created into, which has to be as long as getPersonCount
+     * @param events contains the array the Events are created into, which has to be as long as getEventCount
+     */
+    void stamp(Person child, int birthYear, Person[] persons, Event[] events) {
+        String username = child.getAssociatedUsername();
+//        Give every Person an ID, reusing the child's fatherID and motherID for the first two
+        String[] personIDs = new String[firstNames.length];
+        personIDs[0] = child.getFatherID();
+        personIDs[1] = child.getMotherID();
+        for(int i = 2; i < personIDs.length; i++) {
+            personIDs[i] = RandomUtil.generateID();
+        }
+//        Create every Person with the links of their slot
+        for(int i = 0; i < persons.length; i++) {
+            int parent = parentSlots[i];
+            persons[i] = new Person(personIDs[i],
+                    username,
+                    firstNames[i],
+                    lastNames[i],
+                    genders[i],
+                    parent < 0 ? null : personIDs[parent],
+                    parent < 0 ? null : personIDs[parent + 1],
+                    personIDs[spouseSlots[i]]);
+        }
+//        Create every Event, with its year moved by the difference between the birth years
+        for(int i = 0; i < events.length; i++) {
+            Event event = new Event();
+            event.setEventID(RandomUtil.generateID());
+            event.setAssociatedUsername(username);
+            event.setLatitude(latitudes[i]);
+            event.setLongitude(longitudes[i]);
+            event.setCountry(countries[i]);
+            event.setCity(cities[i]);
+            event.setEventType(eventTypes[i]);
+            event.setYear(birthYear + yearOffsets[i]);
+            event.setPersonID(personIDs[eventPersonSlots[i]]);
+            events[i] = event;
+        }
+    }
+
+    /**
+     * getGenerations provides the number of generations in the template
+     * @return the number of generations
+     */
+    public int getGenerations() {
+        return generations;
+    }
+
+    /**
+     * getPersonCount provides the number of Persons that stamping the template creates
+     * @return the number of Persons
+     */
+    public int getPersonCount() {
+        return firstNames.length;
+    }
+
+    /**
+     * getEventCount provides the number of Events that stamping the template creates
+     * @return the number of Events
+     */
+    public int getEventCount() {
+        return eventTypes.length;
+    }
+}
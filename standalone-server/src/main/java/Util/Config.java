@@ -0,0 +1,439 @@
+/** The Config class allows for a publicly accessible group of methods that provide the server's startup settings
+ *  Every setting is read from a Java system property so it can be given on the command line, for example:
+ *      java -Dfamilymap.storage=memory -cp target/classes Server.Server 8080
+ *  Settings that are missing or can't be parsed fall back to their defaults
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Util;
+
+import DataAccess.StorageEngine;
+
+public class Config {
+
+    /**
+     * getStorageEngine provides the storage engine that should hold the server's data
+     * It is read from the familymap.storage property, which may be "sqlite" (the default), "memory", or "sharded"
+     *
+     * @return provides the selected StorageEngine
+     */
+    public static StorageEngine getStorageEngine() {
+        String value = System.getProperty("familymap.storage", "sqlite");
+        try {
+            return StorageEngine.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Unknown storage engine: " + value + ". Defaulting to SQLITE");
+            return StorageEngine.SQLITE;
+        }
+    }
+
+    /**
+     * getInt provides the integer value of the given property, or the default value if it is missing or isn't an integer
+     *
+     * @param property is the name of the system property
+     * @param defaultValue is the value to use if the property is missing or invalid
+     * @return provides the value of the property
+     */
+    public static int getInt(String property, int defaultValue) {
+        String value = System.getProperty(property);
+        if(value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid value for " + property + ": " + value + ". Defaulting to " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * getLong provides the long value of the given property, or the default value if it is missing or isn't a number
+     *
+     * @param property is the name of the system property
+     * @param defaultValue is the value to use if the property is missing or invalid
+     * @return provides the value of the property
+     */
+    public static long getLong(String property, long defaultValue) {
+        String value = System.getProperty(property);
+        if(value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid value for " + property + ": " + value + ". Defaulting to " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * getTokenLifetimeMillis provides how long a newly issued auth token stays valid
+     * It is read from the familymap.token.ttlSeconds property, which defaults to 86400 seconds (one day)
+     *
+     * @return provides the lifetime of an auth token in milliseconds
+     */
+    public static long getTokenLifetimeMillis() {
+        return getLong("familymap.token.ttlSeconds", 86400) * 1000;
+    }
+
+    /**
+     * getMaxTokensPerUser provides how many live auth tokens a single User may hold
+     * When a login goes over this limit, the User's oldest auth tokens are deleted
+     * It is read from the familymap.token.maxPerUser property, which defaults to 10
+     *
+     * @return provides the maximum number of live auth tokens per User
+     */
+    public static int getMaxTokensPerUser() {
+        return Math.max(1, getInt("familymap.token.maxPerUser", 10));
+    }
+
+    /**
+     * isSignedTokens denotes whether login and register should issue signed auth tokens instead of storing them
+     * A signed auth token carries its User's userID, username, root personID and expiry, and is verified without the database
+     * It is read from the familymap.token.signed property, which defaults to false
+     *
+     * @return provides true if signed auth tokens should be issued
+     */
+    public static boolean isSignedTokens() {
+        return Boolean.parseBoolean(System.getProperty("familymap.token.signed", "false").trim());
+    }
+
+    /**
+     * getTokenSecret provides the secret that signed auth tokens are signed with
+     * It is read from the familymap.token.secret property, and a missing secret is replaced by a random one,
+     * so the signed auth tokens of a server without a secret only last as long as the server does
+     *
+     * @return provides the secret, or null if none was given
+     */
+    public static String getTokenSecret() {
+        String value = System.getProperty("familymap.token.secret");
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    /**
+     * getTokenRevocationFile provides the file that the epoch of the last auth token revocation is kept in
+     * It is read from the familymap.token.revocationFile property, which defaults to db/token.revoked
+     *
+     * @return provides the path of the file
+     */
+    public static String getTokenRevocationFile() {
+        return System.getProperty("familymap.token.revocationFile", "db/token.revoked");
+    }
+
+    /**
+     * isExportPasswordHash denotes whether /export should write the stored hash of the User's password,
+     * which lets an export be loaded back with the same password, but hands the hash to anyone holding the User's authToken
+     * It is read from the familymap.export.passwordHash property, which defaults to false
+     *
+     * @return provides true if exports carry the hash of the password
+     */
+    public static boolean isExportPasswordHash() {
+        return Boolean.parseBoolean(System.getProperty("familymap.export.passwordHash", "false").trim());
+    }
+
+    /**
+     * getExportThreads provides how many exports may be streamed at the same time
+     * It is read from the familymap.export.threads property, which defaults to 4 exports
+     *
+     * @return provides the number of export threads
+     */
+    public static int getExportThreads() {
+        return Math.max(1, getInt("familymap.export.threads", 4));
+    }
+
+    /**
+     * getExportQueue provides how many exports may wait for an export thread
+     * Once the queue is full, an export is refused instead of piling up
+     * It is read from the familymap.export.queue property, which defaults to 16 exports
+     *
+     * @return provides the number of exports that may wait
+     */
+    public static int getExportQueue() {
+        return Math.max(1, getInt("familymap.export.queue", 16));
+    }
+
+    /**
+     * getExportPageSize provides how many Persons or Events an export reads on each of its transactions
+     * It is read from the familymap.export.pageSize property, which defaults to 1000 rows
+     *
+     * @return provides the number of rows in a page
+     */
+    public static int getExportPageSize() {
+        return Math.max(1, getInt("familymap.export.pageSize", 1000));
+    }
+
+    /**
+     * getShardCount provides the number of shard files the SHARDED storage engine splits the data across
+     * It is read from the familymap.shards property, which defaults to 4
+     * The count can't change once the shard files hold data, since every username would move to a different shard
+     *
+     * @return provides the number of shards
+     */
+    public static int getShardCount() {
+        return Math.max(1, getInt("familymap.shards", 4));
+    }
+
+    /**
+     * getShardDirectory provides the directory that holds the shard files and the directory database of the SHARDED storage engine
+     * It is read from the familymap.shards.dir property, which defaults to db/shards
+     *
+     * @return provides the path of the directory
+     */
+    public static String getShardDirectory() {
+        return System.getProperty("familymap.shards.dir", "db/shards");
+    }
+
+    /**
+     * getSwapDrainMillis provides how long a replacement of the SQLite database file waits for the open connections to close
+     * It is read from the familymap.swap.drainSeconds property, which defaults to 30 seconds
+     *
+     * @return provides the longest wait in milliseconds
+     */
+    public static long getSwapDrainMillis() {
+        return Math.max(0, getLong("familymap.swap.drainSeconds", 30)) * 1000;
+    }
+
+    /**
+     * isReadReplicaEnabled denotes whether single Person and Event reads should be served from an in-memory copy of the database
+     * It is read from the familymap.replica property, which defaults to false, and only applies to the SQLITE storage engine
+     *
+     * @return provides true if the read replica should be used
+     */
+    public static boolean isReadReplicaEnabled() {
+        return Boolean.parseBoolean(System.getProperty("familymap.replica", "false").trim());
+    }
+
+    /**
+     * getReplicaRefreshMillis provides how long the read replica waits between two refreshes
+     * It is read from the familymap.replica.refreshMillis property, which defaults to 1000 milliseconds
+     *
+     * @return provides the delay between refreshes in milliseconds
+     */
+    public static long getReplicaRefreshMillis() {
+        return Math.max(1, getLong("familymap.replica.refreshMillis", 1000));
+    }
+
+    /**
+     * getReplicaMaxStalenessMillis provides how old the read replica's copy may get before reads go back to the database file
+     * It is read from the familymap.replica.maxStalenessMillis property, which defaults to 5000 milliseconds
+     *
+     * @return provides the longest staleness in milliseconds
+     */
+    public static long getReplicaMaxStalenessMillis() {
+        return Math.max(0, getLong("familymap.replica.maxStalenessMillis", 5000));
+    }
+
+    /**
+     * isReadYourWrites denotes whether a User who wrote since the read replica's last refresh should read from the database file
+     * It is read from the familymap.replica.readYourWrites property, which defaults to true
+     *
+     * @return provides true if every User should see their own writes immediately
+     */
+    public static boolean isReadYourWrites() {
+        return Boolean.parseBoolean(System.getProperty("familymap.replica.readYourWrites", "true").trim());
+    }
+
+    /**
+     * getFillParallelism provides how many threads generate the ancestries of fills
+     * It is read from the familymap.fill.parallelism property, which defaults to the number of available processors
+     *
+     * @return provides the number of generator threads
+     */
+    public static int getFillParallelism() {
+        return Math.max(1, getInt("familymap.fill.parallelism", Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * getFillJobThreads provides how many asynchronous fill jobs may run at the same time
+     * It is read from the familymap.fill.jobs.threads property, which defaults to 2 jobs
+     *
+     * @return provides the number of fill job threads
+     */
+    public static int getFillJobThreads() {
+        return Math.max(1, getInt("familymap.fill.jobs.threads", 2));
+    }
+
+    /**
+     * getFillJobQueue provides how many asynchronous fill jobs may wait for a thread before new ones are refused
+     * It is read from the familymap.fill.jobs.queue property, which defaults to 8 jobs
+     *
+     * @return provides the number of fill jobs that may wait
+     */
+    public static int getFillJobQueue() {
+        return Math.max(1, getInt("familymap.fill.jobs.queue", 8));
+    }
+
+    /**
+     * getFillJobRetentionMillis provides how long a finished fill job can still be looked up
+     * It is read from the familymap.fill.jobs.retentionSeconds property, which defaults to 600 seconds
+     *
+     * @return provides the retention of finished fill jobs in milliseconds
+     */
+    public static long getFillJobRetentionMillis() {
+        return Math.max(0, getLong("familymap.fill.jobs.retentionSeconds", 600)) * 1000;
+    }
+
+    /**
+     * getFillJobCancelWaitMillis provides how long a /clear or /load waits for the fill jobs it cancelled to roll back
+     * It is read from the familymap.fill.jobs.cancelWaitMillis property, which defaults to 5000 milliseconds
+     *
+     * @return provides the wait in milliseconds
+     */
+    public static long getFillJobCancelWaitMillis() {
+        return Math.max(0, getLong("familymap.fill.jobs.cancelWaitMillis", 5000));
+    }
+
+    /**
+     * getAncestryThreads provides how many newly registered Users may have their ancestors generated at the same time
+     * It is read from the familymap.ancestry.threads property, which defaults to 2 threads
+     *
+     * @return provides the number of ancestry threads
+     */
+    public static int getAncestryThreads() {
+        return Math.max(1, getInt("familymap.ancestry.threads", 2));
+    }
+
+    /**
+     * getAncestryQueue provides how many newly registered Users may wait for an ancestry thread
+     * Once the queue is full, the register request generates its User's ancestors itself
+     * It is read from the familymap.ancestry.queue property, which defaults to 64 Users
+     *
+     * @return provides the number of Users that may wait
+     */
+    public static int getAncestryQueue() {
+        return Math.max(1, getInt("familymap.ancestry.queue", 64));
+    }
+
+    /**
+     * getAncestryWaitMillis provides how long a /fill, /clear or /load waits for the ancestors it would write over before it reports that they are still generating
+     * It is read from the familymap.ancestry.waitMillis property, which defaults to 2000 milliseconds
+     *
+     * @return provides the wait in milliseconds
+     */
+    public static long getAncestryWaitMillis() {
+        return Math.max(0, getLong("familymap.ancestry.waitMillis", 2000));
+    }
+
+    /**
+     * getTemplatePoolSize provides how many pre-generated tree templates are kept ready for each number of generations
+     * It is read from the familymap.templates.size property, which defaults to 8 templates, and 0 turns the pool off
+     *
+     * @return provides the number of templates per number of generations
+     */
+    public static int getTemplatePoolSize() {
+        return Math.max(0, getInt("familymap.templates.size", 8));
+    }
+
+    /**
+     * getTemplateMaxGenerations provides the most generations a pooled tree template may have
+     * Deeper trees are always generated from scratch, since their templates would take up too much memory
+     * It is read from the familymap.templates.maxGenerations property, which defaults to 8 generations
+     *
+     * @return provides the most generations of a pooled template
+     */
+    public static int getTemplateMaxGenerations() {
+        return getInt("familymap.templates.maxGenerations", 8);
+    }
+
+    /**
+     * getTemplateRefillMillis provides how long the pool waits after generating a template before it generates the next one,
+     * which limits how much of the server's time the refills take
+     * It is read from the familymap.templates.refillMillis property, which defaults to 10 milliseconds
+     *
+     * @return provides the pause between refills in milliseconds
+     */
+    public static long getTemplateRefillMillis() {
+        return Math.max(0, getLong("familymap.templates.refillMillis", 10));
+    }
+
+    /**
+     * isLoadPipelined denotes whether the stages of a /load run on threads of their own, or take turns on the thread that reads it
+     * It is read from the familymap.load.pipelined property, which defaults to true when more than one processor is available,
+     * since on a single processor the stages could only take turns anyway
+     *
+     * @return provides true if the stages of a load should run at the same time
+     */
+    public static boolean isLoadPipelined() {
+        String value = System.getProperty("familymap.load.pipelined");
+        if(value == null) {
+            return Runtime.getRuntime().availableProcessors() > 1;
+        }
+        return Boolean.parseBoolean(value.trim());
+    }
+
+    /**
+     * getLoadWorkers provides how many threads check the records of a /load and hash their passwords while it is written
+     * It is read from the familymap.load.workers property, which defaults to the number of available processors
+     *
+     * @return provides the number of load worker threads
+     */
+    public static int getLoadWorkers() {
+        return Math.max(1, getInt("familymap.load.workers", Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * getLoadQueue provides how many chunks of a /load may be parsed ahead of the writer before the parser waits for it
+     * It is read from the familymap.load.queue property, which defaults to 16 chunks
+     *
+     * @return provides the number of chunks that may wait for the writer
+     */
+    public static int getLoadQueue() {
+        return Math.max(1, getInt("familymap.load.queue", 16));
+    }
+
+    /**
+     * getHashIterations provides how many PBKDF2 iterations a new password hash is given
+     * It is read from the familymap.hash.iterations property, which defaults to 0, meaning the CredentialHasher
+     * calibrates the iterations to getHashTargetMillis on this machine
+     *
+     * @return provides the number of iterations, or 0 to calibrate them
+     */
+    public static int getHashIterations() {
+        return Math.max(0, getInt("familymap.hash.iterations", 0));
+    }
+
+    /**
+     * getHashTargetMillis provides how long a calibrated password hash should take
+     * It is read from the familymap.hash.targetMillis property, which defaults to 50 milliseconds
+     *
+     * @return provides the target in milliseconds
+     */
+    public static long getHashTargetMillis() {
+        return Math.max(1, getLong("familymap.hash.targetMillis", 50));
+    }
+
+    /**
+     * getHashThreads provides how many logins, registrations and password hashes may run at the same time
+     * It is read from the familymap.hash.threads property, which defaults to half of the available processors,
+     * so the rest are left to the reads
+     *
+     * @return provides the number of credential threads
+     */
+    public static int getHashThreads() {
+        return Math.max(1, getInt("familymap.hash.threads", Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    /**
+     * getHashQueue provides how many logins and registrations may wait for a credential thread
+     * Once the queue is full, a login or registration is refused instead of piling up
+     * It is read from the familymap.hash.queue property, which defaults to 32 requests
+     *
+     * @return provides the number of requests that may wait
+     */
+    public static int getHashQueue() {
+        return Math.max(1, getInt("familymap.hash.queue", 32));
+    }
+
+    /**
+     * getIdGenerator provides the name of the IdGenerator that the IDs of rows are generated with
+     * It is read from the familymap.ids property, which is ordered (the default) or random
+     *
+     * @return provides ordered or random
+     */
+    public static String getIdGenerator() {
+        return System.getProperty("familymap.ids", "ordered").trim().toLowerCase();
+    }
+}
@@ -0,0 +1,20 @@
+/** The IdGenerator interface describes a source of the IDs that rows are stored under
+ *  The IDs of Users, Persons, Events and TokenIDs come from the generator that RandomUtil is set to use
+ *  Auth keys never do, since they have to be unguessable, and are always drawn from a CSPRNG by RandomUtil.generateAuthKey
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Util;
+
+public interface IdGenerator {
+
+    /**
+     * nextID provides a new ID that no other row is expected to have
+     * Implementations must be safe to call from many threads at once
+     *
+     * @return provides the ID as a 36 character UUID String
+     */
+    String nextID();
+}
@@ -0,0 +1,660 @@
+/** The JsonAdapters class holds a hand-written TypeAdapter for every model, request and response class
+ *  Gson otherwise reads and writes these classes by reflecting over their fields, which is slow for the large
+ *  AllPersonsResponse and AllEventsResponse bodies, so each adapter streams its fields straight to and from their accessors
+ *
+ *  The adapters work as follows:
+ *      Every field is written under the name and in the order that Gson's reflection used, the fields of a
+ *      Response class followed by the message and success of the Response, so the JSON sent to clients doesn't change
+ *      A null field is left out, just as Gson leaves it out
+ *      Reading accepts what Gson's reflection accepted: members in any order, unknown members are skipped,
+ *      a null primitive keeps its default, and numbers and booleans may be sent as strings
+ *      A member that can't be read as its type throws a JsonSyntaxException, which Gson's reflection threw for most types
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Util;
+
+import Model.AuthorizationToken;
+import Model.Event;
+import Model.Person;
+import Model.User;
+import Requests.LoadRequest;
+import Requests.LoginRequest;
+import Requests.RegisterRequest;
+import Responses.*;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class JsonAdapters {
+
+    public static final TypeAdapter<Person> PERSON = new RecordAdapter<Person>() {
+        @Override
+        Person create() {
+            return new Person(null, null, null, null, null, null, null, null);
+        }
+
+        @Override
+        void writeFields(JsonWriter out, Person person) throws IOException {
+            out.name("personID").value(person.getPersonID());
+            out.name("associatedUsername").value(person.getAssociatedUsername());
+            out.name("firstName").value(person.getFirstName());
+            out.name("lastName").value(person.getLastName());
+            out.name("gender").value(person.getGender());
+            out.name("fatherID").value(person.getFatherID());
+            out.name("motherID").value(person.getMotherID());
+            out.name("spouseID").value(person.getSpouseID());
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, Person person) throws IOException {
+            switch (name) {
+                case "personID": person.setPersonID(readString(in)); return true;
+                case "associatedUsername": person.setAssociatedUsername(readString(in)); return true;
+                case "firstName": person.setFirstName(readString(in)); return true;
+                case "lastName": person.setLastName(readString(in)); return true;
+                case "gender": person.setGender(readString(in)); return true;
+                case "fatherID": person.setFatherID(readString(in)); return true;
+                case "motherID": person.setMotherID(readString(in)); return true;
+                case "spouseID": person.setSpouseID(readString(in)); return true;
+                default: return false;
+            }
+        }
+    };
+
+    public static final TypeAdapter<Event> EVENT = new RecordAdapter<Event>() {
+        @Override
+        Event create() {
+            return new Event();
+        }
+
+        @Override
+        void writeFields(JsonWriter out, Event event) throws IOException {
+            out.name("eventID").value(event.getEventID());
+            out.name("associatedUsername").value(event.getAssociatedUsername());
+            out.name("personID").value(event.getPersonID());
+            out.name("latitude").value(Float.valueOf(event.getLatitude()));
+            out.name("longitude").value(Float.valueOf(event.getLongitude()));
+            out.name("country").value(event.getCountry());
+            out.name("city").value(event.getCity());
+            out.name("eventType").value(event.getEventType());
+            out.name("year").value(event.getYear());
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, Event event) throws IOException {
+            switch (name) {
+                case "eventID": event.setEventID(readString(in)); return true;
+                case "associatedUsername": event.setAssociatedUsername(readString(in)); return true;
+                case "personID": event.setPersonID(readString(in)); return true;
+                case "latitude": if(!skipNull(in)) event.setLatitude(readFloat(in)); return true;
+                case "longitude": if(!skipNull(in)) event.setLongitude(readFloat(in)); return true;
+                case "country": event.setCountry(readString(in)); return true;
+                case "city": event.setCity(readString(in)); return true;
+                case "eventType": event.setEventType(readString(in)); return true;
+                case "year": if(!skipNull(in)) event.setYear(readInt(in)); return true;
+                default: return false;
+            }
+        }
+    };
+
+    public static final TypeAdapter<User> USER = new RecordAdapter<User>() {
+        @Override
+        User create() {
+            return new User(null, null, null, null, null, null, null, null);
+        }
+
+        @Override
+        void writeFields(JsonWriter out, User user) throws IOException {
+            out.name("userID").value(user.getUserID());
+            out.name("userName").value(user.getUsername());
+            out.name("password").value(user.getPassword());
+            out.name("email").value(user.getEmail());
+            out.name("firstName").value(user.getFirstName());
+            out.name("lastName").value(user.getLastName());
+            out.name("gender").value(user.getGender());
+            out.name("personID").value(user.getPersonID());
+            out.name("passwordHash").value(user.getPasswordHash());
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, User user) throws IOException {
+            switch (name) {
+                case "userID": user.setUserID(readString(in)); return true;
+                case "userName": user.setUsername(readString(in)); return true;
+                case "password": user.setPassword(readString(in)); return true;
+                case "email": user.setEmail(readString(in)); return true;
+                case "firstName": user.setFirstName(readString(in)); return true;
+                case "lastName": user.setLastName(readString(in)); return true;
+                case "gender": user.setGender(readString(in)); return true;
+                case "personID": user.setPersonID(readString(in)); return true;
+                case "passwordHash": user.setPasswordHash(readString(in)); return true;
+                default: return false;
+            }
+        }
+    };
+
+    public static final TypeAdapter<AuthorizationToken> AUTHORIZATION_TOKEN = new RecordAdapter<AuthorizationToken>() {
+        @Override
+        AuthorizationToken create() {
+            return new AuthorizationToken();
+        }
+
+        @Override
+        void writeFields(JsonWriter out, AuthorizationToken token) throws IOException {
+            out.name("authKey").value(token.getAuthKey());
+            out.name("userID").value(token.getUserID());
+            out.name("issuedAt").value(token.getIssuedAt());
+            out.name("expiresAt").value(token.getExpiresAt());
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, AuthorizationToken token) throws IOException {
+            switch (name) {
+                case "authKey": token.setAuthKey(readString(in)); return true;
+                case "userID": token.setUserID(readString(in)); return true;
+                case "issuedAt": if(!skipNull(in)) token.setIssuedAt(readLong(in)); return true;
+                case "expiresAt": if(!skipNull(in)) token.setExpiresAt(readLong(in)); return true;
+                default: return false;
+            }
+        }
+    };
+
+    public static final TypeAdapter<LoginRequest> LOGIN_REQUEST = new RecordAdapter<LoginRequest>() {
+        @Override
+        LoginRequest create() {
+            return new LoginRequest();
+        }
+
+        @Override
+        void writeFields(JsonWriter out, LoginRequest request) throws IOException {
+            out.name("userName").value(request.getUserName());
+            out.name("password").value(request.getPassword());
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, LoginRequest request) throws IOException {
+            switch (name) {
+                case "userName": request.setUserName(readString(in)); return true;
+                case "password": request.setPassword(readString(in)); return true;
+                default: return false;
+            }
+        }
+    };
+
+    public static final TypeAdapter<RegisterRequest> REGISTER_REQUEST = new RecordAdapter<RegisterRequest>() {
+        @Override
+        RegisterRequest create() {
+            return new RegisterRequest(null, null, null, null, null, null);
+        }
+
+        @Override
+        void writeFields(JsonWriter out, RegisterRequest request) throws IOException {
+            out.name("userName").value(request.getUserName());
+            out.name("password").value(request.getPassword());
+            out.name("email").value(request.getEmail());
+            out.name("firstName").value(request.getFirstName());
+            out.name("lastName").value(request.getLastName());
+            out.name("gender").value(request.getGender());
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, RegisterRequest request) throws IOException {
+            switch (name) {
+                case "userName": request.setUserName(readString(in)); return true;
+                case "password": request.setPassword(readString(in)); return true;
+                case "email": request.setEmail(readString(in)); return true;
+                case "firstName": request.setFirstName(readString(in)); return true;
+                case "lastName": request.setLastName(readString(in)); return true;
+                case "gender": request.setGender(readString(in)); return true;
+                default: return false;
+            }
+        }
+    };
+
+    public static final TypeAdapter<LoadRequest> LOAD_REQUEST = new RecordAdapter<LoadRequest>() {
+        @Override
+        LoadRequest create() {
+            return new LoadRequest();
+        }
+
+        @Override
+        void writeFields(JsonWriter out, LoadRequest request) throws IOException {
+            writeArray(out.name("users"), USER, request.getUsers());
+            writeArray(out.name("persons"), PERSON, request.getPersons());
+            writeArray(out.name("events"), EVENT, request.getEvents());
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, LoadRequest request) throws IOException {
+            List<?> records;
+            switch (name) {
+                case "users":
+                    records = readList(in, USER);
+                    request.setUsers(records == null ? null : records.toArray(new User[0]));
+                    return true;
+                case "persons":
+                    records = readList(in, PERSON);
+                    request.setPersons(records == null ? null : records.toArray(new Person[0]));
+                    return true;
+                case "events":
+                    records = readList(in, EVENT);
+                    request.setEvents(records == null ? null : records.toArray(new Event[0]));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    };
+
+    public static final TypeAdapter<Response> RESPONSE = new RecordAdapter<Response>() {
+        @Override
+        Response create() {
+            return new Response();
+        }
+
+        @Override
+        void writeFields(JsonWriter out, Response response) throws IOException {
+            writeResponseFields(out, response);
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, Response response) throws IOException {
+            return readResponseField(in, name, response);
+        }
+    };
+
+    public static final TypeAdapter<LoginResponse> LOGIN_RESPONSE = new RecordAdapter<LoginResponse>() {
+        @Override
+        LoginResponse create() {
+            return new LoginResponse();
+        }
+
+        @Override
+        void writeFields(JsonWriter out, LoginResponse response) throws IOException {
+            out.name("authToken").value(response.getAuthToken());
+            out.name("userName").value(response.getUserName());
+            out.name("personID").value(response.getPersonID());
+            writeResponseFields(out, response);
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, LoginResponse response) throws IOException {
+            switch (name) {
+                case "authToken": response.setAuthToken(readString(in)); return true;
+                case "userName": response.setUserName(readString(in)); return true;
+                case "personID": response.setPersonID(readString(in)); return true;
+                default: return readResponseField(in, name, response);
+            }
+        }
+    };
+
+    public static final TypeAdapter<RegisterResponse> REGISTER_RESPONSE = new RecordAdapter<RegisterResponse>() {
+        @Override
+        RegisterResponse create() {
+            return new RegisterResponse();
+        }
+
+        @Override
+        void writeFields(JsonWriter out, RegisterResponse response) throws IOException {
+            out.name("authToken").value(response.getAuthToken());
+            out.name("userName").value(response.getUserName());
+            out.name("personID").value(response.getPersonID());
+            writeResponseFields(out, response);
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, RegisterResponse response) throws IOException {
+            switch (name) {
+                case "authToken": response.setAuthToken(readString(in)); return true;
+                case "userName": response.setUserName(readString(in)); return true;
+                case "personID": response.setPersonID(readString(in)); return true;
+                default: return readResponseField(in, name, response);
+            }
+        }
+    };
+
+    public static final TypeAdapter<PersonResponse> PERSON_RESPONSE = new RecordAdapter<PersonResponse>() {
+        @Override
+        PersonResponse create() {
+            return new PersonResponse();
+        }
+
+        @Override
+        void writeFields(JsonWriter out, PersonResponse response) throws IOException {
+            out.name("associatedUsername").value(response.getAssociatedUsername());
+            out.name("personID").value(response.getPersonID());
+            out.name("firstName").value(response.getFirstName());
+            out.name("lastName").value(response.getLastName());
+            out.name("gender").value(response.getGender());
+            out.name("fatherID").value(response.getFatherID());
+            out.name("motherID").value(response.getMotherID());
+            out.name("spouseID").value(response.getSpouseID());
+            writeResponseFields(out, response);
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, PersonResponse response) throws IOException {
+            switch (name) {
+                case "associatedUsername": response.setAssociatedUsername(readString(in)); return true;
+                case "personID": response.setPersonID(readString(in)); return true;
+                case "firstName": response.setFirstName(readString(in)); return true;
+                case "lastName": response.setLastName(readString(in)); return true;
+                case "gender": response.setGender(readString(in)); return true;
+                case "fatherID": response.setFatherID(readString(in)); return true;
+                case "motherID": response.setMotherID(readString(in)); return true;
+                case "spouseID": response.setSpouseID(readString(in)); return true;
+                default: return readResponseField(in, name, response);
+            }
+        }
+    };
+
+    public static final TypeAdapter<EventResponse> EVENT_RESPONSE = new RecordAdapter<EventResponse>() {
+        @Override
+        EventResponse create() {
+            return new EventResponse();
+        }
+
+        @Override
+        void writeFields(JsonWriter out, EventResponse response) throws IOException {
+            out.name("associatedUsername").value(response.getAssociatedUsername());
+            out.name("eventID").value(response.getEventID());
+            out.name("personID").value(response.getPersonID());
+            out.name("latitude").value(Float.valueOf(response.getLatitude()));
+            out.name("longitude").value(Float.valueOf(response.getLongitude()));
+            out.name("country").value(response.getCountry());
+            out.name("city").value(response.getCity());
+            out.name("eventType").value(response.getEventType());
+            out.name("year").value(response.getYear());
+            writeResponseFields(out, response);
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, EventResponse response) throws IOException {
+            switch (name) {
+                case "associatedUsername": response.setAssociatedUsername(readString(in)); return true;
+                case "eventID": response.setEventID(readString(in)); return true;
+                case "personID": response.setPersonID(readString(in)); return true;
+                case "latitude": if(!skipNull(in)) response.setLatitude(readFloat(in)); return true;
+                case "longitude": if(!skipNull(in)) response.setLongitude(readFloat(in)); return true;
+                case "country": response.setCountry(readString(in)); return true;
+                case "city": response.setCity(readString(in)); return true;
+                case "eventType": response.setEventType(readString(in)); return true;
+                case "year": if(!skipNull(in)) response.setYear(readInt(in)); return true;
+                default: return readResponseField(in, name, response);
+            }
+        }
+    };
+
+    public static final TypeAdapter<AllPersonsResponse> ALL_PERSONS_RESPONSE = new RecordAdapter<AllPersonsResponse>() {
+        @Override
+        AllPersonsResponse create() {
+            return new AllPersonsResponse();
+        }
+
+        @Override
+        void writeFields(JsonWriter out, AllPersonsResponse response) throws IOException {
+            writeList(out.name("data"), PERSON, response.getData());
+            writeResponseFields(out, response);
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, AllPersonsResponse response) throws IOException {
+            if("data".equals(name)) {
+                response.setData(readList(in, PERSON));
+                return true;
+            }
+            return readResponseField(in, name, response);
+        }
+    };
+
+    public static final TypeAdapter<AllEventsResponse> ALL_EVENTS_RESPONSE = new RecordAdapter<AllEventsResponse>() {
+        @Override
+        AllEventsResponse create() {
+            return new AllEventsResponse();
+        }
+
+        @Override
+        void writeFields(JsonWriter out, AllEventsResponse response) throws IOException {
+            writeList(out.name("data"), EVENT, response.getData());
+            writeResponseFields(out, response);
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, AllEventsResponse response) throws IOException {
+            if("data".equals(name)) {
+                response.setData(readList(in, EVENT));
+                return true;
+            }
+            return readResponseField(in, name, response);
+        }
+    };
+
+    public static final TypeAdapter<FillJobResponse> FILL_JOB_RESPONSE = new RecordAdapter<FillJobResponse>() {
+        @Override
+        FillJobResponse create() {
+            return new FillJobResponse();
+        }
+
+        @Override
+        void writeFields(JsonWriter out, FillJobResponse response) throws IOException {
+            out.name("jobID").value(response.getJobID());
+            out.name("status").value(response.getStatus());
+            out.name("personsWritten").value(response.getPersonsWritten());
+            out.name("eventsWritten").value(response.getEventsWritten());
+            out.name("totalPersons").value(response.getTotalPersons());
+            out.name("totalEvents").value(response.getTotalEvents());
+            writeResponseFields(out, response);
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, FillJobResponse response) throws IOException {
+            switch (name) {
+                case "jobID": response.setJobID(readString(in)); return true;
+                case "status": response.setStatus(readString(in)); return true;
+                case "personsWritten": if(!skipNull(in)) response.setPersonsWritten(readLong(in)); return true;
+                case "eventsWritten": if(!skipNull(in)) response.setEventsWritten(readLong(in)); return true;
+                case "totalPersons": if(!skipNull(in)) response.setTotalPersons(readLong(in)); return true;
+                case "totalEvents": if(!skipNull(in)) response.setTotalEvents(readLong(in)); return true;
+                default: return readResponseField(in, name, response);
+            }
+        }
+    };
+
+    /**
+     * Empty constructor
+     */
+    private JsonAdapters() {}
+
+    /**
+     * register registers every adapter with the given GsonBuilder
+     * @param builder contains the GsonBuilder that the adapters are registered with
+     * @return provides the same GsonBuilder
+     */
+    public static GsonBuilder register(GsonBuilder builder) {
+        return builder
+                .registerTypeAdapter(Person.class, PERSON)
+                .registerTypeAdapter(Event.class, EVENT)
+                .registerTypeAdapter(User.class, USER)
+                .registerTypeAdapter(AuthorizationToken.class, AUTHORIZATION_TOKEN)
+                .registerTypeAdapter(LoginRequest.class, LOGIN_REQUEST)
+                .registerTypeAdapter(RegisterRequest.class, REGISTER_REQUEST)
+                .registerTypeAdapter(LoadRequest.class, LOAD_REQUEST)
+                .registerTypeAdapter(Response.class, RESPONSE)
+                .registerTypeAdapter(LoginResponse.class, LOGIN_RESPONSE)
+                .registerTypeAdapter(RegisterResponse.class, REGISTER_RESPONSE)
+                .registerTypeAdapter(PersonResponse.class, PERSON_RESPONSE)
+                .registerTypeAdapter(EventResponse.class, EVENT_RESPONSE)
+                .registerTypeAdapter(AllPersonsResponse.class, ALL_PERSONS_RESPONSE)
+                .registerTypeAdapter(AllEventsResponse.class, ALL_EVENTS_RESPONSE)
+                .registerTypeAdapter(FillJobResponse.class, FILL_JOB_RESPONSE);
+    }
+
+    /**
+     * RecordAdapter reads and writes an object member by member, leaving every member to the adapter of its class
+     */
+    private abstract static class RecordAdapter<T> extends TypeAdapter<T> {
+
+        /**
+         * create provides an empty object for read to fill in
+         */
+        abstract T create();
+
+        /**
+         * writeFields writes every field of the given object, in the order Gson's reflection wrote them
+         */
+        abstract void writeFields(JsonWriter out, T value) throws IOException;
+
+        /**
+         * readField reads the member of the given name into the given object
+         * @return provides false if the class has no such member, so it is skipped
+         */
+        abstract boolean readField(JsonReader in, String name, T value) throws IOException;
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            if(value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            writeFields(out, value);
+            out.endObject();
+        }
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+            if(skipNull(in)) {
+                return null;
+            }
+            T value = create();
+            in.beginObject();
+            while(in.hasNext()) {
+                if(!readField(in, in.nextName(), value)) {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+
+    /**
+     * writeResponseFields writes the fields every Response has, which Gson's reflection wrote after those of the subclass
+     */
+    private static void writeResponseFields(JsonWriter out, Response response) throws IOException {
+        out.name("message").value(response.getMessage());
+        out.name("success").value(response.getSuccess());
+    }
+
+    /**
+     * readResponseField reads the member of the given name if it is one that every Response has
+     */
+    private static boolean readResponseField(JsonReader in, String name, Response response) throws IOException {
+        switch (name) {
+            case "message": response.setMessage(readString(in)); return true;
+            case "success": if(!skipNull(in)) response.setSuccess(readBoolean(in)); return true;
+            default: return false;
+        }
+    }
+
+    private static <T> void writeList(JsonWriter out, TypeAdapter<T> adapter, List<T> values) throws IOException {
+        if(values == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for(T value : values) {
+            adapter.write(out, value);
+        }
+        out.endArray();
+    }
+
+    private static <T> void writeArray(JsonWriter out, TypeAdapter<T> adapter, T[] values) throws IOException {
+        if(values == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for(T value : values) {
+            adapter.write(out, value);
+        }
+        out.endArray();
+    }
+
+    private static <T> ArrayList<T> readList(JsonReader in, TypeAdapter<T> adapter) throws IOException {
+        if(skipNull(in)) {
+            return null;
+        }
+        ArrayList<T> values = new ArrayList<>();
+        in.beginArray();
+        while(in.hasNext()) {
+            values.add(adapter.read(in));
+        }
+        in.endArray();
+        return values;
+    }
+
+    /**
+     * skipNull reads the next value if it is a null
+     * @return provides true if a null was read
+     */
+    private static boolean skipNull(JsonReader in) throws IOException {
+        if(in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return true;
+        }
+        return false;
+    }
+
+    private static String readString(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if(token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        } else if(token == JsonToken.BOOLEAN) {
+            return Boolean.toString(in.nextBoolean());
+        }
+        return in.nextString();
+    }
+
+    private static boolean readBoolean(JsonReader in) throws IOException {
+        if(in.peek() == JsonToken.STRING) {
+            return Boolean.parseBoolean(in.nextString());
+        }
+        return in.nextBoolean();
+    }
+
+    private static float readFloat(JsonReader in) throws IOException {
+        try {
+            return (float) in.nextDouble();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private static int readInt(JsonReader in) throws IOException {
+        try {
+            return in.nextInt();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private static long readLong(JsonReader in) throws IOException {
+        try {
+            return in.nextLong();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 /** The JsonUtil class allows for a publicly accessible group of methods that assist in working with json data
  *  It allows for serialization and deserialization of json objects and POJOs
+ *  Every model, request and response class is read and written by its adapter in JsonAdapters rather than by reflection,
+ *  and the Gson instances are made once and shared, since a Gson can be used by many threads at once
  *
  * @author Cody Uhi
  * @version 1.0.0
@@ -17,6 +19,15 @@ import java.io.FileReader;
 
 public class JsonUtil {
 
+    /**
+     * gson reads and writes compact json, such as a line of an export
+     */
+    private static final Gson gson = JsonAdapters.register(new GsonBuilder()).create();
+    /**
+     * prettyGson writes the indented json that is sent as the body of a response
+     */
+    private static final Gson prettyGson = JsonAdapters.register(new GsonBuilder()).setPrettyPrinting().create();
+
     /**
      * Empty constructor
      */
@@ -31,7 +42,7 @@ public class JsonUtil {
      * @return              The returned value is a class member of the given POJO class type
      */
     public static <T> T deserialize (String value, Class<T> returnType) {
-        return (new Gson()).fromJson(value,returnType);
+        return gson.fromJson(value, returnType);
     }
 
     /**
@@ -41,7 +52,16 @@ public class JsonUtil {
      * @return provides the Stringified version of the given Object
      */
     public static String serialize(Object given) {
-        return new GsonBuilder().setPrettyPrinting().create().toJson(given);
+        return prettyGson.toJson(given);
+    }
+
+    /**
+     * getGson provides the shared Gson, for callers that stream json through a JsonReader or a Writer of their own
+     *
+     * @return provides the shared Gson, which writes compact json
+     */
+    public static Gson getGson() {
+        return gson;
     }
 
     /**
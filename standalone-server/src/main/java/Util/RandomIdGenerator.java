@@ -0,0 +1,29 @@
+/** The RandomIdGenerator class generates IDs with UUID.randomUUID, which is how every ID used to be generated
+ *  Every ID is drawn from the SecureRandom that UUID.randomUUID shares, so it is slower under many threads,
+ *  and the IDs are scattered through their primary key index
+ *  It is kept for comparison and can be selected with -Dfamilymap.ids=random
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Util;
+
+import java.util.UUID;
+
+public class RandomIdGenerator implements IdGenerator {
+
+    /**
+     * Empty constructor marking the class for public use
+     */
+    public RandomIdGenerator() {}
+
+    /**
+     * nextID provides a new random version 4 UUID
+     * @return provides the ID as a 36 character UUID String
+     */
+    @Override
+    public String nextID() {
+        return UUID.randomUUID().toString();
+    }
+}
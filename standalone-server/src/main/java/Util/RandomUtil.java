@@ -1,4 +1,6 @@
 /** The RandomUtil class allows for a publicly accessible group of methods that generate random strings and hashes
+ *  The IDs that rows are stored under come from a pluggable IdGenerator, selected with the familymap.ids property
+ *  (ordered, the default, or random), while auth keys are always drawn from a CSPRNG
  *
  * @author Cody Uhi
  * @version 1.0.0
@@ -12,13 +14,57 @@ import java.util.UUID;
 
 public class RandomUtil {
 
+    /**
+     * idGenerator generates the IDs of every row, or is null until the first ID is generated
+     */
+    private static volatile IdGenerator idGenerator;
+
     /** The generateRandomString creates a random string for use as a UUID
      *
-     * @return  Returns a randomly generated UUID string
+     * @return  Returns a newly generated ID from the IdGenerator
      */
     public static String generateRandomString() {
-        String uuid = UUID.randomUUID().toString();
-        return uuid;
+        return generateID();
+    }
+
+    /**
+     * generateID provides a new ID for a User, Person, Event or TokenID from the IdGenerator in use
+     * It must never be used for an auth key, since the IDs aren't meant to be unguessable
+     *
+     * @return provides the ID as a 36 character UUID String
+     */
+    public static String generateID() {
+        return getIdGenerator().nextID();
+    }
+
+    /**
+     * generateAuthKey provides a new auth key drawn from a CSPRNG, so that it can't be guessed from any other key or ID
+     *
+     * @return provides the auth key as a 36 character UUID String
+     */
+    public static String generateAuthKey() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * getIdGenerator provides the IdGenerator in use, creating the one selected by the familymap.ids property on the first call
+     * @return the IdGenerator in use
+     */
+    public static IdGenerator getIdGenerator() {
+        IdGenerator generator = idGenerator;
+        if(generator == null) {
+            generator = "random".equals(Config.getIdGenerator()) ? new RandomIdGenerator() : new TimeOrderedIdGenerator();
+            idGenerator = generator;
+        }
+        return generator;
+    }
+
+    /**
+     * setIdGenerator replaces the IdGenerator in use, which is meant for tests and benchmarks
+     * @param generator contains the IdGenerator to use, or null to go back to the one selected by the familymap.ids property
+     */
+    public static void setIdGenerator(IdGenerator generator) {
+        idGenerator = generator;
     }
 
     /**
@@ -0,0 +1,243 @@
+/** The ResourceCatalog class holds the names and locations that generated Persons and Events are built from
+ *  It is loaded once at startup, so generating a tree never reads or parses the asset files again
+ *
+ *  The catalog works as follows:
+ *      The locations from json/locations.json are kept in parallel arrays, with the coordinates as primitive floats
+ *      and the city and country Strings interned, so the many locations in the same country share one String
+ *      The names from resources/maleNames.txt, resources/femaleNames.txt and resources/lastNames.txt are kept in String arrays
+ *      Every random pick is a single array index, and the sizes come from the files instead of being hard-coded
+ *      The catalog is never changed after it is loaded, so every thread can read it without locking
+ *      Every pick can also be made from a given SplittableRandom, so that a seeded fill picks the same names and locations
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Util;
+
+import Errors.InternalServerError;
+import Model.Event;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class ResourceCatalog {
+
+    /**
+     * instance holds the catalog once it is loaded, or null before that
+     */
+    private static volatile ResourceCatalog instance;
+
+    /**
+     * The location arrays are parallel, so the same index describes one location in each of them
+     */
+    private final float[] latitudes;
+    private final float[] longitudes;
+    private final String[] cities;
+    private final String[] countries;
+    /**
+     * The name arrays hold one name per line of their asset file
+     */
+    private final String[] maleNames;
+    private final String[] femaleNames;
+    private final String[] lastNames;
+
+    /**
+     * The constructor is private so that the catalog is only created by load
+     */
+    private ResourceCatalog(float[] latitudes, float[] longitudes, String[] cities, String[] countries,
+                            String[] maleNames, String[] femaleNames, String[] lastNames) {
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.cities = cities;
+        this.countries = countries;
+        this.maleNames = maleNames;
+        this.femaleNames = femaleNames;
+        this.lastNames = lastNames;
+    }
+
+    /**
+     * getInstance provides the catalog, loading it first if it wasn't loaded at startup
+     * @return the shared ResourceCatalog
+     * @throws InternalServerError occurs when an asset file can't be read or parsed
+     */
+    public static ResourceCatalog getInstance() throws InternalServerError {
+        ResourceCatalog catalog = instance;
+        return catalog != null ? catalog : load();
+    }
+
+    /**
+     * load reads every asset file into the catalog, which is called once when the server starts
+     *
+     * Read the locations, keeping the coordinates as floats and interning the city and country names
+     * Read the male, female and last names
+     * Refuse an asset file that is empty, since nothing could be picked from it
+     *
+     * @return the loaded ResourceCatalog
+     * @throws InternalServerError occurs when an asset file can't be read or parsed, or is empty
+     */
+    public static synchronized ResourceCatalog load() throws InternalServerError {
+        if(instance != null) {
+            return instance;
+        }
+        System.out.println("Loading the names and locations assets . . . ");
+//        Read the locations, keeping the coordinates as floats and interning the city and country names
+        JsonArray data = JsonUtil.getJsonFile("json/locations.json").getAsJsonArray("data");
+        float[] latitudes = new float[data.size()];
+        float[] longitudes = new float[data.size()];
+        String[] cities = new String[data.size()];
+        String[] countries = new String[data.size()];
+        for(int i = 0; i < data.size(); i++) {
+            JsonObject location = data.get(i).getAsJsonObject();
+            latitudes[i] = location.get("latitude").getAsFloat();
+            longitudes[i] = location.get("longitude").getAsFloat();
+            cities[i] = location.get("city").getAsString().intern();
+            countries[i] = location.get("country").getAsString().intern();
+        }
+//        Read the male, female and last names
+        String[] maleNames = readNames("resources/maleNames.txt");
+        String[] femaleNames = readNames("resources/femaleNames.txt");
+        String[] lastNames = readNames("resources/lastNames.txt");
+//        Refuse an asset file that is empty, since nothing could be picked from it
+        if(latitudes.length == 0) {
+            System.out.println("json/locations.json has no locations");
+            throw new InternalServerError();
+        }
+        instance = new ResourceCatalog(latitudes, longitudes, cities, countries, maleNames, femaleNames, lastNames);
+        System.out.println("Loaded " + latitudes.length + " locations, " + maleNames.length + " male names, " +
+                femaleNames.length + " female names and " + lastNames.length + " last names");
+        return instance;
+    }
+
+    /**
+     * readNames reads every non-blank line of the given file as a name
+     */
+    private static String[] readNames(String path) throws InternalServerError {
+        try {
+            List<String> lines = Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8);
+            String[] names = lines.stream().map(String::trim).filter(name -> !name.isEmpty()).toArray(String[]::new);
+            if(names.length == 0) {
+                System.out.println(path + " has no names");
+                throw new InternalServerError();
+            }
+            return names;
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new InternalServerError();
+        }
+    }
+
+    /**
+     * getLocationCount provides the number of locations in the catalog
+     * @return the number of locations
+     */
+    public int getLocationCount() {
+        return latitudes.length;
+    }
+
+    /**
+     * randomLocation provides the index of a random location
+     * @return the index of the location, which can be passed to placeEvent
+     */
+    public int randomLocation() {
+        return ThreadLocalRandom.current().nextInt(latitudes.length);
+    }
+
+    /**
+     * randomLocation provides the index of a location picked by the given random
+     * @param random contains the random that picks the location
+     * @return the index of the location, which can be passed to placeEvent
+     */
+    public int randomLocation(SplittableRandom random) {
+        return random.nextInt(latitudes.length);
+    }
+
+    /**
+     * placeEvent sets the latitude, longitude, country and city of the given Event to the location at the given index
+     * @param event contains the Event to place
+     * @param location contains the index of the location
+     */
+    public void placeEvent(Event event, int location) {
+        event.setLatitude(latitudes[location]);
+        event.setLongitude(longitudes[location]);
+        event.setCountry(countries[location]);
+        event.setCity(cities[location]);
+    }
+
+    /**
+     * placeEventRandomly sets the latitude, longitude, country and city of the given Event to a random location
+     * @param event contains the Event to place
+     */
+    public void placeEventRandomly(Event event) {
+        placeEvent(event, randomLocation());
+    }
+
+    /**
+     * placeEventRandomly sets the latitude, longitude, country and city of the given Event to a location picked by the given random
+     * @param event contains the Event to place
+     * @param random contains the random that picks the location
+     */
+    public void placeEventRandomly(Event event, SplittableRandom random) {
+        placeEvent(event, randomLocation(random));
+    }
+
+    /**
+     * randomFirstName provides a random first name for the given gender
+     * @param gender contains "m" or "f"
+     * @return the name, or null if the gender is neither
+     */
+    public String randomFirstName(String gender) {
+        if("m".equals(gender)) {
+            return pick(maleNames);
+        } else if("f".equals(gender)) {
+            return pick(femaleNames);
+        }
+        return null;
+    }
+
+    /**
+     * randomFirstName provides a first name for the given gender picked by the given random
+     * @param gender contains "m" or "f"
+     * @param random contains the random that picks the name
+     * @return the name, or null if the gender is neither
+     */
+    public String randomFirstName(String gender, SplittableRandom random) {
+        if("m".equals(gender)) {
+            return maleNames[random.nextInt(maleNames.length)];
+        } else if("f".equals(gender)) {
+            return femaleNames[random.nextInt(femaleNames.length)];
+        }
+        return null;
+    }
+
+    /**
+     * randomLastName provides a random last name
+     * @return the name
+     */
+    public String randomLastName() {
+        return pick(lastNames);
+    }
+
+    /**
+     * randomLastName provides a last name picked by the given random
+     * @param random contains the random that picks the name
+     * @return the name
+     */
+    public String randomLastName(SplittableRandom random) {
+        return lastNames[random.nextInt(lastNames.length)];
+    }
+
+    /**
+     * pick provides a random element of the given array
+     */
+    private static String pick(String[] values) {
+        return values[ThreadLocalRandom.current().nextInt(values.length)];
+    }
+}
@@ -0,0 +1,37 @@
+/** The TimeOrderedIdGenerator class generates IDs that sort in the order they were generated
+ *  It is the default IdGenerator, since rows with time-ordered keys are appended to the end of their primary key index
+ *  instead of being scattered through it like random UUIDs are
+ *
+ *  The IDs are laid out as version 7 UUIDs:
+ *      the first 48 bits are the milliseconds since the epoch, so IDs from a later millisecond always sort later
+ *      the other 74 bits that aren't the version and variant are random
+ *  The random bits come from ThreadLocalRandom, so threads never contend on a shared random, and they are not meant to be unguessable
+ *
+ * @author Cody Uhi
+ * @version 1.0.0
+ */
+
+package Util;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class TimeOrderedIdGenerator implements IdGenerator {
+
+    /**
+     * Empty constructor marking the class for public use
+     */
+    public TimeOrderedIdGenerator() {}
+
+    /**
+     * nextID provides a new version 7 UUID for the current millisecond
+     * @return provides the ID as a 36 character UUID String
+     */
+    @Override
+    public String nextID() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSignificant = (System.currentTimeMillis() << 16) | 0x7000L | (random.nextLong() & 0x0FFFL);
+        long leastSignificant = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant).toString();
+    }
+}
@@ -0,0 +1,109 @@
+package passoff;
+
+import DataAccess.Database;
+import DataAccess.StorageEngine;
+import Errors.AncestryGeneratingError;
+import Model.Person;
+import Requests.RegisterRequest;
+import Responses.AllEventsResponse;
+import Responses.AllPersonsResponse;
+import Responses.PersonResponse;
+import Responses.RegisterResponse;
+import Service.AncestryJobs;
+import Service.GetEventService;
+import Service.GetPersonService;
+import Service.RegisterService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AncestryJobsTests {
+
+    private Database db;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        System.out.println("Entered setUp");
+        Database.setStorageEngine(StorageEngine.SQLITE);
+        db = new Database();
+        db.openConnection();
+        db.createTables();
+        db.clearTables();
+        db.closeConnection(true);
+    }
+
+    @AfterEach
+    public void tearDown() throws Throwable {
+        System.out.println("Entered tearDown");
+        System.setProperty("familymap.ancestry.waitMillis", "60000");
+        AncestryJobs.awaitAll();
+        db.openConnection();
+        db.clearTables();
+        db.closeConnection(true);
+        System.clearProperty("familymap.ancestry.waitMillis");
+    }
+
+    /**
+     * Ancestry jobs test 1
+     */
+    @Test
+    public void registerPass() throws Throwable {
+        System.out.println("Testing whether a registered User's reads see their ancestors once they are generated . . . ");
+        RegisterResponse registered = RegisterService.register(
+                new RegisterRequest("sheila", "password", "email", "Sheila", "Parker", "f"));
+        assertTrue(registered.getSuccess());
+//        The User, their Person and their authToken were committed before the ancestors
+        PersonResponse root = GetPersonService.getPerson(registered.getPersonID(), registered.getAuthToken());
+        assertEquals("Sheila", root.getFirstName());
+//        A parent that is read right away is either there already, or reported as still generating instead of not being found
+        try {
+            GetPersonService.getPerson(root.getFatherID(), registered.getAuthToken());
+        } catch (AncestryGeneratingError e) {
+            assertTrue(AncestryJobs.isGenerating("sheila"));
+        }
+        System.setProperty("familymap.ancestry.waitMillis", "60000");
+        AncestryJobs.await("sheila");
+        PersonResponse father = GetPersonService.getPerson(root.getFatherID(), registered.getAuthToken());
+        assertEquals("m", father.getGender());
+        AllPersonsResponse persons = GetPersonService.getAllPersons(registered.getAuthToken());
+        assertEquals(31, persons.getData().size());
+        AllEventsResponse events = GetEventService.getAllEvents(registered.getAuthToken());
+        assertTrue(events.getData().size() >= 91);
+        assertFalse(AncestryJobs.isGenerating("sheila"));
+        System.out.println("The User's reads saw their ancestors!  Passed.");
+    }
+
+    /**
+     * Ancestry jobs test 2
+     */
+    @Test
+    public void stillGeneratingFail() throws Throwable {
+        System.out.println("Testing whether reads and writes report ancestors that are still generating . . . ");
+        System.setProperty("familymap.ancestry.waitMillis", "0");
+        Person person = new Person("personID", "patrick", "Patrick", "Spencer", "m", "fatherID", "motherID", null);
+        AncestryJobs.submit(person, 2020, 14);
+        assertTrue(AncestryJobs.isGenerating("patrick"));
+//        A read reports the ancestors right away, however long the wait is
+        System.setProperty("familymap.ancestry.waitMillis", "60000");
+        assertThrows(AncestryGeneratingError.class, () -> AncestryJobs.checkGenerated("patrick"));
+//        Other Users' reads never wait
+        AncestryJobs.checkGenerated("sheila");
+//        A write gives up once the wait is over
+        System.setProperty("familymap.ancestry.waitMillis", "0");
+        assertThrows(AncestryGeneratingError.class, () -> AncestryJobs.await("patrick"));
+        assertThrows(AncestryGeneratingError.class, AncestryJobs::awaitAll);
+        AncestryJobs.await("sheila");
+
+//        Once the wait is long enough, the write waits for every ancestor, and then the read sees them
+        System.setProperty("familymap.ancestry.waitMillis", "60000");
+        AncestryJobs.await("patrick");
+        AncestryJobs.checkGenerated("patrick");
+        assertFalse(AncestryJobs.isGenerating("patrick"));
+        db.openConnection();
+        assertEquals((1 << 15) - 2, db.getPersonStore().getPersons("patrick").size());
+        db.closeConnection(false);
+        System.out.println("The read reported the ancestors that were still generating!  Passed.");
+    }
+}
@@ -0,0 +1,119 @@
+package passoff;
+
+import DataAccess.AuthorizedRead;
+import DataAccess.Database;
+import DataAccess.StorageEngine;
+import Model.AuthorizationToken;
+import Model.Event;
+import Model.Person;
+import Model.User;
+import Util.RandomUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuthorizedReadTests {
+
+    private Database db;
+
+    private void setUp(StorageEngine engine) throws Exception {
+        System.out.println("Entered setUp for the " + engine + " storage engine");
+        Database.setStorageEngine(engine);
+        db = new Database();
+        db.openConnection();
+        db.createTables();
+        db.clearTables();
+        db.getUserStore().addUser(new User("userID", "sheila", "password", "email",
+                "firstName", "lastName", "f", "personID"));
+        AuthorizationToken token = new AuthorizationToken();
+        token.setAuthKey("authKey");
+        token.setUserID("userID");
+        db.getTokenStore().addAuthToken(RandomUtil.generateRandomString(), token);
+        AuthorizationToken expired = new AuthorizationToken();
+        expired.setAuthKey("expiredKey");
+        expired.setUserID("userID");
+        expired.setIssuedAt(1);
+        expired.setExpiresAt(2);
+        db.getTokenStore().addAuthToken(RandomUtil.generateRandomString(), expired);
+        db.getPersonStore().addPerson(new Person("personID", "sheila", "firstName", "lastName", "f", null, null, null));
+        db.getPersonStore().addPerson(new Person("otherPersonID", "patrick", "firstName", "lastName", "m", null, null, null));
+        db.getEventStore().insertEvent(createEvent("eventID", "sheila"));
+        db.getEventStore().insertEvent(createEvent("otherEventID", "patrick"));
+        db.closeConnection(true);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        System.out.println("Entered tearDown");
+        db.openConnection();
+        db.clearTables();
+        db.closeConnection(true);
+        Database.setStorageEngine(StorageEngine.SQLITE);
+    }
+
+    private Event createEvent(String eventID, String username) {
+        Event event = new Event();
+        event.setEventID(eventID);
+        event.setAssociatedUsername(username);
+        event.setPersonID("personID");
+        event.setLatitude(1.5f);
+        event.setLongitude(-2.5f);
+        event.setCountry("country");
+        event.setCity("city");
+        event.setEventType("birth");
+        event.setYear(1990);
+        return event;
+    }
+
+    /**
+     * Authorized read test 1
+     */
+    @Test
+    public void authorizedEventReadPass() throws Exception {
+        for(StorageEngine engine : StorageEngine.values()) {
+            setUp(engine);
+            System.out.println("Testing whether a single read tells every Event outcome apart . . . ");
+            db.openConnection();
+            AuthorizedRead<Event> found = db.getEventStore().getEventForAuthKey("eventID", "authKey");
+            assertEquals(AuthorizedRead.Outcome.FOUND, found.getOutcome());
+            assertEquals(1990, found.getRow().getYear());
+            assertEquals(AuthorizedRead.Outcome.NOT_OWNED,
+                    db.getEventStore().getEventForAuthKey("otherEventID", "authKey").getOutcome());
+            assertEquals(AuthorizedRead.Outcome.NOT_FOUND,
+                    db.getEventStore().getEventForAuthKey("missingID", "authKey").getOutcome());
+            assertEquals(AuthorizedRead.Outcome.INVALID_AUTH_TOKEN,
+                    db.getEventStore().getEventForAuthKey("eventID", "expiredKey").getOutcome());
+            assertEquals(AuthorizedRead.Outcome.INVALID_AUTH_TOKEN,
+                    db.getEventStore().getEventForAuthKey("missingID", "missingKey").getOutcome());
+            assertNull(db.getEventStore().getEventForAuthKey("otherEventID", "authKey").getRow());
+            db.closeConnection(true);
+            System.out.println("Every Event outcome was told apart on the " + engine + " storage engine!  Passed.");
+            tearDown();
+        }
+    }
+
+    /**
+     * Authorized read test 2
+     */
+    @Test
+    public void authorizedPersonReadPass() throws Exception {
+        for(StorageEngine engine : StorageEngine.values()) {
+            setUp(engine);
+            System.out.println("Testing whether a single read tells every Person outcome apart . . . ");
+            db.openConnection();
+            AuthorizedRead<Person> found = db.getPersonStore().getPersonForAuthKey("personID", "authKey");
+            assertEquals(AuthorizedRead.Outcome.FOUND, found.getOutcome());
+            assertEquals("sheila", found.getRow().getAssociatedUsername());
+            assertEquals(AuthorizedRead.Outcome.NOT_OWNED,
+                    db.getPersonStore().getPersonForAuthKey("otherPersonID", "authKey").getOutcome());
+            assertEquals(AuthorizedRead.Outcome.NOT_FOUND,
+                    db.getPersonStore().getPersonForAuthKey("missingID", "authKey").getOutcome());
+            assertEquals(AuthorizedRead.Outcome.INVALID_AUTH_TOKEN,
+                    db.getPersonStore().getPersonForAuthKey("personID", "expiredKey").getOutcome());
+            db.closeConnection(true);
+            System.out.println("Every Person outcome was told apart on the " + engine + " storage engine!  Passed.");
+            tearDown();
+        }
+    }
+}
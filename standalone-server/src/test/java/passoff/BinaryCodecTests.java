@@ -0,0 +1,134 @@
+package passoff;
+
+import Model.Event;
+import Model.Person;
+import Responses.AllEventsResponse;
+import Util.BinaryCodec;
+import Util.JsonUtil;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryCodecTests {
+
+    private Event event(String eventID, String city, float latitude, int year) {
+        Event event = new Event();
+        event.setEventID(eventID);
+        event.setAssociatedUsername("sheila");
+        event.setPersonID("Sheila_Parker");
+        event.setLatitude(latitude);
+        event.setLongitude(174.7667f);
+        event.setCountry("New Zealand");
+        event.setCity(city);
+        event.setEventType("birth");
+        event.setYear(year);
+        return event;
+    }
+
+    private List<Event> events(int count) {
+        List<Event> events = new ArrayList<>();
+        for(int i = 0; i < count; i++) {
+            events.add(event("event" + i, "City" + (i % 50), (i % 180) - 90.125f, 1700 + i % 320));
+        }
+        return events;
+    }
+
+    /**
+     * Binary codec test 1
+     */
+    @Test
+    public void eventsPass() throws Throwable {
+        System.out.println("Testing whether Events come back from the binary format just as they went in . . . ");
+        List<Event> events = new ArrayList<>(events(300));
+        events.add(event("Sheila_Death", null, Float.NaN, -44));
+        events.add(event("Sheila_Marriage", "Z\u00fcrich \u6771\u4eac", -0f, Integer.MIN_VALUE));
+        events.add(event("", "", Float.MAX_VALUE, Integer.MAX_VALUE));
+        events.add(new Event());
+        List<Event> decoded = BinaryCodec.decodeEvents(BinaryCodec.encodeEvents(events));
+        assertEquals(events.size(), decoded.size());
+        for(int i = 0; i < events.size(); i++) {
+            assertEquals(JsonUtil.getGson().toJsonTree(events.get(i)), JsonUtil.getGson().toJsonTree(decoded.get(i)));
+            assertEquals(Float.floatToIntBits(events.get(i).getLatitude()), Float.floatToIntBits(decoded.get(i).getLatitude()));
+        }
+        assertTrue(BinaryCodec.decodeEvents(BinaryCodec.encodeEvents(Collections.<Event>emptyList())).isEmpty());
+        System.out.println("Passed.");
+    }
+
+    /**
+     * Binary codec test 2
+     */
+    @Test
+    public void personsPass() throws Throwable {
+        System.out.println("Testing whether Persons come back from the binary format just as they went in . . . ");
+        List<Person> persons = Arrays.asList(
+                new Person("Sheila_Parker", "sheila", "Sheila", "Parker", "f", "Blaine_McGary", "Betty_White", "Davis_Hyer"),
+                new Person("Davis_Hyer", "sheila", "Davis", "Hyer", "m", null, null, "Sheila_Parker"),
+                new Person(null, null, null, null, null, null, null, null));
+        List<Person> decoded = BinaryCodec.decodePersons(BinaryCodec.encodePersons(persons));
+        assertEquals(persons.size(), decoded.size());
+        for(int i = 0; i < persons.size(); i++) {
+            assertEquals(JsonUtil.serialize(persons.get(i)), JsonUtil.serialize(decoded.get(i)));
+        }
+        System.out.println("Passed.");
+    }
+
+    /**
+     * Binary codec test 3
+     */
+    @Test
+    public void decodeFail() throws Throwable {
+        System.out.println("Testing whether a body that isn't whole, or holds the other kind of row, is refused . . . ");
+        byte[] body = BinaryCodec.encodeEvents(events(20));
+        assertThrows(IOException.class, () -> BinaryCodec.decodePersons(body));
+        assertThrows(IOException.class, () -> BinaryCodec.decodeEvents(Arrays.copyOf(body, body.length - 1)));
+        assertThrows(IOException.class, () -> BinaryCodec.decodeEvents(Arrays.copyOf(body, body.length + 1)));
+        assertThrows(IOException.class, () -> BinaryCodec.decodeEvents("{\"data\":[]}".getBytes()));
+        assertThrows(IOException.class, () -> BinaryCodec.decodeEvents(new byte[0]));
+//        A count that claims more rows than the body could hold is refused before anything is allocated for it
+        assertThrows(IOException.class, () -> BinaryCodec.decodeEvents(new byte[]{'F', 'M', 'B', '1', 2, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F}));
+        System.out.println("Passed.");
+    }
+
+    /**
+     * Binary codec test 4
+     */
+    @Test
+    public void acceptPass() throws Throwable {
+        System.out.println("Testing whether the binary format is only chosen when the Accept header asks for it . . . ");
+        assertFalse(BinaryCodec.isAccepted(null));
+        assertFalse(BinaryCodec.isAccepted("*/*"));
+        assertFalse(BinaryCodec.isAccepted("application/json"));
+        assertTrue(BinaryCodec.isAccepted(BinaryCodec.CONTENT_TYPE));
+        assertTrue(BinaryCodec.isAccepted("application/x-familymap-binary, application/json;q=0.9"));
+        assertTrue(BinaryCodec.isAccepted("application/json; q=0.5, Application/X-FamilyMap-Binary"));
+        assertFalse(BinaryCodec.isAccepted("application/x-familymap-binary;q=0.5, application/json"));
+        assertFalse(BinaryCodec.isAccepted("application/x-familymap-binary;q=0"));
+        assertFalse(BinaryCodec.isAccepted("application/x-familymap-binary;q=high"));
+        assertTrue(BinaryCodec.isBinary("application/x-familymap-binary"));
+        assertFalse(BinaryCodec.isBinary("application/json"));
+        assertFalse(BinaryCodec.isBinary(null));
+        System.out.println("Passed.");
+    }
+
+    /**
+     * Binary codec test 5
+     */
+    @Test
+    public void sizePass() throws Throwable {
+        System.out.println("Testing whether the binary format is much smaller than the JSON of the same Events . . . ");
+        AllEventsResponse response = new AllEventsResponse();
+        response.setData(new ArrayList<>(events(1000)));
+        response.setSuccess(true);
+        int json = JsonUtil.serialize(response).getBytes("UTF-8").length;
+        int binary = BinaryCodec.encodeEvents(response.getData()).length;
+        System.out.println("1000 Events: " + json + " bytes of JSON, " + binary + " bytes of binary");
+        assertTrue(binary * 5 < json);
+        System.out.println("Passed.");
+    }
+}
@@ -0,0 +1,197 @@
+package passoff;
+
+import DataAccess.Database;
+import DataAccess.StorageEngine;
+import Errors.TooManyCredentialRequestsError;
+import Model.User;
+import Requests.LoginRequest;
+import Requests.RegisterRequest;
+import Responses.LoginResponse;
+import Service.AncestryJobs;
+import Service.CredentialHasher;
+import Service.LoginService;
+import Service.RegisterService;
+import Util.RandomUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CredentialHasherTests {
+
+    private Database db;
+
+    @BeforeEach
+    public void setUp() throws Throwable {
+        System.out.println("Entered setUp");
+        Database.setStorageEngine(StorageEngine.SQLITE);
+//        A cheap cost keeps the tests quick, and is still stored with every hash
+        System.setProperty("familymap.hash.iterations", "100");
+        db = new Database();
+        db.openConnection();
+        db.createTables();
+        db.clearTables();
+        db.closeConnection(true);
+    }
+
+    @AfterEach
+    public void tearDown() throws Throwable {
+        System.out.println("Entered tearDown");
+        System.clearProperty("familymap.hash.iterations");
+        AncestryJobs.awaitAll();
+        db.openConnection();
+        db.clearTables();
+        db.closeConnection(true);
+    }
+
+    /**
+     * login logs the given User in with the given password
+     */
+    private LoginResponse login(String username, String password) throws Throwable {
+        LoginRequest request = new LoginRequest();
+        request.setUserName(username);
+        request.setPassword(password);
+        return LoginService.login(request);
+    }
+
+    /**
+     * storedHash provides the stored hash of the given User's password
+     */
+    private String storedHash(String username) throws Throwable {
+        db.openConnection();
+        String stored = db.getUserStore().getPasswordHash(username);
+        db.closeConnection(false);
+        return stored;
+    }
+
+    /**
+     * Credential hasher test 1
+     */
+    @Test
+    public void hashPass() throws Throwable {
+        System.out.println("Testing whether a hash is salted, carries its cost, and only verifies its own password . . . ");
+        String hash = CredentialHasher.hash("password");
+        assertTrue(hash.startsWith("pbkdf2-sha256$100$"));
+        assertNotEquals(hash, CredentialHasher.hash("password"));
+        assertTrue(CredentialHasher.verify("password", hash));
+        assertFalse(CredentialHasher.verify("Password", hash));
+        assertFalse(CredentialHasher.verify("password", null));
+        assertFalse(CredentialHasher.verify("password", "pbkdf2-sha256$100$not$base64!"));
+        assertFalse(CredentialHasher.needsRehash(hash));
+        System.out.println("Passed.");
+    }
+
+    /**
+     * Credential hasher test 2
+     */
+    @Test
+    public void legacyPass() throws Throwable {
+        System.out.println("Testing whether an MD5 hash still logs in and is replaced at the login . . . ");
+        db.openConnection();
+        db.getUserStore().addUser(new User("userID", "legacy", RandomUtil.generateHash("password"), "email",
+                "firstName", "lastName", "f", "personID"));
+        db.closeConnection(true);
+        assertTrue(CredentialHasher.needsRehash(storedHash("legacy")));
+        assertTrue(login("legacy", "password").getSuccess());
+        String upgraded = storedHash("legacy");
+        assertTrue(upgraded.startsWith("pbkdf2-sha256$100$"));
+        assertTrue(CredentialHasher.verify("password", upgraded));
+        assertTrue(login("legacy", "password").getSuccess());
+        assertEquals(upgraded, storedHash("legacy"));
+        System.out.println("Passed.");
+    }
+
+    /**
+     * Credential hasher test 3
+     */
+    @Test
+    public void rehashPass() throws Throwable {
+        System.out.println("Testing whether a hash is replaced at the login once the cost is raised . . . ");
+        RegisterService.register(new RegisterRequest("sheila", "password", "email", "Sheila", "Parker", "f"));
+        String registered = storedHash("sheila");
+        assertTrue(registered.startsWith("pbkdf2-sha256$100$"));
+        System.setProperty("familymap.hash.iterations", "200");
+        assertTrue(CredentialHasher.needsRehash(registered));
+        assertTrue(login("sheila", "password").getSuccess());
+        assertTrue(storedHash("sheila").startsWith("pbkdf2-sha256$200$"));
+        System.out.println("Passed.");
+    }
+
+    /**
+     * Credential hasher test 4
+     */
+    @Test
+    public void loginFail() throws Throwable {
+        System.out.println("Testing whether a wrong password neither logs in nor replaces the hash . . . ");
+        RegisterService.register(new RegisterRequest("sheila", "password", "email", "Sheila", "Parker", "f"));
+        String registered = storedHash("sheila");
+        System.setProperty("familymap.hash.iterations", "200");
+        assertThrows(Throwable.class, () -> login("sheila", "wrong"));
+        assertThrows(Throwable.class, () -> login("nobody", "password"));
+        assertEquals(registered, storedHash("sheila"));
+        System.out.println("Passed.");
+    }
+
+    /**
+     * Credential hasher test 5
+     */
+    @Test
+    public void hashAllPass() throws Throwable {
+        System.out.println("Testing whether the passwords of many Users are hashed in parallel slices . . . ");
+        List<User> users = new ArrayList<>();
+        for(int i = 0; i < 101; i++) {
+            users.add(new User("userID" + i, "user" + i, "password" + i, "email" + i,
+                    "firstName", "lastName", "f", "person" + i));
+        }
+        CredentialHasher.hashAll(users);
+        for(int i = 0; i < users.size(); i++) {
+            assertTrue(CredentialHasher.verify("password" + i, users.get(i).getPassword()));
+        }
+        System.out.println("Passed.");
+    }
+
+    /**
+     * Credential hasher test 6
+     */
+    @Test
+    public void queueFullFail() throws Throwable {
+        System.out.println("Testing whether a credential request is refused once every thread is busy and the queue is full . . . ");
+        CountDownLatch release = new CountDownLatch(1);
+        boolean refused = false;
+        List<User> users = new ArrayList<>();
+        try {
+            for(int i = 0; i < 10000 && !refused; i++) {
+                try {
+                    CredentialHasher.execute(() -> {
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    });
+                } catch (TooManyCredentialRequestsError e) {
+                    assertEquals("Too Many Credential Requests", e.getMessage());
+                    refused = true;
+                }
+            }
+//            A full pool leaves the slices of a bulk hash to the calling thread instead of refusing them
+            for(int i = 0; i < 10; i++) {
+                users.add(new User("userID" + i, "user" + i, "password" + i, "email" + i,
+                        "firstName", "lastName", "f", "person" + i));
+            }
+            CredentialHasher.hashAll(users);
+        } finally {
+            release.countDown();
+        }
+        assertTrue(refused);
+        for(int i = 0; i < users.size(); i++) {
+            assertTrue(CredentialHasher.verify("password" + i, users.get(i).getPassword()));
+        }
+        System.out.println("Passed.");
+    }
+}
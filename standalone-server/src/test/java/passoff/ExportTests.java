@@ -0,0 +1,190 @@
+package passoff;
+
+import Cache.Principal;
+import DataAccess.Database;
+import DataAccess.StorageEngine;
+import Errors.DataAccessException;
+import Errors.InvalidAuthTokenError;
+import Errors.InvalidRequestDataError;
+import Requests.RegisterRequest;
+import Responses.RegisterResponse;
+import Responses.Response;
+import Service.AncestryJobs;
+import Service.CredentialHasher;
+import Service.ExportService;
+import Service.FillService;
+import Service.LoadService;
+import Service.RegisterService;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExportTests {
+
+    private Database db;
+    private RegisterResponse registered;
+
+    @BeforeEach
+    public void setUp() throws Throwable {
+        System.out.println("Entered setUp");
+        Database.setStorageEngine(StorageEngine.SQLITE);
+        db = new Database();
+        db.openConnection();
+        db.createTables();
+        db.clearTables();
+        db.closeConnection(true);
+        registered = RegisterService.register(new RegisterRequest("sheila", "password", "email", "Sheila", "Parker", "f"));
+        AncestryJobs.awaitAll();
+    }
+
+    @AfterEach
+    public void tearDown() throws Throwable {
+        System.out.println("Entered tearDown");
+        System.clearProperty("familymap.export.passwordHash");
+        System.clearProperty("familymap.export.pageSize");
+        AncestryJobs.awaitAll();
+        db.openConnection();
+        db.clearTables();
+        db.closeConnection(true);
+    }
+
+    /**
+     * export exports the tree of the registered User
+     */
+    private String export() throws Throwable {
+        StringWriter out = new StringWriter();
+        ExportService.export(ExportService.authorize(registered.getAuthToken()), out);
+        return out.toString();
+    }
+
+    /**
+     * Export test 1
+     */
+    @Test
+    public void exportPass() throws Throwable {
+        System.out.println("Testing whether the User, their Persons and their Events are exported a line at a time . . . ");
+        String[] lines = export().split("\n");
+        db.openConnection();
+        int persons = db.getPersonStore().getPersons("sheila").size();
+        int events = db.getEventStore().getEvents("sheila").size();
+        db.closeConnection(false);
+        assertEquals(1 + persons + events + 1, lines.length);
+//        The User carries neither its password nor the hash of it
+        JsonObject user = new JsonParser().parse(lines[0]).getAsJsonObject().getAsJsonObject("user");
+        assertEquals("sheila", user.get("userName").getAsString());
+        assertEquals(registered.getPersonID(), user.get("personID").getAsString());
+        assertFalse(user.has("password"));
+        assertFalse(user.has("passwordHash"));
+        assertTrue(new JsonParser().parse(lines[1]).getAsJsonObject().has("person"));
+        assertTrue(new JsonParser().parse(lines[lines.length - 2]).getAsJsonObject().has("event"));
+//        The closing line counts the export
+        JsonObject end = new JsonParser().parse(lines[lines.length - 1]).getAsJsonObject().getAsJsonObject("end");
+        assertEquals(persons, end.get("persons").getAsInt());
+        assertEquals(events, end.get("events").getAsInt());
+        System.out.println("Every row was exported on its own line!  Passed.");
+    }
+
+    /**
+     * Export test 2
+     */
+    @Test
+    public void reloadPass() throws Throwable {
+        System.out.println("Testing whether an export with the hash of the password is loaded back into the same tree . . . ");
+//        Only a server that was told to export the hash of the password writes it
+        System.setProperty("familymap.export.passwordHash", "true");
+        String exported = export();
+        JsonObject user = new JsonParser().parse(exported.split("\n")[0]).getAsJsonObject().getAsJsonObject("user");
+        assertFalse(user.has("password"));
+        assertTrue(CredentialHasher.verify("password", user.get("passwordHash").getAsString()));
+        Response response = LoadService.loadLines(new BufferedReader(new StringReader(exported)));
+        assertTrue(response.getSuccess());
+        assertTrue(response.getMessage().startsWith("Successfully added 1 users, 31 persons, and "));
+        db.openConnection();
+        assertTrue(CredentialHasher.verify("password", db.getUserStore().getPasswordHash("sheila")));
+        String userID = db.getUserStore().getUserID("sheila");
+        assertEquals(registered.getPersonID(), db.getPersonStore().getPersonIDByUserID(userID));
+        db.closeConnection(true);
+//        The load replaced every authToken, so the reloaded tree is exported with a new one
+        StringWriter out = new StringWriter();
+        ExportService.export(new Principal(userID, "sheila", registered.getPersonID()), out);
+        assertEquals(exported, out.toString());
+        System.out.println("The export was loaded back into the same tree!  Passed.");
+    }
+
+    /**
+     * Export test 3
+     */
+    @Test
+    public void invalidFail() throws Throwable {
+        System.out.println("Testing whether invalid authTokens and invalid lines are refused . . . ");
+        assertThrows(InvalidAuthTokenError.class, () -> ExportService.authorize("badToken"));
+        String body = "{\"person\":{\"personID\":\"p\",\"associatedUsername\":\"u\",\"firstName\":\"f\",\"lastName\":\"l\",\"gender\":\"f\"}}\n" +
+                "{\"person\":{\"personID\":\n";
+        InvalidRequestDataError error = assertThrows(InvalidRequestDataError.class,
+                () -> LoadService.loadLines(new BufferedReader(new StringReader(body))));
+        assertEquals("line 2 of the load is not valid JSON", error.getDetails());
+//        Nothing from the invalid load was kept
+        db.openConnection();
+        assertTrue(db.getUserStore().usernameExists("sheila"));
+        db.closeConnection(false);
+        System.out.println("The invalid requests were refused!  Passed.");
+    }
+
+    /**
+     * Export test 4
+     */
+    @Test
+    public void reloadWithoutHashFail() throws Throwable {
+        System.out.println("Testing whether an export without the hash of the password needs a password to be loaded . . . ");
+        String exported = export();
+        InvalidRequestDataError error = assertThrows(InvalidRequestDataError.class,
+                () -> LoadService.loadLines(new BufferedReader(new StringReader(exported))));
+        assertTrue(error.getDetails().contains("password"), error.getDetails());
+        db.openConnection();
+        assertTrue(CredentialHasher.verify("password", db.getUserStore().getPasswordHash("sheila")));
+        db.closeConnection(false);
+        System.out.println("The export without the hash needed a password!  Passed.");
+    }
+
+    /**
+     * Export test 5
+     */
+    @Test
+    public void pagedPass() throws Throwable {
+        System.out.println("Testing whether an export read a page at a time matches one read at once, and stops if the tree is replaced . . . ");
+        String whole = export();
+//        Pages of 7 rows split the 31 Persons and their Events across many transactions
+        System.setProperty("familymap.export.pageSize", "7");
+        assertEquals(whole, export());
+//        The first page is written once its transaction is closed, so a fill can replace the tree while it is written
+        StringWriter out = new StringWriter() {
+            private boolean filled = false;
+
+            @Override
+            public void write(String str) {
+                if(!filled && "person".equals(str)) {
+                    filled = true;
+                    try {
+                        assertTrue(FillService.fill("2", "sheila").getSuccess());
+                    } catch (Throwable e) {
+                        throw new AssertionError(e);
+                    }
+                }
+                super.write(str);
+            }
+        };
+        Principal principal = ExportService.authorize(registered.getAuthToken());
+        DataAccessException error = assertThrows(DataAccessException.class, () -> ExportService.export(principal, out));
+        assertEquals("The tree was replaced while it was being exported", error.getMessage());
+        assertFalse(out.toString().contains("\"end\""));
+        System.out.println("The paged export matched, and stopped once the tree was replaced!  Passed.");
+    }
+}
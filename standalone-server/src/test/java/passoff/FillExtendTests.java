@@ -0,0 +1,140 @@
+package passoff;
+
+import DataAccess.Database;
+import DataAccess.StorageEngine;
+import Errors.InternalServerError;
+import Errors.InvalidModeError;
+import Model.Event;
+import Model.Person;
+import Model.User;
+import Responses.Response;
+import Service.FillService;
+import Service.TreeGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FillExtendTests {
+
+    private Database db;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        System.out.println("Entered setUp");
+        setUp(StorageEngine.SQLITE);
+    }
+
+    private void setUp(StorageEngine engine) throws Exception {
+        Database.setStorageEngine(engine);
+        db = new Database();
+        db.openConnection();
+        db.createTables();
+        db.clearTables();
+        db.getUserStore().addUser(new User("userID", "sheila", "password", "email",
+                "firstName", "lastName", "f", "personID"));
+        db.closeConnection(true);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        System.out.println("Entered tearDown");
+        db.openConnection();
+        db.clearTables();
+        db.closeConnection(true);
+        Database.setStorageEngine(StorageEngine.SQLITE);
+    }
+
+    private void checkExtend() throws Throwable {
+        FillService.fill("2", "sheila", "1", null);
+        db.openConnection();
+        ArrayList<Person> before = db.getPersonStore().getPersons("sheila");
+        db.closeConnection(false);
+        assertEquals(7, before.size());
+
+        Response response = FillService.fill("1", "sheila", null, "extend");
+        assertEquals("Successfully added 8 persons and 24 events to the database.", response.getMessage());
+        db.openConnection();
+        ArrayList<Person> after = db.getPersonStore().getPersons("sheila");
+        ArrayList<Event> events = db.getEventStore().getEvents("sheila");
+        db.closeConnection(false);
+        assertEquals(15, after.size());
+        assertEquals(43, events.size());
+//        Every Person that was there before is still there, and every old leaf now has parents
+        Map<String, Person> persons = new HashMap<>();
+        for(Person person : after) {
+            persons.put(person.getPersonID(), person);
+        }
+        int leaves = 0;
+        for(Person old : before) {
+            Person kept = persons.get(old.getPersonID());
+            assertNotNull(kept);
+            assertEquals(old.getFirstName(), kept.getFirstName());
+            if(old.getFatherID() == null) {
+                assertNotNull(persons.get(kept.getFatherID()));
+                assertNotNull(persons.get(kept.getMotherID()));
+                leaves++;
+            } else {
+                assertEquals(old.getFatherID(), kept.getFatherID());
+            }
+        }
+        assertEquals(4, leaves);
+    }
+
+    /**
+     * Fill extend test 1
+     */
+    @Test
+    public void extendPass() throws Throwable {
+        System.out.println("Testing whether an extending fill only adds the new generations . . . ");
+        checkExtend();
+        System.out.println("The extending fill only added the new generations!  Passed.");
+    }
+
+    /**
+     * Fill extend test 2
+     */
+    @Test
+    public void extendMemoryPass() throws Throwable {
+        System.out.println("Testing whether an extending fill works on the memory storage engine . . . ");
+        setUp(StorageEngine.MEMORY);
+        checkExtend();
+        System.out.println("The extending fill worked in memory!  Passed.");
+    }
+
+    /**
+     * Fill extend test 3
+     */
+    @Test
+    public void extendFail() throws Throwable {
+        System.out.println("Testing whether an unknown fill mode is refused . . . ");
+        assertThrows(InvalidModeError.class, () -> FillService.fill("1", "sheila", null, "append"));
+//        A User without a tree has no leaf Persons to extend
+        Response response = FillService.fill("1", "sheila", null, "extend");
+        assertEquals("Successfully added 0 persons and 0 events to the database.", response.getMessage());
+        System.out.println("The unknown fill mode was refused!  Passed.");
+    }
+
+    /**
+     * Fill extend test 4
+     */
+    @Test
+    public void generateFail() throws Throwable {
+        System.out.println("Testing whether a tree that can't be generated rolls back and lets the next write through . . . ");
+        Person person = new Person("personID", "sheila", "Sheila", "Parker", "f", null, null, null);
+        assertThrows(InternalServerError.class, () -> FillService.fillHelper(TreeGenerator.MAX_GENERATIONS + 1, person, 2020));
+//        The failed fill's connection was closed, so the database isn't still locked by it
+        db.openConnection();
+        db.getPersonStore().addPerson(person);
+        db.closeConnection(true);
+        db.openConnection();
+        assertEquals(1, db.getPersonStore().getPersons("sheila").size());
+        db.closeConnection(false);
+        System.out.println("The failed fill rolled back!  Passed.");
+    }
+}
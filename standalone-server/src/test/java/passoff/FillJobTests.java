@@ -0,0 +1,118 @@
+package passoff;
+
+import DataAccess.Database;
+import DataAccess.StorageEngine;
+import Errors.InvalidGenerationsError;
+import Errors.InvalidJobIDError;
+import Model.User;
+import Service.ClearService;
+import Service.FillJob;
+import Service.FillJobs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FillJobTests {
+
+    private Database db;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        System.out.println("Entered setUp");
+        Database.setStorageEngine(StorageEngine.SQLITE);
+        db = new Database();
+        db.openConnection();
+        db.createTables();
+        db.clearTables();
+        db.getUserStore().addUser(new User("userID", "sheila", "password", "email",
+                "firstName", "lastName", "f", "personID"));
+        db.closeConnection(true);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        System.out.println("Entered tearDown");
+        db.openConnection();
+        db.clearTables();
+        db.closeConnection(true);
+    }
+
+    private FillJob await(FillJob job) throws Exception {
+        long deadline = System.currentTimeMillis() + 30000;
+        while(!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(job.isFinished());
+        return job;
+    }
+
+    /**
+     * Fill job test 1
+     */
+    @Test
+    public void jobPass() throws Throwable {
+        System.out.println("Testing whether a fill job fills in the background and reports its progress . . . ");
+        FillJob job = FillJobs.submit("3", "sheila", "42", null);
+        assertSame(job, FillJobs.getJob(job.getJobID()));
+        await(job);
+        assertEquals(FillJob.SUCCEEDED, job.getStatus());
+        assertEquals(15, job.getTotalPersons());
+        assertEquals(43, job.getTotalEvents());
+        assertEquals(job.getTotalPersons(), job.getPersonsWritten());
+        assertEquals(job.getTotalEvents(), job.getEventsWritten());
+        assertEquals("Successfully added 15 persons and 43 events to the database.", job.getMessage());
+        db.openConnection();
+        assertEquals(15, db.getPersonStore().getPersons("sheila").size());
+        db.closeConnection(false);
+
+//        A finished job can't be cancelled anymore
+        assertEquals(FillJob.SUCCEEDED, FillJobs.cancel(job.getJobID()).getStatus());
+        System.out.println("The fill job filled in the background!  Passed.");
+    }
+
+    /**
+     * Fill job test 2
+     */
+    @Test
+    public void jobFail() throws Throwable {
+        System.out.println("Testing whether bad fill jobs are refused . . . ");
+//        A bad fill is refused before it becomes a job
+        assertThrows(InvalidGenerationsError.class, () -> FillJobs.submit("many", "sheila", null, null));
+        assertThrows(InvalidJobIDError.class, () -> FillJobs.getJob("jobID"));
+        assertThrows(InvalidJobIDError.class, () -> FillJobs.cancel(null));
+        System.out.println("The bad fill jobs were refused!  Passed.");
+    }
+
+    /**
+     * Fill job test 3
+     */
+    @Test
+    public void clearCancelsJobsPass() throws Throwable {
+        System.out.println("Testing whether a clear cancels the fill jobs and waits for them before it clears . . . ");
+//        On the MEMORY engine, a fill that committed after the clear would bring the cleared tree back
+        Database.setStorageEngine(StorageEngine.MEMORY);
+        try {
+            Database memory = new Database();
+            memory.openConnection();
+            memory.createTables();
+            memory.getUserStore().addUser(new User("userID", "sheila", "password", "email",
+                    "firstName", "lastName", "f", "personID"));
+            memory.closeConnection(true);
+            FillJob first = FillJobs.submit("12", "sheila", "42", null);
+            FillJob second = FillJobs.submit("12", "sheila", "43", null);
+            assertTrue(ClearService.clear().getSuccess());
+//            Every job finished before the clear did, so none of them can commit after it
+            assertTrue(first.isFinished());
+            assertTrue(second.isFinished());
+            memory.openConnection();
+            assertTrue(memory.getPersonStore().getPersons("sheila").isEmpty());
+            assertFalse(memory.getUserStore().usernameExists("sheila"));
+            memory.closeConnection(false);
+        } finally {
+            Database.setStorageEngine(StorageEngine.SQLITE);
+        }
+        System.out.println("The clear cancelled the fill jobs first!  Passed.");
+    }
+}
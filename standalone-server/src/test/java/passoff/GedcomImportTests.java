@@ -0,0 +1,208 @@
+package passoff;
+
+import DataAccess.Database;
+import DataAccess.StorageEngine;
+import Errors.InvalidRequestDataError;
+import Errors.InvalidUsernameError;
+import Model.Event;
+import Model.Person;
+import Requests.RegisterRequest;
+import Responses.PersonResponse;
+import Responses.RegisterResponse;
+import Responses.Response;
+import Service.AncestryJobs;
+import Service.GedcomService;
+import Service.GetPersonService;
+import Service.RegisterService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GedcomImportTests {
+
+    private Database db;
+    private Path file;
+    private RegisterResponse registered;
+
+    @BeforeEach
+    public void setUp() throws Throwable {
+        System.out.println("Entered setUp");
+        Database.setStorageEngine(StorageEngine.SQLITE);
+        db = new Database();
+        db.openConnection();
+        db.createTables();
+        db.clearTables();
+        db.closeConnection(true);
+        file = Files.createTempFile("gedcom-import-tests", ".ged");
+        registered = RegisterService.register(new RegisterRequest("sheila", "password", "email", "Sheila", "Parker", "f"));
+    }
+
+    @AfterEach
+    public void tearDown() throws Throwable {
+        System.out.println("Entered tearDown");
+        AncestryJobs.awaitAll();
+        Files.deleteIfExists(file);
+        db.openConnection();
+        db.clearTables();
+        db.closeConnection(true);
+    }
+
+    /**
+     * writeFile writes the given lines into the GEDCOM file of the test
+     */
+    private void writeFile(String... lines) throws Throwable {
+        Files.write(file, String.join("\r\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * GEDCOM import test 1
+     */
+    @Test
+    public void importPass() throws Throwable {
+        System.out.println("Testing whether individuals, families and events are imported into the User's tree . . . ");
+//        The family comes before its individuals, and the root's name is continued onto a second line
+        writeFile("0 HEAD", "1 GEDC", "2 VERS 5.5", "1 CHAR UTF-8",
+                "0 @F1@ FAM", "1 HUSB @I2@", "1 WIFE @I3@", "1 CHIL @I1@", "1 MARR", "2 DATE 12 JUN 1960", "2 PLAC Provo, Utah, USA",
+                "0 @I1@ INDI", "1 NAME Sheila /Par", "2 CONC ker/", "1 SEX F",
+                "1 BIRT", "2 DATE ABT 3 MAR 1965", "2 PLAC Melbourne, Victoria, Australia", "2 MAP", "3 LATI S37.81", "3 LONG E144.96",
+                "0 @I2@ INDI", "1 NAME Blaine /McGary/", "1 SEX M", "1 DEAT", "2 DATE BEF 2010", "1 BURI", "2 PLAC Unknown",
+                "0 @I3@ INDI", "1 NAME", "2 GIVN Betty", "2 SURN White", "1 SEX F",
+                "0 TRLR");
+        Response response = GedcomService.importGedcom("sheila", file, null);
+        assertTrue(response.getSuccess());
+        assertEquals("Successfully added 3 persons and 4 events to the database.", response.getMessage());
+
+        db.openConnection();
+        ArrayList<Person> persons = db.getPersonStore().getPersons("sheila");
+        ArrayList<Event> events = db.getEventStore().getEvents("sheila");
+        Person father = db.getPersonStore().getPerson("sheila_I2");
+        Person mother = db.getPersonStore().getPerson("sheila_I3");
+        db.closeConnection(false);
+//        The generated ancestors were replaced by the file
+        assertEquals(3, persons.size());
+        assertEquals(4, events.size());
+        assertEquals("Blaine", father.getFirstName());
+        assertEquals("McGary", father.getLastName());
+        assertEquals("m", father.getGender());
+        assertEquals("sheila_I3", father.getSpouseID());
+        assertEquals("Betty", mother.getFirstName());
+        assertEquals("White", mother.getLastName());
+        assertEquals("sheila_I2", mother.getSpouseID());
+
+//        The root is the User's own Person, so it is read with the User's authToken
+        PersonResponse root = GetPersonService.getPerson(registered.getPersonID(), registered.getAuthToken());
+        assertEquals("Parker", root.getLastName());
+        assertEquals("sheila_I2", root.getFatherID());
+        assertEquals("sheila_I3", root.getMotherID());
+        Event birth = null;
+        int marriages = 0;
+        for(Event event : events) {
+            if("birth".equals(event.getEventType())) {
+                birth = event;
+            } else if("marriage".equals(event.getEventType())) {
+                assertEquals(1960, event.getYear());
+                assertEquals("Provo", event.getCity());
+                assertEquals("USA", event.getCountry());
+                marriages++;
+            }
+        }
+        assertEquals(2, marriages);
+        assertNotNull(birth);
+        assertEquals(registered.getPersonID(), birth.getPersonID());
+        assertEquals(1965, birth.getYear());
+        assertEquals("Australia", birth.getCountry());
+        assertEquals(-37.81f, birth.getLatitude(), 0.001);
+        assertEquals(144.96f, birth.getLongitude(), 0.001);
+        System.out.println("The file replaced the User's tree!  Passed.");
+    }
+
+    /**
+     * GEDCOM import test 2
+     */
+    @Test
+    public void rootPass() throws Throwable {
+        System.out.println("Testing whether the given root individual becomes the User's own Person . . . ");
+        writeFile("0 HEAD", "0 @I1@ INDI", "1 NAME Patrick /Spencer/", "1 SEX M",
+                "0 @I2@ INDI", "1 NAME Sheila /Parker/", "1 SEX F", "1 FAMC @F1@",
+                "0 @F1@ FAM", "1 HUSB @I1@", "1 CHIL @I2@", "0 TRLR");
+        Response response = GedcomService.importGedcom("sheila", file, "@I2@");
+        assertTrue(response.getSuccess());
+        PersonResponse root = GetPersonService.getPerson(registered.getPersonID(), registered.getAuthToken());
+        assertEquals("Sheila", root.getFirstName());
+        assertEquals("sheila_I1", root.getFatherID());
+        assertNull(root.getMotherID());
+        db.openConnection();
+        assertNull(db.getPersonStore().getPerson("sheila_I2"));
+        assertEquals("Patrick", db.getPersonStore().getPerson("sheila_I1").getFirstName());
+        db.closeConnection(false);
+        System.out.println("The given root is the User's Person!  Passed.");
+    }
+
+    /**
+     * GEDCOM import test 3
+     */
+    @Test
+    public void invalidFail() throws Throwable {
+        System.out.println("Testing whether invalid files and usernames are refused without changing the tree . . . ");
+        writeFile("0 @I1@ INDI", "1 NAME Sheila /Parker/");
+        InvalidRequestDataError error = assertThrows(InvalidRequestDataError.class,
+                () -> GedcomService.importGedcom("sheila", file, null));
+        assertEquals("the file does not start with a GEDCOM HEAD record", error.getDetails());
+
+        writeFile("0 HEAD", "0 @I1@ INDI", "NAME Sheila /Parker/");
+        error = assertThrows(InvalidRequestDataError.class, () -> GedcomService.importGedcom("sheila", file, null));
+        assertEquals("line 3 of the GEDCOM file does not start with a level", error.getDetails());
+
+        writeFile("0 HEAD", "0 @I1@ INDI", "1 NAME Sheila /Parker/", "0 TRLR");
+        error = assertThrows(InvalidRequestDataError.class, () -> GedcomService.importGedcom("sheila", file, "@I9@"));
+        assertEquals("@I9@ is not an individual in the file", error.getDetails());
+        assertThrows(InvalidUsernameError.class, () -> GedcomService.importGedcom("patrick", file, null));
+
+//        The generated ancestors are still there, since nothing from the invalid files was kept
+        db.openConnection();
+        assertEquals(31, db.getPersonStore().getPersons("sheila").size());
+        db.closeConnection(false);
+        System.out.println("Nothing from the invalid files was kept!  Passed.");
+    }
+
+    /**
+     * GEDCOM import test 4
+     */
+    @Test
+    public void largePass() throws Throwable {
+        System.out.println("Testing whether a file with many batches of individuals and families is imported . . . ");
+        int count = 6000;
+        try(BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("0 HEAD\n");
+            for(int i = 1; i <= count; i++) {
+                writer.write("0 @I" + i + "@ INDI\n1 NAME Person" + i + " /Family/\n1 SEX " + (i % 2 == 0 ? "M" : "F") +
+                        "\n1 BIRT\n2 DATE " + (2000 - i / 100) + "\n");
+            }
+//            Every individual is the child of the next two
+            for(int i = 1; 2 * i + 1 <= count; i++) {
+                writer.write("0 @F" + i + "@ FAM\n1 HUSB @I" + (2 * i) + "@\n1 WIFE @I" + (2 * i + 1) + "@\n1 CHIL @I" + i + "@\n");
+            }
+            writer.write("0 TRLR\n");
+        }
+        Response response = GedcomService.importGedcom("sheila", file, null);
+        assertEquals("Successfully added " + count + " persons and " + count + " events to the database.", response.getMessage());
+        db.openConnection();
+        Person person = db.getPersonStore().getPerson("sheila_I1000");
+        assertEquals("sheila_I2000", person.getFatherID());
+        assertEquals("sheila_I2001", person.getMotherID());
+        assertEquals("sheila_I2001", db.getPersonStore().getPerson("sheila_I2000").getSpouseID());
+        assertEquals(count, db.getPersonStore().getPersons("sheila").size());
+        db.closeConnection(false);
+        PersonResponse root = GetPersonService.getPerson(registered.getPersonID(), registered.getAuthToken());
+        assertEquals("sheila_I2", root.getFatherID());
+        System.out.println("Every batch was imported!  Passed.");
+    }
+}
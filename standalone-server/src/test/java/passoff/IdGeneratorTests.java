@@ -0,0 +1,61 @@
+package passoff;
+
+import Util.RandomIdGenerator;
+import Util.RandomUtil;
+import Util.TimeOrderedIdGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdGeneratorTests {
+
+    @AfterEach
+    public void tearDown() {
+        RandomUtil.setIdGenerator(null);
+    }
+
+    /**
+     * ID generator test 1
+     */
+    @Test
+    public void orderedPass() throws Exception {
+        System.out.println("Testing whether time-ordered IDs are unique UUIDs that sort by time . . . ");
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator();
+        Set<String> ids = new HashSet<>();
+        for(int i = 0; i < 100000; i++) {
+            String id = generator.nextID();
+            assertEquals(36, id.length());
+            assertTrue(ids.add(id));
+        }
+        UUID uuid = UUID.fromString(generator.nextID());
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+//        An ID from a later millisecond always sorts later
+        String earlier = generator.nextID();
+        Thread.sleep(2);
+        String later = generator.nextID();
+        assertTrue(earlier.compareTo(later) < 0);
+        System.out.println("The time-ordered IDs were unique and sorted by time!  Passed.");
+    }
+
+    /**
+     * ID generator test 2
+     */
+    @Test
+    public void pluggablePass() {
+        System.out.println("Testing whether the IdGenerator can be replaced without touching auth keys . . . ");
+        assertEquals(7, UUID.fromString(RandomUtil.generateID()).version());
+        RandomUtil.setIdGenerator(new RandomIdGenerator());
+        assertEquals(4, UUID.fromString(RandomUtil.generateID()).version());
+        assertEquals(4, UUID.fromString(RandomUtil.generateRandomString()).version());
+//        Auth keys always come from the CSPRNG
+        RandomUtil.setIdGenerator(new TimeOrderedIdGenerator());
+        assertEquals(4, UUID.fromString(RandomUtil.generateAuthKey()).version());
+        System.out.println("The IdGenerator was replaced!  Passed.");
+    }
+}
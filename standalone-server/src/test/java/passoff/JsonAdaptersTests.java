@@ -0,0 +1,166 @@
+package passoff;
+
+import Model.AuthorizationToken;
+import Model.Event;
+import Model.Person;
+import Model.User;
+import Requests.LoadRequest;
+import Requests.LoginRequest;
+import Requests.RegisterRequest;
+import Responses.*;
+import Util.JsonUtil;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonAdaptersTests {
+
+    /**
+     * reflective writes json the way JsonUtil did before it had adapters
+     */
+    private final Gson reflective = new GsonBuilder().setPrettyPrinting().create();
+
+    private Event event(String eventID, String city) {
+        Event event = new Event();
+        event.setEventID(eventID);
+        event.setAssociatedUsername("sheila");
+        event.setPersonID("Sheila_Parker");
+        event.setLatitude(-36.8667f);
+        event.setLongitude(174.7667f);
+        event.setCountry("New Zealand");
+        event.setCity(city);
+        event.setEventType("birth");
+        event.setYear(1970);
+        return event;
+    }
+
+    private Person person(String personID, String spouseID) {
+        return new Person(personID, "sheila", "Sheila", "O'Parker <\u00e9>", "f", "Blaine_McGary", null, spouseID);
+    }
+
+    /**
+     * samples provides one of every class that has an adapter, with null and escaped fields among them
+     */
+    private Object[] samples() {
+        User user = new User("userID", "sheila", "p=ss\"word", "sheila@parker.com", "Sheila", "Parker", "f", "Sheila_Parker");
+        user.setPasswordHash("pbkdf2-sha256$100$salt$hash");
+        AuthorizationToken token = new AuthorizationToken();
+        token.setAuthKey("authKey");
+        token.setUserID("userID");
+        token.setIssuedAt(1600000000000L);
+        token.setExpiresAt(Long.MAX_VALUE);
+        LoginRequest login = new LoginRequest();
+        login.setUserName("sheila");
+        LoadRequest load = new LoadRequest();
+        load.setUsers(new User[]{user, null});
+        load.setPersons(new Person[]{person("Sheila_Parker", null)});
+        load.setEvents(new Event[0]);
+        LoginResponse loginResponse = new LoginResponse();
+        loginResponse.setAuthToken("fm1.abc.def");
+        loginResponse.setUserName("sheila");
+        loginResponse.setPersonID("Sheila_Parker");
+        loginResponse.setSuccess(true);
+        RegisterResponse registerResponse = new RegisterResponse();
+        registerResponse.setMessage("Error: \tusername taken");
+        PersonResponse personResponse = new PersonResponse();
+        personResponse.setPersonID("Sheila_Parker");
+        personResponse.setFatherID("Blaine_McGary");
+        personResponse.setSuccess(true);
+        EventResponse eventResponse = new EventResponse();
+        eventResponse.setEventID("Sheila_Birth");
+        eventResponse.setLatitude(0.1f);
+        eventResponse.setLongitude(-179.99999f);
+        eventResponse.setYear(-44);
+        AllPersonsResponse allPersons = new AllPersonsResponse();
+        allPersons.setData(new ArrayList<>(Arrays.asList(person("Sheila_Parker", "Davis_Hyer"), person("Davis_Hyer", null))));
+        allPersons.setSuccess(true);
+        AllEventsResponse allEvents = new AllEventsResponse();
+        allEvents.setData(new ArrayList<>(Arrays.asList(event("Sheila_Birth", "Melbourne"), event("Sheila_Death", null))));
+        allEvents.setSuccess(true);
+        AllEventsResponse noEvents = new AllEventsResponse();
+        FillJobResponse fillJob = new FillJobResponse();
+        fillJob.setJobID("jobID");
+        fillJob.setStatus("writing");
+        fillJob.setPersonsWritten(31);
+        fillJob.setTotalEvents(91);
+        Response failure = new Response();
+        failure.setMessage("Error: Invalid auth token");
+        return new Object[]{person("Sheila_Parker", null), event("Sheila_Birth", "Melbourne"), user, token, login,
+                new RegisterRequest("sheila", "password", "email", "Sheila", "Parker", "f"), load, loginResponse,
+                registerResponse, personResponse, eventResponse, allPersons, allEvents, noEvents, fillJob, failure};
+    }
+
+    /**
+     * Json adapters test 1
+     */
+    @Test
+    public void serializePass() throws Throwable {
+        System.out.println("Testing whether every adapter writes the same json that reflection wrote . . . ");
+        for(Object sample : samples()) {
+            assertEquals(reflective.toJson(sample), JsonUtil.serialize(sample), sample.getClass().getSimpleName());
+            assertEquals(new Gson().toJson(sample), JsonUtil.getGson().toJson(sample), sample.getClass().getSimpleName());
+        }
+        System.out.println("Passed.");
+    }
+
+    /**
+     * Json adapters test 2
+     */
+    @Test
+    public void deserializePass() throws Throwable {
+        System.out.println("Testing whether every adapter reads back what it wrote . . . ");
+        for(Object sample : samples()) {
+            String json = JsonUtil.serialize(sample);
+            Object read = JsonUtil.deserialize(json, sample.getClass());
+            assertEquals(json, JsonUtil.serialize(read), sample.getClass().getSimpleName());
+            assertEquals(json, reflective.toJson(reflective.fromJson(json, sample.getClass())), sample.getClass().getSimpleName());
+        }
+        assertNull(JsonUtil.deserialize("null", Person.class));
+        assertNull(JsonUtil.deserialize("", LoginRequest.class));
+        System.out.println("Passed.");
+    }
+
+    /**
+     * Json adapters test 3
+     */
+    @Test
+    public void lenientPass() throws Throwable {
+        System.out.println("Testing whether the adapters accept what reflection accepted . . . ");
+        Event event = JsonUtil.deserialize("{\"unknown\":{\"a\":[1,2]},\"year\":\"1990\",\"latitude\":\"12.5\"," +
+                "\"longitude\":null,\"city\":true,\"country\":42,\"eventID\":\"e\"}", Event.class);
+        assertEquals(1990, event.getYear());
+        assertEquals(12.5f, event.getLatitude());
+        assertEquals(0f, event.getLongitude());
+        assertEquals("true", event.getCity());
+        assertEquals("42", event.getCountry());
+        assertEquals("e", event.getEventID());
+        Response response = JsonUtil.deserialize("{\"success\":\"true\",\"message\":null}", Response.class);
+        assertTrue(response.getSuccess());
+        assertNull(response.getMessage());
+        LoginRequest login = JsonUtil.deserialize("{'userName':'sheila', password:'parker'}", LoginRequest.class);
+        assertEquals("sheila", login.getUserName());
+        assertEquals("parker", login.getPassword());
+        System.out.println("Passed.");
+    }
+
+    /**
+     * Json adapters test 4
+     */
+    @Test
+    public void deserializeFail() throws Throwable {
+        System.out.println("Testing whether a member of the wrong type is refused as json syntax . . . ");
+        assertThrows(JsonSyntaxException.class, () -> JsonUtil.deserialize("{\"year\":\"nineteen\"}", Event.class));
+        assertThrows(JsonSyntaxException.class, () -> JsonUtil.deserialize("{\"year\":1990.5}", Event.class));
+        assertThrows(JsonSyntaxException.class, () -> JsonUtil.deserialize("{\"latitude\":\"north\"}", Event.class));
+        assertThrows(JsonSyntaxException.class, () -> JsonUtil.deserialize("{\"userName\":{}}", LoginRequest.class));
+        assertThrows(JsonSyntaxException.class, () -> JsonUtil.deserialize("{\"users\":{}}", LoadRequest.class));
+        assertThrows(JsonSyntaxException.class, () -> JsonUtil.deserialize("[]", Person.class));
+        System.out.println("Passed.");
+    }
+}
@@ -0,0 +1,127 @@
+package passoff;
+
+import DataAccess.Database;
+import DataAccess.StorageEngine;
+import Errors.InvalidRequestDataError;
+import Responses.Response;
+import Service.ClearService;
+import Service.CredentialHasher;
+import Service.LoadPipeline;
+import Service.LoadService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadPipelineTests {
+
+    @BeforeEach
+    public void setUp() throws Throwable {
+        System.out.println("Entered setUp");
+        Database.setStorageEngine(StorageEngine.SQLITE);
+//        The stages run on threads of their own even on a single processor, and a queue of a single chunk
+//        makes the parser wait for the writer
+        System.setProperty("familymap.load.pipelined", "true");
+        System.setProperty("familymap.load.queue", "1");
+//        Every User's password is hashed, so a cheap cost keeps thousands of them quick
+        System.setProperty("familymap.hash.iterations", "100");
+    }
+
+    @AfterEach
+    public void tearDown() throws Throwable {
+        System.out.println("Entered tearDown");
+        System.clearProperty("familymap.load.pipelined");
+        System.clearProperty("familymap.load.queue");
+        System.clearProperty("familymap.hash.iterations");
+        ClearService.clear();
+    }
+
+    /**
+     * createBody builds a load with the given number of Users, each with a Person and an Event,
+     * and the Persons and Events given as arrays after the Users
+     */
+    private String createBody(int count) {
+        StringBuilder users = new StringBuilder();
+        StringBuilder persons = new StringBuilder();
+        StringBuilder events = new StringBuilder();
+        for(int i = 0; i < count; i++) {
+            String separator = i == 0 ? "" : ",";
+            users.append(separator).append("{\"userName\":\"user").append(i).append("\",\"password\":\"password").append(i)
+                    .append("\",\"email\":\"email").append(i).append("\",\"firstName\":\"firstName\",\"lastName\":\"lastName\",")
+                    .append("\"gender\":\"f\",\"personID\":\"person").append(i).append("\"}");
+            persons.append(separator).append("{\"personID\":\"person").append(i).append("\",\"associatedUsername\":\"user").append(i)
+                    .append("\",\"firstName\":\"firstName\",\"lastName\":\"lastName\",\"gender\":\"f\"}");
+            events.append(separator).append("{\"eventID\":\"event").append(i).append("\",\"associatedUsername\":\"user").append(i)
+                    .append("\",\"personID\":\"person").append(i).append("\",\"eventType\":\"birth\",\"year\":1990}");
+        }
+        return "{\"users\":[" + users + "],\"persons\":[" + persons + "],\"events\":[" + events + "]}";
+    }
+
+    /**
+     * Load pipeline test 1
+     */
+    @Test
+    public void pipelinePass() throws Throwable {
+        System.out.println("Testing whether every stage of the pipeline handles every record in many chunks . . . ");
+        int count = 12345;
+        Response response = LoadService.load(new StringReader(createBody(count)));
+        assertTrue(response.getSuccess());
+        assertEquals("Successfully added " + count + " users, " + count + " persons, and " + count + " events to the database.",
+                response.getMessage());
+        LoadPipeline pipeline = LoadPipeline.getLast();
+        assertEquals(3L * count, pipeline.getParsed());
+        assertEquals(3L * count, pipeline.getChecked());
+        assertEquals(3L * count, pipeline.getWritten());
+        assertTrue(pipeline.getReport().startsWith("Load pipeline took"));
+//        The workers hashed every password before it was written
+        Database db = new Database();
+        db.openConnection();
+        assertTrue(CredentialHasher.verify("password0", db.getUserStore().getPasswordHash("user0")));
+        assertTrue(CredentialHasher.verify("password" + (count - 1), db.getUserStore().getPasswordHash("user" + (count - 1))));
+        assertNotNull(db.getEventStore().getEvent("event" + (count - 1)));
+        db.closeConnection(true);
+        System.out.println(pipeline.getReport() + "  Passed.");
+    }
+
+    /**
+     * Load pipeline test 2
+     */
+    @Test
+    public void inlinePass() throws Throwable {
+        System.out.println("Testing whether the stages can take turns on the thread that reads the load . . . ");
+        System.setProperty("familymap.load.pipelined", "false");
+        int count = 2500;
+        Response response = LoadService.load(new StringReader(createBody(count)));
+        assertTrue(response.getSuccess());
+        LoadPipeline pipeline = LoadPipeline.getLast();
+        assertEquals(3L * count, pipeline.getWritten());
+        assertTrue(pipeline.getReport().contains("on the parser's thread"));
+        Database db = new Database();
+        db.openConnection();
+        assertTrue(CredentialHasher.verify("password" + (count - 1), db.getUserStore().getPasswordHash("user" + (count - 1))));
+        db.closeConnection(true);
+        System.out.println(pipeline.getReport() + "  Passed.");
+    }
+
+    /**
+     * Load pipeline test 3
+     */
+    @Test
+    public void lateViolationFail() throws Throwable {
+        System.out.println("Testing whether the pipeline stops writing at a violation and keeps nothing . . . ");
+        int count = 5000;
+        String body = createBody(count).replace("\"personID\":\"person4321\",\"eventType\"", "\"personID\":\"nobody\",\"eventType\"");
+        InvalidRequestDataError error = assertThrows(InvalidRequestDataError.class, () -> LoadService.load(new StringReader(body)));
+        assertEquals("1 violation: events[4321] personID nobody is not a loaded Person", error.getDetails());
+        LoadPipeline pipeline = LoadPipeline.getLast();
+        assertEquals(3L * count, pipeline.getChecked());
+        Database db = new Database();
+        db.openConnection();
+        assertFalse(db.getUserStore().usernameExists("user0"));
+        db.closeConnection(true);
+        System.out.println("Nothing from the invalid load was kept!  Passed.");
+    }
+}
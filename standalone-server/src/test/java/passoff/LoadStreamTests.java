@@ -0,0 +1,141 @@
+package passoff;
+
+import DataAccess.Database;
+import DataAccess.StorageEngine;
+import Errors.InvalidRequestDataError;
+import Model.Person;
+import Responses.Response;
+import Service.ClearService;
+import Service.LoadService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.Reader;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadStreamTests {
+
+    private static final String BODY = "{" +
+            "\"events\":[{\"eventID\":\"eventID\",\"associatedUsername\":\"sheila\",\"personID\":\"personID\"," +
+            "\"latitude\":1.5,\"longitude\":-2.5,\"country\":\"country\",\"city\":\"city\",\"eventType\":\"birth\",\"year\":1990}]," +
+            "\"comment\":{\"ignored\":[1,2,3]}," +
+            "\"users\":[{\"userName\":\"sheila\",\"password\":\"password\",\"email\":\"email\",\"firstName\":\"firstName\"," +
+            "\"lastName\":\"lastName\",\"gender\":\"f\",\"personID\":\"personID\"}]," +
+            "\"persons\":[{\"personID\":\"fatherID\",\"associatedUsername\":\"sheila\",\"firstName\":\"fatherName\",\"lastName\":\"lastName\",\"gender\":\"m\"}," +
+            "{\"personID\":\"personID\",\"associatedUsername\":\"sheila\",\"firstName\":\"firstName\",\"lastName\":\"lastName\",\"gender\":\"f\",\"fatherID\":\"fatherID\"}]" +
+            "}";
+
+    @AfterEach
+    public void tearDown() throws Throwable {
+        System.out.println("Entered tearDown");
+        ClearService.clear();
+        Database.setStorageEngine(StorageEngine.SQLITE);
+    }
+
+    private void checkLoaded() throws Throwable {
+        Response response = LoadService.load(new StringReader(BODY));
+        assertTrue(response.getSuccess());
+        assertEquals("Successfully added 1 users, 2 persons, and 1 events to the database.", response.getMessage());
+        Database db = new Database();
+        db.openConnection();
+        assertTrue(db.getUserStore().usernameExists("sheila"));
+        assertEquals(2, db.getPersonStore().getPersons("sheila").size());
+        assertEquals(1, db.getEventStore().getEvents("sheila").size());
+//        The User is attached to their own Person even though the Persons came after the User
+        if(Database.getStorageEngine() == StorageEngine.SQLITE) {
+            assertEquals("personID", db.getPersonStore().getRootPersonIDByUsername("sheila"));
+        }
+        db.closeConnection(true);
+    }
+
+    /**
+     * Load stream test 1
+     */
+    @Test
+    public void streamPass() throws Throwable {
+        System.out.println("Testing whether a streamed load writes every record in any order . . . ");
+        Database.setStorageEngine(StorageEngine.SQLITE);
+        checkLoaded();
+        Database.setStorageEngine(StorageEngine.MEMORY);
+        checkLoaded();
+        System.out.println("Every streamed record was written!  Passed.");
+    }
+
+    /**
+     * Load stream test 2
+     */
+    @Test
+    public void invalidStreamFail() throws Throwable {
+        System.out.println("Testing whether a streamed load that fails keeps nothing . . . ");
+        Database.setStorageEngine(StorageEngine.SQLITE);
+        checkLoaded();
+        String invalidGender = BODY.replace("\"gender\":\"m\"", "\"gender\":\"x\"");
+        assertThrows(InvalidRequestDataError.class, () -> LoadService.load(new StringReader(invalidGender)));
+        String truncated = BODY.substring(0, BODY.length() - 40);
+        assertThrows(InvalidRequestDataError.class, () -> LoadService.load(new StringReader(truncated)));
+        assertThrows(InvalidRequestDataError.class, () -> LoadService.load(new StringReader("[]")));
+//        The database is still the one that was loaded first
+        Database db = new Database();
+        db.openConnection();
+        assertEquals(2, db.getPersonStore().getPersons("sheila").size());
+        db.closeConnection(true);
+        System.out.println("The failed loads kept nothing!  Passed.");
+    }
+
+    /**
+     * Load stream test 3
+     */
+    @Test
+    public void largeStreamPass() throws Throwable {
+        System.out.println("Testing whether a streamed load spanning many batches is written . . . ");
+        Database.setStorageEngine(StorageEngine.SQLITE);
+        int count = 60000;
+        Response response = LoadService.load(new PersonsReader(count));
+        assertEquals("Successfully added 0 users, " + count + " persons, and 0 events to the database.", response.getMessage());
+        Database db = new Database();
+        db.openConnection();
+        Person last = db.getPersonStore().getPerson("person" + (count - 1));
+        assertNotNull(last);
+        assertEquals("person" + (count - 2), last.getFatherID());
+        db.closeConnection(true);
+        System.out.println("Every batch was written!  Passed.");
+    }
+
+    /**
+     * The PersonsReader class writes the body of a load with the given number of Persons as it is read,
+     * so the body is never held in memory as a whole
+     */
+    private static class PersonsReader extends Reader {
+        private final int count;
+        private int next = -1;
+        private String chunk = "{\"persons\":[";
+        private int position = 0;
+
+        private PersonsReader(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if(position == chunk.length()) {
+                next++;
+                if(next > count) {
+                    return -1;
+                }
+                chunk = next == count ? "]}" : (next == 0 ? "" : ",") + "{\"personID\":\"person" + next +
+                        "\",\"associatedUsername\":\"sheila\",\"firstName\":\"firstName\",\"lastName\":\"lastName\",\"gender\":\"m\"" +
+                        (next == 0 ? "" : ",\"fatherID\":\"person" + (next - 1) + "\"") + "}";
+                position = 0;
+            }
+            int read = Math.min(length, chunk.length() - position);
+            chunk.getChars(position, position + read, buffer, offset);
+            position += read;
+            return read;
+        }
+
+        @Override
+        public void close() {}
+    }
+}
@@ -0,0 +1,145 @@
+package passoff;
+
+import DataAccess.Database;
+import DataAccess.StorageEngine;
+import Errors.InvalidRequestDataError;
+import Model.Event;
+import Model.Person;
+import Model.User;
+import Requests.LoadRequest;
+import Responses.Response;
+import Service.ClearService;
+import Service.LoadService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadValidationTests {
+
+    @BeforeEach
+    public void setUp() throws Throwable {
+        System.out.println("Entered setUp");
+        Database.setStorageEngine(StorageEngine.SQLITE);
+        ClearService.clear();
+    }
+
+    @AfterEach
+    public void tearDown() throws Throwable {
+        System.out.println("Entered tearDown");
+        ClearService.clear();
+    }
+
+    private LoadRequest createRequest(User[] users, Person[] persons, Event[] events) {
+        LoadRequest request = new LoadRequest();
+        request.setUsers(users);
+        request.setPersons(persons);
+        request.setEvents(events);
+        return request;
+    }
+
+    private User createUser(String userID, String username, String email, String personID) {
+        return new User(userID, username, "password", email, "firstName", "lastName", "f", personID);
+    }
+
+    private Person createPerson(String personID, String fatherID, String motherID, String spouseID) {
+        return new Person(personID, "sheila", "firstName", "lastName", "f", fatherID, motherID, spouseID);
+    }
+
+    private Event createEvent(String eventID, String personID) {
+        Event event = new Event();
+        event.setEventID(eventID);
+        event.setAssociatedUsername("sheila");
+        event.setPersonID(personID);
+        event.setEventType("birth");
+        event.setYear(1990);
+        return event;
+    }
+
+    /**
+     * Load validation test 1
+     */
+    @Test
+    public void linkedLoadPass() throws Throwable {
+        System.out.println("Testing whether a load whose links point forward and backward is accepted . . . ");
+//        The child links to parents that come after it, and the mother's spouse comes before her
+        LoadRequest request = createRequest(
+                new User[]{createUser("userID", "sheila", "email", "childID")},
+                new Person[]{createPerson("childID", "fatherID", "motherID", null),
+                        createPerson("fatherID", null, null, "motherID"),
+                        createPerson("motherID", null, null, "fatherID")},
+                new Event[]{createEvent("eventID", "childID"), createEvent(null, "motherID")});
+        Response response = LoadService.load(request);
+        assertTrue(response.getSuccess());
+        assertEquals("Successfully added 1 users, 3 persons, and 2 events to the database.", response.getMessage());
+//        Missing arrays are treated as empty
+        response = LoadService.load(createRequest(null, new Person[]{createPerson("personID", null, null, null)}, null));
+        assertTrue(response.getSuccess());
+        System.out.println("The linked load was accepted!  Passed.");
+    }
+
+    /**
+     * Load validation test 2
+     */
+    @Test
+    public void violationsFail() throws Throwable {
+        System.out.println("Testing whether every violation of a load is reported at once . . . ");
+        LoadRequest request = createRequest(
+                new User[]{createUser("userID", "sheila", "email", "personID"),
+                        createUser("userID", "sheila", "email", "missingID")},
+                new Person[]{createPerson("personID", "ghostID", null, null),
+                        createPerson("personID", null, null, null)},
+                new Event[]{createEvent("eventID", "personID"), createEvent("eventID", "nobodyID")});
+        InvalidRequestDataError error = assertThrows(InvalidRequestDataError.class, () -> LoadService.load(request));
+        String details = error.getDetails();
+        assertNotNull(details);
+        assertTrue(details.startsWith("8 violations"), details);
+        assertTrue(details.contains("users[1] userID userID was already used"));
+        assertTrue(details.contains("users[1] userName sheila was already used"));
+        assertTrue(details.contains("users[1] email email was already used"));
+        assertTrue(details.contains("users[1] personID missingID is not a loaded Person"));
+        assertTrue(details.contains("persons[1] personID personID was already used"));
+        assertTrue(details.contains("persons[0] fatherID ghostID is not a loaded Person"));
+        assertTrue(details.contains("events[1] eventID eventID was already used"));
+        assertTrue(details.contains("events[1] personID nobodyID is not a loaded Person"));
+//        The same violations are found when the load is streamed
+        String body = "{\"persons\":[{\"personID\":\"personID\",\"associatedUsername\":\"sheila\",\"firstName\":\"firstName\"," +
+                "\"lastName\":\"lastName\",\"gender\":\"f\",\"spouseID\":\"ghostID\"}]," +
+                "\"events\":[{\"eventID\":\"eventID\",\"personID\":\"nobodyID\"},{\"eventID\":\"eventID\",\"personID\":\"personID\"}]}";
+        error = assertThrows(InvalidRequestDataError.class, () -> LoadService.load(new StringReader(body)));
+        assertTrue(error.getDetails().startsWith("3 violations"), error.getDetails());
+//        Nothing was written by either load
+        Database db = new Database();
+        db.openConnection();
+        assertNull(db.getPersonStore().getPerson("personID"));
+        db.closeConnection(true);
+        System.out.println("Every violation was reported at once!  Passed.");
+    }
+
+    /**
+     * Load validation test 3
+     */
+    @Test
+    public void manyViolationsFail() throws Throwable {
+        System.out.println("Testing whether a load with many violations is validated in linear time . . . ");
+        int count = 200000;
+        Person[] persons = new Person[count];
+        Event[] events = new Event[count];
+        for(int i = 0; i < count; i++) {
+            persons[i] = createPerson("person" + i, i == 0 ? null : "person" + (i - 1), null, null);
+//            Every other Event belongs to a Person who wasn't loaded
+            events[i] = createEvent("event" + i, (i % 2 == 0 ? "person" : "stranger") + i);
+        }
+        long start = System.currentTimeMillis();
+        InvalidRequestDataError error = assertThrows(InvalidRequestDataError.class,
+                () -> LoadService.load(createRequest(new User[0], persons, events)));
+        long elapsed = System.currentTimeMillis() - start;
+        assertTrue(error.getDetails().startsWith((count / 2) + " violations"));
+        assertTrue(error.getDetails().endsWith("and " + (count / 2 - 100) + " more"));
+        assertTrue(elapsed < 10000, "Validating took " + elapsed + " milliseconds");
+        System.out.println("Every violation was counted in " + elapsed + " milliseconds!  Passed.");
+    }
+}
@@ -0,0 +1,358 @@
+package passoff;
+
+import DataAccess.Database;
+import DataAccess.EventStore;
+import DataAccess.LeafPerson;
+import DataAccess.PersonStore;
+import DataAccess.StorageEngine;
+import DataAccess.TokenStore;
+import DataAccess.UserStore;
+import Errors.DataAccessException;
+import Model.AuthorizationToken;
+import Model.Event;
+import Model.Person;
+import Model.User;
+import Util.RandomUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MemoryStoreTests {
+
+    private Database db;
+    private User user;
+    private Person person;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        System.out.println("Entered setUp");
+        Database.setStorageEngine(StorageEngine.MEMORY);
+        db = new Database();
+        user = new User(RandomUtil.generateRandomString(),"username","password",
+                "email", "firstName", "lastName",
+                "f", "personID");
+        person = new Person("personID", "username", "firstName",
+                "lastName", "f", RandomUtil.generateRandomString(),
+                RandomUtil.generateRandomString(), RandomUtil.generateRandomString());
+        db.openConnection();
+        db.createTables();
+        db.closeConnection(true);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        System.out.println("Entered tearDown");
+        db.openConnection();
+        db.clearTables();
+        db.closeConnection(true);
+        Database.setStorageEngine(StorageEngine.SQLITE);
+    }
+
+    private Event createEvent(String eventID, String personID, String eventType, int year) {
+        Event event = new Event();
+        event.setEventID(eventID);
+        event.setAssociatedUsername("username");
+        event.setPersonID(personID);
+        event.setLatitude(1.5f);
+        event.setLongitude(-2.5f);
+        event.setCountry("country");
+        event.setCity("city");
+        event.setEventType(eventType);
+        event.setYear(year);
+        return event;
+    }
+
+    /**
+     * Memory test 1
+     */
+    @Test
+    public void insertUserPass() throws Exception {
+        System.out.println("Testing whether a User can be inserted to the in-memory storage . . . ");
+        User compareTest = null;
+        try {
+            db.openConnection();
+            UserStore uStore = db.getUserStore();
+            uStore.addUser(user);
+            db.closeConnection(true);
+            db.openConnection();
+            compareTest = db.getUserStore().getUser(user.getUserID());
+            assertTrue(db.getUserStore().checkCredentials("username", "password"));
+            assertFalse(db.getUserStore().checkCredentials("username", "wrong"));
+            assertEquals(user.getUserID(), db.getUserStore().getUserID("username"));
+            db.closeConnection(true);
+        } catch(DataAccessException e) {
+            System.out.println("Error: " + e.getMessage());
+            db.closeConnection(false);
+        }
+        assertNotNull(compareTest);
+        assertTrue(user.equals(compareTest));
+        System.out.println("The User was not altered! Passed.");
+    }
+
+    /**
+     * Memory test 2
+     */
+    @Test
+    public void insertDuplicateUserFail() throws Exception {
+        System.out.println("Testing whether the in-memory storage rejects a User with a duplicate username . . . ");
+        boolean passed = true;
+        User duplicate = new User(RandomUtil.generateRandomString(), "username", "password",
+                "otherEmail", "firstName", "lastName", "m", "otherPersonID");
+        try {
+            db.openConnection();
+            UserStore uStore = db.getUserStore();
+            uStore.addUser(user);
+            uStore.addUser(duplicate);
+            db.closeConnection(true);
+        } catch (DataAccessException e) {
+            db.closeConnection(false);
+            passed = false;
+        }
+        assertFalse(passed);
+
+        db.openConnection();
+        User compareTest = db.getUserStore().getUser(user.getUserID());
+        db.closeConnection(true);
+        System.out.println("Checking whether the whole operation above was rolled back . . . ");
+        assertNull(compareTest);
+        System.out.println("The whole operation was rolled back!  Passed.");
+    }
+
+    /**
+     * Memory test 3
+     */
+    @Test
+    public void uncommittedChangesHiddenPass() throws Exception {
+        System.out.println("Testing whether uncommitted changes are only visible to their own transaction . . . ");
+        Database other = new Database();
+        db.openConnection();
+        PersonStore pStore = db.getPersonStore();
+        pStore.addPerson(person);
+        assertNotNull(pStore.getPerson(person.getPersonID()));
+        other.openConnection();
+        assertNull(other.getPersonStore().getPerson(person.getPersonID()));
+        other.closeConnection(true);
+        db.closeConnection(true);
+
+        other.openConnection();
+        assertNotNull(other.getPersonStore().getPerson(person.getPersonID()));
+        other.closeConnection(true);
+        System.out.println("Uncommitted changes were hidden!  Passed.");
+    }
+
+    /**
+     * Memory test 4
+     */
+    @Test
+    public void clearPersonByUsernameKeepsRootPass() throws Exception {
+        System.out.println("Testing whether clearing a username's Persons keeps the root Person . . . ");
+        Person father = new Person("fatherID", "username", "father", "lastName", "m", null, null, null);
+        db.openConnection();
+        PersonStore pStore = db.getPersonStore();
+        pStore.addPerson(person);
+        pStore.attachUserID(user.getUserID(), "username");
+        pStore.addPerson(father);
+        db.closeConnection(true);
+
+        db.openConnection();
+        pStore = db.getPersonStore();
+        assertEquals(2, pStore.getPersons("username").size());
+        assertEquals(person.getPersonID(), pStore.getRootPersonIDByUsername("username"));
+        assertEquals(person.getPersonID(), pStore.getPersonIDByUserID(user.getUserID()));
+        pStore.clearPersonByUsername("username", false);
+        db.closeConnection(true);
+
+        db.openConnection();
+        ArrayList<Person> persons = db.getPersonStore().getPersons("username");
+        db.closeConnection(true);
+        assertEquals(1, persons.size());
+        assertEquals(person.getPersonID(), persons.get(0).getPersonID());
+        System.out.println("Only the root Person was kept!  Passed.");
+    }
+
+    /**
+     * Memory test 5
+     */
+    @Test
+    public void eventsByUsernamePass() throws Exception {
+        System.out.println("Testing whether Events are indexed by username and personID . . . ");
+        db.openConnection();
+        EventStore eStore = db.getEventStore();
+        eStore.insertEvent(createEvent("birthID", person.getPersonID(), "birth", 1990));
+        eStore.insertEvent(createEvent("fatherBirthID", "fatherID", "birth", 1960));
+        db.closeConnection(true);
+
+        db.openConnection();
+        eStore = db.getEventStore();
+        assertEquals(2, eStore.getEvents("username").size());
+        assertEquals(1990, eStore.getBirthYearByPersonID(person.getPersonID()));
+        eStore.clearEventByUsername("username", person.getPersonID());
+        assertEquals(1, eStore.getEvents("username").size());
+        db.closeConnection(false);
+
+        db.openConnection();
+        eStore = db.getEventStore();
+        assertEquals(2, eStore.getEvents("username").size());
+        Event event = eStore.getEvent("fatherBirthID");
+        db.closeConnection(true);
+        assertNotNull(event);
+        assertEquals(1960, event.getYear());
+        assertEquals(-2.5f, event.getLongitude());
+        System.out.println("Events were indexed and the rollback was honored!  Passed.");
+    }
+
+    /**
+     * Memory test 6
+     */
+    @Test
+    public void authTokenPass() throws Exception {
+        System.out.println("Testing whether authTokens can be stored and cleared . . . ");
+        AuthorizationToken token = new AuthorizationToken();
+        token.setAuthKey(RandomUtil.generateRandomString());
+        token.setUserID(user.getUserID());
+        db.openConnection();
+        TokenStore aStore = db.getTokenStore();
+        assertEquals(token.getAuthKey(), aStore.addAuthToken(RandomUtil.generateRandomString(), token));
+        db.closeConnection(true);
+
+        db.openConnection();
+        aStore = db.getTokenStore();
+        assertEquals(user.getUserID(), aStore.getUserID(token.getAuthKey()));
+        aStore.clearAuthTokens();
+        db.closeConnection(true);
+
+        db.openConnection();
+        assertNull(db.getTokenStore().getUserID(token.getAuthKey()));
+        db.closeConnection(true);
+        System.out.println("The authToken was stored and cleared!  Passed.");
+    }
+
+    /**
+     * addTree adds the given number of Persons of the given username with a birth Event each, all without parents
+     */
+    private void addTree(Database db, String username, int count, String lastName) throws DataAccessException {
+        List<Person> persons = new ArrayList<>();
+        List<Event> events = new ArrayList<>();
+        for(int i = 0; i < count; i++) {
+            persons.add(new Person(username + lastName + i, username, "firstName", lastName, "f", null, null, null));
+            Event birth = createEvent(username + lastName + "Birth" + i, username + lastName + i, "birth", 1900 + i % 100);
+            birth.setAssociatedUsername(username);
+            events.add(birth);
+        }
+        db.getPersonStore().addPersons(persons);
+        db.getEventStore().insertEvents(events);
+    }
+
+    /**
+     * Memory test 7
+     */
+    @Test
+    public void largeTransactionPass() throws Exception {
+        System.out.println("Testing whether a transaction finds its own rows among many that it inserted . . . ");
+        db.openConnection();
+        addTree(db, "username", 20000, "a");
+        addTree(db, "other", 20000, "a");
+        PersonStore pStore = db.getPersonStore();
+        EventStore eStore = db.getEventStore();
+        assertEquals(20000, pStore.getPersons("username").size());
+        assertEquals(20000, pStore.getLeafPersons("username").size());
+        assertEquals(1905, eStore.getBirthYearByPersonID("usernamea5"));
+        Person child = pStore.getPerson("usernamea5");
+        child.setFatherID("usernamea6");
+        child.setMotherID("usernamea7");
+        List<Person> children = new ArrayList<>();
+        children.add(child);
+        pStore.setParents(children);
+        assertEquals(19999, pStore.getLeafPersons("username").size());
+        assertEquals("usernamea6", pStore.getPerson("usernamea5").getFatherID());
+        eStore.clearEventByUsername("username", "usernamea5");
+        assertEquals(1, eStore.getEvents("username").size());
+        assertEquals(20000, eStore.getEvents("other").size());
+        pStore.clearPersonByUsername("username", true);
+        assertTrue(pStore.getPersons("username").isEmpty());
+        db.closeConnection(true);
+
+        db.openConnection();
+        assertTrue(db.getPersonStore().getPersons("username").isEmpty());
+        assertEquals(1, db.getEventStore().getEvents("username").size());
+        assertEquals(20000, db.getPersonStore().getPersons("other").size());
+        db.closeConnection(true);
+        System.out.println("The transaction found its own rows!  Passed.");
+    }
+
+    /**
+     * Memory test 8
+     */
+    @Test
+    public void concurrentCommitPass() throws Throwable {
+        System.out.println("Testing whether a read never sees half of a commit . . . ");
+        db.openConnection();
+        addTree(db, "username", 200, "a");
+        db.closeConnection(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            Database writes = new Database();
+            try {
+                for(int i = 0; i < 200; i++) {
+                    writes.openConnection();
+                    writes.getEventStore().clearEventByUsername("username", null);
+                    writes.getPersonStore().clearPersonByUsername("username", true);
+                    addTree(writes, "username", 200, i % 2 == 0 ? "b" : "a");
+                    writes.closeConnection(true);
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        writer.start();
+        Database reads = new Database();
+        try {
+            while(writer.isAlive()) {
+                reads.openConnection();
+//                Every leaf Person a commit publishes has the birth Event that was published with it
+                for(LeafPerson leaf : reads.getPersonStore().getLeafPersons("username")) {
+                    assertNotNull(leaf.getBirthYear(), leaf.getPerson().getPersonID());
+                }
+                reads.closeConnection(false);
+            }
+        } finally {
+            writer.join();
+        }
+        assertNull(failure.get());
+        System.out.println("No read saw half of a commit!  Passed.");
+    }
+
+    /**
+     * Memory test 9
+     */
+    @Test
+    public void largeDeleteCommitPass() throws Exception {
+        System.out.println("Testing whether a commit that deletes most of a large tree keeps only the rows it didn't delete . . . ");
+        db.openConnection();
+        addTree(db, "username", 300000, "a");
+        addTree(db, "other", 1000, "a");
+        db.closeConnection(true);
+
+        db.openConnection();
+        db.getEventStore().clearEventByUsername("username", "usernamea5");
+        db.getPersonStore().clearPersonByUsername("username", true);
+//        The commit rebuilds each list once, so deleting every row of a large tree doesn't take time that grows with its square
+        assertTimeout(Duration.ofSeconds(10), () -> db.closeConnection(true));
+
+        db.openConnection();
+        assertTrue(db.getPersonStore().getPersons("username").isEmpty());
+        assertEquals(1, db.getEventStore().getEvents("username").size());
+        assertEquals(1905, db.getEventStore().getBirthYearByPersonID("usernamea5"));
+        assertEquals(1000, db.getPersonStore().getPersons("other").size());
+        assertEquals(1000, db.getEventStore().getEvents("other").size());
+        db.closeConnection(true);
+        System.out.println("Only the rows that weren't deleted were kept!  Passed.");
+    }
+}
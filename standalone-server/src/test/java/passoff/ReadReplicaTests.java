@@ -0,0 +1,126 @@
+package passoff;
+
+import Cache.ReadReplica;
+import DataAccess.AuthorizedRead;
+import DataAccess.Database;
+import DataAccess.StorageEngine;
+import Model.AuthorizationToken;
+import Model.Person;
+import Model.User;
+import Util.RandomUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadReplicaTests {
+
+    private Database db;
+    private ReadReplica replica;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        System.out.println("Entered setUp");
+        Database.setStorageEngine(StorageEngine.SQLITE);
+        System.setProperty("familymap.replica", "true");
+//        Only refresh when the test asks for it
+        System.setProperty("familymap.replica.refreshMillis", "3600000");
+        db = new Database();
+        db.openConnection();
+        db.createTables();
+        db.clearTables();
+        db.getUserStore().addUser(new User("userID", "sheila", "password", "email",
+                "firstName", "lastName", "f", "personID"));
+        db.getTokenStore().addAuthToken(RandomUtil.generateRandomString(), createToken("authKey"));
+        db.getPersonStore().addPerson(new Person("personID", "sheila", "firstName", "lastName", "f", null, null, null));
+        db.closeConnection(true);
+        replica = ReadReplica.getInstance();
+        replica.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        System.out.println("Entered tearDown");
+        replica.stop();
+        System.clearProperty("familymap.replica");
+        System.clearProperty("familymap.replica.refreshMillis");
+        System.clearProperty("familymap.replica.maxStalenessMillis");
+        System.clearProperty("familymap.replica.readYourWrites");
+        db.openConnection();
+        db.clearTables();
+        db.closeConnection(true);
+    }
+
+    private AuthorizationToken createToken(String authKey) {
+        AuthorizationToken token = new AuthorizationToken();
+        token.setAuthKey(authKey);
+        token.setUserID("userID");
+        return token;
+    }
+
+    private void addPerson(String personID) throws Exception {
+        db.openConnection();
+        db.getPersonStore().addPerson(new Person(personID, "sheila", "firstName", "lastName", "m", null, null, null));
+        db.closeConnection(true);
+    }
+
+    /**
+     * Read replica test 1
+     */
+    @Test
+    public void staleReadPass() throws Exception {
+        System.out.println("Testing whether the replica serves its copy until it is refreshed . . . ");
+        System.setProperty("familymap.replica.readYourWrites", "false");
+        AuthorizedRead<Person> read = replica.getPersonForAuthKey("personID", "authKey");
+        assertNotNull(read);
+        assertEquals(AuthorizedRead.Outcome.FOUND, read.getOutcome());
+
+//        A write that isn't stamped stays invisible to the replica until the next refresh
+        addPerson("laterID");
+        assertEquals(AuthorizedRead.Outcome.NOT_FOUND, replica.getPersonForAuthKey("laterID", "authKey").getOutcome());
+        replica.refresh();
+        assertEquals(AuthorizedRead.Outcome.FOUND, replica.getPersonForAuthKey("laterID", "authKey").getOutcome());
+        assertTrue(replica.getReplicaReads() >= 3);
+        System.out.println("The replica served its copy until it was refreshed!  Passed.");
+    }
+
+    /**
+     * Read replica test 2
+     */
+    @Test
+    public void readYourWritesPass() throws Exception {
+        System.out.println("Testing whether a User who wrote reads from the database file until the replica catches up . . . ");
+        addPerson("laterID");
+        replica.recordWrite("sheila");
+        assertNull(replica.getPersonForAuthKey("laterID", "authKey"));
+        assertNull(replica.getPersonForAuthKey("personID", "authKey"));
+        replica.refresh();
+        assertEquals(AuthorizedRead.Outcome.FOUND, replica.getPersonForAuthKey("laterID", "authKey").getOutcome());
+
+//        A /clear or /load sends every read to the database file
+        replica.recordGlobalWrite();
+        assertNull(replica.getPersonForAuthKey("personID", "authKey"));
+        System.out.println("The User read their own writes!  Passed.");
+    }
+
+    /**
+     * Read replica test 3
+     */
+    @Test
+    public void unvouchedReadFail() throws Exception {
+        System.out.println("Testing whether the replica refuses reads it can't vouch for . . . ");
+//        An auth key issued after the copy was taken isn't in it
+        db.openConnection();
+        db.getTokenStore().addAuthToken(RandomUtil.generateRandomString(), createToken("newKey"));
+        db.closeConnection(true);
+        assertNull(replica.getPersonForAuthKey("personID", "newKey"));
+        assertNull(replica.getEventForAuthKey("eventID", "newKey"));
+
+//        A copy older than the maximum staleness isn't used
+        System.setProperty("familymap.replica.maxStalenessMillis", "0");
+        Thread.sleep(5);
+        assertNull(replica.getPersonForAuthKey("personID", "authKey"));
+        System.out.println("The replica sent every read it couldn't vouch for to the database file!  Passed.");
+    }
+}
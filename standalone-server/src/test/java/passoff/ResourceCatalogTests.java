@@ -0,0 +1,55 @@
+package passoff;
+
+import Model.Event;
+import Util.ResourceCatalog;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResourceCatalogTests {
+
+    /**
+     * Resource catalog test 1
+     */
+    @Test
+    public void locationsPass() throws Throwable {
+        System.out.println("Testing whether every location keeps its exact coordinates and unquoted names . . . ");
+        ResourceCatalog catalog = ResourceCatalog.getInstance();
+        assertEquals(978, catalog.getLocationCount());
+        Event first = new Event();
+        catalog.placeEvent(first, 0);
+        assertEquals("Canada", first.getCountry());
+        assertEquals("Alert", first.getCity());
+        assertEquals(82.5f, first.getLatitude());
+        assertEquals(-61.6667f, first.getLongitude());
+//        The last location can be picked too
+        Event last = new Event();
+        catalog.placeEvent(last, catalog.getLocationCount() - 1);
+        assertNotNull(last.getCity());
+        assertFalse(last.getCountry().startsWith("\""));
+        System.out.println("Every location was kept exactly!  Passed.");
+    }
+
+    /**
+     * Resource catalog test 2
+     */
+    @Test
+    public void namesPass() throws Throwable {
+        System.out.println("Testing whether names are picked from the right lists . . . ");
+        ResourceCatalog catalog = ResourceCatalog.getInstance();
+        Set<String> maleNames = new HashSet<>();
+        for(int i = 0; i < 2000; i++) {
+            maleNames.add(catalog.randomFirstName("m"));
+            assertNotNull(catalog.randomFirstName("f"));
+            assertNotNull(catalog.randomLastName());
+        }
+        assertTrue(maleNames.size() > 100);
+        assertFalse(maleNames.contains(null));
+        assertNull(catalog.randomFirstName("x"));
+        assertSame(catalog, ResourceCatalog.getInstance());
+        System.out.println("Every name came from its list!  Passed.");
+    }
+}
@@ -0,0 +1,82 @@
+package passoff;
+
+import Cache.Principal;
+import Cache.SessionCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionCacheTests {
+
+    /**
+     * Session cache test 1
+     */
+    @Test
+    public void resolveThroughPass() throws Exception {
+        System.out.println("Testing whether the session cache only resolves an auth key once . . . ");
+        AtomicInteger loads = new AtomicInteger();
+        SessionCache cache = new SessionCache(10, 60000, authKey -> {
+            loads.incrementAndGet();
+            return authKey.equals("valid") ? new Principal("userID", "sheila", "personID") : null;
+        });
+        Principal first = cache.resolve("valid");
+        assertNotNull(first);
+        assertEquals("sheila", first.getUsername());
+        assertSame(first, cache.resolve("valid"));
+        assertEquals(1, loads.get());
+        assertNull(cache.resolve("invalid"));
+        assertNull(cache.resolve(null));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        System.out.println("The auth key was only resolved once!  Passed.");
+    }
+
+    /**
+     * Session cache test 2
+     */
+    @Test
+    public void putAndInvalidatePass() throws Exception {
+        System.out.println("Testing whether issued sessions are cached until they are invalidated . . . ");
+        SessionCache cache = new SessionCache(10, 60000, authKey -> null);
+        cache.put("key", new Principal("userID", "sheila", "personID"), cache.getGeneration());
+        assertEquals("userID", cache.resolve("key").getUserID());
+
+        long staleGeneration = cache.getGeneration();
+        cache.invalidateAll();
+        assertNull(cache.resolve("key"));
+        cache.put("key", new Principal("userID", "sheila", "personID"), staleGeneration);
+        assertEquals(0, cache.getSize());
+
+        cache.put("key", new Principal("userID", "sheila", "personID"), cache.getGeneration());
+        cache.put("other", new Principal("otherID", "patrick", "otherPersonID"), cache.getGeneration());
+        cache.invalidateUsername("sheila");
+        assertNull(cache.resolve("key"));
+        assertNotNull(cache.resolve("other"));
+        System.out.println("Invalidated sessions were removed and never restored!  Passed.");
+    }
+
+    /**
+     * Session cache test 3
+     */
+    @Test
+    public void boundsPass() throws Exception {
+        System.out.println("Testing whether the session cache honors its size and TTL bounds . . . ");
+        SessionCache cache = new SessionCache(2, 60000, authKey -> null);
+        cache.put("a", new Principal("a", "a", null), cache.getGeneration());
+        cache.put("b", new Principal("b", "b", null), cache.getGeneration());
+        cache.put("c", new Principal("c", "c", null), cache.getGeneration());
+        assertEquals(2, cache.getSize());
+        assertNull(cache.resolve("a"));
+        assertNotNull(cache.resolve("c"));
+        assertEquals(1, cache.getEvictions());
+
+        SessionCache shortLived = new SessionCache(10, 20, authKey -> null);
+        shortLived.put("a", new Principal("a", "a", null), shortLived.getGeneration());
+        assertNotNull(shortLived.resolve("a"));
+        Thread.sleep(50);
+        assertNull(shortLived.resolve("a"));
+        System.out.println("The oldest and expired sessions were dropped!  Passed.");
+    }
+}
@@ -0,0 +1,198 @@
+package passoff;
+
+import DataAccess.AuthorizedRead;
+import DataAccess.Database;
+import DataAccess.ShardedTransaction;
+import DataAccess.StorageEngine;
+import Errors.DataAccessException;
+import Model.AuthorizationToken;
+import Model.Person;
+import Model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedStorageTests {
+
+    private Database db;
+    private File shardDirectory;
+    private String firstUsername;
+    private String secondUsername;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        System.out.println("Entered setUp");
+        shardDirectory = Files.createTempDirectory("shards").toFile();
+        System.setProperty("familymap.shards.dir", shardDirectory.getPath());
+        System.setProperty("familymap.shards", "4");
+        Database.setStorageEngine(StorageEngine.SHARDED);
+        db = new Database();
+//        Find two usernames that live in different shards
+        firstUsername = "user0";
+        int i = 1;
+        do {
+            secondUsername = "user" + i++;
+        } while(ShardedTransaction.shardOf(secondUsername, 4) == ShardedTransaction.shardOf(firstUsername, 4));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        System.out.println("Entered tearDown");
+        Database.setStorageEngine(StorageEngine.SQLITE);
+        System.clearProperty("familymap.shards.dir");
+        System.clearProperty("familymap.shards");
+        File[] files = shardDirectory.listFiles();
+        if(files != null) {
+            for(File file : files) {
+                file.delete();
+            }
+        }
+        shardDirectory.delete();
+    }
+
+    private void register(String username) throws DataAccessException {
+        db.openConnection();
+        db.getUserStore().addUser(new User(username + "ID", username, "password", username + "@email",
+                "firstName", "lastName", "f", username + "PersonID"));
+        db.getPersonStore().addPerson(new Person(username + "PersonID", username, "firstName", "lastName", "f",
+                null, null, null));
+        db.getPersonStore().attachUserID(username + "ID", username);
+        AuthorizationToken token = new AuthorizationToken();
+        token.setAuthKey(username + "Key");
+        token.setUserID(username + "ID");
+        db.getTokenStore().addAuthToken(username + "TokenID", token);
+        db.closeConnection(true);
+    }
+
+    /**
+     * Sharded storage test 1
+     */
+    @Test
+    public void routingPass() throws Exception {
+        System.out.println("Testing whether every operation is routed to the shard that owns it . . . ");
+        register(firstUsername);
+        register(secondUsername);
+
+        db.openConnection();
+        assertEquals(firstUsername, db.getUserStore().getUser(firstUsername + "ID").getUsername());
+        assertEquals(2, db.getUserStore().getUsers().size());
+        assertTrue(db.getUserStore().checkCredentials(secondUsername, "password"));
+        assertEquals(secondUsername + "ID", db.getTokenStore().getUserID(secondUsername + "Key"));
+        assertEquals(firstUsername + "PersonID", db.getPersonStore().getPersonIDByUserID(firstUsername + "ID"));
+        assertNotNull(db.getPersonStore().getPerson(secondUsername + "PersonID"));
+        assertEquals(1, db.getPersonStore().getPersons(firstUsername).size());
+        assertEquals(AuthorizedRead.Outcome.FOUND, db.getPersonStore()
+                .getPersonForAuthKey(firstUsername + "PersonID", firstUsername + "Key").getOutcome());
+        assertEquals(AuthorizedRead.Outcome.NOT_OWNED, db.getPersonStore()
+                .getPersonForAuthKey(secondUsername + "PersonID", firstUsername + "Key").getOutcome());
+        assertEquals(AuthorizedRead.Outcome.NOT_FOUND, db.getPersonStore()
+                .getPersonForAuthKey("missingID", firstUsername + "Key").getOutcome());
+        db.closeConnection(true);
+
+        db.openConnection();
+        db.clearTables();
+        db.closeConnection(true);
+        db.openConnection();
+        assertTrue(db.getUserStore().getUsers().isEmpty());
+        assertNull(db.getTokenStore().getUserID(firstUsername + "Key"));
+        db.closeConnection(true);
+        System.out.println("Every operation reached its shard!  Passed.");
+    }
+
+    /**
+     * Sharded storage test 2
+     */
+    @Test
+    public void duplicateAcrossShardsFail() throws Exception {
+        System.out.println("Testing whether emails stay unique across every shard . . . ");
+        register(firstUsername);
+        boolean passed = true;
+        try {
+            db.openConnection();
+            db.getUserStore().addUser(new User("otherID", secondUsername, "password", firstUsername + "@email",
+                    "firstName", "lastName", "m", "otherPersonID"));
+            db.closeConnection(true);
+        } catch (DataAccessException e) {
+            db.closeConnection(false);
+            passed = false;
+        }
+        assertFalse(passed);
+        db.openConnection();
+        assertFalse(db.getUserStore().usernameExists(secondUsername));
+        db.closeConnection(true);
+        System.out.println("The duplicate email was rejected and rolled back!  Passed.");
+    }
+
+    /**
+     * Sharded storage test 3
+     */
+    @Test
+    public void parallelWritesPass() throws Exception {
+        System.out.println("Testing whether writes for users in different shards don't wait for each other . . . ");
+        register(firstUsername);
+        register(secondUsername);
+        Database other = new Database();
+//        Hold an open write on the first user's shard
+        db.openConnection();
+        db.getPersonStore().addPerson(new Person("heldID", firstUsername, "firstName", "lastName", "m", null, null, null));
+
+        long start = System.currentTimeMillis();
+        other.openConnection();
+        other.getPersonStore().addPerson(new Person("freeID", secondUsername, "firstName", "lastName", "m", null, null, null));
+        other.closeConnection(true);
+        long elapsed = System.currentTimeMillis() - start;
+        db.closeConnection(true);
+
+        assertTrue(elapsed < 1000, "The write took " + elapsed + " ms");
+        db.openConnection();
+        assertEquals(2, db.getPersonStore().getPersons(firstUsername).size());
+        assertEquals(2, db.getPersonStore().getPersons(secondUsername).size());
+        db.closeConnection(true);
+        System.out.println("The second shard was written while the first was locked!  Passed.");
+    }
+
+    /**
+     * Sharded storage test 4
+     */
+    @Test
+    public void directoryCommitFail() throws Exception {
+        System.out.println("Testing whether a register whose directory can't commit leaves nothing in its shard . . . ");
+        register(secondUsername);
+        boolean passed = true;
+//        Hold a read of the directory open, so no transaction can commit a write to it
+        File directory = new File(shardDirectory, "directory.sqlite");
+        try (Connection holder = DriverManager.getConnection("jdbc:sqlite:" + directory.getPath())) {
+            holder.setAutoCommit(false);
+            try (Statement stmt = holder.createStatement(); ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM UserDirectory;")) {
+                rs.next();
+            }
+            try {
+                register(firstUsername);
+            } catch (DataAccessException e) {
+                passed = false;
+            }
+            holder.rollback();
+        }
+        assertFalse(passed);
+        db.openConnection();
+        assertFalse(db.getUserStore().usernameExists(firstUsername));
+        assertNull(db.getUserStore().getUser(firstUsername + "ID"));
+        assertNull(db.getTokenStore().getUserID(firstUsername + "Key"));
+        assertEquals(1, db.getUserStore().getUsers().size());
+        db.closeConnection(true);
+        register(firstUsername);
+        db.openConnection();
+        assertEquals(firstUsername, db.getUserStore().getUser(firstUsername + "ID").getUsername());
+        db.closeConnection(true);
+        System.out.println("The shard row was rolled back with the directory row!  Passed.");
+    }
+}
@@ -0,0 +1,208 @@
+package passoff;
+
+import Cache.Principal;
+import Cache.SessionCache;
+import Cache.SignedTokens;
+import DataAccess.Database;
+import DataAccess.StorageEngine;
+import Errors.InvalidAuthTokenError;
+import Errors.RequestedPersonDoesNotBelongToThisUser;
+import Requests.LoginRequest;
+import Requests.RegisterRequest;
+import Responses.LoginResponse;
+import Responses.PersonResponse;
+import Responses.RegisterResponse;
+import Service.AncestryJobs;
+import Service.ClearService;
+import Service.GetPersonService;
+import Service.LoginService;
+import Service.RegisterService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SignedTokenTests {
+
+    private Database db;
+
+    @BeforeEach
+    public void setUp() throws Throwable {
+        System.out.println("Entered setUp");
+        Database.setStorageEngine(StorageEngine.SQLITE);
+        System.setProperty("familymap.hash.iterations", "100");
+        System.setProperty("familymap.token.signed", "true");
+        db = new Database();
+        db.openConnection();
+        db.createTables();
+        db.clearTables();
+        db.closeConnection(true);
+    }
+
+    @AfterEach
+    public void tearDown() throws Throwable {
+        System.out.println("Entered tearDown");
+        System.clearProperty("familymap.hash.iterations");
+        System.clearProperty("familymap.token.signed");
+        AncestryJobs.awaitAll();
+        db.openConnection();
+        db.clearTables();
+        db.closeConnection(true);
+    }
+
+    /**
+     * login logs the given User in with the given password
+     */
+    private LoginResponse login(String username, String password) throws Throwable {
+        LoginRequest request = new LoginRequest();
+        request.setUserName(username);
+        request.setPassword(password);
+        return LoginService.login(request);
+    }
+
+    /**
+     * isStored denotes whether the AuthorizationTokens table holds the given auth token
+     */
+    private boolean isStored(String authToken) throws Throwable {
+        db.openConnection();
+        boolean stored = db.getTokenStore().getAuthToken(authToken) != null;
+        db.closeConnection(false);
+        return stored;
+    }
+
+    /**
+     * Signed token test 1
+     */
+    @Test
+    public void verifyPass() throws Throwable {
+        System.out.println("Testing whether a signed token carries its Principal and fails once changed, expired, or signed with another secret . . . ");
+        SignedTokens tokens = new SignedTokens("secret".getBytes(StandardCharsets.UTF_8));
+        long future = System.currentTimeMillis() + 60000;
+        String token = tokens.issue(new Principal("userID", "sheila.parker", null, future), tokens.getEpoch());
+        assertTrue(SignedTokens.isSigned(token));
+        Principal principal = tokens.verify(token);
+        assertNotNull(principal);
+        assertEquals("userID", principal.getUserID());
+        assertEquals("sheila.parker", principal.getUsername());
+        assertNull(principal.getPersonID());
+        assertEquals(future, principal.getTokenExpiresAt());
+//        A token that was changed, signed with another secret, expired, or malformed doesn't verify
+        String forged = token.replace(token.split("\\.")[2], "c3Vl");
+        assertNull(tokens.verify(forged));
+        assertNull(new SignedTokens("other".getBytes(StandardCharsets.UTF_8)).verify(token));
+        assertNull(tokens.verify(tokens.issue(new Principal("userID", "sheila", "personID", 1), tokens.getEpoch())));
+        assertNull(tokens.verify("fm1.not.a.token"));
+        assertNull(tokens.verify("fm1." + token.substring(4).replace('.', '!')));
+        assertFalse(SignedTokens.isSigned("8e5c6d0f-stored-key"));
+        System.out.println("Passed.");
+    }
+
+    /**
+     * Signed token test 2
+     */
+    @Test
+    public void revokePass() throws Throwable {
+        System.out.println("Testing whether a revocation stops every token issued before it, but not the ones issued after . . . ");
+        SignedTokens tokens = new SignedTokens("secret".getBytes(StandardCharsets.UTF_8));
+        Principal principal = new Principal("userID", "sheila", "personID", System.currentTimeMillis() + 60000);
+        long epoch = tokens.getEpoch();
+        String before = tokens.issue(principal, epoch);
+        tokens.revokeAll();
+//        A token issued with an epoch read before the revocation is revoked too
+        String late = tokens.issue(principal, epoch);
+        String after = tokens.issue(principal, tokens.getEpoch());
+        assertNull(tokens.verify(before));
+        assertNull(tokens.verify(late));
+        assertNotNull(tokens.verify(after));
+        System.out.println("Passed.");
+    }
+
+    /**
+     * Signed token test 3
+     */
+    @Test
+    public void loginPass() throws Throwable {
+        System.out.println("Testing whether a signed login stores no token, yet resolves and reads the User's own Persons . . . ");
+        RegisterResponse registered = RegisterService.register(new RegisterRequest("sheila", "password", "email", "Sheila", "Parker", "f"));
+        RegisterService.register(new RegisterRequest("patrick", "password", "patrick@email", "Patrick", "Spencer", "m"));
+        LoginResponse other = login("patrick", "password");
+        assertTrue(SignedTokens.isSigned(registered.getAuthToken()));
+        LoginResponse response = login("sheila", "password");
+        String token = response.getAuthToken();
+        assertTrue(SignedTokens.isSigned(token));
+        assertEquals(registered.getPersonID(), response.getPersonID());
+        assertFalse(isStored(token));
+        assertFalse(isStored(registered.getAuthToken()));
+        Principal principal = SessionCache.getInstance().resolve(token);
+        assertNotNull(principal);
+        assertEquals("sheila", principal.getUsername());
+        assertEquals(response.getPersonID(), principal.getPersonID());
+        PersonResponse person = GetPersonService.getPerson(response.getPersonID(), token);
+        assertEquals("sheila", person.getAssociatedUsername());
+        assertEquals("Sheila", person.getFirstName());
+        assertThrows(RequestedPersonDoesNotBelongToThisUser.class, () -> GetPersonService.getPerson(other.getPersonID(), token));
+        System.out.println("Passed.");
+    }
+
+    /**
+     * Signed token test 4
+     */
+    @Test
+    public void clearFail() throws Throwable {
+        System.out.println("Testing whether a /clear revokes the signed tokens issued before it . . . ");
+        RegisterResponse response = RegisterService.register(new RegisterRequest("sheila", "password", "email", "Sheila", "Parker", "f"));
+        String token = response.getAuthToken();
+        assertNotNull(SessionCache.getInstance().resolve(token));
+        AncestryJobs.awaitAll();
+        ClearService.clear();
+        assertNull(SessionCache.getInstance().resolve(token));
+        assertThrows(InvalidAuthTokenError.class, () -> GetPersonService.getPerson(response.getPersonID(), token));
+//        A User that registers again after the /clear gets a token that verifies
+        RegisterResponse again = RegisterService.register(new RegisterRequest("sheila", "password", "email", "Sheila", "Parker", "f"));
+        assertEquals("sheila", SessionCache.getInstance().resolve(again.getAuthToken()).getUsername());
+        System.out.println("Passed.");
+    }
+
+    /**
+     * Signed token test 5
+     */
+    @Test
+    public void restartPass() throws Throwable {
+        System.out.println("Testing whether a revocation still stands once the server restarts with the same secret . . . ");
+        Path file = Files.createTempDirectory("revocations").resolve("token.revoked");
+        SignedTokens tokens = new SignedTokens("secret".getBytes(StandardCharsets.UTF_8), file);
+        Principal principal = new Principal("userID", "sheila", "personID", System.currentTimeMillis() + 60000);
+        String before = tokens.issue(principal, tokens.getEpoch());
+        tokens.revokeAll();
+        String after = tokens.issue(principal, tokens.getEpoch());
+//        The restarted server reads the revocation back, so only the token issued after it verifies
+        SignedTokens restarted = new SignedTokens("secret".getBytes(StandardCharsets.UTF_8), file);
+        assertNull(restarted.verify(before));
+        assertNotNull(restarted.verify(after));
+        assertNotNull(restarted.verify(restarted.issue(principal, restarted.getEpoch())));
+//        Without the file, the restarted server forgets the revocation
+        assertNotNull(new SignedTokens("secret".getBytes(StandardCharsets.UTF_8)).verify(before));
+        System.out.println("Passed.");
+    }
+
+    /**
+     * Signed token test 6
+     */
+    @Test
+    public void otherUserFail() throws Throwable {
+        System.out.println("Testing whether a token of an older User with the same username can't read the new User's Persons . . . ");
+        RegisterResponse response = RegisterService.register(new RegisterRequest("sheila", "password", "email", "Sheila", "Parker", "f"));
+        AncestryJobs.awaitAll();
+        SignedTokens tokens = SignedTokens.getInstance();
+        String token = tokens.issue(new Principal("oldUserID", "sheila", response.getPersonID(),
+                System.currentTimeMillis() + 60000), tokens.getEpoch());
+        assertThrows(InvalidAuthTokenError.class, () -> GetPersonService.getPerson(response.getPersonID(), token));
+        assertEquals("Sheila", GetPersonService.getPerson(response.getPersonID(), response.getAuthToken()).getFirstName());
+        System.out.println("Passed.");
+    }
+}
@@ -0,0 +1,121 @@
+package passoff;
+
+import DataAccess.Database;
+import DataAccess.StorageEngine;
+import Errors.InternalServerError;
+import Model.Event;
+import Model.Person;
+import Model.User;
+import Requests.LoadRequest;
+import Responses.Response;
+import Service.ClearService;
+import Service.CredentialHasher;
+import Service.LoadService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotSwapTests {
+
+    private Database db;
+
+    @BeforeEach
+    public void setUp() throws Throwable {
+        System.out.println("Entered setUp");
+        Database.setStorageEngine(StorageEngine.SQLITE);
+        db = new Database();
+    }
+
+    @AfterEach
+    public void tearDown() throws Throwable {
+        System.out.println("Entered tearDown");
+        System.clearProperty("familymap.swap.drainSeconds");
+        ClearService.clear();
+    }
+
+    private LoadRequest createRequest() {
+        Event event = new Event();
+        event.setEventID("eventID");
+        event.setAssociatedUsername("sheila");
+        event.setPersonID("personID");
+        event.setLatitude(1.5f);
+        event.setLongitude(-2.5f);
+        event.setCountry("country");
+        event.setCity("city");
+        event.setEventType("birth");
+        event.setYear(1990);
+        LoadRequest request = new LoadRequest();
+        request.setUsers(new User[] { new User("userID", "sheila", "password", "email",
+                "firstName", "lastName", "f", "personID") });
+        request.setPersons(new Person[] {
+                new Person("fatherID", "sheila", "fatherName", "lastName", "m", null, null, null),
+                new Person("personID", "sheila", "firstName", "lastName", "f", "fatherID", null, null) });
+        request.setEvents(new Event[] { event });
+        return request;
+    }
+
+    /**
+     * Snapshot swap test 1
+     */
+    @Test
+    public void loadSwapPass() throws Throwable {
+        System.out.println("Testing whether /load swaps in a database holding exactly the loaded data . . . ");
+        db.openConnection();
+        db.getUserStore().addUser(new User("oldID", "patrick", "password", "oldEmail",
+                "firstName", "lastName", "m", "oldPersonID"));
+        db.closeConnection(true);
+
+        Response response = LoadService.load(createRequest());
+        assertTrue(response.getSuccess());
+        assertEquals("Successfully added 1 users, 2 persons, and 1 events to the database.", response.getMessage());
+
+        db.openConnection();
+        assertFalse(db.getUserStore().usernameExists("patrick"));
+        assertTrue(CredentialHasher.verify("password", db.getUserStore().getPasswordHash("sheila")));
+        assertEquals(2, db.getPersonStore().getPersons("sheila").size());
+        assertEquals(1, db.getEventStore().getEvents("sheila").size());
+//        Only the User's own Person is attached to the User
+        assertEquals("personID", db.getPersonStore().getPersonIDByUserID("userID"));
+        assertEquals("personID", db.getPersonStore().getRootPersonIDByUsername("sheila"));
+        db.closeConnection(true);
+        System.out.println("The loaded database was swapped in!  Passed.");
+    }
+
+    /**
+     * Snapshot swap test 2
+     */
+    @Test
+    public void clearSwapPass() throws Throwable {
+        System.out.println("Testing whether /clear swaps in an empty database . . . ");
+        LoadService.load(createRequest());
+        assertTrue(ClearService.clear().getSuccess());
+        db.openConnection();
+        assertTrue(db.getUserStore().getUsers().isEmpty());
+        assertTrue(db.getPersonStore().getPersons("sheila").isEmpty());
+        assertTrue(db.getEventStore().getEvents("sheila").isEmpty());
+        db.closeConnection(true);
+        System.out.println("The empty database was swapped in!  Passed.");
+    }
+
+    /**
+     * Snapshot swap test 3
+     */
+    @Test
+    public void undrainedSwapFail() throws Throwable {
+        System.out.println("Testing whether a swap gives up when an open connection doesn't close . . . ");
+        LoadService.load(createRequest());
+        System.setProperty("familymap.swap.drainSeconds", "1");
+        db.openConnection();
+        assertThrows(InternalServerError.class, ClearService::clear);
+        assertTrue(db.getUserStore().usernameExists("sheila"));
+        db.closeConnection(true);
+//        The failed swap left the live database as it was, and new connections can be opened again
+        Database other = new Database();
+        other.openConnection();
+        assertTrue(other.getUserStore().usernameExists("sheila"));
+        other.closeConnection(true);
+        System.out.println("The live database was left as it was!  Passed.");
+    }
+}
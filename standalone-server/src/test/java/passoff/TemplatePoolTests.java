@@ -0,0 +1,123 @@
+package passoff;
+
+import Model.Event;
+import Model.Person;
+import Service.TemplatePool;
+import Service.TreeGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TemplatePoolTests {
+
+    @AfterEach
+    public void tearDown() {
+        System.out.println("Entered tearDown");
+        System.clearProperty("familymap.templates.maxGenerations");
+    }
+
+    private Person createRoot() {
+        return new Person("rootID", "sheila", "firstName", "lastName", "f", "fatherID", "motherID", null);
+    }
+
+    private void awaitReady(int generations, int ready) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30000;
+        while(TemplatePool.getReady(generations) < ready && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(TemplatePool.getReady(generations) >= ready);
+    }
+
+    /**
+     * Template pool test 1
+     */
+    @Test
+    public void stampPass() throws Throwable {
+        System.out.println("Testing whether a stamped tree is linked and moved to the child's birth year . . . ");
+        TemplatePool.warm(3);
+        awaitReady(3, 2);
+        long hits = TemplatePool.getHits();
+        TreeGenerator tree = new TreeGenerator();
+        tree.generate(createRoot(), 1900, 3);
+        assertEquals(hits + 1, TemplatePool.getHits());
+        assertEquals(14, tree.getPersons().size());
+        assertEquals(42, tree.getEvents().size());
+        Map<String, Person> persons = new HashMap<>();
+        for(Person person : tree.getPersons()) {
+            assertNull(persons.put(person.getPersonID(), person));
+            assertEquals("sheila", person.getAssociatedUsername());
+        }
+        assertEquals("motherID", persons.get("fatherID").getSpouseID());
+        assertEquals("fatherID", persons.get("motherID").getSpouseID());
+        Map<String, Integer> birthYears = new HashMap<>();
+        birthYears.put("rootID", 1900);
+        for(Event event : tree.getEvents()) {
+            assertTrue(persons.containsKey(event.getPersonID()));
+            if(event.getEventType().equals("birth")) {
+                birthYears.put(event.getPersonID(), event.getYear());
+            }
+        }
+        int lastGeneration = 0;
+        for(Person child : tree.getPersons()) {
+            if(child.getFatherID() == null) {
+                assertNull(child.getMotherID());
+                lastGeneration++;
+                continue;
+            }
+            Person father = persons.get(child.getFatherID());
+            Person mother = persons.get(child.getMotherID());
+            assertEquals(mother.getPersonID(), father.getSpouseID());
+            int age = birthYears.get(child.getPersonID()) - birthYears.get(father.getPersonID());
+            assertTrue(age >= 13 && age <= 50);
+        }
+        assertEquals(8, lastGeneration);
+        int fatherAge = 1900 - birthYears.get("fatherID");
+        assertTrue(fatherAge >= 13 && fatherAge <= 50);
+
+//        A second stamp never reuses an ID
+        TreeGenerator other = new TreeGenerator();
+        Person root = new Person("otherID", "patrick", "firstName", "lastName", "m", "otherFatherID", "otherMotherID", null);
+        other.generate(root, 2020, 3);
+        Set<String> eventIDs = new HashSet<>();
+        for(Event event : tree.getEvents()) {
+            eventIDs.add(event.getEventID());
+        }
+        for(Person person : other.getPersons()) {
+            assertFalse(persons.containsKey(person.getPersonID()));
+        }
+        for(Event event : other.getEvents()) {
+            assertTrue(eventIDs.add(event.getEventID()));
+        }
+        System.out.println("The stamped tree was linked and moved!  Passed.");
+    }
+
+    /**
+     * Template pool test 2
+     */
+    @Test
+    public void unpooledPass() throws Throwable {
+        System.out.println("Testing whether seeded and deep trees are always generated . . . ");
+        TemplatePool.warm(2);
+        awaitReady(2, 1);
+        long hits = TemplatePool.getHits();
+        long misses = TemplatePool.getMisses();
+//        A seeded tree never comes from the pool, since it has to depend on the seed alone
+        TreeGenerator seeded = new TreeGenerator(42);
+        seeded.generate(createRoot(), 2020, 2);
+        assertEquals(6, seeded.getPersons().size());
+//        A tree deeper than the most pooled generations is always generated
+        System.setProperty("familymap.templates.maxGenerations", "1");
+        TreeGenerator deep = new TreeGenerator();
+        deep.generate(createRoot(), 2020, 2);
+        assertEquals(6, deep.getPersons().size());
+        assertEquals(hits, TemplatePool.getHits());
+        assertEquals(misses, TemplatePool.getMisses());
+        System.out.println("The seeded and deep trees were generated!  Passed.");
+    }
+}
@@ -0,0 +1,151 @@
+package passoff;
+
+import DataAccess.Database;
+import DataAccess.StorageEngine;
+import DataAccess.TokenStore;
+import Model.AuthorizationToken;
+import Service.TokenSweeper;
+import Util.RandomUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenExpiryTests {
+
+    private Database db;
+
+    private void setUp(StorageEngine engine) throws Exception {
+        System.out.println("Entered setUp for the " + engine + " storage engine");
+        Database.setStorageEngine(engine);
+        db = new Database();
+        db.openConnection();
+        db.createTables();
+        db.clearTables();
+        db.closeConnection(true);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        System.out.println("Entered tearDown");
+        db.openConnection();
+        db.clearTables();
+        db.closeConnection(true);
+        Database.setStorageEngine(StorageEngine.SQLITE);
+    }
+
+    private AuthorizationToken createToken(String userID, long issuedAt, long expiresAt) {
+        AuthorizationToken token = new AuthorizationToken();
+        token.setAuthKey(RandomUtil.generateRandomString());
+        token.setUserID(userID);
+        token.setIssuedAt(issuedAt);
+        token.setExpiresAt(expiresAt);
+        return token;
+    }
+
+    /**
+     * Token expiry test 1
+     */
+    @Test
+    public void expiredTokenRejectedPass() throws Exception {
+        for(StorageEngine engine : StorageEngine.values()) {
+            setUp(engine);
+            System.out.println("Testing whether an expired authToken is rejected . . . ");
+            long now = System.currentTimeMillis();
+            AuthorizationToken live = createToken("userID", now, now + 60000);
+            AuthorizationToken expired = createToken("userID", now - 60000, now - 1);
+            AuthorizationToken unissued = createToken("userID", 0, 0);
+            db.openConnection();
+            TokenStore aStore = db.getTokenStore();
+            aStore.addAuthToken(RandomUtil.generateRandomString(), live);
+            aStore.addAuthToken(RandomUtil.generateRandomString(), expired);
+            aStore.addAuthToken(RandomUtil.generateRandomString(), unissued);
+            db.closeConnection(true);
+
+            db.openConnection();
+            aStore = db.getTokenStore();
+            assertEquals("userID", aStore.getUserID(live.getAuthKey()));
+            assertEquals(now + 60000, aStore.getAuthToken(live.getAuthKey()).getExpiresAt());
+            assertNull(aStore.getUserID(expired.getAuthKey()));
+            assertNull(aStore.getAuthToken(expired.getAuthKey()));
+            AuthorizationToken issued = aStore.getAuthToken(unissued.getAuthKey());
+            db.closeConnection(true);
+            assertNotNull(issued);
+            assertTrue(issued.getExpiresAt() > issued.getIssuedAt());
+            System.out.println("The expired authToken was rejected on the " + engine + " storage engine!  Passed.");
+            tearDown();
+        }
+    }
+
+    /**
+     * Token expiry test 2
+     */
+    @Test
+    public void evictOldestTokensPass() throws Exception {
+        for(StorageEngine engine : StorageEngine.values()) {
+            setUp(engine);
+            System.out.println("Testing whether only the newest authTokens of a User are kept . . . ");
+            long now = System.currentTimeMillis();
+            AuthorizationToken oldest = createToken("userID", now - 3000, now + 60000);
+            AuthorizationToken older = createToken("userID", now - 2000, now + 60000);
+            AuthorizationToken newer = createToken("userID", now - 1000, now + 60000);
+            AuthorizationToken other = createToken("otherID", now - 5000, now + 60000);
+            db.openConnection();
+            TokenStore aStore = db.getTokenStore();
+            aStore.addAuthToken(RandomUtil.generateRandomString(), oldest);
+            aStore.addAuthToken(RandomUtil.generateRandomString(), older);
+            aStore.addAuthToken(RandomUtil.generateRandomString(), other);
+            db.closeConnection(true);
+
+            db.openConnection();
+            aStore = db.getTokenStore();
+            aStore.addAuthToken(RandomUtil.generateRandomString(), newer);
+            List<String> evicted = aStore.evictOldestTokens("userID", 2);
+            db.closeConnection(true);
+            assertEquals(1, evicted.size());
+            assertEquals(oldest.getAuthKey(), evicted.get(0));
+
+            db.openConnection();
+            aStore = db.getTokenStore();
+            assertNull(aStore.getUserID(oldest.getAuthKey()));
+            assertEquals("userID", aStore.getUserID(older.getAuthKey()));
+            assertEquals("userID", aStore.getUserID(newer.getAuthKey()));
+            assertEquals("otherID", aStore.getUserID(other.getAuthKey()));
+            assertTrue(aStore.evictOldestTokens("userID", 2).isEmpty());
+            db.closeConnection(true);
+            System.out.println("Only the oldest authToken was evicted on the " + engine + " storage engine!  Passed.");
+            tearDown();
+        }
+    }
+
+    /**
+     * Token expiry test 3
+     */
+    @Test
+    public void sweepPass() throws Exception {
+        for(StorageEngine engine : StorageEngine.values()) {
+            setUp(engine);
+            System.out.println("Testing whether the sweeper deletes every expired authToken in chunks . . . ");
+            long now = System.currentTimeMillis();
+            AuthorizationToken live = createToken("userID", now, now + 60000);
+            db.openConnection();
+            TokenStore aStore = db.getTokenStore();
+            for(int i = 0; i < 7; i++) {
+                aStore.addAuthToken(RandomUtil.generateRandomString(), createToken("userID", now - 60000, now - 1));
+            }
+            aStore.addAuthToken(RandomUtil.generateRandomString(), live);
+            db.closeConnection(true);
+
+            assertEquals(7, TokenSweeper.sweep(now, 3));
+            assertEquals(0, TokenSweeper.sweep(now, 3));
+
+            db.openConnection();
+            assertEquals("userID", db.getTokenStore().getUserID(live.getAuthKey()));
+            db.closeConnection(true);
+            System.out.println("Every expired authToken was swept on the " + engine + " storage engine!  Passed.");
+            tearDown();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package passoff;
+
+import Cache.TreeCache;
+import Cache.UserTree;
+import Model.Event;
+import Model.Person;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TreeCacheTests {
+
+    private UserTree createTree(String username, int size) {
+        List<Person> persons = new ArrayList<Person>();
+        for(int i = 0; i < size; i++) {
+            persons.add(new Person(username + i, username, "firstName", "lastName", "f", null, null, null));
+        }
+        return new UserTree(persons, Collections.<Event>emptyList());
+    }
+
+    /**
+     * Tree cache test 1
+     */
+    @Test
+    public void readThroughPass() throws Exception {
+        System.out.println("Testing whether the tree cache only loads a tree once until it is invalidated . . . ");
+        AtomicInteger loads = new AtomicInteger();
+        TreeCache cache = new TreeCache(100, username -> {
+            loads.incrementAndGet();
+            return createTree(username, 3);
+        });
+        UserTree first = cache.getTree("sheila");
+        UserTree second = cache.getTree("sheila");
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(3, cache.getWeight());
+
+        cache.invalidate("sheila");
+        assertEquals(0, cache.getWeight());
+        assertNotSame(first, cache.getTree("sheila"));
+        assertEquals(2, loads.get());
+        System.out.println("The tree was only reloaded after the invalidation!  Passed.");
+    }
+
+    /**
+     * Tree cache test 2
+     */
+    @Test
+    public void weightEvictionPass() throws Exception {
+        System.out.println("Testing whether the tree cache evicts the least recently used trees by weight . . . ");
+        TreeCache cache = new TreeCache(10, username -> createTree(username, 4));
+        cache.getTree("a");
+        cache.getTree("b");
+        cache.getTree("a");
+        cache.getTree("c");
+        assertEquals(2, cache.getSize());
+        assertEquals(8, cache.getWeight());
+        assertEquals(1, cache.getEvictions());
+        long misses = cache.getMisses();
+        cache.getTree("a");
+        assertEquals(misses, cache.getMisses());
+        cache.getTree("b");
+        assertEquals(misses + 1, cache.getMisses());
+        System.out.println("The least recently used tree was evicted!  Passed.");
+    }
+
+    /**
+     * Tree cache test 3
+     */
+    @Test
+    public void singleFlightPass() throws Exception {
+        System.out.println("Testing whether a burst of misses for the same user only loads the tree once . . . ");
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        TreeCache cache = new TreeCache(100, username -> {
+            loads.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return createTree(username, 2);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<UserTree>> results = new ArrayList<Future<UserTree>>();
+        for(int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> cache.getTree("sheila")));
+        }
+        while(cache.getMisses() < 8) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        UserTree tree = results.get(0).get(5, TimeUnit.SECONDS);
+        for(Future<UserTree> result : results) {
+            assertSame(tree, result.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertEquals(1, loads.get());
+        System.out.println("The tree was only loaded once!  Passed.");
+    }
+
+    /**
+     * Tree cache test 4
+     */
+    @Test
+    public void staleLoadNotStoredPass() throws Exception {
+        System.out.println("Testing whether a load that overlaps an invalidation is not cached . . . ");
+        AtomicInteger loads = new AtomicInteger();
+        final TreeCache[] holder = new TreeCache[1];
+        holder[0] = new TreeCache(100, username -> {
+            if(loads.incrementAndGet() == 1) {
+                holder[0].invalidateAll();
+            }
+            return createTree(username, 2);
+        });
+        holder[0].getTree("sheila");
+        assertEquals(0, holder[0].getSize());
+        holder[0].getTree("sheila");
+        assertEquals(1, holder[0].getSize());
+        assertEquals(2, loads.get());
+        System.out.println("The stale tree was not cached!  Passed.");
+    }
+}
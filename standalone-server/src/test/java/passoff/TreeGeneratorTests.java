@@ -0,0 +1,132 @@
+package passoff;
+
+import Model.Event;
+import Model.Person;
+import Service.TreeGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TreeGeneratorTests {
+
+    private Person createRoot() {
+        return new Person("rootID", "sheila", "firstName", "lastName", "f", "fatherID", "motherID", null);
+    }
+
+    /**
+     * Tree generator test 1
+     */
+    @Test
+    public void countsPass() throws Throwable {
+        System.out.println("Testing whether every generation gets its Persons and Events . . . ");
+        for(int generations = 0; generations <= 8; generations++) {
+            TreeGenerator tree = new TreeGenerator();
+            tree.generate(createRoot(), 2020, generations);
+            assertEquals((1 << (generations + 1)) - 2, tree.getPersons().size());
+            assertEquals(6 * ((1 << generations) - 1), tree.getEvents().size());
+        }
+        System.out.println("Every generation got its Persons and Events!  Passed.");
+    }
+
+    /**
+     * Tree generator test 2
+     */
+    @Test
+    public void linksPass() throws Throwable {
+        System.out.println("Testing whether the generated Persons are linked to their children and spouses . . . ");
+        Person root = createRoot();
+        TreeGenerator tree = new TreeGenerator();
+        tree.generate(root, 2020, 4);
+        Map<String, Person> persons = new HashMap<>();
+        for(Person person : tree.getPersons()) {
+            assertNull(persons.put(person.getPersonID(), person));
+            assertEquals("sheila", person.getAssociatedUsername());
+        }
+        Map<String, Integer> birthYears = new HashMap<>();
+        birthYears.put("rootID", 2020);
+        for(Event event : tree.getEvents()) {
+            assertTrue(persons.containsKey(event.getPersonID()));
+            if(event.getEventType().equals("birth")) {
+                birthYears.put(event.getPersonID(), event.getYear());
+            }
+        }
+        int lastGeneration = 0;
+        for(Person child : tree.getPersons()) {
+            if(child.getFatherID() == null) {
+//                The last generation has no parents at all
+                assertNull(child.getMotherID());
+                lastGeneration++;
+                continue;
+            }
+            Person father = persons.get(child.getFatherID());
+            Person mother = persons.get(child.getMotherID());
+            assertEquals(mother.getPersonID(), father.getSpouseID());
+            assertEquals(father.getPersonID(), mother.getSpouseID());
+            int age = birthYears.get(child.getPersonID()) - birthYears.get(father.getPersonID());
+            assertTrue(age >= 13 && age <= 50);
+        }
+        assertEquals(16, lastGeneration);
+        assertEquals(persons.get("fatherID").getSpouseID(), "motherID");
+        System.out.println("Every generated Person was linked!  Passed.");
+    }
+
+    /**
+     * Tree generator test 3
+     */
+    @Test
+    public void seedPass() throws Throwable {
+        System.out.println("Testing whether a seed generates the same tree on any number of threads . . . ");
+        ForkJoinPool onePool = new ForkJoinPool(1);
+        ForkJoinPool manyPool = new ForkJoinPool(8);
+        try {
+            TreeGenerator one = new TreeGenerator(42, onePool);
+            TreeGenerator many = new TreeGenerator(42, manyPool);
+            Event oneBirth = new Event();
+            Event manyBirth = new Event();
+            Person oneRoot = one.generateRoot("sheila", 2020, oneBirth);
+            Person manyRoot = many.generateRoot("sheila", 2020, manyBirth);
+            assertEquals(oneRoot.getFirstName(), manyRoot.getFirstName());
+            assertEquals(oneBirth.getCity(), manyBirth.getCity());
+//            Deep enough that the branches are split across the threads
+            one.generate(oneRoot, 2020, 10);
+            many.generate(manyRoot, 2020, 10);
+            List<Person> onePersons = one.getPersons();
+            List<Person> manyPersons = many.getPersons();
+            assertEquals(onePersons.size(), manyPersons.size());
+            for(int i = 0; i < onePersons.size(); i++) {
+                assertEquals(onePersons.get(i).getFirstName(), manyPersons.get(i).getFirstName());
+                assertEquals(onePersons.get(i).getLastName(), manyPersons.get(i).getLastName());
+                assertEquals(onePersons.get(i).getGender(), manyPersons.get(i).getGender());
+            }
+            List<Event> oneEvents = one.getEvents();
+            List<Event> manyEvents = many.getEvents();
+            for(int i = 0; i < oneEvents.size(); i++) {
+                assertEquals(oneEvents.get(i).getEventType(), manyEvents.get(i).getEventType());
+                assertEquals(oneEvents.get(i).getYear(), manyEvents.get(i).getYear());
+                assertEquals(oneEvents.get(i).getCity(), manyEvents.get(i).getCity());
+                assertEquals(oneEvents.get(i).getLatitude(), manyEvents.get(i).getLatitude());
+            }
+//            The IDs are never seeded, so two fills with the same seed can't collide
+            assertNotEquals(onePersons.get(0).getPersonID(), manyPersons.get(0).getPersonID());
+            assertNotEquals(oneEvents.get(0).getEventID(), manyEvents.get(0).getEventID());
+
+//            A different seed generates a different tree
+            TreeGenerator other = new TreeGenerator(43, onePool);
+            other.generate(createRoot(), 2020, 10);
+            boolean different = false;
+            for(int i = 0; i < oneEvents.size() && !different; i++) {
+                different = oneEvents.get(i).getYear() != other.getEvents().get(i).getYear();
+            }
+            assertTrue(different);
+        } finally {
+            onePool.shutdown();
+            manyPool.shutdown();
+        }
+        System.out.println("The seed generated the same tree on every pool!  Passed.");
+    }
+}